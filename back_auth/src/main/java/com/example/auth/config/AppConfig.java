@@ -1,6 +1,9 @@
 package com.example.auth.config;
 
 
+import com.example.common.http.InterServiceHttpProperties;
+import com.example.common.http.InterServiceRestTemplates;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.security.SecurityRequirement;
@@ -35,9 +38,19 @@ public class AppConfig {
         private Map<String, String> minio;
     }
 
+    /**
+     * Настройки REST-клиента для обращений к смежным сервисам
+     */
+    private InterServiceHttpProperties http = new InterServiceHttpProperties();
+
+    /**
+     * REST-клиент для обращений к смежным сервисам.
+     * Соединения переиспользуются (keep-alive), количество одновременных запросов к одному адресу ограничено,
+     * время выполнения запросов записывается в метрики по операциям.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(MeterRegistry meterRegistry) {
+        return InterServiceRestTemplates.create(http, meterRegistry);
     }
 
     /**
@@ -0,0 +1,59 @@
+package com.example.common.http;
+
+/**
+ * Настройки REST-клиента для обращений к смежным сервисам (app.http.*)
+ */
+public class InterServiceHttpProperties {
+
+    /**
+     * Таймаут установки соединения, мс
+     */
+    private long connectTimeoutMs = 3000;
+
+    /**
+     * Таймаут чтения ответа, мс
+     */
+    private long readTimeoutMs = 60000;
+
+    /**
+     * Максимальное количество одновременных запросов к одному адресу
+     */
+    private int maxPerRoute = 64;
+
+    /**
+     * Максимальное время ожидания свободного слота адреса, мс
+     */
+    private long acquireTimeoutMs = 30000;
+
+    public long getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public void setConnectTimeoutMs(long connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    public long getReadTimeoutMs() {
+        return readTimeoutMs;
+    }
+
+    public void setReadTimeoutMs(long readTimeoutMs) {
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    public long getAcquireTimeoutMs() {
+        return acquireTimeoutMs;
+    }
+
+    public void setAcquireTimeoutMs(long acquireTimeoutMs) {
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.common.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Создание REST-клиента для обращений к смежным сервисам.
+ * Соединения переиспользуются (keep-alive), количество одновременных запросов к одному адресу ограничено,
+ * время выполнения запросов по операциям записывается в Micrometer.
+ */
+public final class InterServiceRestTemplates {
+
+    private InterServiceRestTemplates() {
+    }
+
+    /**
+     * Создать REST-клиент
+     *
+     * @param properties    настройки клиента
+     * @param meterRegistry реестр метрик
+     * @return REST-клиент
+     */
+    public static RestTemplate create(InterServiceHttpProperties properties, MeterRegistry meterRegistry) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMs()))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(properties.getReadTimeoutMs()));
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.setInterceptors(List.of(
+                new RequestMetricsInterceptor(meterRegistry),
+                new RouteLimitInterceptor(properties.getMaxPerRoute(), properties.getAcquireTimeoutMs(), meterRegistry)));
+        return restTemplate;
+    }
+}
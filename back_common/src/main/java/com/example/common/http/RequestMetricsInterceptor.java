@@ -0,0 +1,142 @@
+package com.example.common.http;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Записывает время выполнения запросов к смежным сервисам по логическим операциям
+ * (таймер interservice.http.requests) и размер ответов (interservice.http.response.size).
+ * Операция определяется последним значимым сегментом пути (например, get-file-by-params),
+ * время учитывается до закрытия ответа, то есть вместе с чтением тела.
+ */
+public class RequestMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    static final String REQUESTS_METRIC = "interservice.http.requests";
+    static final String RESPONSE_SIZE_METRIC = "interservice.http.response.size";
+
+    /**
+     * Сегменты пути, которые являются идентификаторами, а не названием операции
+     */
+    private static final Pattern IDENTIFIER = Pattern.compile("\\d+|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String operation = operation(request.getURI());
+        String method = request.getMethod().name();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            HttpStatusCode status = response.getStatusCode();
+            long contentLength = response.getHeaders().getContentLength();
+            if (contentLength >= 0) {
+                DistributionSummary.builder(RESPONSE_SIZE_METRIC)
+                        .baseUnit("bytes")
+                        .tag("operation", operation)
+                        .register(meterRegistry)
+                        .record(contentLength);
+            }
+            return new MeasuredResponse(response, () -> sample.stop(timer(operation, method, outcome(status))));
+        } catch (IOException | RuntimeException e) {
+            sample.stop(timer(operation, method, "IO_ERROR"));
+            throw e;
+        }
+    }
+
+    private Timer timer(String operation, String method, String outcome) {
+        return Timer.builder(REQUESTS_METRIC)
+                .description("Время выполнения запросов к смежным сервисам, включая чтение ответа")
+                .tag("operation", operation)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static String outcome(HttpStatusCode status) {
+        if (status.is5xxServerError()) {
+            return "SERVER_ERROR";
+        }
+        if (status.is4xxClientError()) {
+            return "CLIENT_ERROR";
+        }
+        return "SUCCESS";
+    }
+
+    static String operation(URI uri) {
+        String path = uri.getPath();
+        if (path != null) {
+            String[] segments = path.split("/");
+            for (int i = segments.length - 1; i >= 0; i--) {
+                if (!segments[i].isEmpty() && !IDENTIFIER.matcher(segments[i]).matches()) {
+                    return segments[i];
+                }
+            }
+        }
+        return uri.getHost();
+    }
+
+    /**
+     * Ответ, фиксирующий время операции при закрытии
+     */
+    private static final class MeasuredResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Runnable onClose;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        private MeasuredResponse(ClientHttpResponse delegate, Runnable onClose) {
+            this.delegate = delegate;
+            this.onClose = onClose;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (recorded.compareAndSet(false, true)) {
+                    onClose.run();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.common.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограничивает количество одновременных запросов (и, соответственно, открытых соединений) к одному адресу.
+ * Слот освобождается при закрытии ответа, то есть после чтения тела.
+ * Занятые слоты (interservice.http.route.in-flight), время ожидания слота (interservice.http.route.acquire)
+ * и отказы по таймауту (interservice.http.route.rejected) записываются в Micrometer.
+ */
+public class RouteLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private final ConcurrentMap<String, Route> routes = new ConcurrentHashMap<>();
+    private final int maxPerRoute;
+    private final long acquireTimeoutMs;
+    private final MeterRegistry meterRegistry;
+
+    public RouteLimitInterceptor(int maxPerRoute, long acquireTimeoutMs, MeterRegistry meterRegistry) {
+        this.maxPerRoute = maxPerRoute;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String address = address(request.getURI());
+        Route route = routes.computeIfAbsent(address, this::createRoute);
+        long startTime = System.nanoTime();
+        try {
+            boolean acquired = route.limit().tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+            route.acquireTimer().record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                route.rejected().increment();
+                throw new IOException("Нет свободных соединений к " + address + " за " + acquireTimeoutMs + " мс");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Ожидание соединения к " + address + " прервано");
+        }
+
+        try {
+            return new ReleasingResponse(execution.execute(request, body), route.limit());
+        } catch (IOException | RuntimeException e) {
+            route.limit().release();
+            throw e;
+        }
+    }
+
+    private Route createRoute(String address) {
+        Semaphore limit = new Semaphore(maxPerRoute);
+        Gauge.builder("interservice.http.route.in-flight", limit, semaphore -> maxPerRoute - semaphore.availablePermits())
+                .description("Количество выполняемых запросов к адресу")
+                .tag("route", address)
+                .register(meterRegistry);
+        Timer acquireTimer = Timer.builder("interservice.http.route.acquire")
+                .description("Время ожидания свободного слота адреса")
+                .tag("route", address)
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("interservice.http.route.rejected")
+                .description("Запросы, не дождавшиеся свободного слота адреса")
+                .tag("route", address)
+                .register(meterRegistry);
+        return new Route(limit, acquireTimer, rejected);
+    }
+
+    private static String address(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+
+    /**
+     * Ограничение и метрики одного адреса
+     */
+    private record Route(Semaphore limit, Timer acquireTimer, Counter rejected) {
+    }
+
+    /**
+     * Ответ, освобождающий слот адреса при закрытии
+     */
+    private static final class ReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Semaphore limit;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleasingResponse(ClientHttpResponse delegate, Semaphore limit) {
+            this.delegate = delegate;
+            this.limit = limit;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    limit.release();
+                }
+            }
+        }
+    }
+}
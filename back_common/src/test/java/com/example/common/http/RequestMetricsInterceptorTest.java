@@ -0,0 +1,81 @@
+package com.example.common.http;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RequestMetricsInterceptorTest {
+
+    @Test
+    void operationSkipsIdentifiers() {
+        assertEquals("get-file-by-params",
+                RequestMetricsInterceptor.operation(URI.create("http://minio:8080/api/files/get-file-by-params?fileName=a")));
+        assertEquals("get-by-profile-id",
+                RequestMetricsInterceptor.operation(URI.create("http://profile/api/get-by-profile-id/123")));
+        assertEquals("documents",
+                RequestMetricsInterceptor.operation(URI.create("http://profile/api/documents/0d9c7a4e-4f7b-4a57-9a0e-3b1e0f2c9d11")));
+        assertEquals("profile", RequestMetricsInterceptor.operation(URI.create("http://profile")));
+    }
+
+    @Test
+    void recordsTimerWhenResponseIsClosed() throws IOException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RequestMetricsInterceptor interceptor = new RequestMetricsInterceptor(registry);
+
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getURI()).thenReturn(URI.create("http://minio:8080/api/files/get-files-batch"));
+        when(request.getMethod()).thenReturn(HttpMethod.POST);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentLength(42);
+        ClientHttpResponse response = mock(ClientHttpResponse.class);
+        when(response.getStatusCode()).thenReturn(HttpStatus.OK);
+        when(response.getHeaders()).thenReturn(headers);
+
+        ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+        when(execution.execute(any(), any())).thenReturn(response);
+
+        ClientHttpResponse measured = interceptor.intercept(request, new byte[0], execution);
+        assertNull(registry.find(RequestMetricsInterceptor.REQUESTS_METRIC).timer());
+
+        measured.close();
+        measured.close();
+
+        Timer timer = registry.get(RequestMetricsInterceptor.REQUESTS_METRIC)
+                .tag("operation", "get-files-batch")
+                .tag("method", "POST")
+                .tag("outcome", "SUCCESS")
+                .timer();
+        assertEquals(1, timer.count());
+        assertEquals(42, registry.get(RequestMetricsInterceptor.RESPONSE_SIZE_METRIC).summary().totalAmount());
+        verify(response, times(2)).close();
+    }
+
+    @Test
+    void recordsIoErrors() throws IOException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RequestMetricsInterceptor interceptor = new RequestMetricsInterceptor(registry);
+
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getURI()).thenReturn(URI.create("http://minio:8080/api/files/get-file-by-params"));
+        when(request.getMethod()).thenReturn(HttpMethod.GET);
+        ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+        when(execution.execute(any(), any())).thenThrow(new IOException("connection refused"));
+
+        assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], execution));
+        assertEquals(1, registry.get(RequestMetricsInterceptor.REQUESTS_METRIC).tag("outcome", "IO_ERROR").timer().count());
+    }
+}
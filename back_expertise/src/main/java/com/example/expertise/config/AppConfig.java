@@ -1,8 +1,13 @@
 package com.example.expertise.config;
 
+import com.example.common.http.InterServiceHttpProperties;
+import com.example.common.http.InterServiceRestTemplates;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
@@ -11,6 +16,7 @@ import org.springframework.web.client.RestTemplate;
 import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Общая конфигурация приложения
@@ -34,9 +40,19 @@ public class AppConfig {
         private Map<String, String> minio;
     }
 
+    /**
+     * Настройки REST-клиента для обращений к смежным сервисам
+     */
+    private InterServiceHttpProperties http = new InterServiceHttpProperties();
+
+    /**
+     * REST-клиент для обращений к смежным сервисам.
+     * Соединения переиспользуются (keep-alive), количество одновременных запросов к одному адресу ограничено,
+     * время выполнения запросов записывается в метрики по операциям.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
+    public RestTemplate restTemplate(MeterRegistry meterRegistry) {
+        RestTemplate restTemplate = InterServiceRestTemplates.create(http, meterRegistry);
         restTemplate.getMessageConverters().add(new ByteArrayHttpMessageConverter());
         return restTemplate;
     }
@@ -48,6 +64,58 @@ public class AppConfig {
         executor.setMaxPoolSize(10);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("PhotoUpload-");
+        executor.setTaskDecorator(new RequestContextTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Пул виртуальных потоков для блокирующих обращений к смежным сервисам, используется через IoExecutor
+     */
+    @Bean("ioExecutor")
+    public SimpleAsyncTaskExecutor ioExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Io-");
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(new RequestContextTaskDecorator());
+        executor.setTaskTerminationTimeout(10_000);
+        return executor;
+    }
+
+    @Bean("generationExecutor")
+    public Executor generationExecutor(@Value("${app.generation.workers:2}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(0); // количество задач ограничивает GenerationJobWorker
+        executor.setThreadNamePrefix("ExpertiseGeneration-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean("rasterExecutor")
+    public Executor rasterExecutor(@Value("${app.rasterization.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 4);
+        // При переполнении очереди страницы рендерит вызывающий поток - естественное ограничение нагрузки
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("PdfRaster-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Пул фонового разбора копий шаблонов экспертиз, отдельный от пулов обработки запросов.
+     * При переполнении очереди копия не готовится заранее и разбирается при следующем запросе
+     */
+    @Bean("templateExecutor")
+    public Executor templateExecutor(@Value("${app.template-cache.refill-threads:1}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(16);
+        executor.setThreadNamePrefix("TemplateRefill-");
         executor.initialize();
         return executor;
     }
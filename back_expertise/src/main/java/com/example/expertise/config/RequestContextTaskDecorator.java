@@ -0,0 +1,46 @@
+package com.example.expertise.config;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+
+/**
+ * Передает контекст вызывающего потока в задачи пулов потоков: атрибуты запроса (в том числе токен авторизации
+ * для обращений к смежным сервисам) и MDC (идентификаторы запроса и трассировки в логах).
+ * После выполнения задачи восстанавливает прежний контекст потока.
+ */
+public class RequestContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+
+        return () -> {
+            RequestAttributes previousAttributes = RequestContextHolder.getRequestAttributes();
+            Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            apply(requestAttributes, mdcContext);
+            try {
+                runnable.run();
+            } finally {
+                apply(previousAttributes, previousMdc);
+            }
+        };
+    }
+
+    private void apply(RequestAttributes requestAttributes, Map<String, String> mdcContext) {
+        if (requestAttributes != null) {
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+        } else {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        if (mdcContext != null) {
+            MDC.setContextMap(mdcContext);
+        } else {
+            MDC.clear();
+        }
+    }
+}
@@ -2,7 +2,10 @@ package com.example.expertise.controller;
 
 import com.example.expertise.dto.checklist.ChecklistInstanceDto;
 import com.example.expertise.dto.checklist.ChecklistTemplateInfoDto;
+import com.example.expertise.dto.checklist.ChecklistUploadCompleteDto;
+import com.example.expertise.dto.checklist.ChecklistUploadSessionDto;
 import com.example.expertise.dto.checklist.CreateChecklistInstanceDto;
+import com.example.expertise.integration.minio.UploadTarget;
 import com.example.expertise.model.checklist.ChecklistTemplate;
 import com.example.expertise.services.expertise.checklists.ChecklistsService;
 import jakarta.validation.Valid;
@@ -93,6 +96,33 @@ public class ChecklistController {
         return ResponseEntity.ok(checklistsService.deleteInstanceFile(name, bucket, instanceId));
     }
 
+    /**
+     * Получить ссылки для загрузки файлов чек-листа напрямую в хранилище.
+     * После загрузки файлы регистрируются запросом /checklist-instance/{id}/complete-upload
+     *
+     * @param id  идентификатор экземпляра чек-листа
+     * @param dto ключ поля и исходные имена файлов
+     * @return ссылки для загрузки (PUT)
+     */
+    @PostMapping("/checklist-instance/{id}/upload-session")
+    public ResponseEntity<List<UploadTarget>> createUploadSession(@PathVariable UUID id,
+                                                                  @RequestBody @Valid ChecklistUploadSessionDto dto) {
+        return ResponseEntity.ok(checklistsService.createFileUploadTargets(id, dto));
+    }
+
+    /**
+     * Зарегистрировать файлы, загруженные напрямую в хранилище
+     *
+     * @param id  идентификатор экземпляра чек-листа
+     * @param dto ключ поля и загруженные файлы
+     * @return экземпляр чек-листа
+     */
+    @PostMapping("/checklist-instance/{id}/complete-upload")
+    public ResponseEntity<ChecklistInstanceDto> completeUpload(@PathVariable UUID id,
+                                                               @RequestBody @Valid ChecklistUploadCompleteDto dto) {
+        return ResponseEntity.ok(checklistsService.completeFileUploads(id, dto));
+    }
+
     /**
      * Удалить экземпляр чек-листа и связанные с ним файлы
      *
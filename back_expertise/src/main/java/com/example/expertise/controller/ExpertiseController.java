@@ -5,10 +5,15 @@ import com.example.expertise.dto.expertise.ExpertiseResponseDto;
 import com.example.expertise.model.expertise.Expertise;
 import com.example.expertise.services.expertise.ExpertiseService;
 import jakarta.validation.Valid;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -75,15 +80,24 @@ public class ExpertiseController {
     }
 
     /**
-     * Генерирует финальный файл экспертизы
+     * Генерирует финальный файл экспертизы синхронно.
+     * Документ заполняется в потоке запроса, а сериализуется сразу в ответ без промежуточного буфера.
+     * Для больших экспертиз следует использовать очередь заданий /api/expertise/generation-job
      *
      * @param expertiseId идентификатор экспертизы
      * @param mapScreen   скриншот карты объекта экспертизы
      * @return финальный файл экспертизы .docx
      */
     @PostMapping("/generate-final-expertise-file")
-    public ResponseEntity<byte[]> generateFinalExpertiseFile(@RequestParam("expertise_id") String expertiseId,
-                                                             @RequestPart("map_screen") MultipartFile mapScreen) {
-        return ResponseEntity.ok(expertiseService.generateExpertiseFile(UUID.fromString(expertiseId), mapScreen));
+    public ResponseEntity<StreamingResponseBody> generateFinalExpertiseFile(@RequestParam("expertise_id") String expertiseId,
+                                                                            @RequestPart("map_screen") MultipartFile mapScreen) throws IOException {
+        WordprocessingMLPackage document = expertiseService.generateExpertiseDocument(UUID.fromString(expertiseId), mapScreen.getBytes());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(GenerationJobController.DOCX_MEDIA_TYPE);
+        headers.setContentDisposition(ContentDisposition.attachment().filename("expertise.docx").build());
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(outputStream -> expertiseService.writeExpertiseDocument(document, outputStream));
     }
 }
@@ -1,8 +1,11 @@
 package com.example.expertise.controller;
 
 import com.example.expertise.dto.expertise.AnswerDto;
+import com.example.expertise.dto.expertise.ConclusionTaskDto;
 import com.example.expertise.dto.expertise.ExpertiseQuestionDto;
+import com.example.expertise.dto.expertise.PhotoUploadSlotDto;
 import com.example.expertise.model.expertise.ExpertiseQuestion;
+import com.example.expertise.services.expertise.ConclusionTaskService;
 import com.example.expertise.services.expertise.ExpertiseQuestionService;
 import com.example.expertise.util.mappers.ChecklistInstanceMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -11,6 +14,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -20,13 +24,16 @@ public class ExpertiseQuestionController {
     private final ExpertiseQuestionService expertiseQuestionService;
     private final ChecklistInstanceMapper checklistInstanceMapper;
     private final ObjectMapper objectMapper;
+    private final ConclusionTaskService conclusionTaskService;
 
     public ExpertiseQuestionController(ExpertiseQuestionService expertiseQuestionService,
                                        ChecklistInstanceMapper checklistInstanceMapper,
-                                       ObjectMapper objectMapper) {
+                                       ObjectMapper objectMapper,
+                                       ConclusionTaskService conclusionTaskService) {
         this.expertiseQuestionService = expertiseQuestionService;
         this.checklistInstanceMapper = checklistInstanceMapper;
         this.objectMapper = objectMapper;
+        this.conclusionTaskService = conclusionTaskService;
     }
 
     /**
@@ -65,6 +72,57 @@ public class ExpertiseQuestionController {
         return ResponseEntity.ok(new ExpertiseQuestionDto(question, checklistInstanceMapper, objectMapper));
     }
 
+    /**
+     * Повторно сгенерировать вывод по ответу на вопрос экспертизы.
+     * Вывод формируется асинхронно, состояние доступно через /conclusion-status
+     *
+     * @param questionId идентификатор вопроса экспертизы
+     * @return 200 OK с состоянием нового задания
+     */
+    @PostMapping("/regenerate-conclusion/{questionId}")
+    public ResponseEntity<ConclusionTaskDto> regenerateConclusion(@PathVariable UUID questionId) {
+        expertiseQuestionService.regenerateConclusion(questionId);
+        return ResponseEntity.ok(conclusionTaskService.getLatestTask(questionId));
+    }
+
+    /**
+     * Получить состояние генерации вывода по последнему ответу на вопрос экспертизы
+     *
+     * @param questionId идентификатор вопроса экспертизы
+     * @return 200 OK с состоянием задания и выводом, если он сформирован
+     */
+    @GetMapping("/conclusion-status/{questionId}")
+    public ResponseEntity<ConclusionTaskDto> getConclusionStatus(@PathVariable UUID questionId) {
+        return ResponseEntity.ok(conclusionTaskService.getLatestTask(questionId));
+    }
+
+    /**
+     * Получить ссылки для загрузки фото ответа напрямую в хранилище.
+     * Фото загружаются клиентом методом PUT по выданным ссылкам, после чего загрузка подтверждается
+     * через /complete-photo-upload.
+     *
+     * @param questionId идентификатор вопроса экспертизы
+     * @param count      количество фото
+     * @return 200 OK с идентификаторами фото и ссылками для загрузки
+     */
+    @PostMapping("/photo-upload-session")
+    public ResponseEntity<List<PhotoUploadSlotDto>> createPhotoUploadSession(@RequestParam UUID questionId, @RequestParam int count) {
+        return ResponseEntity.ok(expertiseQuestionService.createPhotoUploadSlots(questionId, count));
+    }
+
+    /**
+     * Подтвердить загрузку фото ответа напрямую в хранилище
+     *
+     * @param questionId идентификатор вопроса экспертизы
+     * @param photoIds   идентификаторы загруженных фото
+     * @return 200 OK с обновлённым DTO вопроса
+     */
+    @PostMapping("/complete-photo-upload/{questionId}")
+    public ResponseEntity<ExpertiseQuestionDto> completePhotoUpload(@PathVariable UUID questionId, @RequestBody List<UUID> photoIds) {
+        ExpertiseQuestion question = expertiseQuestionService.completePhotoUploads(questionId, photoIds);
+        return ResponseEntity.ok(new ExpertiseQuestionDto(question, checklistInstanceMapper, objectMapper));
+    }
+
     /**
      * Удалить фото вопроса ответа экспертизы
      *
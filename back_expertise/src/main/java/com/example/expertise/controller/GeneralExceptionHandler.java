@@ -1,7 +1,10 @@
 package com.example.expertise.controller;
 
+import com.example.expertise.exceptions.ConclusionTaskNotFoundException;
 import com.example.expertise.exceptions.ExpertiseNotFoundException;
 import com.example.expertise.exceptions.ExpertiseQuestionNotFoundException;
+import com.example.expertise.exceptions.GenerationJobNotFoundException;
+import com.example.expertise.exceptions.UnsupportedChecklistTemplateException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -35,6 +38,39 @@ public class GeneralExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("ExpertiseQuestionNotFoundException: " + e.getMessage());
     }
 
+    /**
+     * Обработка ошибки, если задание на генерацию файла экспертизы не найдено
+     *
+     * @param e - ошибка
+     * @return ответ с сообщением об ошибке
+     */
+    @ExceptionHandler(GenerationJobNotFoundException.class)
+    public ResponseEntity<String> handleGenerationJobNotFoundException(GenerationJobNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("GenerationJobNotFoundException: " + e.getMessage());
+    }
+
+    /**
+     * Обработка ошибки, если задание на генерацию вывода по ответу не найдено
+     *
+     * @param e - ошибка
+     * @return ответ с сообщением об ошибке
+     */
+    @ExceptionHandler(ConclusionTaskNotFoundException.class)
+    public ResponseEntity<String> handleConclusionTaskNotFoundException(ConclusionTaskNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("ConclusionTaskNotFoundException: " + e.getMessage());
+    }
+
+    /**
+     * Обработка ошибки, если для шаблона чек-листа нет обработчика файлов
+     *
+     * @param e - ошибка
+     * @return ответ с сообщением об ошибке
+     */
+    @ExceptionHandler(UnsupportedChecklistTemplateException.class)
+    public ResponseEntity<String> handleUnsupportedChecklistTemplateException(UnsupportedChecklistTemplateException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("UnsupportedChecklistTemplateException: " + e.getMessage());
+    }
+
     /**
      * Обработка общей ошибки
      *
@@ -0,0 +1,85 @@
+package com.example.expertise.controller;
+
+import com.example.expertise.dto.expertise.GenerationJobDto;
+import com.example.expertise.model.expertise.ExpertiseGenerationJob;
+import com.example.expertise.services.expertise.GenerationJobService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.UUID;
+
+/**
+ * API Контроллер для асинхронной генерации итогового файла экспертизы
+ */
+@RestController
+@RequestMapping("/api/expertise/generation-job")
+public class GenerationJobController {
+
+    static final MediaType DOCX_MEDIA_TYPE =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.wordprocessingml.document");
+
+    private final GenerationJobService generationJobService;
+
+    public GenerationJobController(GenerationJobService generationJobService) {
+        this.generationJobService = generationJobService;
+    }
+
+    /**
+     * Ставит в очередь генерацию финального файла экспертизы
+     *
+     * @param expertiseId идентификатор экспертизы
+     * @param mapScreen   скриншот карты объекта экспертизы
+     * @return 202 Accepted с состоянием задания
+     */
+    @PostMapping("/submit")
+    public ResponseEntity<GenerationJobDto> submitJob(@RequestParam("expertise_id") UUID expertiseId,
+                                                      @RequestPart("map_screen") MultipartFile mapScreen) {
+        return ResponseEntity.accepted().body(generationJobService.submitJob(expertiseId, mapScreen));
+    }
+
+    /**
+     * Получить состояние задания
+     *
+     * @param jobId идентификатор задания
+     * @return 200 OK
+     */
+    @GetMapping("/get/{jobId}")
+    public ResponseEntity<GenerationJobDto> getJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(generationJobService.getJob(jobId));
+    }
+
+    /**
+     * Скачать итоговый файл выполненного задания.
+     * Состояние задания проверяется до начала ответа, сам файл передается потоком из MinIO
+     *
+     * @param jobId идентификатор задания
+     * @return финальный файл экспертизы .docx
+     */
+    @GetMapping("/download/{jobId}")
+    public ResponseEntity<StreamingResponseBody> downloadResult(@PathVariable UUID jobId) {
+        ExpertiseGenerationJob job = generationJobService.getCompletedJob(jobId);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(DOCX_MEDIA_TYPE);
+        headers.setContentDisposition(ContentDisposition.attachment().filename("expertise.docx").build());
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(outputStream -> generationJobService.writeJobResult(job, outputStream));
+    }
+
+    /**
+     * Отменить задание
+     *
+     * @param jobId идентификатор задания
+     * @return 200 OK с состоянием задания
+     */
+    @PostMapping("/cancel/{jobId}")
+    public ResponseEntity<GenerationJobDto> cancelJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(generationJobService.cancelJob(jobId));
+    }
+}
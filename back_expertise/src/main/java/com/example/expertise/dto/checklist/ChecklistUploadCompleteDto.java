@@ -0,0 +1,44 @@
+package com.example.expertise.dto.checklist;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO подтверждения прямой загрузки файлов чек-листа в хранилище
+ */
+@Data
+public class ChecklistUploadCompleteDto {
+
+    /**
+     * Ключ поля с файлами в данных чек-листа (помещение__параметр__бакет)
+     */
+    @JsonProperty("file_key")
+    @NotBlank(message = "Не указан ключ поля с файлами")
+    private String fileKey;
+
+    /**
+     * Загруженные файлы
+     */
+    @JsonProperty("files")
+    @NotEmpty(message = "Не указаны загруженные файлы")
+    private List<@Valid UploadedFile> files;
+
+    /**
+     * Загруженный файл
+     */
+    @Data
+    public static class UploadedFile {
+
+        /**
+         * Имя файла в хранилище, выданное при запросе ссылок
+         */
+        @JsonProperty("object_name")
+        @NotBlank(message = "Не указано имя файла")
+        private String objectName;
+    }
+}
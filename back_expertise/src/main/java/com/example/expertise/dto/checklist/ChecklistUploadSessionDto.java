@@ -0,0 +1,29 @@
+package com.example.expertise.dto.checklist;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO запроса ссылок для прямой загрузки файлов чек-листа в хранилище
+ */
+@Data
+public class ChecklistUploadSessionDto {
+
+    /**
+     * Ключ поля с файлами в данных чек-листа (помещение__параметр__бакет)
+     */
+    @JsonProperty("file_key")
+    @NotBlank(message = "Не указан ключ поля с файлами")
+    private String fileKey;
+
+    /**
+     * Исходные имена загружаемых файлов (используются для определения расширения)
+     */
+    @JsonProperty("file_names")
+    @NotEmpty(message = "Не указаны загружаемые файлы")
+    private List<String> fileNames;
+}
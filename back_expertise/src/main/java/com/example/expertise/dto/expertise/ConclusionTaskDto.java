@@ -0,0 +1,34 @@
+package com.example.expertise.dto.expertise;
+
+import com.example.expertise.enums.ConclusionTaskStatus;
+import com.example.expertise.model.expertise.AnswerConclusionTask;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO для представления состояния генерации вывода по ответу на вопрос экспертизы
+ */
+@Data
+public class ConclusionTaskDto {
+    private UUID id;
+    private UUID questionId;
+    private ConclusionTaskStatus status;
+    private String answerConclusion;
+    private String errorMessage;
+    private int attempts;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+
+    public ConclusionTaskDto(AnswerConclusionTask task, String answerConclusion) {
+        this.id = task.getId();
+        this.questionId = task.getQuestionId();
+        this.status = task.getStatus();
+        this.answerConclusion = answerConclusion;
+        this.errorMessage = task.getErrorMessage();
+        this.attempts = task.getAttempts();
+        this.createdAt = task.getCreatedAt();
+        this.finishedAt = task.getFinishedAt();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.expertise.dto.expertise;
+
+import com.example.expertise.enums.GenerationJobStatus;
+import com.example.expertise.model.expertise.ExpertiseGenerationJob;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO для представления состояния задания на генерацию файла экспертизы
+ */
+@Data
+public class GenerationJobDto {
+    private UUID id;
+    private UUID expertiseId;
+    private GenerationJobStatus status;
+    private String errorMessage;
+    private int attempts;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public GenerationJobDto(ExpertiseGenerationJob job) {
+        this.id = job.getId();
+        this.expertiseId = job.getExpertiseId();
+        this.status = job.getStatus();
+        this.errorMessage = job.getErrorMessage();
+        this.attempts = job.getAttempts();
+        this.createdAt = job.getCreatedAt();
+        this.startedAt = job.getStartedAt();
+        this.finishedAt = job.getFinishedAt();
+    }
+}
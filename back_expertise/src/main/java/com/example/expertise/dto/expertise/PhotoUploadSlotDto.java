@@ -0,0 +1,36 @@
+package com.example.expertise.dto.expertise;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * DTO для прямой загрузки фотографии ответа в хранилище.
+ * Клиент загружает фото методом PUT по uploadUrl, затем подтверждает загрузку идентификатором фото.
+ */
+@Data
+@AllArgsConstructor
+public class PhotoUploadSlotDto {
+
+    /**
+     * Идентификатор фотографии
+     */
+    private UUID photoId;
+
+    /**
+     * Путь к файлу фотографии в хранилище
+     */
+    private String filePath;
+
+    /**
+     * Ссылка для загрузки фотографии методом PUT
+     */
+    private String uploadUrl;
+
+    /**
+     * Время окончания действия ссылки
+     */
+    private Instant expiresAt;
+}
@@ -0,0 +1,15 @@
+package com.example.expertise.enums;
+
+/**
+ * Статусы задания на генерацию вывода по ответу на вопрос экспертизы
+ */
+public enum ConclusionTaskStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    /**
+     * Ответ изменен или вывод задан вручную до завершения задания
+     */
+    SUPERSEDED
+}
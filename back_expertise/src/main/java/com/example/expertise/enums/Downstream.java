@@ -0,0 +1,28 @@
+package com.example.expertise.enums;
+
+/**
+ * Смежные сервисы, к которым выполняются блокирующие обращения из пула ввода-вывода.
+ * Для каждого задано ограничение одновременных обращений по умолчанию,
+ * переопределяется свойством app.io.limits.{name}, например app.io.limits.minio
+ */
+public enum Downstream {
+    MINIO("minio", 16),
+    PROFILE("profile", 8),
+    GIGACHAT("gigachat", 4);
+
+    private final String name;
+    private final int defaultLimit;
+
+    Downstream(String name, int defaultLimit) {
+        this.name = name;
+        this.defaultLimit = defaultLimit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDefaultLimit() {
+        return defaultLimit;
+    }
+}
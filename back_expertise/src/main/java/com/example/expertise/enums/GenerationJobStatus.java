@@ -0,0 +1,12 @@
+package com.example.expertise.enums;
+
+/**
+ * Статусы задания на генерацию итогового файла экспертизы
+ */
+public enum GenerationJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
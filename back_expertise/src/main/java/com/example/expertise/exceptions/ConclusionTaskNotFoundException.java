@@ -0,0 +1,10 @@
+package com.example.expertise.exceptions;
+
+/**
+ * Ошибка в случае, если задание на генерацию вывода по ответу не найдено
+ */
+public class ConclusionTaskNotFoundException extends IllegalArgumentException {
+    public ConclusionTaskNotFoundException() {
+        super("Conclusion task Not Found");
+    }
+}
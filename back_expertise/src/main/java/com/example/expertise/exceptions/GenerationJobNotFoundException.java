@@ -0,0 +1,10 @@
+package com.example.expertise.exceptions;
+
+/**
+ * Ошибка в случае, если задание на генерацию файла экспертизы не найдено
+ */
+public class GenerationJobNotFoundException extends IllegalArgumentException {
+    public GenerationJobNotFoundException() {
+        super("Generation job Not Found");
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.expertise.exceptions;
+
+/**
+ * Ошибка в случае, если для шаблона чек-листа нет обработчика файлов
+ */
+public class UnsupportedChecklistTemplateException extends IllegalArgumentException {
+    public UnsupportedChecklistTemplateException(String templateName) {
+        super("Загрузка файлов не поддерживается для чек-листа " + templateName);
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.util.UriComponents;
@@ -59,17 +60,22 @@ public class IntegrationHelper {
     }
 
     /**
-     * Получить текущий токен авторизации
+     * Получить текущий токен авторизации.
+     * Для фоновых задач токен берется из {@link TokenRequestAttributes}
      *
      * @return токен авторизации
      */
     public String getTokenFromRequest() {
-        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
         if (attributes == null) {
             throw new IllegalStateException("Request attributes not found");
         }
 
-        String authorizationHeader = attributes.getRequest().getHeader("Authorization");
+        if (attributes instanceof TokenRequestAttributes tokenAttributes) {
+            return tokenAttributes.getToken();
+        }
+
+        String authorizationHeader = ((ServletRequestAttributes) attributes).getRequest().getHeader("Authorization");
         if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
             throw new IllegalStateException("Authorization header is missing or invalid: " + authorizationHeader);
         }
@@ -91,7 +97,8 @@ public class IntegrationHelper {
     public  <T> ResponseEntity<T> executeRequest(String url, HttpMethod method, HttpEntity<?> requestEntity, Class<T> responseType, String errorContext) {
         try {
             ResponseEntity<T> response = restTemplate.exchange(url, method, requestEntity, responseType);
-            if (!response.getStatusCode().is2xxSuccessful()) {
+            // 304 допустим для условных запросов (If-None-Match)
+            if (!response.getStatusCode().is2xxSuccessful() && !response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
                 String errorMsg = String.format("Ошибка при выполнении запроса [%s]: статус %s", errorContext, response.getStatusCode());
                 log.error(errorMsg);
                 throw new RuntimeException(errorMsg);
@@ -112,4 +119,36 @@ public class IntegrationHelper {
         }
     }
 
+    /**
+     * Выполнить запрос и прочитать тело ответа потоком, без промежуточного буфера
+     *
+     * @param url           URL запроса
+     * @param method        HTTP-метод запроса
+     * @param requestEntity Запрос
+     * @param handler       Обработчик тела ответа
+     * @param errorContext  Контекст ошибки
+     * @param <T>           Тип результата обработки
+     * @return Результат обработки тела ответа
+     */
+    public <T> T executeStreamRequest(String url, HttpMethod method, HttpEntity<?> requestEntity,
+                                      ResponseStreamHandler<T> handler, String errorContext) {
+        try {
+            return restTemplate.execute(url, method,
+                    restTemplate.httpEntityCallback(requestEntity),
+                    response -> handler.handle(response.getBody()));
+        } catch (HttpClientErrorException e) {
+            String errorMsg = String.format("Клиентская ошибка [%s]: %s - %s", errorContext, e.getStatusCode(), e.getResponseBodyAsString());
+            log.error(errorMsg, e);
+            throw new RuntimeException(errorMsg, e);
+        } catch (HttpServerErrorException e) {
+            String errorMsg = String.format("Серверная ошибка [%s]: %s", errorContext, e.getStatusCode());
+            log.error(errorMsg, e);
+            throw new RuntimeException(errorMsg, e);
+        } catch (RestClientException e) {
+            String errorMsg = String.format("Неизвестная ошибка [%s]: %s", errorContext, e.getMessage());
+            log.error(errorMsg, e);
+            throw new RuntimeException(errorMsg, e);
+        }
+    }
+
 }
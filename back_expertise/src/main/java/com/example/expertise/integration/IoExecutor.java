@@ -0,0 +1,95 @@
+package com.example.expertise.integration;
+
+import com.example.expertise.enums.Downstream;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Общий пул для блокирующих обращений к смежным сервисам (MinIO, профили, GigaChat).
+ * <p>
+ * Задачи выполняются в виртуальных потоках пула ioExecutor, контекст запроса и MDC передаются автоматически.
+ * Количество одновременных обращений к каждому сервису ограничено, лишние задачи ждут своей очереди
+ * в виртуальном потоке, не занимая потоки платформы.
+ */
+@Component
+public class IoExecutor {
+
+    private final Executor ioExecutor;
+    private final Map<Downstream, Semaphore> limits = new EnumMap<>(Downstream.class);
+
+    public IoExecutor(@Qualifier("ioExecutor") Executor ioExecutor, Environment environment) {
+        this.ioExecutor = ioExecutor;
+        for (Downstream downstream : Downstream.values()) {
+            int limit = environment.getProperty("app.io.limits." + downstream.getName(), Integer.class, downstream.getDefaultLimit());
+            limits.put(downstream, new Semaphore(limit));
+        }
+    }
+
+    /**
+     * Асинхронно выполнить обращение к смежному сервису
+     *
+     * @param downstream смежный сервис
+     * @param task       задача
+     * @return результат задачи
+     */
+    public <T> CompletableFuture<T> supply(Downstream downstream, Supplier<T> task) {
+        Semaphore limit = limits.get(downstream);
+        return CompletableFuture.supplyAsync(() -> {
+            limit.acquireUninterruptibly();
+            try {
+                return task.get();
+            } finally {
+                limit.release();
+            }
+        }, ioExecutor);
+    }
+
+    /**
+     * Асинхронно выполнить составную задачу, которая сама обращается к нескольким смежным сервисам.
+     * Задача не занимает лимит ни одного сервиса, поэтому вложенные обращения через supply не приводят к взаимной блокировке.
+     *
+     * @param task задача
+     * @return результат задачи
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, ioExecutor);
+    }
+
+    /**
+     * Асинхронно выполнить обращение к смежному сервису без результата
+     *
+     * @param downstream смежный сервис
+     * @param task       задача
+     * @return признак завершения задачи
+     */
+    public CompletableFuture<Void> run(Downstream downstream, Runnable task) {
+        return supply(downstream, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Выполнить задачи параллельно и дождаться завершения всех
+     *
+     * @param downstream смежный сервис
+     * @param tasks      задачи
+     * @return результаты задач в исходном порядке
+     */
+    public <T> List<T> invokeAll(Downstream downstream, List<Supplier<T>> tasks) {
+        List<CompletableFuture<T>> futures = tasks.stream()
+                .map(task -> supply(downstream, task))
+                .toList();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+}
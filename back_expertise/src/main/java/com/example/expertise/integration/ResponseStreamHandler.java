@@ -0,0 +1,23 @@
+package com.example.expertise.integration;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Обработчик тела ответа смежного сервиса, читаемого потоком.
+ * Поток доступен только внутри обработчика и закрывается после его завершения.
+ *
+ * @param <T> тип результата обработки
+ */
+@FunctionalInterface
+public interface ResponseStreamHandler<T> {
+
+    /**
+     * Обработать тело ответа
+     *
+     * @param body тело ответа
+     * @return результат обработки
+     * @throws IOException ошибка чтения тела ответа
+     */
+    T handle(InputStream body) throws IOException;
+}
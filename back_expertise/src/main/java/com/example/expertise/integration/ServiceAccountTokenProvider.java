@@ -0,0 +1,103 @@
+package com.example.expertise.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Токен сервисного аккаунта (client credentials) для обращений к смежным сервисам из фоновых задач.
+ * Токен пользователя в фоновые задачи не передается и не сохраняется: к моменту выполнения он может истечь.
+ * Токен сервисного аккаунта хранится только в памяти и запрашивается заново незадолго до истечения.
+ */
+@Component
+public class ServiceAccountTokenProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceAccountTokenProvider.class);
+
+    private final IntegrationHelper integrationHelper;
+    private final AtomicReference<Token> currentToken = new AtomicReference<>();
+
+    @Value("${app.service-account.token-url:}")
+    private String tokenUrl;
+
+    @Value("${app.service-account.client-id:}")
+    private String clientId;
+
+    @Value("${app.service-account.client-secret:}")
+    private String clientSecret;
+
+    /**
+     * Запас до истечения, после которого токен запрашивается заново
+     */
+    @Value("${app.service-account.expiry-margin-ms:60000}")
+    private long expiryMarginMs;
+
+    public ServiceAccountTokenProvider(IntegrationHelper integrationHelper) {
+        this.integrationHelper = integrationHelper;
+    }
+
+    /**
+     * Получить действующий токен сервисного аккаунта
+     *
+     * @return токен авторизации
+     */
+    public String getToken() {
+        Token token = currentToken.get();
+        if (token != null && System.currentTimeMillis() < token.expiresAt() - expiryMarginMs) {
+            return token.value();
+        }
+        synchronized (this) {
+            token = currentToken.get();
+            if (token == null || System.currentTimeMillis() >= token.expiresAt() - expiryMarginMs) {
+                token = fetchToken();
+                currentToken.set(token);
+            }
+            return token.value();
+        }
+    }
+
+    /**
+     * Запрашивает токен по client credentials grant
+     */
+    private Token fetchToken() {
+        if (tokenUrl.isBlank() || clientId.isBlank()) {
+            throw new IllegalStateException("Не настроен сервисный аккаунт для фоновых задач (app.service-account.*)");
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("grant_type", "client_credentials");
+        form.add("client_id", clientId);
+        form.add("client_secret", clientSecret);
+
+        JsonNode body = integrationHelper.executeRequest(tokenUrl, HttpMethod.POST, new HttpEntity<>(form, headers),
+                JsonNode.class, "Получение токена сервисного аккаунта").getBody();
+        String accessToken = body != null ? body.path("access_token").asText(null) : null;
+        if (accessToken == null || accessToken.isEmpty()) {
+            throw new IllegalStateException("Ответ сервера авторизации не содержит access_token");
+        }
+
+        long expiresInMs = body.path("expires_in").asLong(300) * 1000;
+        log.info("Получен токен сервисного аккаунта {}, действует {} с", clientId, expiresInMs / 1000);
+        return new Token(accessToken, System.currentTimeMillis() + expiresInMs);
+    }
+
+    /**
+     * Токен авторизации
+     *
+     * @param value     значение токена
+     * @param expiresAt время истечения, мс
+     */
+    private record Token(String value, long expiresAt) {}
+}
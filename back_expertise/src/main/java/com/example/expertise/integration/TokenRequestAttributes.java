@@ -0,0 +1,71 @@
+package com.example.expertise.integration;
+
+import org.springframework.web.context.request.RequestAttributes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Контекст запроса для фоновых задач, выполняемых вне HTTP-запроса.
+ * Токен авторизации для обращений к смежным сервисам запрашивается у поставщика при каждом обращении,
+ * поэтому долгая задача не использует истекший токен.
+ */
+public class TokenRequestAttributes implements RequestAttributes {
+
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final Supplier<String> tokenSupplier;
+
+    public TokenRequestAttributes(Supplier<String> tokenSupplier) {
+        this.tokenSupplier = tokenSupplier;
+    }
+
+    /**
+     * Получить действующий токен авторизации
+     *
+     * @return токен авторизации
+     */
+    public String getToken() {
+        return tokenSupplier.get();
+    }
+
+    @Override
+    public Object getAttribute(String name, int scope) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value, int scope) {
+        attributes.put(name, value);
+    }
+
+    @Override
+    public void removeAttribute(String name, int scope) {
+        attributes.remove(name);
+    }
+
+    @Override
+    public String[] getAttributeNames(int scope) {
+        return attributes.keySet().toArray(String[]::new);
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback, int scope) {
+        // Фоновый контекст не имеет жизненного цикла запроса
+    }
+
+    @Override
+    public Object resolveReference(String key) {
+        return null;
+    }
+
+    @Override
+    public String getSessionId() {
+        return "";
+    }
+
+    @Override
+    public Object getSessionMutex() {
+        return this;
+    }
+}
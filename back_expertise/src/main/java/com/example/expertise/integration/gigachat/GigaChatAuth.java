@@ -1,48 +1,112 @@
 package com.example.expertise.integration.gigachat;
 
 import com.example.expertise.config.GigachatConfig;
-import org.springframework.http.*;
+import com.example.expertise.integration.IoExecutor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.util.Objects;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Сервис для получения токена авторизации для API GigaChat
+ * Сервис для получения токена авторизации для API GigaChat.
+ * <p>
+ * Токен читается из атомарной ссылки без блокировок. Обновление запускается заранее, до истечения токена:
+ * по расписанию и при чтении токена, близкого к истечению. Одновременные обновления объединяются в один запрос.
+ * Вызывающий поток ждет обновления только если действующего токена нет.
+ * Время обновлений по результату (gigachat.token.refresh) и оставшееся время жизни токена
+ * (gigachat.token.remaining) публикуются в метриках.
  */
 @Service
 public class GigaChatAuth {
 
+    private static final Logger log = LoggerFactory.getLogger(GigaChatAuth.class);
+
     /**
-     * REST-клиент для выполнения HTTP-запросов
+     * Время жизни токена, если сервер не вернул expires_at
      */
-    private final RestTemplate restTemplate;
+    private static final long DEFAULT_TOKEN_TTL_MS = 30 * 60 * 1000L;
+
+    /**
+     * HTTP-клиент для обращений к API GigaChat
+     */
+    private final GigaChatHttpClient httpClient;
 
     /**
      * Конфигурация для доступа к API GigaChat
      */
     private final GigachatConfig gigachatConfig;
 
+    private final ObjectMapper objectMapper;
+    private final IoExecutor ioExecutor;
+
     /**
-     * Кэшированный токен авторизации
+     * Текущий токен авторизации
      */
-    private String cachedToken;
+    private final AtomicReference<Token> currentToken = new AtomicReference<>();
+
+    /**
+     * Выполняющееся обновление токена, общее для всех ожидающих
+     */
+    private final AtomicReference<CompletableFuture<Token>> refreshInFlight = new AtomicReference<>();
+
+    private final Timer refreshes;
+    private final Timer refreshFailures;
 
     /**
-     * Время истечения кэшированного токена авторизации
+     * За сколько до истечения токен обновляется заранее
      */
-    private long tokenExpirationTime;
+    @Value("${gigachat.token.refresh-ahead-ms:300000}")
+    private long refreshAheadMs;
+
+    /**
+     * Запас до истечения, после которого токен больше не используется
+     */
+    @Value("${gigachat.token.expiry-margin-ms:30000}")
+    private long expiryMarginMs;
 
     /**
      * Создать новый экземпляр сервиса для работы с API GigaChat
      *
      * @param gigachatConfig конфигурация для доступа к API GigaChat
-     * @param restTemplate   REST-клиент для выполнения HTTP-запросов
+     * @param httpClient     HTTP-клиент для обращений к API GigaChat
+     * @param objectMapper   преобразователь JSON
+     * @param ioExecutor     пул для фонового обновления токена
+     * @param meterRegistry  реестр метрик
      */
-    public GigaChatAuth(GigachatConfig gigachatConfig, RestTemplate restTemplate) {
+    public GigaChatAuth(GigachatConfig gigachatConfig,
+                        GigaChatHttpClient httpClient,
+                        ObjectMapper objectMapper,
+                        IoExecutor ioExecutor,
+                        MeterRegistry meterRegistry) {
         this.gigachatConfig = gigachatConfig;
-        this.restTemplate = restTemplate;
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.ioExecutor = ioExecutor;
+        this.refreshes = Timer.builder("gigachat.token.refresh").tag("outcome", "SUCCESS").register(meterRegistry);
+        this.refreshFailures = Timer.builder("gigachat.token.refresh").tag("outcome", "ERROR").register(meterRegistry);
+        Gauge.builder("gigachat.token.remaining", currentToken, reference -> {
+                    Token token = reference.get();
+                    return token == null ? 0 : Math.max(0, token.expiresAt() - System.currentTimeMillis()) / 1000.0;
+                })
+                .description("Оставшееся время жизни токена GigaChat")
+                .baseUnit("seconds")
+                .register(meterRegistry);
     }
 
     /**
@@ -50,65 +114,107 @@ public class GigaChatAuth {
      *
      * @return токен авторизации для API GigaChat
      */
-    public synchronized String getAuthToken() {
-        // Проверяем, валиден ли текущий токен
-        if (cachedToken == null || System.currentTimeMillis() > tokenExpirationTime) {
-            fetchNewToken();
+    public String getAuthToken() {
+        Token token = currentToken.get();
+        long now = System.currentTimeMillis();
+        if (token != null && now < token.expiresAt() - expiryMarginMs) {
+            if (now >= token.expiresAt() - refreshAheadMs) {
+                refresh();
+            }
+            return token.value();
+        }
+
+        try {
+            return refresh().join().value();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
         }
-        return cachedToken;
     }
 
     /**
-     * Извлекает токен авторизации из ответа сервера
+     * Обновляет токен заранее, если он скоро истечет
      */
-    private void fetchNewToken() {
-        HttpHeaders headers = createHeaders();
-        String body = gigachatConfig.getBodyScope();
-        HttpEntity<String> requestEntity = new HttpEntity<>(body, headers);
+    @Scheduled(fixedDelayString = "${gigachat.token.refresh-check-ms:30000}")
+    public void refreshIfExpiring() {
+        Token token = currentToken.get();
+        if (token != null && System.currentTimeMillis() >= token.expiresAt() - refreshAheadMs) {
+            refresh();
+        }
+    }
 
-        ResponseEntity<String> response = restTemplate.exchange(
-                gigachatConfig.getTokenUrl(), HttpMethod.POST, requestEntity, String.class);
+    /**
+     * Запускает обновление токена или возвращает уже выполняющееся
+     */
+    private CompletableFuture<Token> refresh() {
+        CompletableFuture<Token> inFlight = refreshInFlight.get();
+        if (inFlight != null) {
+            return inFlight;
+        }
+
+        CompletableFuture<Token> refresh = new CompletableFuture<>();
+        inFlight = refreshInFlight.compareAndExchange(null, refresh);
+        if (inFlight != null) {
+            return inFlight;
+        }
 
-        String json = Objects.requireNonNull(response.getBody());
-        cachedToken = extractToken(json);
-        tokenExpirationTime = extractExpirationTime(json); // Нужно извлечь expires_in из ответа
+        ioExecutor.supply(this::fetchNewToken).whenComplete((token, error) -> {
+            if (token != null) {
+                currentToken.set(token);
+            }
+            refreshInFlight.set(null);
+            if (error != null) {
+                refresh.completeExceptionally(error);
+            } else {
+                refresh.complete(token);
+            }
+        });
+        return refresh;
     }
 
     /**
-     * Извлекает токен авторизации из JSON-ответа
-     *
-     * @param json JSON-ответ сервера
-     * @return токен авторизации
+     * Запрашивает новый токен авторизации
      */
-    private String extractToken(String json) {
-        if (json == null || !json.contains("\"access_token\":\"")) {
-            throw new IllegalStateException("Ответ от API не содержит access_token: " + json);
+    private Token fetchNewToken() {
+        long startTime = System.currentTimeMillis();
+        try {
+            String json = httpClient.post(gigachatConfig.getTokenUrl(), createHeaders(), gigachatConfig.getBodyScope());
+            Token token = parseToken(json);
+            long latency = System.currentTimeMillis() - startTime;
+            refreshes.record(latency, TimeUnit.MILLISECONDS);
+            log.info("Токен GigaChat обновлен за {} мс, действует до {}", latency, token.expiresAt());
+            return token;
+        } catch (RuntimeException e) {
+            long latency = System.currentTimeMillis() - startTime;
+            refreshFailures.record(latency, TimeUnit.MILLISECONDS);
+            log.error("Ошибка обновления токена GigaChat за {} мс: {}", latency, e.getMessage());
+            throw e;
         }
-        String[] parts = json.split("\"access_token\":\"");
-        if (parts.length < 2) {
-            throw new IllegalStateException("Некорректный формат ответа от API: " + json);
-        }
-        return parts[1].split("\"")[0];
     }
 
     /**
-     * Извлекает время истечения токена авторизации из JSON-ответа
+     * Извлекает токен и время его истечения из JSON-ответа
      *
      * @param json JSON-ответ сервера
-     * @return время истечения токена авторизации
+     * @return токен авторизации
      */
-    private long extractExpirationTime(String json) {
-        if (json == null || !json.contains("\"expires_at\":")) {
-            return System.currentTimeMillis() + (1800 * 1000L) - 300_000L; // 30 минут по умолчанию
+    private Token parseToken(String json) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Некорректный формат ответа от API: " + json, e);
         }
-        String[] parts = json.split("\"expires_at\":");
-        if (parts.length < 2) {
-            System.out.println("Некорректный формат expires_at в ответе: " + json);
-            return System.currentTimeMillis() + (1800 * 1000L) - 300_000L;
+
+        String accessToken = root.path("access_token").asText(null);
+        if (accessToken == null || accessToken.isEmpty()) {
+            throw new IllegalStateException("Ответ от API не содержит access_token: " + json);
         }
-        String expiresAtStr = parts[1].split("}")[0].trim(); // Извлекаем до закрывающей скобки
-        long expiresAtMillis = Long.parseLong(expiresAtStr);
-        return expiresAtMillis - 300_000L; // Минус 5 минут для запаса
+
+        JsonNode expiresAt = root.path("expires_at");
+        long expiresAtMillis = expiresAt.canConvertToLong()
+                ? expiresAt.asLong()
+                : System.currentTimeMillis() + DEFAULT_TOKEN_TTL_MS;
+        return new Token(accessToken, expiresAtMillis);
     }
 
     /**
@@ -116,12 +222,19 @@ public class GigaChatAuth {
      *
      * @return заголовки для HTTP-запроса
      */
-    private HttpHeaders createHeaders() {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-        headers.set("RqUID", UUID.randomUUID().toString());
-        headers.set("Authorization", gigachatConfig.getAuthHeader());
-        return headers;
+    private Map<String, String> createHeaders() {
+        return Map.of(
+                HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED_VALUE,
+                "RqUID", UUID.randomUUID().toString(),
+                HttpHeaders.AUTHORIZATION, gigachatConfig.getAuthHeader()
+        );
     }
 
+    /**
+     * Токен авторизации
+     *
+     * @param value     значение токена
+     * @param expiresAt время истечения, мс
+     */
+    private record Token(String value, long expiresAt) {}
 }
@@ -0,0 +1,259 @@
+package com.example.expertise.integration.gigachat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP-клиент для обращений к API GigaChat.
+ * <p>
+ * Один экземпляр JDK HttpClient на приложение: соединения переиспользуются (keep-alive), по HTTPS
+ * согласуется HTTP/2 с мультиплексированием запросов. Доверие к сертификатам настраивается собственным
+ * SSLContext клиента и не затрагивает глобальные настройки JVM. Количество одновременных запросов ограничено.
+ * <p>
+ * Метрики: gigachat.http.requests (время запросов по результату), gigachat.http.in-flight и gigachat.http.waiting
+ * (занятые слоты и ожидающие запросы), gigachat.http.slot.wait и gigachat.http.slot.rejected (ожидание слота).
+ */
+@Component
+public class GigaChatHttpClient {
+
+    private static final Logger log = LoggerFactory.getLogger(GigaChatHttpClient.class);
+
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+    private final Semaphore inFlightLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+    private final Timer slotWait;
+    private final Counter slotRejected;
+
+    public GigaChatHttpClient(@Value("${gigachat.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+                              @Value("${gigachat.http.read-timeout-ms:120000}") long readTimeoutMs,
+                              @Value("${gigachat.http.max-in-flight:8}") int maxInFlight,
+                              @Value("${gigachat.http.trust-all:true}") boolean trustAll,
+                              @Value("${gigachat.http.trust-store:}") String trustStore,
+                              @Value("${gigachat.http.trust-store-password:}") String trustStorePassword,
+                              MeterRegistry meterRegistry) {
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        this.inFlightLimit = new Semaphore(maxInFlight);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gigachat.http.in-flight", inFlight, AtomicInteger::get)
+                .description("Выполняемые запросы к GigaChat")
+                .register(meterRegistry);
+        Gauge.builder("gigachat.http.max-in-flight", () -> maxInFlight)
+                .description("Максимальное количество одновременных запросов к GigaChat")
+                .register(meterRegistry);
+        Gauge.builder("gigachat.http.waiting", waiting, AtomicInteger::get)
+                .description("Запросы к GigaChat, ожидающие свободного слота")
+                .register(meterRegistry);
+        this.slotWait = Timer.builder("gigachat.http.slot.wait")
+                .description("Время ожидания свободного слота для запроса к GigaChat")
+                .register(meterRegistry);
+        this.slotRejected = Counter.builder("gigachat.http.slot.rejected")
+                .description("Запросы к GigaChat, не дождавшиеся свободного слота")
+                .register(meterRegistry);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .sslContext(createSslContext(trustAll, trustStore, trustStorePassword))
+                .build();
+    }
+
+    /**
+     * Выполнить POST-запрос
+     *
+     * @param url     адрес
+     * @param headers заголовки запроса
+     * @param body    тело запроса
+     * @return тело ответа
+     * @throws IllegalStateException если сервер вернул статус, отличный от 2xx, или запрос не выполнен
+     */
+    public String post(String url, Map<String, String> headers, String body) {
+        return post(url, headers, body, readTimeout);
+    }
+
+    /**
+     * Выполнить POST-запрос с собственным таймаутом.
+     * Таймаут ограничивает и ожидание слота, и сам запрос, поэтому вызов завершается не позже заданного времени
+     *
+     * @param url     адрес
+     * @param headers заголовки запроса
+     * @param body    тело запроса
+     * @param timeout общее время ожидания слота и ответа
+     * @return тело ответа
+     * @throws IllegalStateException если сервер вернул статус, отличный от 2xx, запрос не выполнен или время истекло
+     */
+    public String post(String url, Map<String, String> headers, String body, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        acquireSlot(timeout);
+        Duration remaining = Duration.ofNanos(deadline - System.nanoTime());
+        if (remaining.isNegative() || remaining.isZero()) {
+            inFlightLimit.release();
+            throw new IllegalStateException("Истекло время ожидания слота для запроса к GigaChat: " + url);
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(remaining)
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        headers.forEach(builder::header);
+        return execute(builder.build());
+    }
+
+    /**
+     * Выполняет запрос в уже занятом слоте и освобождает слот по завершении
+     */
+    private String execute(HttpRequest request) {
+        inFlight.incrementAndGet();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "SUCCESS";
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                outcome = "ERROR";
+                throw new IllegalStateException("GigaChat вернул статус " + response.statusCode() + ": " + response.body());
+            }
+            return response.body();
+        } catch (HttpTimeoutException e) {
+            outcome = "TIMEOUT";
+            throw new IllegalStateException("Превышено время ожидания ответа GigaChat: " + request.uri(), e);
+        } catch (IOException e) {
+            outcome = "ERROR";
+            throw new IllegalStateException("Ошибка при обращении к GigaChat: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            outcome = "INTERRUPTED";
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Запрос к GigaChat прерван", e);
+        } finally {
+            long latencyNs = sample.stop(Timer.builder("gigachat.http.requests")
+                    .description("Время выполнения запросов к GigaChat")
+                    .tag("operation", operation(request))
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            inFlight.decrementAndGet();
+            inFlightLimit.release();
+            log.debug("GigaChat {} за {} мс ({})", request.uri().getPath(), TimeUnit.NANOSECONDS.toMillis(latencyNs), outcome);
+        }
+    }
+
+    /**
+     * Занимает слот для запроса. Ожидание ограничено таймаутом запроса, чтобы запросы не копились бесконечно.
+     */
+    private void acquireSlot(Duration timeout) {
+        waiting.incrementAndGet();
+        long startTime = System.nanoTime();
+        try {
+            boolean acquired = inFlightLimit.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            slotWait.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                slotRejected.increment();
+                throw new IllegalStateException("Нет свободных слотов для запроса к GigaChat, выполняется " + inFlight.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание слота для запроса к GigaChat прервано", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Название операции для метрик: последний сегмент пути (oauth, completions)
+     */
+    private static String operation(HttpRequest request) {
+        String path = request.uri().getPath();
+        return path == null || path.isEmpty() ? request.uri().getHost() : path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Создает SSLContext клиента: из заданного хранилища сертификатов, без проверки сертификатов
+     * (сертификаты GigaChat выпущены российским УЦ, которого нет в стандартном хранилище JVM) или стандартный.
+     */
+    private static SSLContext createSslContext(boolean trustAll, String trustStore, String trustStorePassword) {
+        try {
+            if (StringUtils.hasText(trustStore)) {
+                KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+                try (InputStream inputStream = Files.newInputStream(Path.of(trustStore))) {
+                    keyStore.load(inputStream, trustStorePassword.toCharArray());
+                }
+                TrustManagerFactory factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+                factory.init(keyStore);
+                SSLContext sslContext = SSLContext.getInstance("TLS");
+                sslContext.init(null, factory.getTrustManagers(), new SecureRandom());
+                return sslContext;
+            }
+            if (trustAll) {
+                log.warn("Проверка SSL-сертификатов GigaChat отключена");
+                SSLContext sslContext = SSLContext.getInstance("TLS");
+                sslContext.init(null, new TrustManager[]{new TrustAllManager()}, new SecureRandom());
+                return sslContext;
+            }
+            return SSLContext.getDefault();
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IllegalStateException("Не удалось настроить SSL для GigaChat: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Доверяет любым сертификатам. Расширенный вариант интерфейса нужен, чтобы HttpClient
+     * не добавлял поверх проверку имени хоста.
+     */
+    private static final class TrustAllManager extends X509ExtendedTrustManager {
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) {}
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) {}
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {}
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {}
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) {}
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) {}
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+    }
+}
@@ -1,16 +1,39 @@
 package com.example.expertise.integration.gigachat;
 
+import java.time.Duration;
+
 /**
  * Интерфейс для работы с API GigaChat
  */
 public interface GigaChatIntegration {
 
     /**
-     * Отправить сообщение в чат (ИИ)
+     * Отправить сообщение в чат (ИИ). Ответ на ранее отправленный такой же запрос берется из кэша
      *
      * @param message текст сообщения
      * @return сгенерированный ответ сервера
      */
-    String sendMessage(String message);
+    default String sendMessage(String message) {
+        return sendMessage(message, false);
+    }
+
+    /**
+     * Отправить сообщение в чат (ИИ)
+     *
+     * @param message     текст сообщения
+     * @param bypassCache не использовать кэш ответов: запрос всегда уходит в модель, новый ответ сохраняется в кэш
+     * @return сгенерированный ответ сервера
+     */
+    String sendMessage(String message, boolean bypassCache);
+
+    /**
+     * Отправить сообщение в чат (ИИ) с ограничением времени ответа.
+     * Ответ на ранее отправленный такой же запрос берется из кэша
+     *
+     * @param message текст сообщения
+     * @param timeout время, за которое запрос должен завершиться, включая ожидание свободного слота
+     * @return сгенерированный ответ сервера или null, если ответ не получен
+     */
+    String sendMessage(String message, Duration timeout);
 
 }
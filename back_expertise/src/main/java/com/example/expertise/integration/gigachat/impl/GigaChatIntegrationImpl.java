@@ -2,18 +2,22 @@ package com.example.expertise.integration.gigachat.impl;
 
 import com.example.expertise.config.GigachatConfig;
 import com.example.expertise.integration.gigachat.GigaChatAuth;
+import com.example.expertise.integration.gigachat.GigaChatHttpClient;
 import com.example.expertise.integration.gigachat.GigaChatIntegration;
-import com.example.expertise.util.SSLUtils;
+import com.example.expertise.services.cache.LlmResponseCache;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -23,46 +27,78 @@ import java.util.UUID;
 public class GigaChatIntegrationImpl implements GigaChatIntegration {
 
     private static final Logger log = LoggerFactory.getLogger(GigaChatIntegrationImpl.class);
-    private final RestTemplate restTemplate;
+    private static final String MODEL = "GigaChat";
+    private static final String SYSTEM_PROMPT = "Отвечай как научный сотрудник";
+
+    private final GigaChatHttpClient httpClient;
     private final GigachatConfig gigachatConfig;
     private final GigaChatAuth gigaChatAuth;
     private final ObjectMapper objectMapper;
+    private final LlmResponseCache responseCache;
 
-    public GigaChatIntegrationImpl(RestTemplate restTemplate,
+    public GigaChatIntegrationImpl(GigaChatHttpClient httpClient,
                                    GigachatConfig gigachatConfig,
                                    GigaChatAuth gigaChatAuth,
-                                   ObjectMapper objectMapper) {
-        this.restTemplate = restTemplate;
+                                   ObjectMapper objectMapper,
+                                   LlmResponseCache responseCache) {
+        this.httpClient = httpClient;
         this.gigachatConfig = gigachatConfig;
         this.gigaChatAuth = gigaChatAuth;
         this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public String sendMessage(String message, boolean bypassCache) {
+        return sendMessage(message, bypassCache, null);
     }
 
     @Override
-    public String sendMessage(String message) {
+    public String sendMessage(String message, Duration timeout) {
+        return sendMessage(message, false, timeout);
+    }
+
+    /**
+     * Отправить сообщение, используя кэш ответов
+     *
+     * @param timeout время ожидания ответа или null для таймаута клиента по умолчанию
+     */
+    private String sendMessage(String message, boolean bypassCache, Duration timeout) {
+        String fingerprint = responseCache.fingerprint(MODEL, SYSTEM_PROMPT, message);
+        if (!bypassCache) {
+            Optional<String> cached = responseCache.get(fingerprint);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+
+        String content = requestCompletion(message, timeout);
+        if (content != null && !content.isBlank()) {
+            responseCache.put(fingerprint, MODEL, content);
+        }
+        return content;
+    }
+
+    private String requestCompletion(String message, Duration timeout) {
         String token = gigaChatAuth.getAuthToken();
-        HttpHeaders headers = createHeaders(token);
+        Map<String, String> headers = createHeaders(token);
 
         // Формируем тело запроса через объектную модель
         GigaChatRequest request = new GigaChatRequest(
-                "GigaChat",
+                MODEL,
                 false,
                 0,
                 List.of(
-                        new GigaChatMessage("system", "Отвечай как научный сотрудник"),
+                        new GigaChatMessage("system", SYSTEM_PROMPT),
                         new GigaChatMessage("user", message)
                 )
         );
 
         try {
-            SSLUtils.disableSSLVerification(); // Отключение проверки SSL-сертификата
-
             String jsonBody = objectMapper.writeValueAsString(request);
-            HttpEntity<String> requestEntity = new HttpEntity<>(jsonBody, headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                    gigachatConfig.getApiUrl(), HttpMethod.POST, requestEntity, String.class);
-            String jsonResponse = response.getBody();
+            String jsonResponse = timeout != null
+                    ? httpClient.post(gigachatConfig.getApiUrl(), headers, jsonBody, timeout)
+                    : httpClient.post(gigachatConfig.getApiUrl(), headers, jsonBody);
             log.info("Ответ от GigaChat: {}", jsonResponse);
             return extractContentFromJson(jsonResponse);
         } catch (JsonProcessingException e) {
@@ -83,14 +119,14 @@ public class GigaChatIntegrationImpl implements GigaChatIntegration {
         throw new IllegalStateException("Не удалось извлечь текст ответа из JSON: " + jsonResponse);
     }
 
-    private HttpHeaders createHeaders(String token) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(token);
-        headers.set("X-Request-ID", UUID.randomUUID().toString());
-        headers.set("X-Session-ID", UUID.randomUUID().toString());
-        headers.set("X-Client-ID", gigachatConfig.getClientId());
-        return headers;
+    private Map<String, String> createHeaders(String token) {
+        return Map.of(
+                HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE,
+                HttpHeaders.AUTHORIZATION, "Bearer " + token,
+                "X-Request-ID", UUID.randomUUID().toString(),
+                "X-Session-ID", UUID.randomUUID().toString(),
+                "X-Client-ID", gigachatConfig.getClientId()
+        );
     }
 
     // Вспомогательные классы для формирования запроса
@@ -0,0 +1,21 @@
+package com.example.expertise.integration.minio;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Обработчик объекта из пакетного ответа MinIO.
+ * Вызывается по мере чтения ответа, поток содержимого доступен только внутри обработчика.
+ */
+@FunctionalInterface
+public interface BatchEntryHandler {
+
+    /**
+     * Обработать объект
+     *
+     * @param index   индекс ключа объекта в запросе
+     * @param content содержимое объекта
+     * @throws IOException ошибка чтения содержимого
+     */
+    void handle(int index, InputStream content) throws IOException;
+}
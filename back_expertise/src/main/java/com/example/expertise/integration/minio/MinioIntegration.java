@@ -1,10 +1,11 @@
 package com.example.expertise.integration.minio;
 
+import com.example.expertise.integration.ResponseStreamHandler;
 import jakarta.validation.constraints.NotNull;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -13,21 +14,32 @@ import java.util.UUID;
 public interface MinioIntegration {
 
     /**
-     * Получить экспертизу пользователя из MinIO (шаблон)
+     * Получить шаблон экспертизы, если он изменился относительно известной версии
      *
      * @param templateName название шаблона экспертизы
-     * @return файл экспертизы
+     * @param etag         известная версия шаблона или null
+     * @return шаблон с версией; если версия совпала, тело не передается
      */
-    InputStreamResource getExpertiseFile(String templateName) throws IOException;
+    TemplateFile getExpertiseTemplate(String templateName, String etag);
 
     /**
-     * Получить фотографию ответа экспертизы из MinIO (шаблон)
+     * Получить фотографию ответа экспертизы из MinIO (шаблон).
+     * Закэшированная фотография подтверждается условным запросом и повторно не передается
      *
      * @param photoPath путь к фотографии
      * @return фотография ответа экспертизы
      */
     byte[] getExpertisePhotoAsBytes(String photoPath);
 
+    /**
+     * Прочитать фотографию ответа экспертизы из MinIO потоком
+     *
+     * @param photoPath путь к фотографии
+     * @param handler   обработчик потока фотографии
+     * @return результат обработки
+     */
+    <T> T readExpertisePhoto(String photoPath, ResponseStreamHandler<T> handler);
+
     /**
      * Получить файл пользователя из MinIO
      *
@@ -40,6 +52,62 @@ public interface MinioIntegration {
                            @NotNull(message = "fileExtension null") String fileExtension,
                            @NotNull(message = "fileBucket null") String fileBucket);
 
+    /**
+     * Прочитать файл пользователя из MinIO потоком
+     *
+     * @param fileName      название файла
+     * @param fileExtension расширение файла
+     * @param fileBucket    название бакета
+     * @param handler       обработчик потока файла
+     * @return результат обработки
+     */
+    <T> T readFileByParams(@NotNull(message = "fileName null") String fileName,
+                           @NotNull(message = "fileExtension null") String fileExtension,
+                           @NotNull(message = "fileBucket null") String fileBucket,
+                           ResponseStreamHandler<T> handler);
+
+    /**
+     * Прочитать объекты MinIO пакетным запросом вместо отдельного запроса на каждый объект.
+     * Объекты передаются обработчику по мере чтения ответа в порядке ключей, отсутствующие объекты пропускаются.
+     * Закэшированные объекты, не изменившиеся в MinIO, берутся из кэша без передачи содержимого
+     *
+     * @param keys    ключи объектов
+     * @param handler обработчик объекта
+     */
+    void readObjectsBatch(List<ObjectKey> keys, BatchEntryHandler handler);
+
+    /**
+     * Получить presigned-ссылки для загрузки объектов клиентом напрямую в MinIO
+     *
+     * @param keys ключи загружаемых объектов
+     * @return ссылки для загрузки в порядке ключей
+     */
+    List<UploadTarget> createUploadTargets(List<ObjectKey> keys);
+
+    /**
+     * Подтвердить прямую загрузку объектов в MinIO
+     *
+     * @param keys ключи загруженных объектов
+     * @return сведения о загруженных объектах в порядке ключей, null для незагруженных
+     */
+    List<UploadedObject> completeUploads(List<ObjectKey> keys);
+
+    /**
+     * Удалить объекты прямой загрузки, которые не были приняты (дубликаты, незавершенная загрузка части файлов).
+     * Ошибки удаления не прерывают обработку и только записываются в лог
+     *
+     * @param keys ключи объектов
+     */
+    void discardUploads(List<ObjectKey> keys);
+
+    /**
+     * Получить объекты MinIO пакетным запросом
+     *
+     * @param keys ключи объектов
+     * @return содержимое объектов в порядке ключей, null для отсутствующих объектов
+     */
+    List<byte[]> getObjectsBatch(List<ObjectKey> keys);
+
     /**
      * Загрузить фотографию ответа в MinIO
      *
@@ -70,6 +138,18 @@ public interface MinioIntegration {
      */
     String uploadFileByParams(String fileName, String fileExtension, String fileBucket, MultipartFile file, String token);
 
+    /**
+     * Загрузить файл в MinIO по параметрам из ресурса (например, сгенерированный документ во временном файле).
+     * Содержимое ресурса передается потоком, без чтения в память целиком
+     *
+     * @param fileName      имя файла (без расширения)
+     * @param fileExtension расширение файла (".pdf", ".jpg", ".docx" и т.д.)
+     * @param fileBucket    название папки (bucket)
+     * @param content       содержимое файла
+     * @return ссылка на файл
+     */
+    String uploadFileByParams(String fileName, String fileExtension, String fileBucket, Resource content);
+
     /**
      * Удалить файл пользователя в MinIO по параметрам (универсальный способ)
      *
@@ -1,11 +1,15 @@
 package com.example.expertise.integration.minio;
 
 import com.example.expertise.config.AppConfig;
+import com.example.expertise.enums.MinioBuckets;
 import com.example.expertise.integration.IntegrationHelper;
+import com.example.expertise.integration.ResponseStreamHandler;
+import com.example.expertise.services.cache.MinioObjectCache;
 import com.example.expertise.util.FileUploadUtil;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.*;
@@ -14,7 +18,14 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -27,49 +38,69 @@ public class MinioIntegrationImpl implements MinioIntegration {
 
     private static final Logger log = LoggerFactory.getLogger(MinioIntegrationImpl.class);
 
+    /**
+     * Длина в ответе пакетного запроса для объекта, не изменившегося с переданного ETag
+     */
+    private static final long NOT_MODIFIED_LENGTH = -2;
+
     private final AppConfig appConfig;
     private final IntegrationHelper integrationHelper;
+    private final MinioObjectCache objectCache;
+
+    /**
+     * Максимальное количество объектов в одном пакетном запросе
+     */
+    @Value("${app.minio.batch-size:200}")
+    private int batchSize;
 
     public MinioIntegrationImpl(AppConfig appConfig,
-                                IntegrationHelper integrationHelper) {
+                                IntegrationHelper integrationHelper,
+                                MinioObjectCache objectCache) {
         this.appConfig = appConfig;
         this.integrationHelper = integrationHelper;
+        this.objectCache = objectCache;
     }
 
     /**
-     * Получить файл экспертизы пользователя из MinIO (интеграция)
+     * Получить шаблон экспертизы условным запросом (If-None-Match)
      *
      * @param templateName название шаблона экспертизы
-     * @return InputStreamResource с файлом экспертизы пользователя
+     * @param etag         известная версия шаблона или null
+     * @return шаблон с версией; если версия совпала, тело не передается
      */
     @Override
-    public InputStreamResource getExpertiseFile(String templateName) throws IOException {
-
+    public TemplateFile getExpertiseTemplate(String templateName, String etag) {
         String baseUrl = appConfig.getPaths().getMinio().get("get-expertise-file") + "/" + templateName;
 
         HttpHeaders headers = integrationHelper.createAuthHeaders(null);
         headers.setAccept(List.of(MediaType.APPLICATION_OCTET_STREAM));
-        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
+        if (etag != null) {
+            headers.setIfNoneMatch(etag);
+        }
 
-        ResponseEntity<Resource> response = integrationHelper.executeRequest(
+        ResponseEntity<byte[]> response = integrationHelper.executeRequest(
                 baseUrl,
                 HttpMethod.GET,
-                requestEntity,
-                Resource.class,
+                new HttpEntity<Void>(headers),
+                byte[].class,
                 "Ошибка получения шаблона экспертизы по названию. templateName:" + templateName);
 
-        Resource resource = response.getBody();
-        if (resource == null) {
+        String responseEtag = response.getHeaders().getETag();
+        if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            return new TemplateFile(etag, null, true);
+        }
+
+        byte[] content = response.getBody();
+        if (content == null) {
             log.error("Пустой ответ для templateName: {}", templateName);
             throw new RuntimeException("Пустой ответ для templateName: " + templateName);
         }
-
-        log.info("Файл экспертизы получен успешно для templateName: {}", templateName);
-        return new InputStreamResource(resource.getInputStream());
+        return new TemplateFile(responseEtag, content, false);
     }
 
     /**
-     * Получить фото ответа экспертизы из сервиса minio (интеграция)
+     * Получить фото ответа экспертизы из сервиса minio (интеграция).
+     * Если фото есть в кэше, выполняется условный запрос (If-None-Match) и при совпадении версии фото не передается
      *
      * @param photoPath путь к фотографии
      * @return файл в виде байтов
@@ -77,19 +108,56 @@ public class MinioIntegrationImpl implements MinioIntegration {
     @Override
     public byte[] getExpertisePhotoAsBytes(String photoPath) {
         String baseUrl = appConfig.getPaths().getMinio().get("get-expertise-answer-photo-file") + "/" + photoPath;
+        String cacheKey = MinioObjectCache.key(MinioBuckets.EXPERTISE_ANSWERS.bucket(), photoPath);
+        MinioObjectCache.CachedObject cached = objectCache.get(cacheKey);
 
         HttpHeaders headers = integrationHelper.createAuthHeaders(null);
         headers.setAccept(List.of(MediaType.IMAGE_JPEG));
-
-        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
+        if (cached != null) {
+            headers.setIfNoneMatch("\"" + cached.etag() + "\"");
+        }
 
         ResponseEntity<byte[]> response = integrationHelper.executeRequest(
                 baseUrl,
                 HttpMethod.GET,
-                requestEntity,
+                new HttpEntity<Void>(headers),
                 byte[].class,
                 "Ошибка получения фотографии ответа экспертизы. photoPath: " + photoPath);
-        return response.getBody();
+
+        if (cached != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            objectCache.recordRevalidated(cached);
+            return cached.content();
+        }
+
+        byte[] content = response.getBody();
+        if (content == null) {
+            log.error("Пустой ответ для photoPath: {}", photoPath);
+            throw new RuntimeException("Пустой ответ для photoPath: " + photoPath);
+        }
+        objectCache.put(cacheKey, unquote(response.getHeaders().getETag()), content);
+        return content;
+    }
+
+    /**
+     * Прочитать фото ответа экспертизы из сервиса minio потоком (интеграция)
+     *
+     * @param photoPath путь к фотографии
+     * @param handler   обработчик потока фотографии
+     * @return результат обработки
+     */
+    @Override
+    public <T> T readExpertisePhoto(String photoPath, ResponseStreamHandler<T> handler) {
+        String baseUrl = appConfig.getPaths().getMinio().get("get-expertise-answer-photo-file") + "/" + photoPath;
+
+        HttpHeaders headers = integrationHelper.createAuthHeaders(null);
+        headers.setAccept(List.of(MediaType.IMAGE_JPEG));
+
+        return integrationHelper.executeStreamRequest(
+                baseUrl,
+                HttpMethod.GET,
+                new HttpEntity<Void>(headers),
+                handler,
+                "Ошибка получения фотографии ответа экспертизы. photoPath: " + photoPath);
     }
 
     /**
@@ -104,6 +172,23 @@ public class MinioIntegrationImpl implements MinioIntegration {
     public byte[] getFileByParams(@NotNull(message = "fileName null") String fileName,
                                   @NotNull(message = "fileExtension null") String fileExtension,
                                   @NotNull(message = "fileBucket null") String fileBucket) {
+        return readFileByParams(fileName, fileExtension, fileBucket, InputStream::readAllBytes);
+    }
+
+    /**
+     * Прочитать файл пользователя из MinIO потоком
+     *
+     * @param fileName      название файла
+     * @param fileExtension расширение файла
+     * @param fileBucket    название бакета
+     * @param handler       обработчик потока файла
+     * @return результат обработки
+     */
+    @Override
+    public <T> T readFileByParams(@NotNull(message = "fileName null") String fileName,
+                                  @NotNull(message = "fileExtension null") String fileExtension,
+                                  @NotNull(message = "fileBucket null") String fileBucket,
+                                  ResponseStreamHandler<T> handler) {
         String requestUrl = integrationHelper.urlBuilder(appConfig.getPaths().getMinio()
                         .get("get-file-by-params"), Map.of(
                         "fileName", fileName,
@@ -114,15 +199,151 @@ public class MinioIntegrationImpl implements MinioIntegration {
         );
 
         HttpHeaders headers = integrationHelper.createAuthHeaders(null);
-        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
+        headers.setAccept(List.of(MediaType.APPLICATION_OCTET_STREAM));
 
-        ResponseEntity<byte[]> response = integrationHelper.executeRequest(
+        return integrationHelper.executeStreamRequest(
                 requestUrl,
                 HttpMethod.GET,
-                requestEntity,
-                byte[].class,
+                new HttpEntity<Void>(headers),
+                handler,
                 "Ошибка при получении файла документа профиля для. fileName: " + fileName + ", fileExtension: " + fileExtension + ", fileBucket: " + fileBucket);
-        return response.getBody();
+    }
+
+    /**
+     * Прочитать объекты MinIO пакетными запросами (интеграция).
+     * Ответ сервиса minio содержит для каждого ключа длину (8 байт), ETag и содержимое, для отсутствующего объекта длину -1.
+     * Для закэшированных объектов в ключе передается ETag; если объект не изменился, сервис возвращает длину -2
+     * без содержимого, и обработчик получает содержимое из кэша
+     *
+     * @param keys    ключи объектов
+     * @param handler обработчик объекта
+     */
+    @Override
+    public void readObjectsBatch(List<ObjectKey> keys, BatchEntryHandler handler) {
+        for (int offset = 0; offset < keys.size(); offset += batchSize) {
+            List<ObjectKey> chunk = keys.subList(offset, Math.min(offset + batchSize, keys.size()));
+            int chunkOffset = offset;
+
+            // Версии из кэша фиксируются до запроса, чтобы вытеснение во время запроса не потеряло содержимое
+            MinioObjectCache.CachedObject[] cached = new MinioObjectCache.CachedObject[chunk.size()];
+            List<ObjectKey> requestKeys = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                ObjectKey key = chunk.get(i);
+                cached[i] = objectCache.get(MinioObjectCache.key(key.bucket(), key.objectName()));
+                requestKeys.add(cached[i] != null ? key.withEtag(cached[i].etag()) : key);
+            }
+
+            HttpHeaders headers = integrationHelper.createAuthHeaders(MediaType.APPLICATION_JSON);
+            headers.setAccept(List.of(MediaType.APPLICATION_OCTET_STREAM));
+
+            integrationHelper.executeStreamRequest(
+                    minioUrl("get-files-batch"),
+                    HttpMethod.POST,
+                    new HttpEntity<>(requestKeys, headers),
+                    body -> {
+                        DataInputStream in = new DataInputStream(body);
+                        for (int i = 0; i < chunk.size(); i++) {
+                            String cacheKey = MinioObjectCache.key(chunk.get(i).bucket(), chunk.get(i).objectName());
+                            long length = in.readLong();
+                            if (length == NOT_MODIFIED_LENGTH && cached[i] != null) {
+                                objectCache.recordRevalidated(cached[i]);
+                                handler.handle(chunkOffset + i, new ByteArrayInputStream(cached[i].content()));
+                                continue;
+                            }
+                            if (length < 0) {
+                                log.warn("Объект не найден в MinIO: {}", chunk.get(i));
+                                objectCache.evict(cacheKey);
+                                continue;
+                            }
+
+                            String etag = in.readUTF();
+                            if (!etag.isEmpty() && objectCache.accepts(length)) {
+                                byte[] content = in.readNBytes((int) length);
+                                if (content.length < length) {
+                                    throw new EOFException("Ответ оборван: получено " + content.length + " из " + length + " байт");
+                                }
+                                objectCache.put(cacheKey, etag, content);
+                                handler.handle(chunkOffset + i, new ByteArrayInputStream(content));
+                                continue;
+                            }
+
+                            EntryInputStream entry = new EntryInputStream(in, length);
+                            handler.handle(chunkOffset + i, entry);
+                            entry.skipRemaining();
+                        }
+                        return null;
+                    },
+                    "Ошибка пакетного получения файлов из MinIO. Количество файлов: " + chunk.size());
+        }
+    }
+
+    /**
+     * Получить объекты MinIO пакетными запросами (интеграция)
+     *
+     * @param keys ключи объектов
+     * @return содержимое объектов в порядке ключей, null для отсутствующих объектов
+     */
+    @Override
+    public List<byte[]> getObjectsBatch(List<ObjectKey> keys) {
+        byte[][] contents = new byte[keys.size()][];
+        readObjectsBatch(keys, (index, content) -> contents[index] = content.readAllBytes());
+        return Arrays.asList(contents);
+    }
+
+    /**
+     * Получить presigned-ссылки для загрузки объектов клиентом напрямую в MinIO (интеграция)
+     *
+     * @param keys ключи загружаемых объектов
+     * @return ссылки для загрузки в порядке ключей
+     */
+    @Override
+    public List<UploadTarget> createUploadTargets(List<ObjectKey> keys) {
+        HttpHeaders headers = integrationHelper.createAuthHeaders(MediaType.APPLICATION_JSON);
+
+        UploadTarget[] targets = integrationHelper.executeRequest(
+                minioUrl("upload-sessions"),
+                HttpMethod.POST,
+                new HttpEntity<>(keys, headers),
+                UploadTarget[].class,
+                "Ошибка получения ссылок для загрузки в MinIO. Количество файлов: " + keys.size()).getBody();
+        if (targets == null || targets.length != keys.size()) {
+            throw new RuntimeException("Некорректный ответ MinIO на запрос ссылок для загрузки");
+        }
+        return List.of(targets);
+    }
+
+    /**
+     * Подтвердить прямую загрузку объектов в MinIO (интеграция)
+     *
+     * @param keys ключи загруженных объектов
+     * @return сведения о загруженных объектах в порядке ключей, null для незагруженных
+     */
+    @Override
+    public List<UploadedObject> completeUploads(List<ObjectKey> keys) {
+        HttpHeaders headers = integrationHelper.createAuthHeaders(MediaType.APPLICATION_JSON);
+
+        UploadedObject[] uploaded = integrationHelper.executeRequest(
+                minioUrl("upload-sessions/complete"),
+                HttpMethod.POST,
+                new HttpEntity<>(keys, headers),
+                UploadedObject[].class,
+                "Ошибка подтверждения загрузки в MinIO. Количество файлов: " + keys.size()).getBody();
+        if (uploaded == null || uploaded.length != keys.size()) {
+            throw new RuntimeException("Некорректный ответ MinIO на подтверждение загрузки");
+        }
+        return Arrays.asList(uploaded);
+    }
+
+    @Override
+    public void discardUploads(List<ObjectKey> keys) {
+        for (ObjectKey key : keys) {
+            try {
+                deleteFileByFullName(key.bucket(), key.objectName());
+            } catch (RuntimeException e) {
+                log.warn("Не удалось удалить непринятый объект прямой загрузки: bucket={}, objectName={}: {}",
+                        key.bucket(), key.objectName(), e.getMessage());
+            }
+        }
     }
 
     /**
@@ -196,8 +417,32 @@ public class MinioIntegrationImpl implements MinioIntegration {
         ).getBody();
     }
 
+    @Override
+    public String uploadFileByParams(String fileName, String fileExtension, String fileBucket, Resource content) {
+        String baseUrl = appConfig.getPaths().getMinio().get("upload-file-by-params");
+
+        HttpHeaders headers = integrationHelper.createAuthHeaders(MediaType.MULTIPART_FORM_DATA);
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("fileName", fileName);
+        body.add("fileExtension", fileExtension);
+        body.add("fileBucket", fileBucket);
+        body.add("file", content);
+
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+
+        return integrationHelper.executeRequest(
+                baseUrl,
+                HttpMethod.POST,
+                requestEntity,
+                String.class,
+                "Ошибка загрузки файла в MinIO по параметрам. fileName: " + fileName
+        ).getBody();
+    }
+
     @Override
     public void deleteFileByParams(String fileName, String fileExtension, String fileBucket) {
+        objectCache.evict(MinioObjectCache.key(fileBucket, fileName + fileExtension));
         String url = integrationHelper.urlBuilder(
                 appConfig.getPaths().getMinio().get("delete-file-by-params"),
                 Map.of(
@@ -247,6 +492,7 @@ public class MinioIntegrationImpl implements MinioIntegration {
     @Override
     public void deleteAnswerPhoto(String filePath) {
         String baseUrl = appConfig.getPaths().getMinio().get("delete-expertise-answer-photo") + "/" + filePath;
+        objectCache.evict(MinioObjectCache.key(MinioBuckets.EXPERTISE_ANSWERS.bucket(), filePath));
         requestForDelete(baseUrl);
         log.info("Deleted answer photo: {}", filePath);
     }
@@ -292,6 +538,18 @@ public class MinioIntegrationImpl implements MinioIntegration {
         return body;
     }
 
+    /**
+     * URL операции сервиса minio. Если адрес не задан в конфигурации, он строится от адреса get-file-by-params
+     *
+     * @param operation название операции (путь относительно /api/files)
+     * @return URL операции
+     */
+    private String minioUrl(String operation) {
+        Map<String, String> paths = appConfig.getPaths().getMinio();
+        String url = paths.get(operation);
+        return url != null ? url : paths.get("get-file-by-params").replace("get-file-by-params", operation);
+    }
+
     /**
      * Получить имя файла без расширения и расширение
      *
@@ -308,4 +566,86 @@ public class MinioIntegrationImpl implements MinioIntegration {
         return new String[]{name, extension};
     }
 
+    /**
+     * Убирает кавычки и признак слабого ETag
+     *
+     * @param etag ETag из заголовка ответа
+     * @return ETag без кавычек или null
+     */
+    private static String unquote(String etag) {
+        if (etag == null) {
+            return null;
+        }
+        String value = etag.startsWith("W/") ? etag.substring(2) : etag;
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    /**
+     * Содержимое одного объекта внутри пакетного ответа: читается не больше заявленной длины, закрытие не закрывает ответ
+     */
+    private static final class EntryInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private EntryInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int value = super.read();
+            if (value >= 0) {
+                remaining--;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            long skipped = super.skip(Math.min(count, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // Поток ответа закрывается после чтения всех объектов
+        }
+
+        /**
+         * Пропускает непрочитанный обработчиком остаток объекта
+         */
+        private void skipRemaining() throws IOException {
+            skipNBytes(remaining);
+        }
+    }
 }
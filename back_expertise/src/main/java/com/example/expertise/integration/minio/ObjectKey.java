@@ -0,0 +1,25 @@
+package com.example.expertise.integration.minio;
+
+/**
+ * Ключ объекта MinIO в пакетном запросе
+ *
+ * @param bucket     название бакета
+ * @param objectName имя объекта (с расширением)
+ * @param etag       ETag закэшированной версии объекта или null
+ */
+public record ObjectKey(String bucket, String objectName, String etag) {
+
+    public ObjectKey(String bucket, String objectName) {
+        this(bucket, objectName, null);
+    }
+
+    /**
+     * Ключ того же объекта с ETag закэшированной версии
+     *
+     * @param etag ETag закэшированной версии
+     * @return ключ для условного запроса
+     */
+    public ObjectKey withEtag(String etag) {
+        return new ObjectKey(bucket, objectName, etag);
+    }
+}
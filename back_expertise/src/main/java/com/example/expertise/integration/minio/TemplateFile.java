@@ -0,0 +1,11 @@
+package com.example.expertise.integration.minio;
+
+/**
+ * Шаблон экспертизы, полученный из MinIO условным запросом
+ *
+ * @param etag        версия шаблона (ETag)
+ * @param content     содержимое шаблона или null, если шаблон не изменился
+ * @param notModified true, если версия совпала с переданной и тело не передавалось
+ */
+public record TemplateFile(String etag, byte[] content, boolean notModified) {
+}
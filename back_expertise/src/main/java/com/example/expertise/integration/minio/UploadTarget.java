@@ -0,0 +1,14 @@
+package com.example.expertise.integration.minio;
+
+import java.time.Instant;
+
+/**
+ * Адрес для прямой загрузки объекта в MinIO
+ *
+ * @param bucket     название бакета
+ * @param objectName имя объекта (с расширением)
+ * @param uploadUrl  presigned-ссылка для загрузки методом PUT
+ * @param expiresAt  время окончания действия ссылки
+ */
+public record UploadTarget(String bucket, String objectName, String uploadUrl, Instant expiresAt) {
+}
@@ -0,0 +1,110 @@
+package com.example.expertise.model.expertise;
+
+import com.example.expertise.enums.ConclusionTaskStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Сущность задания на генерацию вывода по ответу на вопрос экспертизы.
+ * Задания забираются воркерами любого узла через SELECT ... FOR UPDATE SKIP LOCKED.
+ */
+@Entity
+@Table(name = "answer_conclusion_task")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnswerConclusionTask {
+
+    /**
+     * Уникальный идентификатор задания
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    /**
+     * Идентификатор вопроса экспертизы
+     */
+    @Column(name = "question_id", nullable = false)
+    private UUID questionId;
+
+    /**
+     * Ответ, по которому формируется вывод
+     */
+    @Column(nullable = false, columnDefinition = "text")
+    private String answer;
+
+    /**
+     * Запросить новый вывод у модели, не используя кэш ответов (повторная генерация вывода)
+     */
+    @Column(name = "bypass_cache", nullable = false)
+    private boolean bypassCache;
+
+    /**
+     * Текущий статус задания
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ConclusionTaskStatus status;
+
+    /**
+     * Текст ошибки, если задание завершилось неудачно
+     */
+    @Column(name = "error_message", columnDefinition = "text")
+    private String errorMessage;
+
+    /**
+     * Количество попыток выполнения
+     */
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * Идентификатор узла, выполняющего задание
+     */
+    @Column(name = "worker_id")
+    private String workerId;
+
+    /**
+     * Дата создания задания
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Дата начала выполнения
+     */
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    /**
+     * Время последнего подтверждения, что задание еще выполняется
+     */
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    /**
+     * Дата завершения выполнения
+     */
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Override
+    public String toString() {
+        return "AnswerConclusionTask{" +
+                "id=" + id +
+                ", questionId=" + questionId +
+                ", status=" + status +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.expertise.model.expertise;
+
+import com.example.expertise.enums.GenerationJobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Сущность задания на генерацию итогового файла экспертизы.
+ * Задания забираются воркерами любого узла через SELECT ... FOR UPDATE SKIP LOCKED.
+ */
+@Entity
+@Table(name = "expertise_generation_job")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExpertiseGenerationJob {
+
+    /**
+     * Уникальный идентификатор задания
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    /**
+     * Идентификатор экспертизы, для которой генерируется файл
+     */
+    @Column(name = "expertise_id", nullable = false)
+    private UUID expertiseId;
+
+    /**
+     * Текущий статус задания
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private GenerationJobStatus status;
+
+    /**
+     * Скриншот карты объекта экспертизы. Очищается после завершения задания
+     */
+    @Column(name = "map_screen")
+    private byte[] mapScreen;
+
+    /**
+     * Имя итогового файла в MinIO (с расширением)
+     */
+    @Column(name = "result_file")
+    private String resultFile;
+
+    /**
+     * Текст ошибки, если задание завершилось неудачно
+     */
+    @Column(name = "error_message", columnDefinition = "text")
+    private String errorMessage;
+
+    /**
+     * Количество попыток выполнения
+     */
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * Идентификатор узла, выполняющего задание
+     */
+    @Column(name = "worker_id")
+    private String workerId;
+
+    /**
+     * Дата создания задания
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Дата начала выполнения
+     */
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    /**
+     * Время последнего подтверждения, что задание еще выполняется
+     */
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    /**
+     * Дата завершения выполнения
+     */
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Override
+    public String toString() {
+        return "ExpertiseGenerationJob{" +
+                "id=" + id +
+                ", expertiseId=" + expertiseId +
+                ", status=" + status +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.expertise.model.llm;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сущность сохраненного ответа языковой модели.
+ * Ключ - отпечаток нормализованного запроса (модель, системный и пользовательский промпт).
+ */
+@Entity
+@Table(name = "llm_response_cache")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class LlmResponseCacheEntry {
+
+    /**
+     * SHA-256 нормализованного запроса
+     */
+    @Id
+    @Column(length = 64)
+    private String fingerprint;
+
+    /**
+     * Модель, сформировавшая ответ
+     */
+    @Column(nullable = false, length = 100)
+    private String model;
+
+    /**
+     * Текст ответа модели
+     */
+    @Column(nullable = false, columnDefinition = "text")
+    private String response;
+
+    /**
+     * Количество обращений к сохраненному ответу
+     */
+    @Column(nullable = false)
+    private int hits;
+
+    /**
+     * Дата сохранения ответа
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Дата последнего обращения к ответу
+     */
+    @Column(name = "last_hit_at")
+    private LocalDateTime lastHitAt;
+
+    /**
+     * Дата, после которой ответ считается устаревшим
+     */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Override
+    public String toString() {
+        return "LlmResponseCacheEntry{" +
+                "fingerprint=" + fingerprint +
+                ", model=" + model +
+                ", hits=" + hits +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.expertise.repository.expertise;
+
+import com.example.expertise.model.expertise.AnswerConclusionTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Репозиторий для работы с заданиями на генерацию вывода по ответу.
+ */
+@Repository
+public interface AnswerConclusionTaskRepository extends JpaRepository<AnswerConclusionTask, UUID> {
+
+    /**
+     * Блокирует самое старое ожидающее задание. Задания, заблокированные другими узлами, пропускаются.
+     * Вызывается только внутри транзакции.
+     *
+     * @return ожидающее задание или пусто, если свободных заданий нет
+     */
+    @Query(value = "SELECT * FROM answer_conclusion_task WHERE status = 'PENDING' " +
+            "ORDER BY created_at LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<AnswerConclusionTask> lockNextPending();
+
+    /**
+     * Последнее задание по вопросу
+     *
+     * @param questionId идентификатор вопроса
+     * @return задание или пусто
+     */
+    Optional<AnswerConclusionTask> findFirstByQuestionIdOrderByCreatedAtDesc(UUID questionId);
+
+    /**
+     * Отменяет незавершенные задания по вопросу: их результат больше не актуален.
+     *
+     * @param questionId идентификатор вопроса
+     * @return количество обновленных строк
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE answer_conclusion_task SET status = 'SUPERSEDED', finished_at = CURRENT_TIMESTAMP " +
+            "WHERE question_id = :questionId AND status IN ('PENDING', 'RUNNING')", nativeQuery = true)
+    int supersede(@Param("questionId") UUID questionId);
+
+    /**
+     * Продлевает выполнение задания. Обновляется только попытка, которой задание принадлежит сейчас.
+     *
+     * @param taskId   идентификатор задания
+     * @param workerId идентификатор узла, выполняющего задание
+     * @param attempts номер попытки
+     * @param now      текущее время
+     * @return количество обновленных строк (0, если задание отменено или передано другой попытке)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE answer_conclusion_task SET heartbeat_at = :now " +
+            "WHERE id = :taskId AND status = 'RUNNING' AND worker_id = :workerId AND attempts = :attempts", nativeQuery = true)
+    int heartbeat(@Param("taskId") UUID taskId, @Param("workerId") String workerId, @Param("attempts") int attempts,
+                  @Param("now") LocalDateTime now);
+
+    /**
+     * Завершает выполняемое задание и записывает вывод в вопрос одной командой.
+     * Отмененное задание и задание, переданное другой попытке, не перезаписываются, вывод в этом случае не сохраняется.
+     *
+     * @param taskId     идентификатор задания
+     * @param workerId   идентификатор узла, выполняющего задание
+     * @param attempts   номер попытки
+     * @param conclusion сгенерированный вывод
+     * @return количество обновленных вопросов
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH done AS (UPDATE answer_conclusion_task SET status = 'COMPLETED', finished_at = CURRENT_TIMESTAMP " +
+            "WHERE id = :taskId AND status = 'RUNNING' AND worker_id = :workerId AND attempts = :attempts RETURNING question_id) " +
+            "UPDATE expertise_question SET answer_conclusion = :conclusion WHERE id IN (SELECT question_id FROM done)",
+            nativeQuery = true)
+    int complete(@Param("taskId") UUID taskId, @Param("workerId") String workerId, @Param("attempts") int attempts,
+                 @Param("conclusion") String conclusion);
+
+    /**
+     * Завершает выполняемое задание с ошибкой. Отмененное задание и задание, переданное другой попытке,
+     * не перезаписываются.
+     *
+     * @param taskId       идентификатор задания
+     * @param workerId     идентификатор узла, выполняющего задание
+     * @param attempts     номер попытки
+     * @param errorMessage текст ошибки
+     * @return количество обновленных строк
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE answer_conclusion_task SET status = 'FAILED', error_message = :errorMessage, " +
+            "finished_at = CURRENT_TIMESTAMP " +
+            "WHERE id = :taskId AND status = 'RUNNING' AND worker_id = :workerId AND attempts = :attempts", nativeQuery = true)
+    int fail(@Param("taskId") UUID taskId, @Param("workerId") String workerId, @Param("attempts") int attempts,
+             @Param("errorMessage") String errorMessage);
+
+    /**
+     * Возвращает в очередь задание, которое не удалось запустить на узле (например, пул отклонил задачу при остановке).
+     * Попытка не засчитывается. Отмененное задание и задание, переданное другой попытке, не изменяются.
+     *
+     * @param taskId   идентификатор задания
+     * @param workerId идентификатор узла, забравшего задание
+     * @param attempts номер попытки
+     * @return количество обновленных строк
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE answer_conclusion_task SET status = 'PENDING', worker_id = NULL, started_at = NULL, " +
+            "heartbeat_at = NULL, attempts = attempts - 1 " +
+            "WHERE id = :taskId AND status = 'RUNNING' AND worker_id = :workerId AND attempts = :attempts", nativeQuery = true)
+    int release(@Param("taskId") UUID taskId, @Param("workerId") String workerId, @Param("attempts") int attempts);
+
+    /**
+     * Возвращает в очередь задания в статусе RUNNING, по которым давно не было heartbeat (например, после падения узла).
+     * Задания, исчерпавшие попытки, переводятся в FAILED.
+     *
+     * @param heartbeatBefore граница времени последнего heartbeat
+     * @param maxAttempts     максимальное количество попыток
+     * @return количество обновленных строк
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE answer_conclusion_task SET " +
+            "status = CASE WHEN attempts >= :maxAttempts THEN 'FAILED' ELSE 'PENDING' END, " +
+            "error_message = CASE WHEN attempts >= :maxAttempts THEN 'Превышено время выполнения задания' ELSE error_message END, " +
+            "finished_at = CASE WHEN attempts >= :maxAttempts THEN CURRENT_TIMESTAMP ELSE NULL END, " +
+            "worker_id = NULL " +
+            "WHERE status = 'RUNNING' AND COALESCE(heartbeat_at, started_at) < :heartbeatBefore", nativeQuery = true)
+    int requeueStale(@Param("heartbeatBefore") LocalDateTime heartbeatBefore, @Param("maxAttempts") int maxAttempts);
+}
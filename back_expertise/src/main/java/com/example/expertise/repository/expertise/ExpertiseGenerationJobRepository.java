@@ -0,0 +1,121 @@
+package com.example.expertise.repository.expertise;
+
+import com.example.expertise.model.expertise.ExpertiseGenerationJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Репозиторий для работы с заданиями на генерацию файла экспертизы.
+ */
+@Repository
+public interface ExpertiseGenerationJobRepository extends JpaRepository<ExpertiseGenerationJob, UUID> {
+
+    /**
+     * Блокирует самое старое ожидающее задание. Задания, заблокированные другими узлами, пропускаются.
+     * Вызывается только внутри транзакции.
+     *
+     * @return ожидающее задание или пусто, если свободных заданий нет
+     */
+    @Query(value = "SELECT * FROM expertise_generation_job WHERE status = 'PENDING' " +
+            "ORDER BY created_at LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<ExpertiseGenerationJob> lockNextPending();
+
+    /**
+     * Отменяет задание, если оно еще не завершено.
+     *
+     * @param jobId идентификатор задания
+     * @return количество обновленных строк
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE expertise_generation_job SET status = 'CANCELLED', finished_at = CURRENT_TIMESTAMP, " +
+            "map_screen = NULL WHERE id = :jobId AND status IN ('PENDING', 'RUNNING')", nativeQuery = true)
+    int cancel(@Param("jobId") UUID jobId);
+
+    /**
+     * Продлевает выполнение задания. Обновляется только попытка, которой задание принадлежит сейчас.
+     *
+     * @param jobId    идентификатор задания
+     * @param workerId идентификатор узла, выполняющего задание
+     * @param attempts номер попытки
+     * @param now      текущее время
+     * @return количество обновленных строк (0, если задание отменено или передано другой попытке)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE expertise_generation_job SET heartbeat_at = :now " +
+            "WHERE id = :jobId AND status = 'RUNNING' AND worker_id = :workerId AND attempts = :attempts", nativeQuery = true)
+    int heartbeat(@Param("jobId") UUID jobId, @Param("workerId") String workerId, @Param("attempts") int attempts,
+                  @Param("now") LocalDateTime now);
+
+    /**
+     * Завершает выполняемое задание успешно. Отмененное задание и задание, переданное другой попытке,
+     * не перезаписываются.
+     *
+     * @param jobId      идентификатор задания
+     * @param workerId   идентификатор узла, выполняющего задание
+     * @param attempts   номер попытки
+     * @param resultFile имя итогового файла в MinIO
+     * @return количество обновленных строк
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE expertise_generation_job SET status = 'COMPLETED', result_file = :resultFile, " +
+            "finished_at = CURRENT_TIMESTAMP, map_screen = NULL " +
+            "WHERE id = :jobId AND status = 'RUNNING' AND worker_id = :workerId AND attempts = :attempts", nativeQuery = true)
+    int complete(@Param("jobId") UUID jobId, @Param("workerId") String workerId, @Param("attempts") int attempts,
+                 @Param("resultFile") String resultFile);
+
+    /**
+     * Завершает выполняемое задание с ошибкой. Отмененное задание и задание, переданное другой попытке,
+     * не перезаписываются.
+     *
+     * @param jobId        идентификатор задания
+     * @param workerId     идентификатор узла, выполняющего задание
+     * @param attempts     номер попытки
+     * @param errorMessage текст ошибки
+     * @return количество обновленных строк
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE expertise_generation_job SET status = 'FAILED', error_message = :errorMessage, " +
+            "finished_at = CURRENT_TIMESTAMP, map_screen = NULL " +
+            "WHERE id = :jobId AND status = 'RUNNING' AND worker_id = :workerId AND attempts = :attempts", nativeQuery = true)
+    int fail(@Param("jobId") UUID jobId, @Param("workerId") String workerId, @Param("attempts") int attempts,
+             @Param("errorMessage") String errorMessage);
+
+    /**
+     * Возвращает в очередь задания в статусе RUNNING, по которым давно не было heartbeat (например, после падения узла).
+     * Задания, исчерпавшие попытки, переводятся в FAILED.
+     *
+     * @param heartbeatBefore граница времени последнего heartbeat
+     * @param maxAttempts     максимальное количество попыток
+     * @return количество обновленных строк
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE expertise_generation_job SET " +
+            "status = CASE WHEN attempts >= :maxAttempts THEN 'FAILED' ELSE 'PENDING' END, " +
+            "error_message = CASE WHEN attempts >= :maxAttempts THEN 'Превышено время выполнения задания' ELSE error_message END, " +
+            "finished_at = CASE WHEN attempts >= :maxAttempts THEN CURRENT_TIMESTAMP ELSE NULL END, " +
+            "worker_id = NULL " +
+            "WHERE status = 'RUNNING' AND COALESCE(heartbeat_at, started_at) < :heartbeatBefore", nativeQuery = true)
+    int requeueStale(@Param("heartbeatBefore") LocalDateTime heartbeatBefore, @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Проверяет, отменено ли задание.
+     *
+     * @param jobId идентификатор задания
+     * @return true, если задание отменено
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM expertise_generation_job WHERE id = :jobId AND status = 'CANCELLED')", nativeQuery = true)
+    boolean isCancelled(@Param("jobId") UUID jobId);
+}
@@ -0,0 +1,80 @@
+package com.example.expertise.repository.llm;
+
+import com.example.expertise.model.llm.LlmResponseCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Репозиторий для работы с сохраненными ответами языковой модели.
+ */
+@Repository
+public interface LlmResponseCacheRepository extends JpaRepository<LlmResponseCacheEntry, String> {
+
+    /**
+     * Находит неустаревший ответ по отпечатку запроса.
+     *
+     * @param fingerprint отпечаток запроса
+     * @param now         текущее время
+     * @return ответ или пусто
+     */
+    Optional<LlmResponseCacheEntry> findByFingerprintAndExpiresAtAfter(String fingerprint, LocalDateTime now);
+
+    /**
+     * Сохраняет ответ, перезаписывая ранее сохраненный для того же отпечатка.
+     *
+     * @param fingerprint отпечаток запроса
+     * @param model       модель
+     * @param response    текст ответа
+     * @param expiresAt   дата устаревания
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO llm_response_cache (fingerprint, model, response, hits, created_at, expires_at) " +
+            "VALUES (:fingerprint, :model, :response, 0, CURRENT_TIMESTAMP, :expiresAt) " +
+            "ON CONFLICT (fingerprint) DO UPDATE SET model = EXCLUDED.model, response = EXCLUDED.response, " +
+            "hits = 0, created_at = CURRENT_TIMESTAMP, last_hit_at = NULL, expires_at = EXCLUDED.expires_at", nativeQuery = true)
+    void upsert(@Param("fingerprint") String fingerprint, @Param("model") String model,
+                @Param("response") String response, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Отмечает обращение к сохраненному ответу.
+     *
+     * @param fingerprint отпечаток запроса
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE llm_response_cache SET hits = hits + 1, last_hit_at = CURRENT_TIMESTAMP " +
+            "WHERE fingerprint = :fingerprint", nativeQuery = true)
+    void markHit(@Param("fingerprint") String fingerprint);
+
+    /**
+     * Удаляет устаревшие ответы.
+     *
+     * @param now текущее время
+     * @return количество удаленных строк
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM llm_response_cache WHERE expires_at < :now", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    /**
+     * Оставляет не более заданного количества ответов, удаляя давно не использовавшиеся.
+     *
+     * @param maxRows максимальное количество ответов
+     * @return количество удаленных строк
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM llm_response_cache WHERE fingerprint IN (" +
+            "SELECT fingerprint FROM llm_response_cache ORDER BY COALESCE(last_hit_at, created_at) DESC OFFSET :maxRows)",
+            nativeQuery = true)
+    int trimTo(@Param("maxRows") int maxRows);
+}
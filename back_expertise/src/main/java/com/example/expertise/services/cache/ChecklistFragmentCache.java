@@ -0,0 +1,117 @@
+package com.example.expertise.services.cache;
+
+import com.example.expertise.model.checklist.ChecklistInstance;
+import com.example.expertise.services.expertise.checklists.render.document.ChecklistFragment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш отрендеренных фрагментов чек-листов для повторной генерации документа.
+ * <p>
+ * Версия фрагмента складывается из времени изменения чек-листа, его шаблона и всех чек-листов того же вопроса
+ * (рендереры читают связанные чек-листы). Пока версия не изменилась, фрагмент вставляется в новый документ
+ * без рендеринга - без обращений к MinIO и GigaChat.
+ */
+@Component
+public class ChecklistFragmentCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ChecklistFragmentCache.class);
+
+    private final long maxBytes;
+
+    // LRU: ID чек-листа -> фрагмент последней версии
+    private final LinkedHashMap<UUID, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ChecklistFragmentCache(@Value("${app.checklist-fragment-cache.max-bytes:268435456}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Получить фрагмент чек-листа, если его версия не изменилась.
+     * Версия читает чек-листы вопроса, поэтому их коллекция должна быть загружена заранее.
+     *
+     * @param checklist чек-лист
+     * @return фрагмент или null
+     */
+    public ChecklistFragment get(ChecklistInstance checklist) {
+        String version = versionOf(checklist);
+        Entry cached;
+        synchronized (this) {
+            cached = cache.get(checklist.getId());
+        }
+        if (cached != null && cached.version().equals(version)) {
+            hits.incrementAndGet();
+            log.debug("Фрагмент чек-листа {} взят из кэша (попаданий {}, промахов {})",
+                    checklist.getId(), hits.get(), misses.get());
+            return cached.fragment();
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Сохранить фрагмент текущей версии чек-листа
+     *
+     * @param checklist чек-лист
+     * @param fragment  фрагмент
+     */
+    public void put(ChecklistInstance checklist, ChecklistFragment fragment) {
+        Entry entry = new Entry(versionOf(checklist), fragment);
+        synchronized (this) {
+            Entry previous = cache.put(checklist.getId(), entry);
+            if (previous != null) {
+                totalBytes -= previous.fragment().weight();
+            }
+            totalBytes += fragment.weight();
+
+            Iterator<Map.Entry<UUID, Entry>> iterator = cache.entrySet().iterator();
+            while (totalBytes > maxBytes && iterator.hasNext()) {
+                Entry eldest = iterator.next().getValue();
+                iterator.remove();
+                totalBytes -= eldest.fragment().weight();
+            }
+        }
+    }
+
+    /**
+     * Удалить фрагмент чек-листа из кэша
+     *
+     * @param checklistId ID чек-листа
+     */
+    public synchronized void evict(UUID checklistId) {
+        Entry removed = cache.remove(checklistId);
+        if (removed != null) {
+            totalBytes -= removed.fragment().weight();
+        }
+    }
+
+    /**
+     * Версия фрагмента: изменения чек-листа, его шаблона и чек-листов того же вопроса
+     */
+    private String versionOf(ChecklistInstance checklist) {
+        String linked = checklist.getExpertiseQuestion().getChecklistInstances().stream()
+                .map(instance -> instance.getId() + "@" + instance.getUpdatedAt())
+                .sorted()
+                .collect(Collectors.joining(","));
+        return checklist.getUpdatedAt() + "|" + checklist.getChecklistTemplate().getUpdatedAt() + "|" + linked;
+    }
+
+    /**
+     * Фрагмент чек-листа вместе с версией, для которой он получен
+     */
+    private record Entry(String version, ChecklistFragment fragment) {
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.expertise.services.cache;
+
+import com.example.expertise.integration.minio.MinioIntegration;
+import com.example.expertise.integration.minio.TemplateFile;
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш шаблонов экспертиз (DOCX).
+ * <p>
+ * Ключ кэша - название шаблона и его ETag в MinIO. Перед каждой генерацией версия проверяется условным
+ * запросом: если шаблон перезагрузили, ETag меняется и старая версия вытесняется.
+ * <p>
+ * Для каждой версии держится несколько заранее разобранных копий пакета. Запрос забирает готовую копию
+ * в монопольное пользование, а новая копия разбирается в фоне из закэшированных байтов
+ * в отдельном небольшом пуле templateExecutor.
+ * Размер кэша ограничен суммарным весом (оценкой занимаемой памяти), вытесняются давно не используемые шаблоны.
+ */
+@Component
+public class ExpertiseTemplateCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpertiseTemplateCache.class);
+
+    /**
+     * Грубая оценка: во сколько раз разобранный пакет в памяти больше исходного файла
+     */
+    private static final int PARSED_SIZE_FACTOR = 5;
+
+    private final MinioIntegration minioIntegration;
+    private final Executor templateExecutor;
+    private final long maxWeightBytes;
+    private final int preparedCopies;
+
+    // LRU: название шаблона -> закэшированная версия шаблона
+    private final LinkedHashMap<String, CachedTemplate> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ExpertiseTemplateCache(MinioIntegration minioIntegration,
+                                  @Qualifier("templateExecutor") Executor templateExecutor,
+                                  @Value("${app.template-cache.max-bytes:104857600}") long maxWeightBytes,
+                                  @Value("${app.template-cache.prepared-copies:2}") int preparedCopies) {
+        this.minioIntegration = minioIntegration;
+        this.templateExecutor = templateExecutor;
+        this.maxWeightBytes = maxWeightBytes;
+        this.preparedCopies = preparedCopies;
+    }
+
+    /**
+     * Получить шаблон экспертизы для заполнения.
+     * Возвращаемый пакет принадлежит только вызывающему и может свободно изменяться.
+     *
+     * @param templateName название шаблона
+     * @return разобранный пакет шаблона
+     */
+    public WordprocessingMLPackage getTemplate(String templateName) throws Docx4JException {
+        CachedTemplate cached = get(templateName);
+        TemplateFile file;
+        try {
+            file = minioIntegration.getExpertiseTemplate(templateName, cached != null ? cached.etag : null);
+        } catch (RuntimeException e) {
+            // Шаблон удален из хранилища или недоступен: не держим в памяти версию, которую нельзя подтвердить
+            if (cached != null) {
+                evict(templateName);
+            }
+            throw e;
+        }
+
+        CachedTemplate current;
+        if (file.notModified() && cached != null) {
+            current = cached;
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            if (file.etag() == null) {
+                // Без версии кэшировать нельзя: не сможем понять, что шаблон перезагрузили
+                return load(file.content());
+            }
+            current = new CachedTemplate(templateName, file.etag(), file.content(), weightOf(file.content()));
+            put(current);
+            log.info("Шаблон {} закэширован, версия {}", templateName, file.etag());
+        }
+
+        WordprocessingMLPackage template = current.prepared.poll();
+        if (template == null) {
+            template = load(current.content);
+        }
+        scheduleRefill(current);
+
+        log.debug("Кэш шаблонов: попаданий {}, промахов {}", hits.get(), misses.get());
+        return template;
+    }
+
+    /**
+     * Удалить шаблон из кэша. Перезагрузка шаблона отслеживается по ETag при каждом запросе,
+     * поэтому явное удаление нужно только когда шаблон больше не удается получить из хранилища
+     *
+     * @param templateName название шаблона
+     */
+    private synchronized void evict(String templateName) {
+        CachedTemplate removed = cache.remove(templateName);
+        if (removed != null) {
+            release(removed);
+        }
+    }
+
+    private synchronized CachedTemplate get(String templateName) {
+        return cache.get(templateName);
+    }
+
+    private synchronized void put(CachedTemplate template) {
+        CachedTemplate previous = cache.put(template.name, template);
+        if (previous != null) {
+            release(previous);
+        }
+        totalWeight += template.weight;
+
+        // Вытесняем давно не используемые шаблоны, пока не уложимся в лимит (последний добавленный оставляем)
+        Iterator<Map.Entry<String, CachedTemplate>> iterator = cache.entrySet().iterator();
+        while (totalWeight > maxWeightBytes && cache.size() > 1 && iterator.hasNext()) {
+            CachedTemplate eldest = iterator.next().getValue();
+            if (eldest == template) {
+                continue;
+            }
+            iterator.remove();
+            release(eldest);
+            log.info("Шаблон {} вытеснен из кэша", eldest.name);
+        }
+    }
+
+    private void release(CachedTemplate template) {
+        template.evicted = true;
+        template.prepared.clear();
+        totalWeight -= template.weight;
+    }
+
+    /**
+     * Разбирает в фоне недостающие копии шаблона
+     */
+    private void scheduleRefill(CachedTemplate template) {
+        if (preparedCopies <= 0 || !template.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            templateExecutor.execute(() -> {
+                try {
+                    while (!template.evicted && template.prepared.size() < preparedCopies) {
+                        template.prepared.add(load(template.content));
+                    }
+                } catch (Exception e) {
+                    log.warn("Не удалось подготовить копию шаблона {}: {}", template.name, e.getMessage());
+                } finally {
+                    template.refilling.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            template.refilling.set(false);
+        }
+    }
+
+    private long weightOf(byte[] content) {
+        return content.length + (long) content.length * PARSED_SIZE_FACTOR * preparedCopies;
+    }
+
+    private WordprocessingMLPackage load(byte[] content) throws Docx4JException {
+        return WordprocessingMLPackage.load(new ByteArrayInputStream(content));
+    }
+
+    /**
+     * Закэшированная версия шаблона
+     */
+    private static final class CachedTemplate {
+        private final String name;
+        private final String etag;
+        private final byte[] content;
+        private final long weight;
+        private final Queue<WordprocessingMLPackage> prepared = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private volatile boolean evicted;
+
+        private CachedTemplate(String name, String etag, byte[] content, long weight) {
+            this.name = name;
+            this.etag = etag;
+            this.content = content;
+            this.weight = weight;
+        }
+    }
+}
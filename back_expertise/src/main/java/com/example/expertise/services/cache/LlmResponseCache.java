@@ -0,0 +1,169 @@
+package com.example.expertise.services.cache;
+
+import com.example.expertise.model.llm.LlmResponseCacheEntry;
+import com.example.expertise.repository.llm.LlmResponseCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+
+/**
+ * Кэш ответов языковой модели.
+ * <p>
+ * Ключ - SHA-256 нормализованного запроса: модели, системного и пользовательского промпта
+ * (пробельные символы схлопываются, края обрезаются). Ответы хранятся в таблице llm_response_cache,
+ * последние использованные дополнительно держатся в памяти. Устаревшие по TTL ответы не возвращаются
+ * и периодически удаляются, размер таблицы ограничен.
+ * Попадания в памяти и в таблице и промахи публикуются в метрике llm.cache.lookups, размер кэша в памяти
+ * и удаленные из таблицы ответы - в cache.size и cache.evictions с тегом cache=llm-responses.
+ */
+@Component
+public class LlmResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmResponseCache.class);
+
+    private final LlmResponseCacheRepository repository;
+    private final Duration ttl;
+    private final int memoryEntries;
+    private final int maxRows;
+
+    // LRU: отпечаток -> ответ, заполняется при чтении из таблицы и при сохранении
+    private final LinkedHashMap<String, MemoryEntry> memory = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public LlmResponseCache(LlmResponseCacheRepository repository,
+                            @Value("${app.llm-cache.ttl-hours:720}") long ttlHours,
+                            @Value("${app.llm-cache.memory-entries:1000}") int memoryEntries,
+                            @Value("${app.llm-cache.max-rows:100000}") int maxRows,
+                            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.memoryEntries = memoryEntries;
+        this.maxRows = maxRows;
+        this.memoryHits = Counter.builder("llm.cache.lookups").tag("result", "memory-hit").register(meterRegistry);
+        this.databaseHits = Counter.builder("llm.cache.lookups").tag("result", "database-hit").register(meterRegistry);
+        this.misses = Counter.builder("llm.cache.lookups").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", "llm-responses").register(meterRegistry);
+        Gauge.builder("cache.size", memory, map -> {
+            synchronized (map) {
+                return map.size();
+            }
+        }).tag("cache", "llm-responses").register(meterRegistry);
+    }
+
+    /**
+     * Отпечаток запроса к модели
+     *
+     * @param model        модель
+     * @param systemPrompt системный промпт
+     * @param userPrompt   пользовательский промпт
+     * @return SHA-256 нормализованного запроса в hex
+     */
+    public String fingerprint(String model, String systemPrompt, String userPrompt) {
+        String normalized = normalize(model) + '\u0000' + normalize(systemPrompt) + '\u0000' + normalize(userPrompt);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    /**
+     * Получить сохраненный ответ
+     *
+     * @param fingerprint отпечаток запроса
+     * @return ответ, если он сохранен и не устарел
+     */
+    public Optional<String> get(String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (memory) {
+            MemoryEntry entry = memory.get(fingerprint);
+            if (entry != null && entry.expiresAt().isAfter(now)) {
+                memoryHits.increment();
+                return Optional.of(entry.response());
+            }
+            memory.remove(fingerprint);
+        }
+
+        try {
+            Optional<LlmResponseCacheEntry> stored = repository.findByFingerprintAndExpiresAtAfter(fingerprint, now);
+            if (stored.isPresent()) {
+                repository.markHit(fingerprint);
+                remember(fingerprint, stored.get().getResponse(), stored.get().getExpiresAt());
+                databaseHits.increment();
+                return Optional.of(stored.get().getResponse());
+            }
+        } catch (Exception e) {
+            log.warn("Не удалось прочитать ответ модели из кэша: {}", e.getMessage());
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Сохранить ответ модели
+     *
+     * @param fingerprint отпечаток запроса
+     * @param model       модель
+     * @param response    текст ответа
+     */
+    public void put(String fingerprint, String model, String response) {
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        remember(fingerprint, response, expiresAt);
+        try {
+            repository.upsert(fingerprint, model, response, expiresAt);
+        } catch (Exception e) {
+            log.warn("Не удалось сохранить ответ модели в кэш: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Удаление устаревших ответов и ограничение размера таблицы
+     */
+    @Scheduled(fixedDelayString = "${app.llm-cache.cleanup-delay-ms:3600000}")
+    public void cleanup() {
+        int expired = repository.deleteExpired(LocalDateTime.now());
+        int trimmed = repository.trimTo(maxRows);
+        evictions.increment(expired + trimmed);
+        if (expired > 0 || trimmed > 0) {
+            log.info("Кэш ответов модели: удалено устаревших {}, вытеснено {}", expired, trimmed);
+        }
+    }
+
+    private void remember(String fingerprint, String response, LocalDateTime expiresAt) {
+        synchronized (memory) {
+            memory.put(fingerprint, new MemoryEntry(response, expiresAt));
+            while (memory.size() > memoryEntries) {
+                memory.remove(memory.keySet().iterator().next());
+            }
+        }
+    }
+
+    private String normalize(String value) {
+        return value == null ? "" : value.strip().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Ответ в памяти вместе со сроком действия
+     */
+    private record MemoryEntry(String response, LocalDateTime expiresAt) {
+    }
+}
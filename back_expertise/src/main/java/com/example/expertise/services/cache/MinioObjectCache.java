@@ -0,0 +1,149 @@
+package com.example.expertise.services.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш объектов MinIO (фото ответов, документы профиля), полученных из сервиса minio, вместе с их ETag.
+ * <p>
+ * Запись не считается свежей сама по себе: перед использованием она подтверждается условным запросом
+ * (If-None-Match или ETag в ключе пакетного запроса), и при совпадении версии содержимое повторно не передается.
+ * Суммарный размер ограничен, вытесняются давно не использованные записи.
+ */
+@Component
+public class MinioObjectCache {
+
+    private static final Logger log = LoggerFactory.getLogger(MinioObjectCache.class);
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    // LRU: бакет/имя объекта -> закэшированная версия
+    private final LinkedHashMap<String, CachedObject> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong revalidated = new AtomicLong();
+    private final AtomicLong transferred = new AtomicLong();
+    private final AtomicLong savedBytes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public MinioObjectCache(@Value("${app.minio.object-cache.max-bytes:268435456}") long maxBytes,
+                            @Value("${app.minio.object-cache.max-entry-bytes:16777216}") long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /**
+     * Ключ записи кэша
+     *
+     * @param bucket     название бакета
+     * @param objectName имя объекта (с расширением)
+     * @return ключ записи
+     */
+    public static String key(String bucket, String objectName) {
+        return bucket + "/" + objectName;
+    }
+
+    /**
+     * Получить закэшированную версию объекта
+     *
+     * @param key ключ записи
+     * @return закэшированная версия или null
+     */
+    public synchronized CachedObject get(String key) {
+        return cache.get(key);
+    }
+
+    /**
+     * Помещается ли объект заданного размера в кэш
+     *
+     * @param size размер объекта в байтах
+     * @return true, если объект можно закэшировать
+     */
+    public boolean accepts(long size) {
+        return size >= 0 && size <= maxEntryBytes;
+    }
+
+    /**
+     * Сохранить полученную версию объекта
+     *
+     * @param key     ключ записи
+     * @param etag    ETag объекта без кавычек
+     * @param content содержимое объекта
+     */
+    public void put(String key, String etag, byte[] content) {
+        transferred.incrementAndGet();
+        if (etag == null || etag.isEmpty() || !accepts(content.length)) {
+            return;
+        }
+        synchronized (this) {
+            CachedObject previous = cache.put(key, new CachedObject(etag, content));
+            if (previous != null) {
+                totalBytes -= previous.content().length;
+            }
+            totalBytes += content.length;
+            evictIfNeeded();
+        }
+    }
+
+    /**
+     * Отметить, что закэшированная версия подтверждена сервером и содержимое не передавалось
+     *
+     * @param cached подтвержденная версия
+     */
+    public void recordRevalidated(CachedObject cached) {
+        revalidated.incrementAndGet();
+        savedBytes.addAndGet(cached.content().length);
+        if (log.isDebugEnabled()) {
+            log.debug("Кэш объектов MinIO: подтверждено без передачи {}, передано {}, сэкономлено {} байт, " +
+                    "записей {}, {} байт, вытеснено {}", revalidated.get(), transferred.get(), savedBytes.get(),
+                    size(), bytes(), evictions.get());
+        }
+    }
+
+    /**
+     * Удалить запись (объект удален или больше не существует)
+     *
+     * @param key ключ записи
+     */
+    public synchronized void evict(String key) {
+        CachedObject removed = cache.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.content().length;
+        }
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    public synchronized long bytes() {
+        return totalBytes;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, CachedObject>> iterator = cache.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, CachedObject> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue().content().length;
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Закэшированная версия объекта
+     *
+     * @param etag    ETag объекта без кавычек
+     * @param content содержимое объекта
+     */
+    public record CachedObject(String etag, byte[] content) {
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.expertise.services.cache;
+
+import com.example.expertise.services.expertise.document.PdfRasterizer;
+import com.example.expertise.services.expertise.document.RenderedPages;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Дисковый кэш страниц PDF-документов, отрендеренных в изображения (дипломы, сертификаты, схемы дефектов).
+ * <p>
+ * Ключ - SHA-256 от содержимого PDF и параметров рендеринга, поэтому одинаковый документ рендерится один раз,
+ * а измененный документ или смена параметров рендеринга дают новый ключ.
+ * Каждая запись - каталог с файлами страниц. Суммарный размер ограничен, вытесняются давно не использованные записи.
+ * Попадания, промахи, вытеснения и размер кэша публикуются в метриках cache.* с тегом cache=rendered-pages.
+ */
+@Component
+public class RenderedPageCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RenderedPageCache.class);
+
+    private static final String PAGE_FILE_PREFIX = "page_";
+    private static final String PAGE_FILE_SUFFIX = ".jpg";
+    private static final String TEMP_DIR_SUFFIX = ".tmp";
+
+    private final PdfRasterizer pdfRasterizer;
+    private final Path cacheDir;
+    private final long maxBytes;
+
+    // LRU: ключ записи -> описание записи на диске
+    private final LinkedHashMap<String, CachedEntry> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public RenderedPageCache(PdfRasterizer pdfRasterizer,
+                             @Value("${app.page-cache.dir:${java.io.tmpdir}/expertise-page-cache}") String cacheDir,
+                             @Value("${app.page-cache.max-bytes:536870912}") long maxBytes,
+                             MeterRegistry meterRegistry) {
+        this.pdfRasterizer = pdfRasterizer;
+        this.cacheDir = Path.of(cacheDir);
+        this.maxBytes = maxBytes;
+        this.hits = Counter.builder("cache.gets").tag("cache", "rendered-pages").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", "rendered-pages").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", "rendered-pages").register(meterRegistry);
+        Gauge.builder("cache.size", this, RenderedPageCache::size).tag("cache", "rendered-pages").register(meterRegistry);
+        Gauge.builder("cache.bytes", this, RenderedPageCache::bytes).tag("cache", "rendered-pages")
+                .baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * Восстанавливает индекс по содержимому каталога кэша (в порядке последнего использования)
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            Files.createDirectories(cacheDir);
+            List<Path> entries;
+            try (Stream<Path> stream = Files.list(cacheDir)) {
+                entries = stream.filter(Files::isDirectory).toList();
+            }
+
+            List<Path> valid = new ArrayList<>();
+            for (Path entry : entries) {
+                if (entry.getFileName().toString().endsWith(TEMP_DIR_SUFFIX)) {
+                    deleteRecursively(entry); // недописанная запись после аварийной остановки
+                } else {
+                    valid.add(entry);
+                }
+            }
+            valid.sort(Comparator.comparing(this::lastModified));
+
+            synchronized (this) {
+                for (Path entry : valid) {
+                    CachedEntry cachedEntry = describe(entry);
+                    index.put(entry.getFileName().toString(), cachedEntry);
+                    totalBytes += cachedEntry.bytes();
+                }
+                evictIfNeeded();
+            }
+            log.info("Кэш отрендеренных страниц: {} записей, {} байт, каталог {}", index.size(), totalBytes, cacheDir);
+        } catch (IOException e) {
+            log.warn("Не удалось инициализировать кэш отрендеренных страниц в {}: {}", cacheDir, e.getMessage());
+        }
+    }
+
+    /**
+     * Получить страницы PDF-документа в виде изображений.
+     * При отсутствии в кэше документ рендерится и сохраняется, только если отрендерены все страницы:
+     * иначе пропущенная страница закрепилась бы в кэше под тем же ключом
+     *
+     * @param pdfData байты PDF-документа
+     * @return список байтов изображений (JPEG) для каждой страницы
+     */
+    public List<byte[]> getPages(byte[] pdfData) {
+        String key = computeKey(pdfData);
+
+        List<byte[]> cached = read(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        RenderedPages rendered = pdfRasterizer.renderPages(pdfData);
+        if (rendered.complete()) {
+            write(key, rendered.pages());
+        } else if (!rendered.pages().isEmpty()) {
+            log.warn("PDF-документ отрендерен не полностью ({} из {} стр.), страницы не кэшируются",
+                    rendered.pages().size(), rendered.pageCount());
+        }
+        return rendered.pages();
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized long bytes() {
+        return totalBytes;
+    }
+
+    private List<byte[]> read(String key) {
+        CachedEntry cachedEntry;
+        synchronized (this) {
+            cachedEntry = index.get(key);
+        }
+        if (cachedEntry == null) {
+            return null;
+        }
+        Path entryDir = cacheDir.resolve(key);
+        try {
+            List<Path> pageFiles;
+            try (Stream<Path> stream = Files.list(entryDir)) {
+                pageFiles = stream.sorted().toList();
+            }
+            if (pageFiles.size() != cachedEntry.pages()) {
+                throw new IOException("ожидалось страниц: " + cachedEntry.pages() + ", найдено: " + pageFiles.size());
+            }
+            List<byte[]> pages = new ArrayList<>(pageFiles.size());
+            for (Path pageFile : pageFiles) {
+                pages.add(Files.readAllBytes(pageFile));
+            }
+            Files.setLastModifiedTime(entryDir, FileTime.fromMillis(System.currentTimeMillis()));
+            return pages;
+        } catch (IOException e) {
+            // Запись удалена или повреждена (например, вытеснена параллельно) - рендерим заново
+            log.warn("Не удалось прочитать запись кэша отрендеренных страниц {}: {}", key, e.getMessage());
+            remove(key);
+            return null;
+        }
+    }
+
+    private void write(String key, List<byte[]> pages) {
+        Path tempDir = cacheDir.resolve(key + "_" + UUID.randomUUID() + TEMP_DIR_SUFFIX);
+        Path entryDir = cacheDir.resolve(key);
+        try {
+            Files.createDirectories(tempDir);
+            long size = 0;
+            for (int i = 0; i < pages.size(); i++) {
+                byte[] page = pages.get(i);
+                Files.write(tempDir.resolve(String.format("%s%04d%s", PAGE_FILE_PREFIX, i + 1, PAGE_FILE_SUFFIX)), page);
+                size += page.length;
+            }
+
+            synchronized (this) {
+                if (index.containsKey(key)) {
+                    deleteRecursively(tempDir); // параллельный запрос уже сохранил ту же запись
+                    return;
+                }
+                Files.move(tempDir, entryDir, StandardCopyOption.ATOMIC_MOVE);
+                index.put(key, new CachedEntry(size, pages.size()));
+                totalBytes += size;
+                evictIfNeeded();
+            }
+        } catch (IOException e) {
+            log.warn("Не удалось сохранить запись кэша отрендеренных страниц {}: {}", key, e.getMessage());
+            deleteRecursively(tempDir);
+        }
+    }
+
+    private synchronized void remove(String key) {
+        CachedEntry removed = index.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.bytes();
+        }
+        deleteRecursively(cacheDir.resolve(key));
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, CachedEntry>> iterator = index.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, CachedEntry> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue().bytes();
+            evictions.increment();
+            deleteRecursively(cacheDir.resolve(eldest.getKey()));
+        }
+    }
+
+    private String computeKey(byte[] pdfData) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(pdfData);
+            digest.update(pdfRasterizer.renderSettings().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Алгоритм SHA-256 недоступен", e);
+        }
+    }
+
+    private FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private CachedEntry describe(Path dir) throws IOException {
+        try (Stream<Path> stream = Files.list(dir)) {
+            List<Path> files = stream.toList();
+            long size = 0;
+            for (Path file : files) {
+                size += Files.size(file);
+            }
+            return new CachedEntry(size, files.size());
+        }
+    }
+
+    private void deleteRecursively(Path dir) {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> stream = Files.walk(dir)) {
+            for (Path path : stream.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            log.warn("Не удалось удалить {}: {}", dir, e.getMessage());
+        }
+    }
+
+    /**
+     * Запись кэша: размер на диске и количество страниц
+     */
+    private record CachedEntry(long bytes, int pages) {
+    }
+}
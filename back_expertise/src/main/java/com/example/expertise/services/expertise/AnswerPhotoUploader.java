@@ -1,8 +1,12 @@
 package com.example.expertise.services.expertise;
 
 import com.example.expertise.dto.expertise.AnswerDto;
+import com.example.expertise.dto.expertise.PhotoUploadSlotDto;
 import com.example.expertise.model.expertise.ExpertiseQuestion;
 
+import java.util.List;
+import java.util.UUID;
+
 /**
  * Вспомогательный класс для управления фотографиями ответов на вопросы.
  */
@@ -12,4 +16,14 @@ public interface AnswerPhotoUploader {
      * Загружает фотографии, если они присутствуют в данных ответа.
      */
     void uploadPhotosIfPresent(ExpertiseQuestion expertiseQuestion, AnswerDto answerDto);
+
+    /**
+     * Выдает ссылки для загрузки фотографий ответа клиентом напрямую в хранилище.
+     */
+    List<PhotoUploadSlotDto> createUploadSlots(ExpertiseQuestion expertiseQuestion, int count);
+
+    /**
+     * Регистрирует фотографии, загруженные клиентом напрямую в хранилище.
+     */
+    void registerUploadedPhotos(ExpertiseQuestion expertiseQuestion, List<UUID> photoIds);
 }
@@ -1,13 +1,27 @@
 package com.example.expertise.services.expertise;
 
-import com.example.expertise.model.expertise.ExpertiseQuestion;
-
 /**
  * Интерфейс для генерации выводов
  */
 public interface ConclusionGenerator {
     /**
-     * Добавляет заключение к вопросу, если оно существует и не пустое.
+     * Генерирует вывод по ответу на вопрос экспертизы.
+     *
+     * @param question текст вопроса экспертизы
+     * @param answer   ответ на вопрос экспертизы
+     * @return сгенерированный вывод или null, если вывод не может быть сгенерирован
+     */
+    default String generateConclusion(String question, String answer) {
+        return generateConclusion(question, answer, false);
+    }
+
+    /**
+     * Генерирует вывод по ответу на вопрос экспертизы.
+     *
+     * @param question    текст вопроса экспертизы
+     * @param answer      ответ на вопрос экспертизы
+     * @param bypassCache не использовать кэш ответов модели, чтобы получить новый вариант вывода
+     * @return сгенерированный вывод или null, если вывод не может быть сгенерирован
      */
-    void addConclusionIfPresent(ExpertiseQuestion expertiseQuestion, String answer);
+    String generateConclusion(String question, String answer, boolean bypassCache);
 }
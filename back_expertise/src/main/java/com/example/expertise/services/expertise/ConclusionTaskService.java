@@ -0,0 +1,78 @@
+package com.example.expertise.services.expertise;
+
+import com.example.expertise.dto.expertise.ConclusionTaskDto;
+import com.example.expertise.model.expertise.AnswerConclusionTask;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Сервис заданий на асинхронную генерацию выводов по ответам на вопросы экспертизы
+ */
+public interface ConclusionTaskService {
+
+    /**
+     * Ставит в очередь генерацию вывода по ответу. Незавершенные задания по вопросу отменяются.
+     * Вызывается в транзакции сохранения ответа, задание фиксируется вместе с ответом.
+     *
+     * @param questionId  ID вопроса
+     * @param answer      ответ на вопрос
+     * @param bypassCache запросить новый вывод у модели, не используя кэш ответов
+     */
+    void submit(UUID questionId, String answer, boolean bypassCache);
+
+    /**
+     * Отменяет незавершенные задания по вопросу
+     *
+     * @param questionId ID вопроса
+     */
+    void supersede(UUID questionId);
+
+    /**
+     * Получить состояние последнего задания по вопросу
+     *
+     * @param questionId ID вопроса
+     * @return состояние задания
+     */
+    ConclusionTaskDto getLatestTask(UUID questionId);
+
+    /**
+     * Забрать следующее ожидающее задание в работу
+     *
+     * @param workerId идентификатор узла
+     * @return задание или пусто, если очередь пуста
+     */
+    Optional<AnswerConclusionTask> claimNextTask(String workerId);
+
+    /**
+     * Выполнить задание: сгенерировать вывод и записать его в вопрос
+     *
+     * @param task задание в статусе RUNNING
+     */
+    void processTask(AnswerConclusionTask task);
+
+    /**
+     * Вернуть в очередь задание, которое не удалось запустить на этом узле. Попытка не засчитывается
+     *
+     * @param task задание в статусе RUNNING
+     */
+    void releaseTask(AnswerConclusionTask task);
+
+    /**
+     * Подтвердить, что задание еще выполняется
+     *
+     * @param task задание в статусе RUNNING
+     * @return false, если задание отменено или передано другой попытке
+     */
+    boolean heartbeat(AnswerConclusionTask task);
+
+    /**
+     * Вернуть в очередь зависшие задания
+     *
+     * @param heartbeatTimeout время без heartbeat, после которого задание считается зависшим
+     * @param maxAttempts      максимальное количество попыток
+     * @return количество обработанных заданий
+     */
+    int requeueStaleTasks(Duration heartbeatTimeout, int maxAttempts);
+}
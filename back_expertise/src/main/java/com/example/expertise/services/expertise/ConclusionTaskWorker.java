@@ -0,0 +1,130 @@
+package com.example.expertise.services.expertise;
+
+import com.example.expertise.enums.Downstream;
+import com.example.expertise.integration.IoExecutor;
+import com.example.expertise.model.expertise.AnswerConclusionTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Воркер очереди заданий на генерацию выводов по ответам.
+ * Опрашивает таблицу заданий и выполняет их в пуле обращений к GigaChat, не занимая потоки HTTP-запросов.
+ * Выполняемые задания периодически продлеваются (heartbeat), поэтому медленный ответ GigaChat
+ * не приводит к повторному выполнению задания.
+ */
+@Component
+public class ConclusionTaskWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(ConclusionTaskWorker.class);
+
+    private final ConclusionTaskService conclusionTaskService;
+    private final IoExecutor ioExecutor;
+    private final Semaphore slots;
+    private final String workerId = ManagementFactory.getRuntimeMXBean().getName();
+
+    /**
+     * Задания, выполняемые на этом узле
+     */
+    private final Map<UUID, AnswerConclusionTask> runningTasks = new ConcurrentHashMap<>();
+
+    /**
+     * Время без heartbeat, после которого задание считается зависшим
+     */
+    @Value("${app.conclusion.heartbeat-timeout-ms:120000}")
+    private long heartbeatTimeoutMs;
+
+    @Value("${app.conclusion.max-attempts:3}")
+    private int maxAttempts;
+
+    public ConclusionTaskWorker(ConclusionTaskService conclusionTaskService,
+                                IoExecutor ioExecutor,
+                                @Value("${app.conclusion.workers:4}") int workers) {
+        this.conclusionTaskService = conclusionTaskService;
+        this.ioExecutor = ioExecutor;
+        this.slots = new Semaphore(workers);
+    }
+
+    /**
+     * Забирает ожидающие задания, пока есть свободные воркеры.
+     */
+    @Scheduled(fixedDelayString = "${app.conclusion.poll-delay-ms:1000}")
+    public void pollTasks() {
+        while (slots.tryAcquire()) {
+            Optional<AnswerConclusionTask> task;
+            try {
+                task = conclusionTaskService.claimNextTask(workerId);
+            } catch (Exception e) {
+                slots.release();
+                log.error("Ошибка при получении задания на генерацию вывода", e);
+                return;
+            }
+
+            if (task.isEmpty()) {
+                slots.release();
+                return;
+            }
+
+            try {
+                runningTasks.put(task.get().getId(), task.get());
+                ioExecutor.run(Downstream.GIGACHAT, () -> conclusionTaskService.processTask(task.get()))
+                        .whenComplete((result, error) -> {
+                            runningTasks.remove(task.get().getId());
+                            slots.release();
+                        });
+            } catch (RuntimeException e) {
+                // Пул отклонил задачу (например, при остановке узла): задание не должно висеть в RUNNING до таймаута
+                runningTasks.remove(task.get().getId());
+                slots.release();
+                log.warn("Не удалось запустить задание на генерацию вывода {}: {}", task.get().getId(), e.getMessage());
+                releaseClaimedTask(task.get());
+                return;
+            }
+        }
+    }
+
+    private void releaseClaimedTask(AnswerConclusionTask task) {
+        try {
+            conclusionTaskService.releaseTask(task);
+        } catch (Exception e) {
+            log.warn("Не удалось вернуть в очередь задание на генерацию вывода {}: {}", task.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Продлевает задания, выполняемые на этом узле.
+     */
+    @Scheduled(fixedDelayString = "${app.conclusion.heartbeat-delay-ms:20000}")
+    public void heartbeat() {
+        runningTasks.values().forEach(task -> {
+            try {
+                if (!conclusionTaskService.heartbeat(task)) {
+                    log.info("Задание на генерацию вывода {} отменено или передано другой попытке", task.getId());
+                }
+            } catch (Exception e) {
+                log.warn("Ошибка heartbeat задания на генерацию вывода {}: {}", task.getId(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Возвращает в очередь задания, по которым давно не было heartbeat (например, после падения узла).
+     */
+    @Scheduled(fixedDelayString = "${app.conclusion.stale-check-delay-ms:60000}")
+    public void requeueStaleTasks() {
+        int count = conclusionTaskService.requeueStaleTasks(Duration.ofMillis(heartbeatTimeoutMs), maxAttempts);
+        if (count > 0) {
+            log.warn("Возвращено в очередь зависших заданий на генерацию вывода: {}", count);
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.expertise.services.expertise;
 
 import com.example.expertise.dto.expertise.AnswerDto;
+import com.example.expertise.dto.expertise.PhotoUploadSlotDto;
 import com.example.expertise.model.expertise.ExpertiseQuestion;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -29,6 +31,13 @@ public interface ExpertiseQuestionService {
     @Transactional
     ExpertiseQuestion createAnswer(@Valid @NotNull(message = "AnswerData cannot be null") AnswerDto answerDto);
 
+    /**
+     * Поставить в очередь повторную генерацию вывода по текущему ответу, не используя кэш ответов модели
+     *
+     * @param questionId идентификатор вопроса экспертизы
+     */
+    void regenerateConclusion(@NotNull UUID questionId);
+
     /**
      * Обновить вывод ответа на вопрос экспертизы
      *
@@ -47,4 +56,23 @@ public interface ExpertiseQuestionService {
     @Transactional
     ExpertiseQuestion deletePhotoByName(@NotNull(message = "Имя файла не должно быть пустым") String filePath);
 
+    /**
+     * Получить ссылки для загрузки фото ответа напрямую в хранилище
+     *
+     * @param questionId идентификатор вопроса экспертизы
+     * @param count      количество фото
+     * @return идентификаторы фото и ссылки для загрузки
+     */
+    List<PhotoUploadSlotDto> createPhotoUploadSlots(@NotNull(message = "ExpertiseQuestion ID cannot be null") UUID questionId, int count);
+
+    /**
+     * Подтвердить загрузку фото ответа напрямую в хранилище
+     *
+     * @param questionId идентификатор вопроса экспертизы
+     * @param photoIds   идентификаторы загруженных фото
+     * @return обновленный вопрос экспертизы
+     */
+    @Transactional
+    ExpertiseQuestion completePhotoUploads(@NotNull(message = "ExpertiseQuestion ID cannot be null") UUID questionId,
+                                           @NotNull(message = "Не указаны идентификаторы фото") List<UUID> photoIds);
 }
@@ -4,9 +4,10 @@ import com.example.expertise.dto.expertise.CreateExpertiseDto;
 import com.example.expertise.dto.expertise.ExpertiseResponseDto;
 import com.example.expertise.model.expertise.Expertise;
 import jakarta.validation.constraints.NotNull;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -61,12 +62,21 @@ public interface ExpertiseService {
     void deleteExpertise(@NotNull(message = "expertiseId cannot be null") UUID expertiseId);
 
     /**
-     * Генерирует файл экспертной экспертизы по заданному ID экспертизы
+     * Генерирует документ экспертной экспертизы по заданному ID экспертизы
      *
      * @param expertiseId ID экспертизы
-     * @return Файл экспертной экспертизы
+     * @param mapScreen   скриншот карты объекта экспертизы
+     * @return заполненный документ экспертизы
      */
-    byte[] generateExpertiseFile(UUID expertiseId, MultipartFile mapScreen);
+    WordprocessingMLPackage generateExpertiseDocument(UUID expertiseId, byte[] mapScreen);
+
+    /**
+     * Записывает сгенерированный документ экспертизы в поток в формате .docx
+     *
+     * @param document     документ экспертизы
+     * @param outputStream поток для записи, не закрывается
+     */
+    void writeExpertiseDocument(WordprocessingMLPackage document, OutputStream outputStream);
 
     /**
      * Получить список всех экспертиз по заданному ID профиля
@@ -0,0 +1,89 @@
+package com.example.expertise.services.expertise;
+
+import com.example.expertise.dto.expertise.GenerationJobDto;
+import com.example.expertise.model.expertise.ExpertiseGenerationJob;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Сервис заданий на асинхронную генерацию итогового файла экспертизы.
+ */
+public interface GenerationJobService {
+
+    /**
+     * Ставит в очередь задание на генерацию файла экспертизы
+     *
+     * @param expertiseId ID экспертизы
+     * @param mapScreen   скриншот карты объекта экспертизы
+     * @return созданное задание
+     */
+    GenerationJobDto submitJob(UUID expertiseId, MultipartFile mapScreen);
+
+    /**
+     * Получить состояние задания
+     *
+     * @param jobId ID задания
+     * @return состояние задания
+     */
+    GenerationJobDto getJob(UUID jobId);
+
+    /**
+     * Получить выполненное задание, итоговый файл которого можно скачать
+     *
+     * @param jobId ID задания
+     * @return выполненное задание
+     */
+    ExpertiseGenerationJob getCompletedJob(UUID jobId);
+
+    /**
+     * Записать итоговый файл выполненного задания в поток без промежуточного буфера
+     *
+     * @param job          задание, полученное через {@link #getCompletedJob(UUID)}
+     * @param outputStream поток для записи файла экспертизы .docx
+     */
+    void writeJobResult(ExpertiseGenerationJob job, OutputStream outputStream);
+
+    /**
+     * Отменить задание. Выполняемое задание завершится, но его результат не будет сохранен
+     *
+     * @param jobId ID задания
+     * @return состояние задания после отмены
+     */
+    GenerationJobDto cancelJob(UUID jobId);
+
+    /**
+     * Забрать следующее ожидающее задание в работу
+     *
+     * @param workerId идентификатор узла
+     * @return задание или пусто, если очередь пуста
+     */
+    Optional<ExpertiseGenerationJob> claimNextJob(String workerId);
+
+    /**
+     * Выполнить задание: сгенерировать файл и сохранить его в MinIO
+     *
+     * @param job задание, забранное через {@link #claimNextJob(String)}
+     */
+    void processJob(ExpertiseGenerationJob job);
+
+    /**
+     * Подтвердить, что задание еще выполняется
+     *
+     * @param job задание, забранное через {@link #claimNextJob(String)}
+     * @return false, если задание отменено или передано другой попытке
+     */
+    boolean heartbeat(ExpertiseGenerationJob job);
+
+    /**
+     * Вернуть в очередь зависшие задания
+     *
+     * @param heartbeatTimeout время без heartbeat, после которого задание считается зависшим
+     * @param maxAttempts      максимальное количество попыток
+     * @return количество обработанных заданий
+     */
+    int requeueStaleJobs(Duration heartbeatTimeout, int maxAttempts);
+}
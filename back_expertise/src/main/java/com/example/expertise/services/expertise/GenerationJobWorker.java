@@ -0,0 +1,122 @@
+package com.example.expertise.services.expertise;
+
+import com.example.expertise.model.expertise.ExpertiseGenerationJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Воркер очереди заданий на генерацию файла экспертизы.
+ * Опрашивает таблицу заданий и выполняет их в отдельном пуле, не занимая потоки HTTP-запросов.
+ * Пока задание выполняется, воркер периодически продлевает его (heartbeat), поэтому долгая, но живая генерация
+ * не возвращается в очередь повторно.
+ */
+@Component
+public class GenerationJobWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(GenerationJobWorker.class);
+
+    private final GenerationJobService generationJobService;
+    private final Executor generationExecutor;
+    private final Semaphore slots;
+    private final String workerId = ManagementFactory.getRuntimeMXBean().getName();
+
+    /**
+     * Задания, выполняемые на этом узле
+     */
+    private final Map<UUID, ExpertiseGenerationJob> runningJobs = new ConcurrentHashMap<>();
+
+    /**
+     * Время без heartbeat, после которого задание считается зависшим
+     */
+    @Value("${app.generation.heartbeat-timeout-ms:180000}")
+    private long heartbeatTimeoutMs;
+
+    @Value("${app.generation.max-attempts:3}")
+    private int maxAttempts;
+
+    public GenerationJobWorker(GenerationJobService generationJobService,
+                               @Qualifier("generationExecutor") Executor generationExecutor,
+                               @Value("${app.generation.workers:2}") int workers) {
+        this.generationJobService = generationJobService;
+        this.generationExecutor = generationExecutor;
+        this.slots = new Semaphore(workers);
+    }
+
+    /**
+     * Забирает ожидающие задания, пока есть свободные воркеры.
+     */
+    @Scheduled(fixedDelayString = "${app.generation.poll-delay-ms:2000}")
+    public void pollJobs() {
+        while (slots.tryAcquire()) {
+            Optional<ExpertiseGenerationJob> job;
+            try {
+                job = generationJobService.claimNextJob(workerId);
+            } catch (Exception e) {
+                slots.release();
+                log.error("Ошибка при получении задания на генерацию файла экспертизы", e);
+                return;
+            }
+
+            if (job.isEmpty()) {
+                slots.release();
+                return;
+            }
+
+            try {
+                runningJobs.put(job.get().getId(), job.get());
+                generationExecutor.execute(() -> {
+                    try {
+                        generationJobService.processJob(job.get());
+                    } finally {
+                        runningJobs.remove(job.get().getId());
+                        slots.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                runningJobs.remove(job.get().getId());
+                slots.release();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Продлевает задания, выполняемые на этом узле.
+     */
+    @Scheduled(fixedDelayString = "${app.generation.heartbeat-delay-ms:30000}")
+    public void heartbeat() {
+        runningJobs.values().forEach(job -> {
+            try {
+                if (!generationJobService.heartbeat(job)) {
+                    log.info("Задание {} отменено или передано другой попытке, результат этой попытки не будет сохранен", job.getId());
+                }
+            } catch (Exception e) {
+                log.warn("Ошибка heartbeat задания {}: {}", job.getId(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Возвращает в очередь задания, по которым давно не было heartbeat (например, после падения узла).
+     */
+    @Scheduled(fixedDelayString = "${app.generation.stale-check-delay-ms:60000}")
+    public void requeueStaleJobs() {
+        int count = generationJobService.requeueStaleJobs(Duration.ofMillis(heartbeatTimeoutMs), maxAttempts);
+        if (count > 0) {
+            log.warn("Возвращено в очередь зависших заданий: {}", count);
+        }
+    }
+}
@@ -2,7 +2,10 @@ package com.example.expertise.services.expertise.checklists;
 
 import com.example.expertise.dto.checklist.ChecklistInstanceDto;
 import com.example.expertise.dto.checklist.ChecklistTemplateInfoDto;
+import com.example.expertise.dto.checklist.ChecklistUploadCompleteDto;
+import com.example.expertise.dto.checklist.ChecklistUploadSessionDto;
 import com.example.expertise.dto.checklist.CreateChecklistInstanceDto;
+import com.example.expertise.integration.minio.UploadTarget;
 import com.example.expertise.model.checklist.ChecklistTemplate;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
@@ -68,4 +71,22 @@ public interface ChecklistsService {
      * @param id            идентификатор экземпляра чек-листа
      */
     void deleteChecklistInstanceById(@NotNull UUID id);
+
+    /**
+     * Выдать ссылки для загрузки файлов чек-листа клиентом напрямую в хранилище
+     *
+     * @param instanceId идентификатор экземпляра чек-листа
+     * @param dto        ключ поля и исходные имена файлов
+     * @return ссылки для загрузки
+     */
+    List<UploadTarget> createFileUploadTargets(@NotNull UUID instanceId, ChecklistUploadSessionDto dto);
+
+    /**
+     * Зарегистрировать в чек-листе файлы, загруженные клиентом напрямую в хранилище
+     *
+     * @param instanceId идентификатор экземпляра чек-листа
+     * @param dto        ключ поля и загруженные файлы
+     * @return экземпляр чек-листа
+     */
+    ChecklistInstanceDto completeFileUploads(@NotNull UUID instanceId, ChecklistUploadCompleteDto dto);
 }
@@ -2,9 +2,13 @@ package com.example.expertise.services.expertise.checklists.impl;
 
 import com.example.expertise.dto.checklist.ChecklistInstanceDto;
 import com.example.expertise.dto.checklist.ChecklistTemplateInfoDto;
+import com.example.expertise.dto.checklist.ChecklistUploadCompleteDto;
+import com.example.expertise.dto.checklist.ChecklistUploadSessionDto;
 import com.example.expertise.dto.checklist.CreateChecklistInstanceDto;
+import com.example.expertise.exceptions.UnsupportedChecklistTemplateException;
 import com.example.expertise.integration.IntegrationHelper;
 import com.example.expertise.integration.minio.MinioIntegration;
+import com.example.expertise.integration.minio.UploadTarget;
 import com.example.expertise.model.checklist.ChecklistInstance;
 import com.example.expertise.model.checklist.ChecklistTemplate;
 import com.example.expertise.model.expertise.ExpertiseQuestion;
@@ -172,13 +176,47 @@ public class ChecklistsServiceImpl implements ChecklistsService {
         ChecklistInstance instance = getChecklistInstanceById(instanceId);
 
         // Выбираем нужный файловый процессор в зависимости от шаблона
-        ChecklistDataRender processor = fileProcessorDispatcher.getProcessor(instance.getChecklistTemplate().getName());
-        processor.processDeletedFiles(fileName, fileBucket, instance);
+        requireProcessor(instance).processDeletedFiles(fileName, fileBucket, instance);
 
         checklistInstanceRepository.save(instance);
         return checklistInstanceMapper.toDto(instance, objectMapper);
     }
 
+    @Override
+    public List<UploadTarget> createFileUploadTargets(@NotNull UUID instanceId, ChecklistUploadSessionDto dto) {
+        ChecklistInstance instance = getChecklistInstanceById(instanceId);
+        return requireProcessor(instance).createUploadTargets(instance, dto.getFileKey(), dto.getFileNames());
+    }
+
+    @Override
+    @Transactional
+    public ChecklistInstanceDto completeFileUploads(@NotNull UUID instanceId, ChecklistUploadCompleteDto dto) {
+        ChecklistInstance instance = getChecklistInstanceById(instanceId);
+
+        List<String> objectNames = dto.getFiles().stream()
+                .map(ChecklistUploadCompleteDto.UploadedFile::getObjectName)
+                .toList();
+        requireProcessor(instance).registerUploadedFiles(instance, dto.getFileKey(), objectNames);
+
+        checklistInstanceRepository.save(instance);
+        return generateResponseDto(instance, instance.getChecklistTemplate().getId());
+    }
+
+    /**
+     * Файловый процессор шаблона чек-листа
+     *
+     * @param instance экземпляр чек-листа
+     * @return файловый процессор
+     * @throws UnsupportedChecklistTemplateException если для шаблона нет обработчика файлов
+     */
+    private ChecklistDataRender requireProcessor(ChecklistInstance instance) {
+        ChecklistDataRender processor = fileProcessorDispatcher.getProcessor(instance.getChecklistTemplate().getName());
+        if (processor == null) {
+            throw new UnsupportedChecklistTemplateException(instance.getChecklistTemplate().getName());
+        }
+        return processor;
+    }
+
     /**
      * Получить чек-лист по ID
      *
@@ -32,11 +32,9 @@ public abstract class AbstractChecklistRenderer implements DocumentChecklistRend
     private final ChecklistTemplateService checklistTemplateService;
     private final ChecklistInstanceRepository checklistInstanceRepository;
 
-    // Для того, что бы не пробрасывать объект checklistInstance каждый раз по цепочке, используем
-    protected static final ThreadLocal<ChecklistInstance> checklistInstanceThreadLocal = new ThreadLocal<>();
-
     @Override
-    public void insertAnswerChecklist(WordprocessingMLPackage wordPackage, ChecklistInstance checklist, P placeholderParagraph) {
+    public void insertAnswerChecklist(WordprocessingMLPackage wordPackage, ChecklistInstance checklist, P placeholderParagraph,
+                                      ChecklistAssets assets) {
         MainDocumentPart mainPart = wordPackage.getMainDocumentPart();
         LinkedHashMap<String, Object> data = parseChecklistData(checklist.getData());
         UUID templateId = checklist.getChecklistTemplate().getId();
@@ -49,7 +47,7 @@ public abstract class AbstractChecklistRenderer implements DocumentChecklistRend
 
         // Вызов insertChecklistContent отвечает и за вставку типового текста
         insertChecklistContent(wordPackage, mainPart, data, templateId,
-                checklist, placeholderParagraph, fieldNameMap);
+                checklist, placeholderParagraph, fieldNameMap, assets);
     }
 
 
@@ -113,7 +111,8 @@ public abstract class AbstractChecklistRenderer implements DocumentChecklistRend
                                                    UUID templateId,
                                                    ChecklistInstance checklist,
                                                    P placeholderParagraph,
-                                                   Map<String, String> fieldNameMap);
+                                                   Map<String, String> fieldNameMap,
+                                                   ChecklistAssets assets);
 
     /**
      * Получить связанный экземпляр чек-листа "Характеристики объекта строительства".
@@ -0,0 +1,45 @@
+package com.example.expertise.services.expertise.checklists.render.document;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Файлы чек-листов, заранее загруженные из MinIO для одной генерации документа.
+ * Рендереры читают файлы отсюда и обращаются в MinIO только за отсутствующими.
+ */
+public final class ChecklistAssets {
+
+    public static final ChecklistAssets EMPTY = new ChecklistAssets(Map.of());
+
+    // "бакет/имя файла" -> содержимое
+    private final Map<String, byte[]> files;
+
+    public ChecklistAssets(Map<String, byte[]> files) {
+        this.files = Map.copyOf(files);
+    }
+
+    /**
+     * Ключ файла в наборе
+     *
+     * @param bucket   название бакета
+     * @param fileName имя файла с расширением
+     */
+    public static String key(String bucket, String fileName) {
+        return bucket + "/" + fileName;
+    }
+
+    /**
+     * Найти загруженный файл
+     *
+     * @param bucket   название бакета
+     * @param fileName имя файла с расширением
+     * @return содержимое файла, если он был загружен
+     */
+    public Optional<byte[]> find(String bucket, String fileName) {
+        return Optional.ofNullable(files.get(key(bucket, fileName)));
+    }
+
+    public int size() {
+        return files.size();
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.expertise.services.expertise.checklists.render.document;
+
+import com.example.expertise.util.docs.ImagePartRegistry;
+import org.docx4j.XmlUtils;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.docx4j.wml.P;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Отрендеренный чек-лист, отделённый от документа.
+ * <p>
+ * Хранит элементы, которые рендерер вставил перед и после плейсхолдера, в виде XML
+ * вместе с байтами изображений, на которые они ссылаются. Фрагмент не зависит от пакета, в котором был получен,
+ * и может быть вставлен в любой документ по плейсхолдеру.
+ * <p>
+ * Если при рендеринге использовался запасной вариант (типовой текст вместо ответа GigaChat, пропущенное изображение),
+ * рендерер вызывает {@link #markIncomplete()}, и фрагмент помечается неполным: такой фрагмент не кэшируется,
+ * чтобы при следующей генерации чек-лист был отрендерен заново.
+ */
+public final class ChecklistFragment {
+
+    private static final Logger log = LoggerFactory.getLogger(ChecklistFragment.class);
+
+    // Ссылки на связи в разметке: r:embed (изображения), r:link и r:id (внешние связи, гиперссылки)
+    private static final Pattern RELATIONSHIP_REF = Pattern.compile("\\br:(embed|link|id)=\"([^\"]+)\"");
+
+    // Признак неполного рендеринга для фрагмента, который формируется в текущем потоке
+    private static final ThreadLocal<boolean[]> CAPTURE_INCOMPLETE = new ThreadLocal<>();
+
+    private final List<String> beforeXml;
+    private final List<String> afterXml;
+    private final Map<String, byte[]> images;
+    private final boolean incomplete;
+
+    private ChecklistFragment(List<String> beforeXml, List<String> afterXml, Map<String, byte[]> images, boolean incomplete) {
+        this.beforeXml = beforeXml;
+        this.afterXml = afterXml;
+        this.images = images;
+        this.incomplete = incomplete;
+    }
+
+    /**
+     * Отметить, что чек-лист, который рендерится в текущем потоке, отрендерен не полностью.
+     * Вне {@link #capture} (прямая вставка в документ) вызов ничего не делает.
+     */
+    public static void markIncomplete() {
+        boolean[] incomplete = CAPTURE_INCOMPLETE.get();
+        if (incomplete != null) {
+            incomplete[0] = true;
+        }
+    }
+
+    /**
+     * Выполнить рендеринг и сохранить вставленные вокруг плейсхолдера элементы как фрагмент.
+     *
+     * @param wordPackage          документ, в который выполняется рендеринг
+     * @param placeholderParagraph параграф плейсхолдера чек-листа
+     * @param renderer             рендеринг чек-листа в документ
+     * @return фрагмент или null, если рендерер вставил элементы не вокруг плейсхолдера
+     * или сослался на связи, не являющиеся изображениями
+     */
+    public static ChecklistFragment capture(WordprocessingMLPackage wordPackage, P placeholderParagraph, Runnable renderer) {
+        MainDocumentPart mainPart = wordPackage.getMainDocumentPart();
+        List<Object> content = mainPart.getContent();
+
+        int index = indexOf(content, placeholderParagraph);
+        if (index < 0) {
+            renderer.run();
+            return null;
+        }
+        Object previous = index > 0 ? content.get(index - 1) : null;
+        Object next = index + 1 < content.size() ? content.get(index + 1) : null;
+        int sizeBefore = content.size();
+
+        boolean[] incomplete = {false};
+        CAPTURE_INCOMPLETE.set(incomplete);
+        try {
+            renderer.run();
+        } finally {
+            CAPTURE_INCOMPLETE.remove();
+        }
+
+        int placeholderIndex = indexOf(content, placeholderParagraph);
+        int start = previous == null ? 0 : indexOf(content, previous) + 1;
+        int end = next == null ? content.size() : indexOf(content, next);
+        if (placeholderIndex < start || placeholderIndex >= end || end - start - 1 != content.size() - sizeBefore) {
+            log.debug("Чек-лист вставлен не вокруг плейсхолдера, фрагмент не сформирован");
+            return null;
+        }
+
+        try {
+            List<String> beforeXml = marshal(content.subList(start, placeholderIndex));
+            List<String> afterXml = marshal(content.subList(placeholderIndex + 1, end));
+
+            Map<String, byte[]> images = new HashMap<>();
+            List<String> allXml = new ArrayList<>(beforeXml);
+            allXml.addAll(afterXml);
+            for (String xml : allXml) {
+                Matcher matcher = RELATIONSHIP_REF.matcher(xml);
+                while (matcher.find()) {
+                    String relationshipId = matcher.group(2);
+                    Part part = mainPart.getRelationshipsPart().getPart(relationshipId);
+                    if (!"embed".equals(matcher.group(1)) || !(part instanceof BinaryPartAbstractImage imagePart)) {
+                        log.debug("Чек-лист ссылается на связь {}, не являющуюся изображением, фрагмент не сформирован", relationshipId);
+                        return null;
+                    }
+                    images.putIfAbsent(relationshipId, imagePart.getBytes());
+                }
+            }
+            return new ChecklistFragment(beforeXml, afterXml, images, incomplete[0]);
+        } catch (Exception e) {
+            log.warn("Не удалось сформировать фрагмент чек-листа: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Вставить фрагмент в документ вокруг плейсхолдера.
+     * Изображения добавляются в документ, ссылки на них переписываются на новые ID связей.
+     *
+     * @param wordPackage          документ
+     * @param placeholderParagraph параграф плейсхолдера чек-листа
+     */
+    public void spliceInto(WordprocessingMLPackage wordPackage, P placeholderParagraph) throws Exception {
+        List<Object> content = wordPackage.getMainDocumentPart().getContent();
+        int index = indexOf(content, placeholderParagraph);
+        if (index < 0) {
+            throw new IllegalStateException("плейсхолдер не найден в теле документа");
+        }
+
+        Map<String, String> relationshipIds = new HashMap<>();
+        for (Map.Entry<String, byte[]> image : images.entrySet()) {
+            BinaryPartAbstractImage imagePart = ImagePartRegistry.getOrCreateImagePart(wordPackage, image.getValue());
+            relationshipIds.put(image.getKey(), imagePart.getRelLast().getId());
+        }
+
+        List<Object> before = unmarshal(beforeXml, relationshipIds);
+        List<Object> after = unmarshal(afterXml, relationshipIds);
+        content.addAll(index + 1, after);
+        content.addAll(index, before);
+    }
+
+    /**
+     * @return true, если при рендеринге использовался запасной вариант и фрагмент нельзя кэшировать
+     */
+    public boolean isIncomplete() {
+        return incomplete;
+    }
+
+    /**
+     * Примерный объём фрагмента в памяти, байт
+     */
+    public long weight() {
+        long weight = 0;
+        for (String xml : beforeXml) weight += xml.length() * 2L;
+        for (String xml : afterXml) weight += xml.length() * 2L;
+        for (byte[] image : images.values()) weight += image.length;
+        return weight;
+    }
+
+    private static List<String> marshal(List<Object> elements) {
+        return elements.stream()
+                .map(element -> XmlUtils.marshaltoString(element, true, false))
+                .toList();
+    }
+
+    private static List<Object> unmarshal(List<String> elements, Map<String, String> relationshipIds) throws Exception {
+        List<Object> result = new ArrayList<>(elements.size());
+        for (String xml : elements) {
+            String rewritten = RELATIONSHIP_REF.matcher(xml).replaceAll(match -> Matcher.quoteReplacement(
+                    "r:" + match.group(1) + "=\"" + relationshipIds.getOrDefault(match.group(2), match.group(2)) + "\""));
+            result.add(XmlUtils.unmarshalString(rewritten));
+        }
+        return result;
+    }
+
+    private static int indexOf(List<Object> content, Object element) {
+        for (int i = 0; i < content.size(); i++) {
+            if (content.get(i) == element) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.expertise.services.expertise.checklists.render.document;
 
 import com.example.expertise.model.checklist.ChecklistInstance;
+import org.docx4j.openpackaging.exceptions.InvalidFormatException;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.wml.ObjectFactory;
 import org.docx4j.wml.P;
 
+import java.util.List;
+
 /**
  * Интерфейс DocumentChecklistRenderer определяет методы для рендеринга чек-листов в документ.
  */
@@ -15,7 +19,43 @@ public interface DocumentChecklistRenderer {
      * @param wordPackage        пакет WordprocessingMLPackage
      * @param checklist          экземпляр чек-листа
      * @param placeholderParagraph абзац-заполнитель
+     * @param assets             заранее загруженные файлы чек-листов
      */
-    void insertAnswerChecklist(WordprocessingMLPackage wordPackage, ChecklistInstance checklist, P placeholderParagraph);
-}
+    void insertAnswerChecklist(WordprocessingMLPackage wordPackage, ChecklistInstance checklist, P placeholderParagraph,
+                               ChecklistAssets assets);
+
+    /**
+     * Рендерер вставляет в документ файлы чек-листа из MinIO, их нужно загрузить заранее.
+     */
+    default boolean usesChecklistFiles() {
+        return false;
+    }
 
+    /**
+     * Рендеринг чек-листа в отдельный фрагмент, не связанный с итоговым документом.
+     * Чек-лист рендерится во временный пакет, поэтому метод можно вызывать параллельно для разных чек-листов.
+     *
+     * @param checklist экземпляр чек-листа
+     * @param assets    заранее загруженные файлы чек-листов
+     * @return фрагмент или null, если результат рендеринга нельзя отделить от документа
+     */
+    default ChecklistFragment renderFragment(ChecklistInstance checklist, ChecklistAssets assets) {
+        WordprocessingMLPackage scratchPackage;
+        try {
+            scratchPackage = WordprocessingMLPackage.createPackage();
+        } catch (InvalidFormatException e) {
+            throw new RuntimeException("Ошибка создания временного документа для чек-листа", e);
+        }
+
+        // Плейсхолдер между двумя пустыми абзацами: границы фрагмента определяются по соседям
+        ObjectFactory factory = new ObjectFactory();
+        P placeholderParagraph = factory.createP();
+        List<Object> content = scratchPackage.getMainDocumentPart().getContent();
+        content.add(factory.createP());
+        content.add(placeholderParagraph);
+        content.add(factory.createP());
+
+        return ChecklistFragment.capture(scratchPackage, placeholderParagraph,
+                () -> insertAnswerChecklist(scratchPackage, checklist, placeholderParagraph, assets));
+    }
+}
@@ -7,6 +7,7 @@ import com.example.expertise.services.cache.ChecklistTemplateCache;
 import com.example.expertise.services.expertise.checklists.ChecklistTemplateService;
 import com.example.expertise.services.expertise.checklists.render.annotation.RendererFor;
 import com.example.expertise.services.expertise.checklists.render.document.AbstractChecklistRenderer;
+import com.example.expertise.services.expertise.checklists.render.document.ChecklistAssets;
 import com.example.expertise.util.docs.DocumentUtil;
 import com.example.expertise.util.docs.TableUtil;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
@@ -39,7 +40,8 @@ public class AreaChecklistRender extends AbstractChecklistRenderer {
                                           UUID templateId,
                                           ChecklistInstance checklist,
                                           P placeholderParagraph,
-                                          Map<String, String> fieldNameMap) {
+                                          Map<String, String> fieldNameMap,
+                                          ChecklistAssets assets) {
 
         // Извлекаем параметры type_text_params
         Map<String, Object> typeParams = Optional.ofNullable(data.get("type_text_params"))
@@ -1,7 +1,9 @@
 package com.example.expertise.services.expertise.checklists.render.document.realisations;
 
+import com.example.expertise.enums.Downstream;
 import com.example.expertise.enums.checklists.ChecklistJsonKey;
 import com.example.expertise.enums.checklists.ResourcesPaths;
+import com.example.expertise.integration.IoExecutor;
 import com.example.expertise.integration.gigachat.GigaChatIntegration;
 import com.example.expertise.model.checklist.ChecklistInstance;
 import com.example.expertise.repository.checklist.ChecklistInstanceRepository;
@@ -9,7 +11,8 @@ import com.example.expertise.services.cache.ChecklistTemplateCache;
 import com.example.expertise.services.expertise.checklists.ChecklistTemplateService;
 import com.example.expertise.services.expertise.checklists.render.annotation.RendererFor;
 import com.example.expertise.services.expertise.checklists.render.document.AbstractChecklistRenderer;
-import com.example.expertise.util.SSLUtils;
+import com.example.expertise.services.expertise.checklists.render.document.ChecklistAssets;
+import com.example.expertise.services.expertise.checklists.render.document.ChecklistFragment;
 import com.example.expertise.util.docs.DocumentUtil;
 import com.example.expertise.util.docs.TableUtil;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
@@ -18,16 +21,20 @@ import org.docx4j.wml.P;
 import org.docx4j.wml.Tbl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Реализация рендерера для чек-листа "Определение формата строения".
@@ -44,14 +51,31 @@ public class ConstructionCharacteristicsChecklistRenderer extends AbstractCheckl
     private static final String BLOCK_NAME_4 = "Период эксплуатации";
     private static final String BLOCK_NAME_5 = "Разрешительная документация";
 
+    // Блоки таблицы в порядке вывода и файлы их типовых текстов
+    private static final Map<String, ResourcesPaths> BLOCKS = new LinkedHashMap<>();
+
+    static {
+        BLOCKS.put(BLOCK_NAME_1, ResourcesPaths.BLOCK_1);
+        BLOCKS.put(BLOCK_NAME_2, ResourcesPaths.BLOCK_2);
+        BLOCKS.put(BLOCK_NAME_3, ResourcesPaths.BLOCK_3);
+        BLOCKS.put(BLOCK_NAME_4, ResourcesPaths.BLOCK_4);
+        BLOCKS.put(BLOCK_NAME_5, ResourcesPaths.BLOCK_5);
+    }
+
     private final GigaChatIntegration gigaChatIntegration;
+    private final IoExecutor ioExecutor;
+    private final long blockTimeoutSeconds;
 
     public ConstructionCharacteristicsChecklistRenderer(ChecklistTemplateCache templateCache,
                                                         ChecklistTemplateService checklistTemplateService,
                                                         ChecklistInstanceRepository checklistInstanceRepository,
-                                                        GigaChatIntegration gigaChatIntegration) {
+                                                        GigaChatIntegration gigaChatIntegration,
+                                                        IoExecutor ioExecutor,
+                                                        @Value("${app.gigachat.block-timeout-seconds:90}") long blockTimeoutSeconds) {
         super(templateCache, checklistTemplateService, checklistInstanceRepository);
         this.gigaChatIntegration = gigaChatIntegration;
+        this.ioExecutor = ioExecutor;
+        this.blockTimeoutSeconds = blockTimeoutSeconds;
     }
 
     @Override
@@ -61,22 +85,20 @@ public class ConstructionCharacteristicsChecklistRenderer extends AbstractCheckl
                                           UUID templateId,
                                           ChecklistInstance checklist,
                                           P placeholderParagraph,
-                                          Map<String, String> fieldNameMap) {
+                                          Map<String, String> fieldNameMap,
+                                          ChecklistAssets assets) {
 
-        checklistInstanceThreadLocal.set(checklist); // Установка текущего чек-листа
         try {
             int insertIndex = mainPart.getContent().indexOf(placeholderParagraph);
             int tableInsertIndex = insertPreviewTypeText(mainPart, insertIndex); // теперь возвращает новый индекс
 
-            Tbl table = generateTable(data);
+            Tbl table = generateTable(data, checklist.getExpertiseQuestion().getId());
             mainPart.getContent().add(tableInsertIndex++, table); // вставляем таблицу в документ
 
             insertOtherFields(data, mainPart, tableInsertIndex); // вставка примечания и финального текста
         } catch (Exception e) {
             log.error("Ошибка при формировании чек-листа", e);
             throw new RuntimeException("Ошибка при формировании чек-листа", e);
-        } finally {
-            checklistInstanceThreadLocal.remove();
         }
     }
 
@@ -103,19 +125,32 @@ public class ConstructionCharacteristicsChecklistRenderer extends AbstractCheckl
     }
 
     /**
-     * Генерация таблицы с параметрами чек-листа
+     * Генерация таблицы с параметрами чек-листа.
+     * Тексты блоков запрашиваются в GigaChat параллельно, таблица собирается после получения всех ответов.
      *
-     * @param data - параметры чек-листа
+     * @param data       - параметры чек-листа
+     * @param questionId - ID вопроса чек-листа
      * @return сформированная таблица с параметрами чек-листа
      */
-    private Tbl generateTable(LinkedHashMap<String, Object> data) {
+    private Tbl generateTable(LinkedHashMap<String, Object> data, UUID questionId) {
+        // Кадастровый номер и адрес нужны двум блокам, читаем их один раз до отправки запросов
+        String cadastral = getFieldFromChecklist("Характеристики объекта строительства", questionId, ChecklistJsonKey.CADASTRAL_NUMBER.getKey());
+        String address = getFieldFromChecklist("Характеристики объекта строительства", questionId, ChecklistJsonKey.ADDRESS.getKey());
+
+        Map<String, CompletableFuture<BlockText>> blockTexts = new LinkedHashMap<>();
+        BLOCKS.forEach((blockName, path) -> blockTexts.put(blockName,
+                buildBlockText(data, getTextFromFileByPath(path.getPath()), blockName, cadastral, address)));
+
         Tbl table = TableUtil.createDefaultTable();
         TableUtil.fixTwoColumnWidths(table);
-        DocumentUtil.addTwoCellRow(table, BLOCK_NAME_1, buildBlockText(data, getTextFromFileByPath(ResourcesPaths.BLOCK_1.getPath()), BLOCK_NAME_1));
-        DocumentUtil.addTwoCellRow(table, BLOCK_NAME_2, buildBlockText(data, getTextFromFileByPath(ResourcesPaths.BLOCK_2.getPath()), BLOCK_NAME_2));
-        DocumentUtil.addTwoCellRow(table, BLOCK_NAME_3, buildBlockText(data, getTextFromFileByPath(ResourcesPaths.BLOCK_3.getPath()), BLOCK_NAME_3));
-        DocumentUtil.addTwoCellRow(table, BLOCK_NAME_4, buildBlockText(data, getTextFromFileByPath(ResourcesPaths.BLOCK_4.getPath()), BLOCK_NAME_4));
-        DocumentUtil.addTwoCellRow(table, BLOCK_NAME_5, buildBlockText(data, getTextFromFileByPath(ResourcesPaths.BLOCK_5.getPath()), BLOCK_NAME_5));
+        blockTexts.forEach((blockName, future) -> {
+            BlockText blockText = future.join();
+            if (blockText.fallback()) {
+                // Типовой текст вместо ответа GigaChat не должен закрепиться в кэше фрагментов
+                ChecklistFragment.markIncomplete();
+            }
+            DocumentUtil.addTwoCellRow(table, blockName, blockText.text());
+        });
         return table;
     }
 
@@ -141,33 +176,46 @@ public class ConstructionCharacteristicsChecklistRenderer extends AbstractCheckl
     }
 
     /**
-     * Формирование блока данных по ключу параметра
+     * Формирование блока данных по ключу параметра.
+     * Если GigaChat не ответил за отведённое время или вернул ошибку, используется типовой текст блока.
+     * Время блока отсчитывается от постановки запроса: оно ограничивает и ожидание лимита GIGACHAT, и сам HTTP-вызов,
+     * поэтому запрос, по которому уже выбран типовой текст, не продолжает занимать лимит.
      *
      * @param data      - json с данными чек-листа
      * @param typeText  - текст для подстановки в запрос
      * @param blockName - название блока данных (парамерт чек-листа)
+     * @param cadastral - кадастровый номер объекта
+     * @param address   - адрес объекта
      * @return сформированный текст для конкретного блока данных (параметра чек-листа)
      */
-    private String buildBlockText(Map<String, Object> data, String typeText, String blockName) {
+    private CompletableFuture<BlockText> buildBlockText(Map<String, Object> data, String typeText, String blockName,
+                                                     String cadastral, String address) {
         Map<String, Object> block = getMap(data.get(blockName));
 
         // Добавляем кадастр и адрес только для нужных блоков
         if (BLOCK_NAME_2.equals(blockName) || BLOCK_NAME_5.equals(blockName)) {
-            UUID questionId = checklistInstanceThreadLocal.get().getExpertiseQuestion().getId();
-            String cadastral = getFieldFromChecklist("Характеристики объекта строительства", questionId, ChecklistJsonKey.CADASTRAL_NUMBER.getKey());
-            String address = getFieldFromChecklist("Характеристики объекта строительства", questionId, ChecklistJsonKey.ADDRESS.getKey());
-
-            // Добавляем в мапу
             block.put(ChecklistJsonKey.CADASTRAL_NUMBER.getKey(), cadastral);
             block.put(ChecklistJsonKey.ADDRESS.getKey(), address);
         }
 
-        try {
-            SSLUtils.disableSSLVerification();
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
-        }
-        return gigaChatIntegration.sendMessage(buildGigaChatRequest(typeText, block));
+        String request = buildGigaChatRequest(typeText, block);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(blockTimeoutSeconds);
+        return ioExecutor.supply(Downstream.GIGACHAT, () -> {
+                    Duration remaining = Duration.ofNanos(deadline - System.nanoTime());
+                    if (remaining.isNegative() || remaining.isZero()) {
+                        throw new IllegalStateException("Истекло время ожидания блока до отправки запроса");
+                    }
+                    String text = gigaChatIntegration.sendMessage(request, remaining);
+                    if (text == null || text.isBlank()) {
+                        throw new IllegalStateException("GigaChat не вернул текст блока");
+                    }
+                    return new BlockText(text, false);
+                })
+                .orTimeout(blockTimeoutSeconds, TimeUnit.SECONDS)
+                .exceptionally(e -> {
+                    log.warn("Не удалось получить текст блока «{}» от GigaChat, используется типовой текст: {}", blockName, e.toString());
+                    return new BlockText(typeText, true);
+                });
     }
 
     /**
@@ -213,4 +261,12 @@ public class ConstructionCharacteristicsChecklistRenderer extends AbstractCheckl
         }
     }
 
+    /**
+     * Текст блока таблицы
+     *
+     * @param text     текст блока
+     * @param fallback true, если вместо ответа GigaChat использован типовой текст
+     */
+    private record BlockText(String text, boolean fallback) {
+    }
 }
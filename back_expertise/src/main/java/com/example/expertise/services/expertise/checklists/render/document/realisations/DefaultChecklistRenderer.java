@@ -6,6 +6,7 @@ import com.example.expertise.services.cache.ChecklistTemplateCache;
 import com.example.expertise.services.expertise.checklists.ChecklistTemplateService;
 import com.example.expertise.services.expertise.checklists.render.annotation.RendererFor;
 import com.example.expertise.services.expertise.checklists.render.document.AbstractChecklistRenderer;
+import com.example.expertise.services.expertise.checklists.render.document.ChecklistAssets;
 import com.example.expertise.util.docs.DocumentUtil;
 import com.example.expertise.util.docs.TableUtil;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
@@ -44,7 +45,8 @@ public class DefaultChecklistRenderer extends AbstractChecklistRenderer {
                                           UUID templateId,
                                           ChecklistInstance checklist,
                                           P placeholderParagraph,
-                                          Map<String, String> fieldNameMap) {
+                                          Map<String, String> fieldNameMap,
+                                          ChecklistAssets assets) {
 
         Map<String, Object> typeParams = Optional.ofNullable(data.get("type_text_params"))
                 .filter(Map.class::isInstance)
@@ -134,8 +136,8 @@ public class DefaultChecklistRenderer extends AbstractChecklistRenderer {
             table.getContent().add(row);
         });
 
-        int index = mainPart.getContent().indexOf(placeholderParagraph);
-        mainPart.getContent().add(index + 2, table);
+        int index = mainPart.getContent().indexOf(lastInserted);
+        mainPart.getContent().add(index + 1, table);
     }
 
 }
@@ -5,11 +5,14 @@ import com.example.expertise.integration.minio.MinioIntegration;
 import com.example.expertise.model.checklist.ChecklistInstance;
 import com.example.expertise.repository.checklist.ChecklistInstanceRepository;
 import com.example.expertise.services.cache.ChecklistTemplateCache;
+import com.example.expertise.services.cache.RenderedPageCache;
 import com.example.expertise.services.expertise.checklists.ChecklistTemplateService;
 import com.example.expertise.services.expertise.checklists.render.annotation.RendererFor;
 import com.example.expertise.services.expertise.checklists.render.document.AbstractChecklistRenderer;
+import com.example.expertise.services.expertise.checklists.render.document.ChecklistAssets;
+import com.example.expertise.services.expertise.checklists.render.document.ChecklistFragment;
+import com.example.expertise.services.expertise.document.ImageNormalizer;
 import com.example.expertise.util.docs.DocumentUtil;
-import com.example.expertise.util.docs.FormatConverterUtil;
 import com.example.expertise.util.docs.TableUtil;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
@@ -29,13 +32,24 @@ public class DefectChecklistRenderer extends AbstractChecklistRenderer {
     private static final Logger log = LoggerFactory.getLogger(DefectChecklistRenderer.class);
 
     private final MinioIntegration minioIntegration;
+    private final RenderedPageCache renderedPageCache;
+    private final ImageNormalizer imageNormalizer;
 
     protected DefectChecklistRenderer(ChecklistTemplateCache templateCache,
                                       ChecklistTemplateService checklistTemplateService,
                                       ChecklistInstanceRepository checklistInstanceRepository,
-                                      MinioIntegration minioIntegration) {
+                                      MinioIntegration minioIntegration,
+                                      RenderedPageCache renderedPageCache,
+                                      ImageNormalizer imageNormalizer) {
         super(templateCache, checklistTemplateService, checklistInstanceRepository);
         this.minioIntegration = minioIntegration;
+        this.renderedPageCache = renderedPageCache;
+        this.imageNormalizer = imageNormalizer;
+    }
+
+    @Override
+    public boolean usesChecklistFiles() {
+        return true;
     }
 
     @Override
@@ -45,7 +59,8 @@ public class DefectChecklistRenderer extends AbstractChecklistRenderer {
                                           UUID templateId,
                                           ChecklistInstance checklist,
                                           P placeholderParagraph,
-                                          Map<String, String> fieldNameMap) {
+                                          Map<String, String> fieldNameMap,
+                                          ChecklistAssets assets) {
 
         Map<String, Object> typeParams = Optional.ofNullable(data.get(ChecklistJsonKey.TYPE_TEXT_PARAMS.getKey()))
                 .filter(Map.class::isInstance)
@@ -80,15 +95,15 @@ public class DefectChecklistRenderer extends AbstractChecklistRenderer {
             addTitleRow(table, premiseName);
 
             // Вставка фото и схем помещения до параметров
-            insertPremisePhotos(wordPackage, table, premise);
-            insertPhotoBlock(wordPackage, table, premise, ChecklistJsonKey.DEFECT_SCHEMA_PDF.getKey(), templateId);
+            insertPremisePhotos(wordPackage, table, premise, assets);
+            insertPhotoBlock(wordPackage, table, premise, ChecklistJsonKey.DEFECT_SCHEMA_PDF.getKey(), templateId, assets);
 
             for (String param : parameters) {
                 Map<String, Object> fields = getMap(premise.get(param));
                 if (fields == null) continue;
 
                 insertTextRow(templateId, table, param, fields);
-                insertPhotoBlock(wordPackage, table, fields, ChecklistJsonKey.DEFECT_PHOTOS.getKey(), templateId); // дефекты на уровне параметра
+                insertPhotoBlock(wordPackage, table, fields, ChecklistJsonKey.DEFECT_PHOTOS.getKey(), templateId, assets); // дефекты на уровне параметра
             }
 
             mainPart.getContent().add(insertIndex++, table);
@@ -209,9 +224,9 @@ public class DefectChecklistRenderer extends AbstractChecklistRenderer {
         mainPart.getContent().add(insertIndex, table);
     }
 
-    private void insertPremisePhotos(WordprocessingMLPackage wordPackage, Tbl table, Map<String, Object> fields) {
+    private void insertPremisePhotos(WordprocessingMLPackage wordPackage, Tbl table, Map<String, Object> fields, ChecklistAssets assets) {
         List<?> files = getList(fields.get(ChecklistJsonKey.PREMISE_PHOTOS.getKey()));
-        if (files != null) insertFileListAsRows(wordPackage, table, files, ChecklistJsonKey.PREMISE_PHOTOS.getKey());
+        if (files != null) insertFileListAsRows(wordPackage, table, files, ChecklistJsonKey.PREMISE_PHOTOS.getKey(), assets);
     }
 
     private void insertTextRow(UUID templateId, Tbl table, String paramName, Map<String, Object> fields) {
@@ -306,7 +321,8 @@ public class DefectChecklistRenderer extends AbstractChecklistRenderer {
                                   Tbl table,
                                   Map<String, Object> fields,
                                   String bucketKey,
-                                  UUID templateId) {
+                                  UUID templateId,
+                                  ChecklistAssets assets) {
         List<?> files = getList(fields.get(bucketKey));
         if (files == null || files.isEmpty()) return;
 
@@ -323,10 +339,10 @@ public class DefectChecklistRenderer extends AbstractChecklistRenderer {
         labelRow.getContent().add(labelCell);
         table.getContent().add(labelRow);
 
-        insertFileListAsRows(wordPackage, table, files, bucketKey);
+        insertFileListAsRows(wordPackage, table, files, bucketKey, assets);
     }
 
-    private void insertFileListAsRows(WordprocessingMLPackage wordPackage, Tbl table, List<?> fileList, String bucket) {
+    private void insertFileListAsRows(WordprocessingMLPackage wordPackage, Tbl table, List<?> fileList, String bucket, ChecklistAssets assets) {
         try {
             List<byte[]> allImages = new ArrayList<>();
             List<String> labels = new ArrayList<>();
@@ -340,10 +356,11 @@ public class DefectChecklistRenderer extends AbstractChecklistRenderer {
 
                 String ext = getExtension(name);
                 String baseName = name.substring(0, name.length() - ext.length() - 1);
-                byte[] bytes = minioIntegration.getFileByParams(baseName, "." + ext, bucket);
+                byte[] bytes = assets.find(bucket, name)
+                        .orElseGet(() -> minioIntegration.getFileByParams(baseName, "." + ext, bucket));
 
                 List<byte[]> images = ChecklistJsonKey.DEFECT_SCHEMA_PDF.getKey().equals(bucket)
-                        ? FormatConverterUtil.convertPdfToImages(bytes)
+                        ? renderedPageCache.getPages(bytes)
                         : List.of(bytes);
 
                 for (byte[] img : images) {
@@ -353,6 +370,8 @@ public class DefectChecklistRenderer extends AbstractChecklistRenderer {
                 }
             }
 
+            allImages = imageNormalizer.normalizeAll(allImages, TableUtil.DEFAULT_IMAGE_WIDTH_TWIPS);
+
             for (int i = 0; i < allImages.size(); i += 2) {
                 Tr row = TableUtil.createTableRow();
 
@@ -374,6 +393,7 @@ public class DefectChecklistRenderer extends AbstractChecklistRenderer {
             }
         } catch (Exception e) {
             log.warn("Ошибка при вставке изображений из bucket '{}': {}", bucket, e.getMessage());
+            ChecklistFragment.markIncomplete();
         }
     }
 
@@ -8,6 +8,9 @@ import com.example.expertise.services.cache.ChecklistTemplateCache;
 import com.example.expertise.services.expertise.checklists.ChecklistTemplateService;
 import com.example.expertise.services.expertise.checklists.render.annotation.RendererFor;
 import com.example.expertise.services.expertise.checklists.render.document.AbstractChecklistRenderer;
+import com.example.expertise.services.expertise.checklists.render.document.ChecklistAssets;
+import com.example.expertise.services.expertise.checklists.render.document.ChecklistFragment;
+import com.example.expertise.services.expertise.document.ImageNormalizer;
 import com.example.expertise.util.docs.DocumentUtil;
 import com.example.expertise.util.docs.TableUtil;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
@@ -36,13 +39,21 @@ public class DeterminationComplianceChecklistRender extends AbstractChecklistRen
         """;
 
     private final MinioIntegration minioIntegration;
+    private final ImageNormalizer imageNormalizer;
 
     protected DeterminationComplianceChecklistRender(ChecklistTemplateCache templateCache,
                                                      ChecklistTemplateService checklistTemplateService,
                                                      ChecklistInstanceRepository checklistInstanceRepository,
-                                                     MinioIntegration minioIntegration) {
+                                                     MinioIntegration minioIntegration,
+                                                     ImageNormalizer imageNormalizer) {
         super(templateCache, checklistTemplateService, checklistInstanceRepository);
         this.minioIntegration = minioIntegration;
+        this.imageNormalizer = imageNormalizer;
+    }
+
+    @Override
+    public boolean usesChecklistFiles() {
+        return true;
     }
 
     @Override
@@ -52,7 +63,8 @@ public class DeterminationComplianceChecklistRender extends AbstractChecklistRen
                                           UUID templateId,
                                           ChecklistInstance checklist,
                                           P placeholderParagraph,
-                                          Map<String, String> fieldNameMap) {
+                                          Map<String, String> fieldNameMap,
+                                          ChecklistAssets assets) {
 
         Map<String, Object> typeParams = getMap(data.get(ChecklistJsonKey.TYPE_TEXT_PARAMS.getKey()));
         int insertIndex = mainPart.getContent().indexOf(placeholderParagraph);
@@ -62,7 +74,7 @@ public class DeterminationComplianceChecklistRender extends AbstractChecklistRen
         TableUtil.fixColumnWidths(table, List.of(TableUtil.DEFAULT_TABLE_WIDTH_TWIPS));
         DocumentUtil.addTextRow(table, TITLE_TEXT);
 
-        renderAllBlocks(wordPackage, data, table, typeParams, checklist);
+        renderAllBlocks(wordPackage, data, table, typeParams, checklist, assets);
 
         mainPart.getContent().add(insertIndex, table);
     }
@@ -70,7 +82,7 @@ public class DeterminationComplianceChecklistRender extends AbstractChecklistRen
     /**
      * Рендеринг всех блоков для вставки в таблицу.
      */
-    private void renderAllBlocks(WordprocessingMLPackage wordPackage, LinkedHashMap<String, Object> data, Tbl table, Map<String, Object> typeParams, ChecklistInstance checklist){
+    private void renderAllBlocks(WordprocessingMLPackage wordPackage, LinkedHashMap<String, Object> data, Tbl table, Map<String, Object> typeParams, ChecklistInstance checklist, ChecklistAssets assets){
         // Получение связанных данных
         String address = defaultIfBlank(getFieldFromChecklist("Характеристики объекта строительства", checklist.getExpertiseQuestion().getId(), "address"));
         String cadastralNumber = defaultIfBlank(getFieldFromChecklist("Характеристики объекта строительства", checklist.getExpertiseQuestion().getId(), "cadastral_number"));
@@ -85,23 +97,23 @@ public class DeterminationComplianceChecklistRender extends AbstractChecklistRen
         // Блок 1
         addTextWithImagesBlockRow(wordPackage, table,
                 generateBlock1Text(cadastralNumber, address, area, category, permittedUse),
-                getList(data.get(ChecklistJsonKey.CADASTRE_IMAGES.getKey())), ChecklistJsonKey.CADASTRE_IMAGES.getKey(), false, null);
+                getList(data.get(ChecklistJsonKey.CADASTRE_IMAGES.getKey())), ChecklistJsonKey.CADASTRE_IMAGES.getKey(), false, null, assets);
 
         // Блок 2
         String years = extractYears(getList(data.get(ChecklistJsonKey.OPEN_SOURCE_IMAGES.getKey())));
         addTextWithImagesBlockRow(wordPackage, table,
                 generateBlock2Text(years),
-                getList(data.get(ChecklistJsonKey.OPEN_SOURCE_IMAGES.getKey())), ChecklistJsonKey.OPEN_SOURCE_IMAGES.getKey(), true, null);
+                getList(data.get(ChecklistJsonKey.OPEN_SOURCE_IMAGES.getKey())), ChecklistJsonKey.OPEN_SOURCE_IMAGES.getKey(), true, null, assets);
 
         // Блок 3
         addTextWithImagesBlockRow(wordPackage, table,
                 generateBlock3Text(cadastralNumber, district, zoneText),
-                getList(data.get(ChecklistJsonKey.DISTRICT_MAP_IMAGES.getKey())), ChecklistJsonKey.DISTRICT_MAP_IMAGES.getKey(), false, null);
+                getList(data.get(ChecklistJsonKey.DISTRICT_MAP_IMAGES.getKey())), ChecklistJsonKey.DISTRICT_MAP_IMAGES.getKey(), false, null, assets);
 
         // Блок 4 — пересечения
         String intersectionsText = buildIntersectionsText(getList(data.get(ChecklistJsonKey.INTERSECTION.getKey())));
         addTextWithImagesBlockRow(wordPackage, table, intersectionsText,
-                getList(data.get(ChecklistJsonKey.PZZ_SCREENSHOTS.getKey())), ChecklistJsonKey.PZZ_SCREENSHOTS.getKey(), false, null);
+                getList(data.get(ChecklistJsonKey.PZZ_SCREENSHOTS.getKey())), ChecklistJsonKey.PZZ_SCREENSHOTS.getKey(), false, null, assets);
 
         // Финальный блок
         DocumentUtil.addTextRow(table,
@@ -168,13 +180,16 @@ public class DeterminationComplianceChecklistRender extends AbstractChecklistRen
                                            List<?> files,
                                            String bucket,
                                            boolean useDescriptions,
-                                           String extraTextAfterImages) {
+                                           String extraTextAfterImages,
+                                           ChecklistAssets assets) {
         Tr row = TableUtil.createTableRow();
         Tc cell = TableUtil.createEmptyCell();
         cell.getContent().add(DocumentUtil.createMultilineParagraph(text));
 
         if (files != null && !files.isEmpty()) {
-            int counter = 1;
+            // Сначала загружаем изображения, чтобы нормализовать их одним пакетом
+            List<byte[]> images = new ArrayList<>();
+            List<String> descriptions = new ArrayList<>();
             for (Object o : files) {
                 Map<?, ?> map = (Map<?, ?>) o;
                 Map<?, ?> fileMap = ChecklistJsonKey.OPEN_SOURCE_IMAGES.getKey().equals(bucket) ? getMap(map.get("file")) : map;
@@ -186,13 +201,26 @@ public class DeterminationComplianceChecklistRender extends AbstractChecklistRen
                 String ext = getExtension(name);
                 String baseName = name.substring(0, name.length() - ext.length() - 1);
                 try {
-                    byte[] content = minioIntegration.getFileByParams(baseName, "." + ext, bucket);
-                    P imageParagraph = DocumentUtil.createImageParagraph(wordPackage, content, null, false);
+                    images.add(assets.find(bucket, name)
+                            .orElseGet(() -> minioIntegration.getFileByParams(baseName, "." + ext, bucket)));
+                    descriptions.add(defaultIfBlank(map.get("description")));
+                } catch (Exception e) {
+                    log.info("Error while adding image to checklist table", e);
+                    ChecklistFragment.markIncomplete();
+                }
+            }
+
+            images = imageNormalizer.normalizeAll(images, TableUtil.DEFAULT_TABLE_WIDTH_TWIPS);
+
+            int counter = 1;
+            for (int i = 0; i < images.size(); i++) {
+                try {
+                    P imageParagraph = DocumentUtil.createImageParagraph(wordPackage, images.get(i), null, false);
                     cell.getContent().add(imageParagraph);
 
                     String caption = "Рисунок " + counter++;
                     if (useDescriptions) {
-                        caption += ". Иллюстрация с интернет-ресурса - " + defaultIfBlank(map.get("description"));
+                        caption += ". Иллюстрация с интернет-ресурса - " + descriptions.get(i);
                     } else if (ChecklistJsonKey.CADASTRE_IMAGES.getKey().equals(bucket)) {
                         caption += " - иллюстрация с https://pkk.rosreestr.ru/";
                     }
@@ -200,6 +228,7 @@ public class DeterminationComplianceChecklistRender extends AbstractChecklistRen
                     cell.getContent().add(DocumentUtil.createCenteredParagraph(caption));
                 } catch (Exception e) {
                     log.info("Error while adding image to checklist table", e);
+                    ChecklistFragment.markIncomplete();
                 }
             }
         }
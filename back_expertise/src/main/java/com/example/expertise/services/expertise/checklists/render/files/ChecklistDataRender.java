@@ -1,9 +1,12 @@
 package com.example.expertise.services.expertise.checklists.render.files;
 
 import com.example.expertise.dto.checklist.CreateChecklistInstanceDto;
+import com.example.expertise.integration.minio.UploadTarget;
 import com.example.expertise.model.checklist.ChecklistInstance;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 
+import java.util.List;
+
 /**
  * Интерфейс для управления файлами чек-листов при его создании или редактировании.
  */
@@ -26,5 +29,25 @@ public interface ChecklistDataRender {
      * @param instance чек-лист
      */
     void processDeletedFiles(String fileName, String bucket, ChecklistInstance instance);
+
+    /**
+     * Выдача ссылок для загрузки файлов чек-листа клиентом напрямую в хранилище
+     *
+     * @param instance  чек-лист
+     * @param fileKey   ключ поля с файлами
+     * @param fileNames исходные имена файлов
+     * @return ссылки для загрузки
+     */
+    List<UploadTarget> createUploadTargets(ChecklistInstance instance, String fileKey, List<String> fileNames);
+
+    /**
+     * Регистрация файлов, загруженных клиентом напрямую в хранилище, в данных чек-листа.
+     * Хэшем файла считается ETag объекта в хранилище; дубликаты и файлы отклоненной загрузки удаляются из хранилища
+     *
+     * @param instance    чек-лист
+     * @param fileKey     ключ поля с файлами
+     * @param objectNames имена файлов в хранилище
+     */
+    void registerUploadedFiles(ChecklistInstance instance, String fileKey, List<String> objectNames);
 }
 
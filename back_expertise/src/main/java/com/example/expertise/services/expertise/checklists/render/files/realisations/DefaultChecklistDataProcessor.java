@@ -1,11 +1,17 @@
 package com.example.expertise.services.expertise.checklists.render.files.realisations;
 
 import com.example.expertise.dto.checklist.CreateChecklistInstanceDto;
+import com.example.expertise.enums.Downstream;
+import com.example.expertise.integration.IoExecutor;
 import com.example.expertise.integration.minio.MinioIntegration;
+import com.example.expertise.integration.minio.ObjectKey;
+import com.example.expertise.integration.minio.UploadTarget;
+import com.example.expertise.integration.minio.UploadedObject;
 import com.example.expertise.model.checklist.ChecklistInstance;
 import com.example.expertise.services.expertise.checklists.render.annotation.FileProcessorFor;
 import com.example.expertise.services.expertise.checklists.render.files.ChecklistDataRender;
 import com.example.expertise.util.FileUploadUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
@@ -14,7 +20,7 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.function.Supplier;
 
 /**
  * Реализация процессора проставления данных чек-листа по умолчанию.
@@ -27,10 +33,12 @@ public class DefaultChecklistDataProcessor implements ChecklistDataRender {
 
     private final MinioIntegration minioIntegration;
     private final ObjectMapper objectMapper;
+    private final IoExecutor ioExecutor;
 
-    public DefaultChecklistDataProcessor(MinioIntegration minioIntegration, ObjectMapper objectMapper) {
+    public DefaultChecklistDataProcessor(MinioIntegration minioIntegration, ObjectMapper objectMapper, IoExecutor ioExecutor) {
         this.minioIntegration = minioIntegration;
         this.objectMapper = objectMapper;
+        this.ioExecutor = ioExecutor;
     }
 
     @Override
@@ -55,8 +63,7 @@ public class DefaultChecklistDataProcessor implements ChecklistDataRender {
             });
             Map<String, Set<String>> existingHashes = new HashMap<>();
 
-            ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-            List<Callable<Void>> tasks = new ArrayList<>();
+            List<Supplier<Void>> tasks = new ArrayList<>();
 
             Map<String, Object> finalOldDataMap = oldDataMap;
             request.getMultiFileMap().forEach((fullKey, files) -> {
@@ -108,8 +115,7 @@ public class DefaultChecklistDataProcessor implements ChecklistDataRender {
                 }
             });
 
-            executor.invokeAll(tasks);
-            executor.shutdown();
+            ioExecutor.invokeAll(Downstream.MINIO, tasks);
 
             instance.setData(objectMapper.writeValueAsString(dataMap));
         } catch (Exception e) {
@@ -119,6 +125,103 @@ public class DefaultChecklistDataProcessor implements ChecklistDataRender {
         }
     }
 
+    @Override
+    public List<UploadTarget> createUploadTargets(ChecklistInstance instance, String fileKey, List<String> fileNames) {
+        ParsedKey key = requireKey(fileKey);
+        String prefix = uploadPrefix(instance, key);
+        List<ObjectKey> keys = fileNames.stream()
+                .map(name -> new ObjectKey(key.field(), prefix + UUID.randomUUID() + "." + FileUploadUtil.getExtension(name)))
+                .toList();
+        return minioIntegration.createUploadTargets(keys);
+    }
+
+    @Override
+    public void registerUploadedFiles(ChecklistInstance instance, String fileKey, List<String> objectNames) {
+        ParsedKey key = requireKey(fileKey);
+        String prefix = uploadPrefix(instance, key);
+        List<ObjectKey> keys = new ArrayList<>(objectNames.size());
+        for (String objectName : new LinkedHashSet<>(objectNames)) {
+            if (!objectName.startsWith(prefix)) {
+                throw new IllegalArgumentException("Файл " + objectName + " не относится к полю " + fileKey + " чек-листа");
+            }
+            keys.add(new ObjectKey(key.field(), objectName));
+        }
+
+        try {
+            Map<String, Object> dataMap = instance.getData() != null
+                    ? objectMapper.readValue(instance.getData(), new TypeReference<>() {
+            })
+                    : new HashMap<>();
+            List<Map<String, Object>> fileList = locateFileList(dataMap, key);
+            if (fileList == null) {
+                minioIntegration.discardUploads(keys);
+                throw new IllegalArgumentException("Поле " + fileKey + " не найдено в данных чек-листа");
+            }
+
+            List<UploadedObject> uploaded = minioIntegration.completeUploads(keys);
+            rejectIncomplete(keys, uploaded);
+
+            List<ObjectKey> duplicates = new ArrayList<>();
+            for (UploadedObject object : uploaded) {
+                if (fileList.stream().anyMatch(f -> object.objectName().equals(f.get("name")))) {
+                    continue; // файл уже зарегистрирован повторным подтверждением
+                }
+                String hash = object.etag();
+                if (hash != null && fileList.stream().anyMatch(f -> hash.equals(f.get("hash")))) {
+                    duplicates.add(new ObjectKey(object.bucket(), object.objectName()));
+                    continue;
+                }
+                String baseName = object.objectName().substring(0, object.objectName().lastIndexOf('.'));
+                String fileId = baseName.substring(prefix.length());
+                fileList.add(FileUploadUtil.buildFileEntry(fileId, object.objectName(), object.url(), hash));
+            }
+
+            instance.setData(objectMapper.writeValueAsString(dataMap));
+            if (!duplicates.isEmpty()) {
+                log.info("Удалены дубликаты прямой загрузки чек-листа {}: {}", instance.getId(), duplicates.size());
+                minioIntegration.discardUploads(duplicates);
+            }
+            log.info("Зарегистрированы файлы прямой загрузки чек-листа {}: {}", instance.getId(), objectNames);
+        } catch (JsonProcessingException e) {
+            log.error("Ошибка при регистрации загруженных файлов чек-листа", e);
+            throw new RuntimeException("Ошибка обработки чек-листа", e);
+        }
+    }
+
+    /**
+     * Отклоняет загрузку, если часть файлов отсутствует в хранилище. Уже загруженные файлы при этом удаляются
+     */
+    private void rejectIncomplete(List<ObjectKey> keys, List<UploadedObject> uploaded) {
+        List<String> missing = new ArrayList<>();
+        List<ObjectKey> present = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (uploaded.get(i) == null) {
+                missing.add(keys.get(i).objectName());
+            } else {
+                present.add(keys.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            minioIntegration.discardUploads(present);
+            throw new IllegalStateException("Файлы не загружены в хранилище: " + missing);
+        }
+    }
+
+    /**
+     * Префикс имен файлов поля чек-листа: instanceId_параметр_
+     */
+    private String uploadPrefix(ChecklistInstance instance, ParsedKey key) {
+        return instance.getId() + "_" + (key.parameter() != null ? key.parameter() : key.field()) + "_";
+    }
+
+    private ParsedKey requireKey(String fileKey) {
+        ParsedKey key = parseKey(fileKey);
+        if (key == null) {
+            throw new IllegalArgumentException("Некорректный ключ поля с файлами: " + fileKey);
+        }
+        return key;
+    }
+
     @Override
     public void processDeletedFiles(String fileName, String bucket, ChecklistInstance instance) {
         try {
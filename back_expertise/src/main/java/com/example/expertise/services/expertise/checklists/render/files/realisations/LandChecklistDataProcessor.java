@@ -1,11 +1,17 @@
 package com.example.expertise.services.expertise.checklists.render.files.realisations;
 
 import com.example.expertise.dto.checklist.CreateChecklistInstanceDto;
+import com.example.expertise.enums.Downstream;
+import com.example.expertise.integration.IoExecutor;
 import com.example.expertise.integration.minio.MinioIntegration;
+import com.example.expertise.integration.minio.ObjectKey;
+import com.example.expertise.integration.minio.UploadTarget;
+import com.example.expertise.integration.minio.UploadedObject;
 import com.example.expertise.model.checklist.ChecklistInstance;
 import com.example.expertise.services.expertise.checklists.render.annotation.FileProcessorFor;
 import com.example.expertise.services.expertise.checklists.render.files.ChecklistDataRender;
 import com.example.expertise.util.FileUploadUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
@@ -14,20 +20,30 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Процессор данных чек-листа земельного участка.
+ * Файлы хранятся списками в корне данных чек-листа по названию бакета,
+ * изображения из открытых источников - вместе с описанием (ключ open-source-images__описание).
+ */
 @Slf4j
 @Component
 @FileProcessorFor("Определение соответствия земельного участка")
 public class LandChecklistDataProcessor implements ChecklistDataRender {
 
+    private static final String OPEN_SOURCE_IMAGES = "open-source-images";
+    private static final String OPEN_SOURCE_IMAGES_PREFIX = OPEN_SOURCE_IMAGES + "__";
+
     private final MinioIntegration minioIntegration;
     private final ObjectMapper objectMapper;
+    private final IoExecutor ioExecutor;
 
-    public LandChecklistDataProcessor(MinioIntegration minioIntegration, ObjectMapper objectMapper) {
+    public LandChecklistDataProcessor(MinioIntegration minioIntegration, ObjectMapper objectMapper, IoExecutor ioExecutor) {
         this.minioIntegration = minioIntegration;
         this.objectMapper = objectMapper;
+        this.ioExecutor = ioExecutor;
     }
 
     @Override
@@ -49,8 +65,7 @@ public class LandChecklistDataProcessor implements ChecklistDataRender {
             Map<String, Set<String>> existingHashes = collectHashesFromOld(newDataMap);
 
             // 5. Загрузка новых файлов
-            ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-            List<Callable<Void>> tasks = new ArrayList<>();
+            List<Supplier<Void>> tasks = new ArrayList<>();
 
             request.getMultiFileMap().forEach((key, files) -> {
                 if ("payload".equals(key)) return;
@@ -66,8 +81,7 @@ public class LandChecklistDataProcessor implements ChecklistDataRender {
                 }
             });
 
-            executor.invokeAll(tasks);
-            executor.shutdown();
+            ioExecutor.invokeAll(Downstream.MINIO, tasks);
 
             // 6. Сохраняем итог
             instance.setData(objectMapper.writeValueAsString(newDataMap));
@@ -115,9 +129,11 @@ public class LandChecklistDataProcessor implements ChecklistDataRender {
                                  Map<String, Set<String>> existingHashes) {
         try {
             String hash = FileUploadUtil.computeSHA256(file);
-            Set<String> hashes = existingHashes.computeIfAbsent(bucket, k -> new HashSet<>());
-
-            if (hashes.contains(hash)) return;
+            Set<String> hashes;
+            synchronized (existingHashes) { // файлы загружаются параллельно
+                hashes = existingHashes.computeIfAbsent(bucket, k -> new HashSet<>());
+                if (hashes.contains(hash)) return;
+            }
 
             String ext = FileUploadUtil.getExtension(file.getOriginalFilename());
             String fileId = UUID.randomUUID().toString();
@@ -125,18 +141,20 @@ public class LandChecklistDataProcessor implements ChecklistDataRender {
             String url = minioIntegration.uploadFileByParams(fileName, "." + ext, bucket, file, token);
 
             Map<String, Object> entry = FileUploadUtil.buildFileEntry(fileId, fileName + "." + ext, url, hash);
-            List<Map<String, Object>> fileList = (List<Map<String, Object>>) dataMap.computeIfAbsent(bucket, k -> new ArrayList<>());
+            synchronized (existingHashes) {
+                List<Map<String, Object>> fileList = (List<Map<String, Object>>) dataMap.computeIfAbsent(bucket, k -> new ArrayList<>());
+
+                if ("open-source-images".equals(bucket)) {
+                    Map<String, Object> wrapper = new HashMap<>();
+                    wrapper.put("file", entry);
+                    wrapper.put("description", description);
+                    fileList.add(wrapper);
+                } else {
+                    fileList.add(entry);
+                }
 
-            if ("open-source-images".equals(bucket)) {
-                Map<String, Object> wrapper = new HashMap<>();
-                wrapper.put("file", entry);
-                wrapper.put("description", description);
-                fileList.add(wrapper);
-            } else {
-                fileList.add(entry);
+                hashes.add(hash);
             }
-
-            hashes.add(hash);
         } catch (Exception e) {
             log.error("Ошибка при загрузке файла в bucket '{}'", bucket, e);
             throw new RuntimeException("Ошибка загрузки файла", e);
@@ -214,6 +232,120 @@ public class LandChecklistDataProcessor implements ChecklistDataRender {
         return result;
     }
 
+    @Override
+    public List<UploadTarget> createUploadTargets(ChecklistInstance instance, String fileKey, List<String> fileNames) {
+        String bucket = bucketOf(fileKey);
+        String prefix = uploadPrefix(instance, bucket);
+        List<ObjectKey> keys = fileNames.stream()
+                .map(name -> new ObjectKey(bucket, prefix + UUID.randomUUID() + "." + FileUploadUtil.getExtension(name)))
+                .toList();
+        return minioIntegration.createUploadTargets(keys);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void registerUploadedFiles(ChecklistInstance instance, String fileKey, List<String> objectNames) {
+        String bucket = bucketOf(fileKey);
+        String description = descriptionOf(fileKey);
+        String prefix = uploadPrefix(instance, bucket);
+        List<ObjectKey> keys = new ArrayList<>(objectNames.size());
+        for (String objectName : new LinkedHashSet<>(objectNames)) {
+            if (!objectName.startsWith(prefix)) {
+                throw new IllegalArgumentException("Файл " + objectName + " не относится к полю " + fileKey + " чек-листа");
+            }
+            keys.add(new ObjectKey(bucket, objectName));
+        }
+
+        List<UploadedObject> uploaded = minioIntegration.completeUploads(keys);
+        rejectIncomplete(keys, uploaded);
+
+        try {
+            Map<String, Object> dataMap = saveOldDataMap(instance);
+            List<Map<String, Object>> fileList = (List<Map<String, Object>>) dataMap.computeIfAbsent(bucket, k -> new ArrayList<>());
+
+            List<ObjectKey> duplicates = new ArrayList<>();
+            for (UploadedObject object : uploaded) {
+                if (fileList.stream().anyMatch(item -> object.objectName().equals(fileOf(bucket, item).get("name")))) {
+                    continue; // файл уже зарегистрирован повторным подтверждением
+                }
+                String hash = object.etag();
+                if (hash != null && fileList.stream().anyMatch(item -> hash.equals(extractHash(bucket, item)))) {
+                    duplicates.add(new ObjectKey(object.bucket(), object.objectName()));
+                    continue;
+                }
+                String baseName = object.objectName().substring(0, object.objectName().lastIndexOf('.'));
+                String fileId = baseName.substring(prefix.length());
+                Map<String, Object> entry = FileUploadUtil.buildFileEntry(fileId, object.objectName(), object.url(), hash);
+
+                if (OPEN_SOURCE_IMAGES.equals(bucket)) {
+                    Map<String, Object> wrapper = new HashMap<>();
+                    wrapper.put("file", entry);
+                    wrapper.put("description", description);
+                    fileList.add(wrapper);
+                } else {
+                    fileList.add(entry);
+                }
+            }
+
+            instance.setData(objectMapper.writeValueAsString(dataMap));
+            if (!duplicates.isEmpty()) {
+                log.info("Удалены дубликаты прямой загрузки чек-листа {}: {}", instance.getId(), duplicates.size());
+                minioIntegration.discardUploads(duplicates);
+            }
+            log.info("Зарегистрированы файлы прямой загрузки чек-листа {}: {}", instance.getId(), objectNames);
+        } catch (JsonProcessingException e) {
+            log.error("Ошибка при регистрации загруженных файлов чек-листа", e);
+            throw new RuntimeException("Ошибка обработки чек-листа", e);
+        }
+    }
+
+    /**
+     * Отклоняет загрузку, если часть файлов отсутствует в хранилище. Уже загруженные файлы при этом удаляются
+     */
+    private void rejectIncomplete(List<ObjectKey> keys, List<UploadedObject> uploaded) {
+        List<String> missing = new ArrayList<>();
+        List<ObjectKey> present = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (uploaded.get(i) == null) {
+                missing.add(keys.get(i).objectName());
+            } else {
+                present.add(keys.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            minioIntegration.discardUploads(present);
+            throw new IllegalStateException("Файлы не загружены в хранилище: " + missing);
+        }
+    }
+
+    /**
+     * Описание файла в элементе списка: изображения из открытых источников хранятся вместе с описанием
+     */
+    private Map<?, ?> fileOf(String bucket, Map<?, ?> item) {
+        return OPEN_SOURCE_IMAGES.equals(bucket) && item.get("file") instanceof Map<?, ?> file ? file : item;
+    }
+
+    /**
+     * Бакет поля с файлами: изображения из открытых источников хранятся в одном бакете независимо от описания
+     */
+    private String bucketOf(String fileKey) {
+        if (fileKey.isBlank() || "payload".equals(fileKey)) {
+            throw new IllegalArgumentException("Некорректный ключ поля с файлами: " + fileKey);
+        }
+        return fileKey.startsWith(OPEN_SOURCE_IMAGES_PREFIX) ? OPEN_SOURCE_IMAGES : fileKey;
+    }
+
+    private String descriptionOf(String fileKey) {
+        return fileKey.startsWith(OPEN_SOURCE_IMAGES_PREFIX) ? fileKey.substring(OPEN_SOURCE_IMAGES_PREFIX.length()).trim() : null;
+    }
+
+    /**
+     * Префикс имен файлов поля чек-листа: instanceId_бакет_
+     */
+    private String uploadPrefix(ChecklistInstance instance, String bucket) {
+        return instance.getId() + "_" + bucket + "_";
+    }
+
     @Override
     public void processDeletedFiles(String fileName, String bucket, ChecklistInstance instance) {
         try {
@@ -0,0 +1,20 @@
+package com.example.expertise.services.expertise.document;
+
+import com.example.expertise.model.checklist.ChecklistInstance;
+import com.example.expertise.services.expertise.checklists.render.document.ChecklistAssets;
+
+import java.util.Collection;
+
+/**
+ * Предварительная загрузка файлов чек-листов перед рендерингом.
+ */
+public interface ChecklistAssetPrefetcher {
+    /**
+     * Собирает все файлы, на которые ссылаются данные чек-листов, и параллельно загружает их из MinIO.
+     * Файлы, которые не удалось загрузить, в результат не попадают.
+     *
+     * @param checklists чек-листы
+     * @return загруженные файлы
+     */
+    ChecklistAssets prefetch(Collection<ChecklistInstance> checklists);
+}
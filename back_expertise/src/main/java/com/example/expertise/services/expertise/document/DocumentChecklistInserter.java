@@ -1,6 +1,7 @@
 package com.example.expertise.services.expertise.document;
 
 import com.example.expertise.model.expertise.ExpertiseQuestion;
+import com.example.expertise.util.docs.PlaceholderIndex;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 
 import java.util.List;
@@ -13,7 +14,8 @@ public interface DocumentChecklistInserter {
      * Вставка чек-листов в документ по закладкам.
      *
      * @param wordPackage - докумет
-     * @param questions   - вопросы, которые могут содержать чек-листы
+     * @param questions    - вопросы, которые могут содержать чек-листы
+     * @param placeholders - индекс плейсхолдеров документа
      */
-    void insertAnswerChecklist(WordprocessingMLPackage wordPackage, List<ExpertiseQuestion> questions);
+    void insertAnswerChecklist(WordprocessingMLPackage wordPackage, List<ExpertiseQuestion> questions, PlaceholderIndex placeholders);
 }
@@ -1,7 +1,7 @@
 package com.example.expertise.services.expertise.document;
 
+import com.example.expertise.util.docs.PlaceholderIndex;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 import java.util.Map;
@@ -13,19 +13,19 @@ public interface DocumentPhotoInserter {
     /**
      * Вставляет скриншот карты экспертизы в документ Word по плейсхолдеру expertiseMapScreenshot.
      *
-     * @param photoScreenMap Скриншот карты (MultipartFile)
      * @param wordPackage    Документ Word (WordprocessingMLPackage)
-     * @throws Exception Если произошла ошибка при обработке изображения или документа
+     * @param photoScreenMap Скриншот карты (байты изображения)
+     * @param placeholders   Индекс плейсхолдеров документа
      */
-    void insertScreenMap(WordprocessingMLPackage wordPackage, MultipartFile photoScreenMap);
+    void insertScreenMap(WordprocessingMLPackage wordPackage, byte[] photoScreenMap, PlaceholderIndex placeholders);
 
     /**
      * Вставляет изображения документов (например, дипломов) в документ в раздел "Приложения".
      */
-    void insertPhotoDocs(WordprocessingMLPackage wordPackage, List<byte[]> photoDocs);
+    void insertPhotoDocs(WordprocessingMLPackage wordPackage, List<byte[]> photoDocs, PlaceholderIndex placeholders);
 
     /**
      * Вставляет изображения по плейсхолдерам в таблицу с двумя колонками.
      */
-    void insertAnswerImages(WordprocessingMLPackage wordPackage, Map<String, byte[]> photoMap);
+    void insertAnswerImages(WordprocessingMLPackage wordPackage, Map<String, byte[]> photoMap, PlaceholderIndex placeholders);
 }
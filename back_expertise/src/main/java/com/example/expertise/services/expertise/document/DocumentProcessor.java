@@ -3,8 +3,8 @@ package com.example.expertise.services.expertise.document;
 import com.example.expertise.model.expertise.ExpertiseQuestion;
 import org.docx4j.model.fields.merge.DataFieldName;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -19,12 +19,20 @@ public interface DocumentProcessor {
      * @param mergeData - данные для заполнения
      * @param photoMap  - карта изображений
      * @param questions - список вопросов экспертизы
-     * @return - обработанный документ в виде массива байтов
+     * @return - заполненный документ
      */
-    byte[] processDocument(WordprocessingMLPackage template,
+    WordprocessingMLPackage processDocument(WordprocessingMLPackage template,
                                   Map<DataFieldName, String> mergeData,
                                   Map<String, byte[]> photoMap,
                                   List<byte[]> photoDocs,
                                   List<ExpertiseQuestion> questions,
-                                  MultipartFile screenMap);
+                                  byte[] screenMap);
+
+    /**
+     * Сериализует документ в поток
+     *
+     * @param document     заполненный документ
+     * @param outputStream поток для записи, не закрывается
+     */
+    void writeDocument(WordprocessingMLPackage document, OutputStream outputStream);
 }
@@ -0,0 +1,39 @@
+package com.example.expertise.services.expertise.document;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Подготовка изображений перед вставкой в документ Word: уменьшение до размера отображения,
+ * поворот по EXIF-ориентации и пересжатие в JPEG.
+ */
+public interface ImageNormalizer {
+
+    /**
+     * Нормализует изображение под ширину отображения в документе.
+     * Если изображение не удалось прочитать или его не требуется менять, возвращаются исходные байты.
+     *
+     * @param imageData         байты изображения
+     * @param displayWidthTwips ширина отображения в документе (в twips)
+     * @return байты нормализованного изображения
+     */
+    byte[] normalize(byte[] imageData, int displayWidthTwips);
+
+    /**
+     * Параллельно нормализует список изображений, порядок сохраняется.
+     *
+     * @param images            байты изображений
+     * @param displayWidthTwips ширина отображения в документе (в twips)
+     * @return нормализованные изображения
+     */
+    List<byte[]> normalizeAll(List<byte[]> images, int displayWidthTwips);
+
+    /**
+     * Параллельно нормализует изображения карты, ключи сохраняются.
+     *
+     * @param images            карта изображений
+     * @param displayWidthTwips ширина отображения в документе (в twips)
+     * @return карта нормализованных изображений
+     */
+    <K> Map<K, byte[]> normalizeAll(Map<K, byte[]> images, int displayWidthTwips);
+}
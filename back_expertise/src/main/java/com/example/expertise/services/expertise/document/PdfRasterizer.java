@@ -0,0 +1,24 @@
+package com.example.expertise.services.expertise.document;
+
+/**
+ * Рендеринг страниц PDF-документов в изображения.
+ */
+public interface PdfRasterizer {
+
+    /**
+     * Параметры рендеринга страниц (DPI, формат, качество).
+     * Входят в ключ кэша отрендеренных страниц: при их изменении ранее сохраненные изображения перестают использоваться
+     *
+     * @return строковое описание параметров
+     */
+    String renderSettings();
+
+    /**
+     * Конвертирует PDF в изображения (по одному на страницу).
+     *
+     * @param pdfData байты PDF-документа
+     * @return изображения (JPEG) страниц и количество страниц в документе; страницы с ошибками пропускаются,
+     * поэтому по количеству страниц можно определить, что документ отрендерен не полностью
+     */
+    RenderedPages renderPages(byte[] pdfData);
+}
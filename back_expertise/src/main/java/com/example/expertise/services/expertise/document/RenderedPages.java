@@ -0,0 +1,19 @@
+package com.example.expertise.services.expertise.document;
+
+import java.util.List;
+
+/**
+ * Результат рендеринга страниц PDF-документа
+ *
+ * @param pages     изображения (JPEG) отрендеренных страниц, страницы с ошибками пропущены
+ * @param pageCount количество страниц в документе
+ */
+public record RenderedPages(List<byte[]> pages, int pageCount) {
+
+    /**
+     * @return true, если отрендерены все страницы документа
+     */
+    public boolean complete() {
+        return pageCount > 0 && pages.size() == pageCount;
+    }
+}
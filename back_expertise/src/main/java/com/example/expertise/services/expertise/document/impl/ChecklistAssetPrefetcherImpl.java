@@ -0,0 +1,95 @@
+package com.example.expertise.services.expertise.document.impl;
+
+import com.example.expertise.enums.Downstream;
+import com.example.expertise.integration.IoExecutor;
+import com.example.expertise.integration.minio.MinioIntegration;
+import com.example.expertise.model.checklist.ChecklistInstance;
+import com.example.expertise.services.expertise.checklists.render.document.ChecklistAssets;
+import com.example.expertise.services.expertise.document.ChecklistAssetPrefetcher;
+import com.example.expertise.util.FilesDataUtils;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Предварительная загрузка файлов чек-листов перед рендерингом.
+ * Файлы загружаются параллельно через общий пул обращений к MinIO, количество одновременных запросов ограничено его лимитом.
+ */
+@Service
+public class ChecklistAssetPrefetcherImpl implements ChecklistAssetPrefetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ChecklistAssetPrefetcherImpl.class);
+
+    private final MinioIntegration minioIntegration;
+    private final IoExecutor ioExecutor;
+    private final ObjectMapper objectMapper;
+
+    public ChecklistAssetPrefetcherImpl(MinioIntegration minioIntegration, IoExecutor ioExecutor, ObjectMapper objectMapper) {
+        this.minioIntegration = minioIntegration;
+        this.ioExecutor = ioExecutor;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ChecklistAssets prefetch(Collection<ChecklistInstance> checklists) {
+        long started = System.nanoTime();
+
+        // Собираем файлы всех чек-листов в формате bucket -> List<fileNames>
+        Map<String, List<String>> files = new LinkedHashMap<>();
+        for (ChecklistInstance checklist : checklists) {
+            try {
+                Map<String, Object> data = objectMapper.readValue(checklist.getData(), new TypeReference<>() {
+                });
+                FilesDataUtils.collectFilesFromData(data, files);
+            } catch (Exception e) {
+                log.warn("Не удалось разобрать данные чек-листа {} для загрузки файлов: {}", checklist.getId(), e.getMessage());
+            }
+        }
+
+        List<String> keys = new ArrayList<>();
+        List<Supplier<byte[]>> downloads = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        files.forEach((bucket, fileNames) -> {
+            for (String fileName : fileNames) {
+                int dot = fileName.lastIndexOf('.');
+                if (dot <= 0 || dot == fileName.length() - 1 || !seen.add(ChecklistAssets.key(bucket, fileName))) {
+                    continue;
+                }
+                keys.add(ChecklistAssets.key(bucket, fileName));
+                downloads.add(() -> download(bucket, fileName.substring(0, dot), fileName.substring(dot)));
+            }
+        });
+        if (downloads.isEmpty()) {
+            return ChecklistAssets.EMPTY;
+        }
+
+        List<byte[]> results = ioExecutor.invokeAll(Downstream.MINIO, downloads);
+        Map<String, byte[]> assets = new HashMap<>();
+        long totalBytes = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] bytes = results.get(i);
+            if (bytes != null) {
+                assets.put(keys.get(i), bytes);
+                totalBytes += bytes.length;
+            }
+        }
+
+        log.info("Предзагружено файлов чек-листов: {} из {} ({} байт) за {} мс",
+                assets.size(), keys.size(), totalBytes, (System.nanoTime() - started) / 1_000_000);
+        return new ChecklistAssets(assets);
+    }
+
+    private byte[] download(String bucket, String baseName, String extension) {
+        try {
+            return minioIntegration.getFileByParams(baseName, extension, bucket);
+        } catch (Exception e) {
+            log.warn("Не удалось предзагрузить файл {}{} из бакета {}: {}", baseName, extension, bucket, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,73 +1,170 @@
 package com.example.expertise.services.expertise.document.impl;
 
+import com.example.expertise.integration.IoExecutor;
 import com.example.expertise.model.checklist.ChecklistInstance;
 import com.example.expertise.model.expertise.ExpertiseQuestion;
+import com.example.expertise.services.cache.ChecklistFragmentCache;
+import com.example.expertise.services.expertise.checklists.render.document.ChecklistAssets;
+import com.example.expertise.services.expertise.checklists.render.document.ChecklistFragment;
 import com.example.expertise.services.expertise.checklists.render.document.ChecklistRendererDispatcher;
 import com.example.expertise.services.expertise.checklists.render.document.DocumentChecklistRenderer;
+import com.example.expertise.services.expertise.document.ChecklistAssetPrefetcher;
 import com.example.expertise.services.expertise.document.DocumentChecklistInserter;
-import com.example.expertise.util.docs.DocumentUtil;
+import com.example.expertise.util.docs.PlaceholderIndex;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
-import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
 import org.docx4j.wml.P;
-import org.docx4j.wml.Text;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Процессор для вставки всех чек-листов по закладкам в Word-документ.
+ * <p>
+ * Вставка выполняется в две фазы: сначала все чек-листы параллельно рендерятся в отдельные фрагменты,
+ * затем фрагменты последовательно вставляются по плейсхолдерам в порядке следования в документе.
+ * Время вставки определяется самым медленным чек-листом, а не суммой всех.
  */
 @Component
 public class DocumentChecklistInserterImpl implements DocumentChecklistInserter {
 
     private static final Logger log = LoggerFactory.getLogger(DocumentChecklistInserterImpl.class);
     private final ChecklistRendererDispatcher dispatcher;
+    private final ChecklistFragmentCache fragmentCache;
+    private final ChecklistAssetPrefetcher assetPrefetcher;
+    private final IoExecutor ioExecutor;
 
-    public DocumentChecklistInserterImpl(ChecklistRendererDispatcher dispatcher) {
+    public DocumentChecklistInserterImpl(ChecklistRendererDispatcher dispatcher,
+                                         ChecklistFragmentCache fragmentCache,
+                                         ChecklistAssetPrefetcher assetPrefetcher,
+                                         IoExecutor ioExecutor) {
         this.dispatcher = dispatcher;
+        this.fragmentCache = fragmentCache;
+        this.assetPrefetcher = assetPrefetcher;
+        this.ioExecutor = ioExecutor;
     }
 
     /**
      * Вставка чек-листов в документ по закладкам.
      *
      * @param wordPackage - докумет
-     * @param questions   - вопросы, которые могут содержать чек-листы
+     * @param questions    - вопросы, которые могут содержать чек-листы
+     * @param placeholders - индекс плейсхолдеров документа
      */
     @Override
-    public void insertAnswerChecklist(WordprocessingMLPackage wordPackage, List<ExpertiseQuestion> questions) {
-        MainDocumentPart mainPart = wordPackage.getMainDocumentPart();
-        List<Object> textElements = DocumentUtil.getAllElements(mainPart, Text.class);
+    public void insertAnswerChecklist(WordprocessingMLPackage wordPackage, List<ExpertiseQuestion> questions, PlaceholderIndex placeholders) {
+        List<Target> targets = collectTargets(questions, placeholders);
 
+        // Неизмененные чек-листы берутся из кэша, для остальных заранее загружаются файлы
+        List<ChecklistFragment> cached = new ArrayList<>(targets.size());
+        List<ChecklistInstance> withFiles = new ArrayList<>();
+        for (Target target : targets) {
+            ChecklistFragment fragment = fragmentCache.get(target.checklist());
+            cached.add(fragment);
+            if (fragment == null && target.renderer().usesChecklistFiles()) {
+                withFiles.add(target.checklist());
+            }
+        }
+        ChecklistAssets assets = withFiles.isEmpty() ? ChecklistAssets.EMPTY : assetPrefetcher.prefetch(withFiles);
+
+        // Фаза 1: чек-листы рендерятся параллельно во временные пакеты
+        List<CompletableFuture<ChecklistFragment>> fragments = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            Target target = targets.get(i);
+            if (cached.get(i) != null) {
+                fragments.add(CompletableFuture.completedFuture(cached.get(i)));
+                continue;
+            }
+            log.info("Рендеринг чек-листа {} через {}", target.checklist().getId(), target.renderer().getClass().getSimpleName());
+            fragments.add(ioExecutor.supply(() -> target.renderer().renderFragment(target.checklist(), assets)));
+        }
+
+        // Фаза 2: вставка фрагментов в документ в одном потоке
+        for (int i = 0; i < targets.size(); i++) {
+            Target target = targets.get(i);
+            ChecklistFragment fragment = join(fragments.get(i));
+            if (fragment != null && splice(wordPackage, target, fragment)) {
+                if (fragment.isIncomplete()) {
+                    // Запасной текст или пропущенные изображения: при следующей генерации чек-лист рендерится заново
+                    log.info("Чек-лист {} отрендерен не полностью, фрагмент не кэшируется", target.checklist().getId());
+                    fragmentCache.evict(target.checklist().getId());
+                } else {
+                    fragmentCache.put(target.checklist(), fragment);
+                }
+                continue;
+            }
+
+            fragmentCache.evict(target.checklist().getId());
+            log.info("Вставка чек-листа {} напрямую в документ", target.checklist().getId());
+            target.renderer().insertAnswerChecklist(wordPackage, target.checklist(), target.placeholderParagraph(), assets);
+        }
+    }
+
+    /**
+     * Поиск плейсхолдеров чек-листов и их рендереров в порядке следования в документе
+     */
+    private List<Target> collectTargets(List<ExpertiseQuestion> questions, PlaceholderIndex placeholders) {
+        List<Target> targets = new ArrayList<>();
         for (ExpertiseQuestion question : questions) {
             for (ChecklistInstance checklist : question.getChecklistInstances()) {
                 String placeholder = "[CHECKLIST_" + checklist.getId() + "]";
 
-                Text targetText = textElements.stream()
-                        .filter(t -> t instanceof Text && placeholder.equals(((Text) t).getValue()))
-                        .map(t -> (Text) t)
-                        .findFirst()
-                        .orElse(null);
-
-                if (targetText == null) {
+                PlaceholderIndex.Entry entry = placeholders.findFirst(placeholder).orElse(null);
+                if (entry == null) {
                     log.warn("Закладка {} не найдена", placeholder);
                     continue;
                 }
 
-                targetText.setValue("");
-                P placeholderParagraph = DocumentUtil.findParentParagraph(targetText);
+                entry.text().setValue("");
+                P placeholderParagraph = entry.paragraph();
                 if (placeholderParagraph == null) {
                     log.warn("Параграф для закладки {} не найден", placeholder);
                     continue;
                 }
 
-                String templateName = checklist.getChecklistTemplate().getName();
-                DocumentChecklistRenderer renderer = dispatcher.getRenderer(templateName);
-                log.info("Вставка чек-листа {} через {}", checklist.getId(), renderer.getClass().getSimpleName());
+                DocumentChecklistRenderer renderer = dispatcher.getRenderer(checklist.getChecklistTemplate().getName());
+                targets.add(new Target(checklist, renderer, placeholderParagraph, entry.position()));
+            }
+        }
+        targets.sort(Comparator.comparingInt(Target::position));
+        return targets;
+    }
 
-                renderer.insertAnswerChecklist(wordPackage, checklist, placeholderParagraph);
+    private boolean splice(WordprocessingMLPackage wordPackage, Target target, ChecklistFragment fragment) {
+        try {
+            fragment.spliceInto(wordPackage, target.placeholderParagraph());
+            return true;
+        } catch (Exception e) {
+            log.warn("Не удалось вставить фрагмент чек-листа {}: {}", target.checklist().getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private ChecklistFragment join(CompletableFuture<ChecklistFragment> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
+            throw new RuntimeException("Ошибка рендеринга чек-листа", e.getCause());
         }
     }
+
+    /**
+     * Чек-лист, подлежащий вставке
+     *
+     * @param checklist            чек-лист
+     * @param renderer             рендерер чек-листа
+     * @param placeholderParagraph параграф плейсхолдера
+     * @param position             позиция плейсхолдера в документе
+     */
+    private record Target(ChecklistInstance checklist, DocumentChecklistRenderer renderer,
+                          P placeholderParagraph, int position) {
+    }
 }
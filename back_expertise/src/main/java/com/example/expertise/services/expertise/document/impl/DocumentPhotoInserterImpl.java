@@ -1,10 +1,10 @@
 package com.example.expertise.services.expertise.document.impl;
 
 import com.example.expertise.enums.Bookmarks;
+import com.example.expertise.services.cache.RenderedPageCache;
 import com.example.expertise.services.expertise.document.DocumentPhotoInserter;
-import com.example.expertise.services.expertise.document.Replacement;
 import com.example.expertise.util.docs.DocumentUtil;
-import com.example.expertise.util.docs.FormatConverterUtil;
+import com.example.expertise.util.docs.PlaceholderIndex;
 import com.example.expertise.util.docs.TableUtil;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
@@ -12,12 +12,9 @@ import org.docx4j.wml.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 /**
  * Класс для вставки фотографий в документ Word.
@@ -27,29 +24,27 @@ public class DocumentPhotoInserterImpl implements DocumentPhotoInserter {
 
     private static final Logger log = LoggerFactory.getLogger(DocumentPhotoInserterImpl.class);
 
+    private final RenderedPageCache renderedPageCache;
+
+    public DocumentPhotoInserterImpl(RenderedPageCache renderedPageCache) {
+        this.renderedPageCache = renderedPageCache;
+    }
+
     /**
      * Вставляет скриншот карты экспертизы в документ Word по плейсхолдеру expertiseMapScreenshot.
      *
-     * @param photoScreenMap Скриншот карты (MultipartFile)
      * @param wordPackage    Документ Word (WordprocessingMLPackage)
-     * @throws Exception Если произошла ошибка при обработке изображения или документа
+     * @param photoScreenMap Скриншот карты (байты изображения)
+     * @param placeholders   Индекс плейсхолдеров документа
      */
     @Override
-    public void insertScreenMap(WordprocessingMLPackage wordPackage, MultipartFile photoScreenMap) {
+    public void insertScreenMap(WordprocessingMLPackage wordPackage, byte[] photoScreenMap, PlaceholderIndex placeholders) {
         try {
-            MainDocumentPart mainDocumentPart = wordPackage.getMainDocumentPart();
-            List<Object> textElements = DocumentUtil.getAllElements(mainDocumentPart, Text.class);
-
-            for (Object obj : textElements) {
-                Text text = (Text) obj;
-                String textValue = text.getValue();
-
-                if (textValue == null || !textValue.equals("expertiseMapScreenshot")) {
-                    continue;
-                }
+            for (PlaceholderIndex.Entry entry : placeholders.findAll(Bookmarks.EXPERTISE_MAP.getName())) {
+                Text text = entry.text();
 
                 // Получаем родительский параграф
-                P parentParagraph = DocumentUtil.findParentParagraph(text);
+                P parentParagraph = entry.paragraph();
                 if (parentParagraph == null) {
                     log.warn("Не удалось найти родительский параграф для плейсхолдера expertiseMapScreenshot");
                     continue;
@@ -59,8 +54,8 @@ public class DocumentPhotoInserterImpl implements DocumentPhotoInserter {
                 text.setValue("");
 
                 // Получаем байты изображения
-                byte[] imageData = photoScreenMap.getBytes();
-                if (imageData.length == 0) {
+                byte[] imageData = photoScreenMap;
+                if (imageData == null || imageData.length == 0) {
                     log.warn("Файл изображения expertiseMapScreenshot пустой");
                     continue;
                 }
@@ -84,19 +79,15 @@ public class DocumentPhotoInserterImpl implements DocumentPhotoInserter {
      * Вставляет изображения документов (например, дипломов) в документ в раздел "Приложения".
      */
     @Override
-    public void insertPhotoDocs(WordprocessingMLPackage wordPackage, List<byte[]> photoDocs) {
+    public void insertPhotoDocs(WordprocessingMLPackage wordPackage, List<byte[]> photoDocs, PlaceholderIndex placeholders) {
         try {
             MainDocumentPart mainDocumentPart = wordPackage.getMainDocumentPart();
-            List<Object> textElements = DocumentUtil.getAllElements(mainDocumentPart, Text.class);
 
-            for (Object obj : textElements) {
-                Text text = (Text) obj;
-                if (!isPhotoDocsBookmark(text)) {
-                    continue;
-                }
+            for (PlaceholderIndex.Entry entry : placeholders.findAll(Bookmarks.PHOTO_DOCS.getName())) {
+                Text text = entry.text();
 
                 replaceBookmarkText(text, Bookmarks.PHOTO_DOCS.getName());
-                P parentParagraph = getParentParagraph(text, Bookmarks.PHOTO_DOCS.getName());
+                P parentParagraph = getParentParagraph(entry, Bookmarks.PHOTO_DOCS.getName());
                 if (parentParagraph == null) continue;
 
                 // Индекс параграфа с плейсхолдером
@@ -109,7 +100,7 @@ public class DocumentPhotoInserterImpl implements DocumentPhotoInserter {
                 int docIndex = 1;
                 int pageIndex = 1;
                 for (byte[] docData : photoDocs) {
-                    List<byte[]> imageDataList = FormatConverterUtil.convertPdfToImages(docData);
+                    List<byte[]> imageDataList = renderedPageCache.getPages(docData);
                     if (imageDataList.isEmpty()) {
                         log.warn("Не удалось преобразовать PDF в изображение для документа #{}, размер данных: {}", docIndex, docData.length);
                         docIndex++;
@@ -149,98 +140,29 @@ public class DocumentPhotoInserterImpl implements DocumentPhotoInserter {
 
     /**
      * Вставляет изображения по плейсхолдерам в таблицу с двумя колонками.
+     * Подряд идущие плейсхолдеры собираются в одну таблицу, по два изображения в строке.
      */
     @Override
-    public void insertAnswerImages(WordprocessingMLPackage wordPackage, Map<String, byte[]> photoMap) {
+    public void insertAnswerImages(WordprocessingMLPackage wordPackage, Map<String, byte[]> photoMap, PlaceholderIndex placeholders) {
         try {
             MainDocumentPart mainDocumentPart = wordPackage.getMainDocumentPart();
-            List<Object> textElements = DocumentUtil.getAllElements(mainDocumentPart, Text.class);
+            List<PlaceholderIndex.Entry> photoEntries = placeholders.getPhotoEntries().stream()
+                    .filter(entry -> photoMap.containsKey(entry.token()))
+                    .toList();
 
-            List<Replacement> replacements = new ArrayList<>();
             int imageCounter = 1;
-
-            for (int i = 0; i < textElements.size(); i++) {
-                Text text = (Text) textElements.get(i);
-                if (!hasPlaceholder(text, photoMap)) {
-                    continue;
-                }
-
-                P parentParagraph = getParentParagraph(text, text.getValue());
-                if (parentParagraph == null) {
-                    continue;
+            int groupStart = 0;
+            while (groupStart < photoEntries.size()) {
+                // Ищем конец группы подряд идущих плейсхолдеров; плейсхолдеры одного текстового узла всегда в одной группе,
+                // иначе параграф узла был бы удален при вставке предыдущей группы
+                int groupEnd = groupStart + 1;
+                while (groupEnd < photoEntries.size()
+                        && photoEntries.get(groupEnd).position() <= photoEntries.get(groupEnd - 1).position() + 1) {
+                    groupEnd++;
                 }
 
-                int paragraphIndex = mainDocumentPart.getContent().indexOf(parentParagraph);
-                if (paragraphIndex == -1) {
-                    log.warn("Не удалось найти индекс параграфа для текста: {}", text.getValue());
-                    continue;
-                }
-
-                // Создаём пустой параграф (пустая строка)
-                P spaceParagraph = DocumentUtil.createFormattedParagraph("");
-
-                // Создаём таблицу
-                Tbl table = TableUtil.createDefaultTable();
-                List<P> paragraphsToRemove = new ArrayList<>();
-                paragraphsToRemove.add(parentParagraph);
-
-                while (i < textElements.size()) {
-                    Text currentText = (Text) textElements.get(i);
-                    Optional<Map.Entry<String, byte[]>> currentEntryOpt = processPlaceholder(currentText, photoMap);
-                    if (currentEntryOpt.isEmpty()) {
-                        break;
-                    }
-
-                    Map.Entry<String, byte[]> currentEntry = currentEntryOpt.get();
-                    Tr tableRow = TableUtil.createTableRow();
-                    table.getContent().add(tableRow);
-
-                    // Первая ячейка с текущим изображением
-                    Tc tableCell1 = TableUtil.createImageCell(
-                            wordPackage,
-                            currentEntry.getValue(),
-                            TableUtil.DEFAULT_IMAGE_WIDTH_TWIPS,
-                            "Рисунок " + imageCounter++
-                    );
-                    tableRow.getContent().add(tableCell1);
-
-                    // Вторая ячейка - либо следующее изображение, либо пустая
-                    Tc tableCell2 = TableUtil.createEmptyCell();
-                    if (i + 1 < textElements.size()) {
-                        Text nextText = (Text) textElements.get(i + 1);
-                        Optional<Map.Entry<String, byte[]>> nextEntryOpt = processPlaceholder(nextText, photoMap);
-                        if (nextEntryOpt.isPresent()) {
-                            tableCell2 = TableUtil.createImageCell(
-                                    wordPackage,
-                                    nextEntryOpt.get().getValue(),
-                                    TableUtil.DEFAULT_IMAGE_WIDTH_TWIPS,
-                                    "Рисунок " + imageCounter++
-                            );
-                            P nextParagraph = DocumentUtil.findParentParagraph(nextText);
-                            if (nextParagraph != null) {
-                                paragraphsToRemove.add(nextParagraph);
-                            }
-                            i++; // Пропускаем следующий элемент, так как мы его уже обработали
-                        }
-                    }
-                    tableRow.getContent().add(tableCell2);
-                    i++; // Переходим к следующему элементу
-                }
-
-                // Добавляем замены
-                replacements.add(new Replacement(paragraphIndex, spaceParagraph));
-                replacements.add(new Replacement(paragraphIndex + 1, table));
-
-                // Удаляем параграфы
-                for (P paragraph : paragraphsToRemove) {
-                    mainDocumentPart.getContent().remove(paragraph);
-                }
-            }
-
-            // Применяем замены
-            replacements.sort((r1, r2) -> Integer.compare(r2.index, r1.index));
-            for (Replacement r : replacements) {
-                mainDocumentPart.getContent().add(r.index, r.content);
+                imageCounter = insertImageGroup(wordPackage, mainDocumentPart, photoEntries.subList(groupStart, groupEnd), photoMap, imageCounter);
+                groupStart = groupEnd;
             }
 
             log.info("Вставлено {} изображений", imageCounter - 1);
@@ -252,87 +174,75 @@ public class DocumentPhotoInserterImpl implements DocumentPhotoInserter {
 
     // Вспомогательные методы
 
-    private boolean isPhotoDocsBookmark(Text text) {
-        String textValue = text.getValue();
-        return textValue != null && textValue.contains(Bookmarks.PHOTO_DOCS.getName());
-    }
-
-    private boolean hasPlaceholder(Text text, Map<String, byte[]> photoMap) {
-        String textValue = text.getValue();
-        return textValue != null && DocumentUtil.containsPlaceholder(textValue, photoMap);
-    }
-
-    private void replaceBookmarkText(Text text, String bookmark) {
-        text.setValue(text.getValue().replace(bookmark, ""));
-    }
-
-    private P getParentParagraph(Text text, String logContext) {
-        P parentParagraph = DocumentUtil.findParentParagraph(text);
-        if (parentParagraph == null) {
-            log.warn("Не удалось найти родительский параграф для текста: {}", logContext);
+    /**
+     * Заменяет группу подряд идущих плейсхолдеров пустой строкой и таблицей с изображениями.
+     *
+     * @param wordPackage  документ
+     * @param mainPart     основная часть документа
+     * @param group        плейсхолдеры группы в порядке следования
+     * @param photoMap     карта изображений
+     * @param imageCounter номер следующего рисунка
+     * @return номер следующего рисунка после вставки группы
+     */
+    private int insertImageGroup(WordprocessingMLPackage wordPackage, MainDocumentPart mainPart,
+                                 List<PlaceholderIndex.Entry> group, Map<String, byte[]> photoMap, int imageCounter) {
+        P firstParagraph = getParentParagraph(group.get(0), group.get(0).token());
+        int paragraphIndex = firstParagraph != null ? mainPart.getContent().indexOf(firstParagraph) : -1;
+        if (paragraphIndex == -1) {
+            log.warn("Не удалось найти индекс параграфа для текста: {}", group.get(0).token());
+            return imageCounter;
         }
-        return parentParagraph;
-    }
 
-    private Optional<Map.Entry<String, byte[]>> processPlaceholder(Text text, Map<String, byte[]> photoMap) {
-        String textValue = text.getValue();
-        if (textValue == null || !DocumentUtil.containsPlaceholder(textValue, photoMap)) {
-            return Optional.empty();
+        // Создаём таблицу, по два изображения в строке
+        Tbl table = TableUtil.createDefaultTable();
+        for (int i = 0; i < group.size(); i += 2) {
+            Tr tableRow = TableUtil.createTableRow();
+            tableRow.getContent().add(createImageCell(wordPackage, group.get(i), photoMap, imageCounter++));
+
+            // Вторая ячейка - либо следующее изображение, либо пустая
+            if (i + 1 < group.size()) {
+                tableRow.getContent().add(createImageCell(wordPackage, group.get(i + 1), photoMap, imageCounter++));
+            } else {
+                tableRow.getContent().add(TableUtil.createEmptyCell());
+            }
+            table.getContent().add(tableRow);
         }
 
-        Optional<Map.Entry<String, byte[]>> entryOpt = DocumentUtil.findPlaceholderEntry(textValue, photoMap);
-        if (entryOpt.isPresent()) {
-            Map.Entry<String, byte[]> entry = entryOpt.get();
-            log.info("Найден плейсхолдер '{}'", entry.getKey());
-            text.setValue(textValue.replace(entry.getKey(), ""));
+        // Удаляем параграфы с плейсхолдерами и вставляем на их место пустую строку и таблицу
+        for (PlaceholderIndex.Entry entry : group) {
+            P paragraph = entry.paragraph();
+            if (paragraph != null) {
+                mainPart.getContent().remove(paragraph);
+            }
         }
-        return entryOpt;
+        mainPart.getContent().add(paragraphIndex, DocumentUtil.createFormattedParagraph(""));
+        mainPart.getContent().add(paragraphIndex + 1, table);
+        return imageCounter;
     }
 
-    private Tc processNextPlaceholder(WordprocessingMLPackage wordPackage, List<Object> textElements, int index,
-                                      Map<String, byte[]> photoMap, String currentKey, List<P> paragraphsToRemove, int imageCounter) throws Exception {
-        if (index >= textElements.size()) {
-            return TableUtil.createEmptyCell();
-        }
+    private Tc createImageCell(WordprocessingMLPackage wordPackage, PlaceholderIndex.Entry entry,
+                               Map<String, byte[]> photoMap, int imageNumber) {
+        log.info("Найден плейсхолдер '{}'", entry.token());
+        Text text = entry.text();
+        text.setValue(text.getValue().replace(entry.token(), ""));
 
-        Text nextText = (Text) textElements.get(index);
-        String nextTextValue = nextText.getValue();
-        if (nextTextValue == null || !DocumentUtil.containsPlaceholder(nextTextValue, photoMap)) {
-            return TableUtil.createEmptyCell();
-        }
-
-        Optional<Map.Entry<String, byte[]>> nextEntryOpt = DocumentUtil.findPlaceholderEntry(nextTextValue, photoMap, currentKey);
-        if (nextEntryOpt.isEmpty()) {
-            return TableUtil.createEmptyCell();
-        }
-
-        Map.Entry<String, byte[]> nextEntry = nextEntryOpt.get();
-        log.info("Найден соседний плейсхолдер '{}'", nextEntry.getKey());
-        nextText.setValue(nextTextValue.replace(nextEntry.getKey(), ""));
-
-        Tc tableCell = TableUtil.createImageCell(
+        return TableUtil.createImageCell(
                 wordPackage,
-                nextEntry.getValue(),
+                photoMap.get(entry.token()),
                 TableUtil.DEFAULT_IMAGE_WIDTH_TWIPS,
-                "Рисунок " + imageCounter
+                "Рисунок " + imageNumber
         );
-        P nextParagraph = DocumentUtil.findParentParagraph(nextText);
-        if (nextParagraph != null) {
-            paragraphsToRemove.add(nextParagraph);
-        }
-        textElements.set(index, nextText); // Обновляем элемент в списке
-        return tableCell;
     }
 
-    private void removeParagraphs(MainDocumentPart mainDocumentPart, List<P> paragraphsToRemove, int paragraphIndex) {
-        for (P paragraph : paragraphsToRemove) {
-            int index = mainDocumentPart.getContent().indexOf(paragraph);
-            if (index != -1) {
-                mainDocumentPart.getContent().remove(index);
-                if (index <= paragraphIndex) {
-                    paragraphIndex--;
-                }
-            }
+    private void replaceBookmarkText(Text text, String bookmark) {
+        text.setValue(text.getValue().replace(bookmark, ""));
+    }
+
+    private P getParentParagraph(PlaceholderIndex.Entry entry, String logContext) {
+        P parentParagraph = entry.paragraph();
+        if (parentParagraph == null) {
+            log.warn("Не удалось найти родительский параграф для текста: {}", logContext);
         }
+        return parentParagraph;
     }
-}
\ No newline at end of file
+}
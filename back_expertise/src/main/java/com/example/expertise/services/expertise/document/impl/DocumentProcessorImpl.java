@@ -5,6 +5,7 @@ import com.example.expertise.services.expertise.document.DocumentChecklistInsert
 import com.example.expertise.services.expertise.document.DocumentPhotoInserter;
 import com.example.expertise.services.expertise.document.DocumentProcessor;
 import com.example.expertise.util.docs.DocumentUtil;
+import com.example.expertise.util.docs.PlaceholderIndex;
 import org.docx4j.model.fields.merge.DataFieldName;
 import org.docx4j.model.fields.merge.MailMerger;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
@@ -12,15 +13,16 @@ import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
 import org.docx4j.wml.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.math.BigInteger;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Класс для обработки документов в формате DOCX.
@@ -37,10 +39,17 @@ public class DocumentProcessorImpl implements DocumentProcessor {
     public static final String LINE_SEPARATOR = "<!-- LINE_SEPARATOR -->";
     private static final int PARAGRAPH_SPACING_TWIPS = 240;
 
+    /**
+     * Каталог для отладочной копии сгенерированных документов. Пустое значение - копия не сохраняется
+     */
+    private final String debugDumpDir;
+
     public DocumentProcessorImpl(@Lazy DocumentPhotoInserter documentPhotoInserterImpl,
-                                 DocumentChecklistInserter documentChecklistInserterImpl) {
+                                 DocumentChecklistInserter documentChecklistInserterImpl,
+                                 @Value("${app.document.debug-dump-dir:}") String debugDumpDir) {
         this.documentPhotoInserterImpl = documentPhotoInserterImpl;
         this.documentChecklistInserterImpl = documentChecklistInserterImpl;
+        this.debugDumpDir = debugDumpDir;
     }
 
     /**
@@ -50,40 +59,65 @@ public class DocumentProcessorImpl implements DocumentProcessor {
      * @param mergeData - данные для заполнения
      * @param photoMap  - карта изображений
      * @param questions - список вопросов экспертизы
-     * @return - обработанный документ в виде массива байтов
+     * @return - заполненный документ
      */
     @Override
-    public byte[] processDocument(WordprocessingMLPackage template,
+    public WordprocessingMLPackage processDocument(WordprocessingMLPackage template,
                                   Map<DataFieldName, String> mergeData,
                                   Map<String, byte[]> photoMap,
                                   List<byte[]> photoDocs,
                                   List<ExpertiseQuestion> questions,
-                                  MultipartFile screenMap) {
+                                  byte[] screenMap) {
         try {
             MailMerger.setMERGEFIELDInOutput(MailMerger.OutputField.REMOVED);
             MailMerger.performMerge(template, mergeData, true);
 
             DocumentUtil.splitParagraphs(template, QUESTION_SEPARATOR, LINE_SEPARATOR);
 
-            documentChecklistInserterImpl.insertAnswerChecklist(template, questions); // проставляем чек-листы по заданным ключам (по ответам на вопросы)
-            documentPhotoInserterImpl.insertAnswerImages(template, photoMap); // вставляем изображения по заданным ключам (по ответам на вопросы)
-            documentPhotoInserterImpl.insertPhotoDocs(template, photoDocs); // вставляем фото документов эксперта в приложении экспертизы
-            documentPhotoInserterImpl.insertScreenMap(template, screenMap); // вставляем карту (скрин) объекта экспертизы
+            // Индекс плейсхолдеров строится один раз и используется всеми вставщиками
+            PlaceholderIndex placeholders = PlaceholderIndex.build(template.getMainDocumentPart());
 
-            // Сохранение итогового файла
-            File outputFile = new File("output.docx");
-            template.save(outputFile);
-            log.info("Итоговый файл сохранён: {}", outputFile.getAbsolutePath());
+            documentChecklistInserterImpl.insertAnswerChecklist(template, questions, placeholders); // проставляем чек-листы по заданным ключам (по ответам на вопросы)
+            documentPhotoInserterImpl.insertAnswerImages(template, photoMap, placeholders); // вставляем изображения по заданным ключам (по ответам на вопросы)
+            documentPhotoInserterImpl.insertPhotoDocs(template, photoDocs, placeholders); // вставляем фото документов эксперта в приложении экспертизы
+            documentPhotoInserterImpl.insertScreenMap(template, screenMap, placeholders); // вставляем карту (скрин) объекта экспертизы
 
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            template.save(outputStream);
-            return outputStream.toByteArray();
+            return template;
         } catch (Exception e) {
             log.error("Ошибка при обработке документа", e);
             throw new RuntimeException("Не удалось обработать DOCX-документ", e);
         }
     }
 
+    /**
+     * Сериализует документ в поток (один проход, без промежуточного буфера в памяти).
+     * Если задан каталог app.document.debug-dump-dir, дополнительно сохраняет копию документа для отладки
+     *
+     * @param document     заполненный документ
+     * @param outputStream поток для записи (ответ HTTP, временный файл и т.п.), не закрывается
+     */
+    @Override
+    public void writeDocument(WordprocessingMLPackage document, OutputStream outputStream) {
+        try {
+            document.save(outputStream);
+        } catch (Exception e) {
+            log.error("Ошибка при сохранении документа", e);
+            throw new RuntimeException("Не удалось сохранить DOCX-документ", e);
+        }
+        dumpForDebug(document);
+    }
 
-
-}
\ No newline at end of file
+    private void dumpForDebug(WordprocessingMLPackage document) {
+        if (debugDumpDir == null || debugDumpDir.isBlank()) {
+            return;
+        }
+        try {
+            Path dir = Files.createDirectories(Path.of(debugDumpDir));
+            Path dumpFile = dir.resolve("expertise_" + UUID.randomUUID() + ".docx");
+            document.save(dumpFile.toFile());
+            log.info("Отладочная копия документа сохранена: {}", dumpFile.toAbsolutePath());
+        } catch (Exception e) {
+            log.warn("Не удалось сохранить отладочную копию документа: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.expertise.services.expertise.document.impl;
+
+import com.example.expertise.services.expertise.document.ImageNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Подготовка изображений перед вставкой в документ Word.
+ * <p>
+ * Фотографии с камер вставляются в документ шириной около 8 см, поэтому хранить их в исходном разрешении
+ * бессмысленно: изображение уменьшается до ширины отображения при заданном DPI (app.images.dpi),
+ * поворачивается по EXIF-ориентации и пересжимается в JPEG с качеством app.images.jpeg-quality.
+ * Пакетная обработка выполняется параллельно в CPU-пуле rasterExecutor.
+ */
+@Component
+public class ImageNormalizerImpl implements ImageNormalizer {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageNormalizerImpl.class);
+
+    private static final int TWIPS_PER_INCH = 1440;
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    private final Executor rasterExecutor;
+    private final int dpi;
+    private final float jpegQuality;
+
+    public ImageNormalizerImpl(@Qualifier("rasterExecutor") Executor rasterExecutor,
+                               @Value("${app.images.dpi:150}") int dpi,
+                               @Value("${app.images.jpeg-quality:0.8}") float jpegQuality) {
+        this.rasterExecutor = rasterExecutor;
+        this.dpi = dpi;
+        this.jpegQuality = jpegQuality;
+    }
+
+    @Override
+    public byte[] normalize(byte[] imageData, int displayWidthTwips) {
+        if (imageData == null || imageData.length == 0) {
+            return imageData;
+        }
+        try {
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(imageData));
+            if (source == null) {
+                return imageData; // формат не поддерживается ImageIO - вставляем как есть
+            }
+
+            int orientation = readExifOrientation(imageData);
+            boolean swapSides = orientation >= 5 && orientation <= 8;
+            int displayedWidth = swapSides ? source.getHeight() : source.getWidth();
+            int targetWidth = (int) Math.ceil((double) displayWidthTwips / TWIPS_PER_INCH * dpi);
+
+            boolean needsScaling = displayedWidth > targetWidth;
+            boolean needsRotation = orientation > 1 && orientation <= 8;
+            if (!needsScaling && !needsRotation) {
+                return imageData;
+            }
+
+            double scale = needsScaling ? (double) targetWidth / displayedWidth : 1.0;
+            BufferedImage scaled = scale(source,
+                    Math.max(1, (int) Math.round(source.getWidth() * scale)),
+                    Math.max(1, (int) Math.round(source.getHeight() * scale)));
+            byte[] result = encodeJpeg(applyOrientation(scaled, orientation));
+
+            // Пересжатие без поворота не должно увеличивать файл
+            return !needsRotation && result.length >= imageData.length ? imageData : result;
+        } catch (Exception e) {
+            log.warn("Не удалось нормализовать изображение ({} байт): {}", imageData.length, e.getMessage());
+            return imageData;
+        }
+    }
+
+    @Override
+    public List<byte[]> normalizeAll(List<byte[]> images, int displayWidthTwips) {
+        if (images == null || images.isEmpty()) {
+            return images;
+        }
+        List<CompletableFuture<byte[]>> futures = images.stream()
+                .map(image -> CompletableFuture.supplyAsync(() -> normalize(image, displayWidthTwips), rasterExecutor))
+                .toList();
+
+        List<byte[]> result = new ArrayList<>(futures.size());
+        for (CompletableFuture<byte[]> future : futures) {
+            result.add(future.join());
+        }
+        logReduction(images, result);
+        return result;
+    }
+
+    @Override
+    public <K> Map<K, byte[]> normalizeAll(Map<K, byte[]> images, int displayWidthTwips) {
+        if (images == null || images.isEmpty()) {
+            return images;
+        }
+        List<K> keys = new ArrayList<>(images.keySet());
+        List<byte[]> normalized = normalizeAll(keys.stream().map(images::get).toList(), displayWidthTwips);
+
+        Map<K, byte[]> result = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            result.put(keys.get(i), normalized.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Уменьшает изображение. При сильном уменьшении размер сокращается в несколько проходов вдвое,
+     * чтобы билинейная интерполяция не давала заметных артефактов
+     */
+    private BufferedImage scale(BufferedImage source, int targetWidth, int targetHeight) {
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height, null);
+        } while (width > targetWidth || height > targetHeight);
+        return current;
+    }
+
+    /**
+     * Поворачивает и отражает изображение по значению EXIF-ориентации (1-8)
+     */
+    private BufferedImage applyOrientation(BufferedImage image, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+        boolean swapSides = orientation >= 5;
+        return draw(image, swapSides ? h : w, swapSides ? w : h, transform);
+    }
+
+    /**
+     * Рисует изображение на белом фоне (JPEG не поддерживает прозрачность) с заданным размером или преобразованием
+     */
+    private BufferedImage draw(BufferedImage source, int width, int height, AffineTransform transform) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            if (transform != null) {
+                graphics.drawImage(source, transform, null);
+            } else {
+                graphics.drawImage(source, 0, 0, width, height, null);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(baos)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Читает EXIF-ориентацию из сегмента APP1 JPEG-файла
+     *
+     * @return значение ориентации (1-8), 1 - если не найдено
+     */
+    int readExifOrientation(byte[] data) {
+        if (data.length < 4 || (data[0] & 0xFF) != 0xFF || (data[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int pos = 2;
+        while (pos + 4 <= data.length) {
+            if ((data[pos] & 0xFF) != 0xFF) {
+                return 1;
+            }
+            int marker = data[pos + 1] & 0xFF;
+            if (marker == 0xFF) {
+                pos++; // байт-заполнитель
+                continue;
+            }
+            if (marker == 0xDA || marker == 0xD9) {
+                return 1; // начались данные изображения, EXIF уже не встретится
+            }
+            int length = readUnsignedShort(data, pos + 2, false);
+            int segmentStart = pos + 4;
+            int segmentEnd = Math.min(data.length, pos + 2 + length);
+            if (marker == 0xE1 && segmentEnd - segmentStart > 14
+                    && data[segmentStart] == 'E' && data[segmentStart + 1] == 'x'
+                    && data[segmentStart + 2] == 'i' && data[segmentStart + 3] == 'f') {
+                return readTiffOrientation(data, segmentStart + 6, segmentEnd);
+            }
+            pos += 2 + length;
+        }
+        return 1;
+    }
+
+    private int readTiffOrientation(byte[] data, int tiffStart, int end) {
+        boolean littleEndian = data[tiffStart] == 'I' && data[tiffStart + 1] == 'I';
+        int ifdStart = tiffStart + readInt(data, tiffStart + 4, littleEndian);
+        if (ifdStart < tiffStart || ifdStart + 2 > end) {
+            return 1;
+        }
+        int entries = readUnsignedShort(data, ifdStart, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifdStart + 2 + i * 12;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (readUnsignedShort(data, entry, littleEndian) == EXIF_ORIENTATION_TAG) {
+                int orientation = readUnsignedShort(data, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private int readUnsignedShort(byte[] data, int offset, boolean littleEndian) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private int readInt(byte[] data, int offset, boolean littleEndian) {
+        int high = readUnsignedShort(data, offset + (littleEndian ? 2 : 0), littleEndian);
+        int low = readUnsignedShort(data, offset + (littleEndian ? 0 : 2), littleEndian);
+        return (high << 16) | low;
+    }
+
+    private void logReduction(List<byte[]> before, List<byte[]> after) {
+        long sizeBefore = before.stream().mapToLong(image -> image == null ? 0 : image.length).sum();
+        long sizeAfter = after.stream().mapToLong(image -> image == null ? 0 : image.length).sum();
+        log.info("Нормализовано изображений: {}, размер {} -> {} байт ({}%)",
+                before.size(), sizeBefore, sizeAfter, sizeBefore == 0 ? 100 : sizeAfter * 100 / sizeBefore);
+    }
+}
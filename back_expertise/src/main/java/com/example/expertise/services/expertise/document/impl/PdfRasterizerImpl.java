@@ -0,0 +1,183 @@
+package com.example.expertise.services.expertise.document.impl;
+
+import com.example.expertise.services.expertise.document.PdfRasterizer;
+import com.example.expertise.services.expertise.document.RenderedPages;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Рендеринг страниц PDF-документов в изображения.
+ * <p>
+ * Страницы делятся на непрерывные диапазоны, каждый диапазон рендерится своим экземпляром PDDocument/PDFRenderer
+ * (PDFBox не допускает параллельный рендеринг одного документа). Первый диапазон рендерит вызывающий поток,
+ * остальные - общий ограниченный пул rasterExecutor. При переполнении очереди пула задачи выполняются
+ * в вызывающем потоке, что ограничивает нагрузку от одновременных запросов.
+ * Время рендеринга страниц и ошибки публикуются в метриках pdf.rasterization.page*.
+ */
+@Component
+public class PdfRasterizerImpl implements PdfRasterizer {
+
+    private static final Logger log = LoggerFactory.getLogger(PdfRasterizerImpl.class);
+
+    private static final int DPI = 96;
+    private static final String OUTPUT_FORMAT = "jpeg";
+    private static final float JPEG_QUALITY = 0.5f;
+    private static final String RENDER_SETTINGS = "dpi=" + DPI + ";format=" + OUTPUT_FORMAT + ";quality=" + JPEG_QUALITY;
+
+    private final Executor rasterExecutor;
+    private final int parallelism;
+
+    // Переиспользуемые JPEG-писатели
+    private final Queue<ImageWriter> writerPool = new ConcurrentLinkedQueue<>();
+
+    // Метрики рендеринга страниц
+    private final Timer pageTimer;
+    private final Counter failedPages;
+
+    public PdfRasterizerImpl(@Qualifier("rasterExecutor") Executor rasterExecutor,
+                             @Value("${app.rasterization.threads:4}") int parallelism,
+                             MeterRegistry meterRegistry) {
+        this.rasterExecutor = rasterExecutor;
+        this.parallelism = Math.max(1, parallelism);
+        this.pageTimer = Timer.builder("pdf.rasterization.page")
+                .description("Время рендеринга и сжатия одной страницы PDF-документа")
+                .register(meterRegistry);
+        this.failedPages = Counter.builder("pdf.rasterization.page.failed")
+                .description("Страницы PDF-документов, которые не удалось отрендерить")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String renderSettings() {
+        return RENDER_SETTINGS;
+    }
+
+    /**
+     * Конвертирует PDF в изображения (по одному на страницу).
+     *
+     * @param pdfData байты PDF-документа
+     * @return изображения (JPEG) страниц, страницы с ошибками пропускаются, и количество страниц в документе
+     */
+    @Override
+    public RenderedPages renderPages(byte[] pdfData) {
+        long startTime = System.nanoTime();
+        try (PDDocument document = PDDocument.load(pdfData)) {
+            int pageCount = document.getNumberOfPages();
+            if (pageCount == 0) {
+                log.warn("PDF-документ пустой (0 страниц)");
+                return new RenderedPages(Collections.emptyList(), 0);
+            }
+
+            byte[][] pageImages = new byte[pageCount][];
+            int chunkSize = (pageCount + parallelism - 1) / parallelism;
+
+            // Остальные диапазоны рендерятся в пуле, каждый со своей копией документа
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int from = chunkSize; from < pageCount; from += chunkSize) {
+                int rangeFrom = from;
+                int rangeTo = Math.min(from + chunkSize, pageCount);
+                futures.add(CompletableFuture.runAsync(
+                        () -> renderDetachedRange(pdfData, rangeFrom, rangeTo, pageImages), rasterExecutor));
+            }
+
+            // Первый диапазон рендерится в вызывающем потоке уже открытым документом
+            renderRange(document, 0, Math.min(chunkSize, pageCount), pageImages);
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+            log.debug("PDF-документ ({} стр.) преобразован в изображения за {} мс",
+                    pageCount, (System.nanoTime() - startTime) / 1_000_000);
+            return new RenderedPages(Arrays.stream(pageImages).filter(Objects::nonNull).toList(), pageCount);
+        } catch (IOException | CompletionException e) {
+            log.error("Ошибка преобразования PDF в изображения", e);
+            return new RenderedPages(Collections.emptyList(), 0);
+        }
+    }
+
+    private void renderDetachedRange(byte[] pdfData, int from, int to, byte[][] pageImages) {
+        try (PDDocument document = PDDocument.load(pdfData)) {
+            renderRange(document, from, to, pageImages);
+        } catch (IOException e) {
+            failedPages.increment(to - from);
+            log.error("Ошибка загрузки PDF для рендеринга страниц {}-{}: {}", from + 1, to, e.getMessage());
+        }
+    }
+
+    private void renderRange(PDDocument document, int from, int to, byte[][] pageImages) {
+        PDFRenderer renderer = new PDFRenderer(document);
+        ImageWriter writer = acquireWriter();
+        try {
+            for (int page = from; page < to; page++) {
+                long pageStart = System.nanoTime();
+                try {
+                    BufferedImage image = renderer.renderImageWithDPI(page, DPI);
+                    byte[] imageData = encode(writer, image);
+                    if (imageData.length == 0) {
+                        failedPages.increment();
+                        log.warn("Изображение для страницы {} PDF-документа пустое", page + 1);
+                        continue;
+                    }
+                    pageImages[page] = imageData;
+                    pageTimer.record(System.nanoTime() - pageStart, TimeUnit.NANOSECONDS);
+                } catch (Exception e) {
+                    failedPages.increment();
+                    log.error("Ошибка рендеринга страницы {}: {}", page + 1, e.getMessage());
+                }
+            }
+        } finally {
+            releaseWriter(writer);
+        }
+    }
+
+    private byte[] encode(ImageWriter writer, BufferedImage image) throws IOException {
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(baos)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.reset();
+        }
+        return baos.toByteArray();
+    }
+
+    private ImageWriter acquireWriter() {
+        ImageWriter writer = writerPool.poll();
+        return writer != null ? writer : ImageIO.getImageWritersByFormatName(OUTPUT_FORMAT).next();
+    }
+
+    private void releaseWriter(ImageWriter writer) {
+        writer.reset();
+        writerPool.offer(writer);
+    }
+}
@@ -1,25 +1,30 @@
 package com.example.expertise.services.expertise.impl;
 
 import com.example.expertise.dto.expertise.AnswerDto;
+import com.example.expertise.dto.expertise.PhotoUploadSlotDto;
+import com.example.expertise.enums.Downstream;
+import com.example.expertise.enums.MinioBuckets;
 import com.example.expertise.exceptions.PhotoUploadException;
+import com.example.expertise.integration.IoExecutor;
 import com.example.expertise.integration.minio.MinioIntegration;
+import com.example.expertise.integration.minio.ObjectKey;
+import com.example.expertise.integration.minio.UploadTarget;
+import com.example.expertise.integration.minio.UploadedObject;
 import com.example.expertise.model.expertise.ExpertisePhoto;
 import com.example.expertise.model.expertise.ExpertiseQuestion;
 import com.example.expertise.services.expertise.AnswerPhotoUploader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
 
 /**
  * Класс для управления фотографиями в ответах на экспертные вопросы.
@@ -29,15 +34,15 @@ public class AnswerPhotoUploaderImpl implements AnswerPhotoUploader {
 
     private static final Logger log = LoggerFactory.getLogger(AnswerPhotoUploaderImpl.class);
 
-    private static final int MAX_CONCURRENT_UPLOADS = 5; // Ограничение на количество параллельных загрузок
-    private final Semaphore uploadSemaphore = new Semaphore(MAX_CONCURRENT_UPLOADS);
-
-    private final Executor taskExecutor;
+    private final IoExecutor ioExecutor;
     private final MinioIntegration minioIntegration;
 
-    public AnswerPhotoUploaderImpl(@Qualifier("taskExecutor") Executor taskExecutor,
+    @Value("${app.upload.max-photos-per-session:50}")
+    private int maxPhotosPerSession;
+
+    public AnswerPhotoUploaderImpl(IoExecutor ioExecutor,
                                    MinioIntegration minioIntegration) {
-        this.taskExecutor = taskExecutor;
+        this.ioExecutor = ioExecutor;
         this.minioIntegration = minioIntegration;
     }
 
@@ -52,6 +57,95 @@ public class AnswerPhotoUploaderImpl implements AnswerPhotoUploader {
         }
     }
 
+    /**
+     * Выдает ссылки для загрузки фотографий ответа клиентом напрямую в MinIO.
+     * Имена файлов строятся так же, как при загрузке через сервис, поэтому при подтверждении их не нужно хранить.
+     *
+     * @param expertiseQuestion экспертный вопрос, к которому относятся фотографии
+     * @param count             количество фотографий
+     * @return идентификаторы фотографий и ссылки для загрузки
+     */
+    @Override
+    public List<PhotoUploadSlotDto> createUploadSlots(ExpertiseQuestion expertiseQuestion, int count) {
+        if (count < 1 || count > maxPhotosPerSession) {
+            throw new IllegalArgumentException("Количество фотографий должно быть от 1 до " + maxPhotosPerSession);
+        }
+
+        List<UUID> photoIds = new ArrayList<>(count);
+        List<ObjectKey> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID photoId = UUID.randomUUID();
+            photoIds.add(photoId);
+            keys.add(new ObjectKey(MinioBuckets.EXPERTISE_ANSWERS.bucket(), photoName(expertiseQuestion, photoId)));
+        }
+
+        List<UploadTarget> targets = minioIntegration.createUploadTargets(keys);
+        List<PhotoUploadSlotDto> slots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UploadTarget target = targets.get(i);
+            slots.add(new PhotoUploadSlotDto(photoIds.get(i), target.objectName(), target.uploadUrl(), target.expiresAt()));
+        }
+        return slots;
+    }
+
+    /**
+     * Регистрирует фотографии, загруженные клиентом напрямую в MinIO.
+     * Наличие каждого файла проверяется в хранилище; уже зарегистрированные фотографии пропускаются.
+     * Если часть фотографий не загружена, загрузка отклоняется целиком, а уже загруженные файлы удаляются из хранилища.
+     *
+     * @param expertiseQuestion экспертный вопрос, к которому относятся фотографии
+     * @param photoIds          идентификаторы загруженных фотографий
+     * @throws PhotoUploadException если часть фотографий не загружена в хранилище
+     */
+    @Override
+    public void registerUploadedPhotos(ExpertiseQuestion expertiseQuestion, List<UUID> photoIds) {
+        if (expertiseQuestion.getPhotos() == null) {
+            expertiseQuestion.setPhotos(new ArrayList<>());
+        }
+        Set<String> registered = expertiseQuestion.getPhotos().stream()
+                .map(ExpertisePhoto::getFilePath)
+                .collect(Collectors.toSet());
+
+        List<UUID> newPhotoIds = photoIds.stream()
+                .distinct()
+                .filter(photoId -> !registered.contains(photoName(expertiseQuestion, photoId)))
+                .toList();
+        if (newPhotoIds.isEmpty()) {
+            return;
+        }
+
+        List<ObjectKey> keys = newPhotoIds.stream()
+                .map(photoId -> new ObjectKey(MinioBuckets.EXPERTISE_ANSWERS.bucket(), photoName(expertiseQuestion, photoId)))
+                .toList();
+        List<UploadedObject> uploaded = minioIntegration.completeUploads(keys);
+
+        List<String> missing = new ArrayList<>();
+        List<ObjectKey> present = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (uploaded.get(i) == null) {
+                missing.add(keys.get(i).objectName());
+            } else {
+                present.add(keys.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            minioIntegration.discardUploads(present);
+            throw new PhotoUploadException("Фотографии не загружены в хранилище: " + missing);
+        }
+
+        for (int i = 0; i < keys.size(); i++) {
+            expertiseQuestion.getPhotos().add(new ExpertisePhoto(newPhotoIds.get(i), keys.get(i).objectName(), expertiseQuestion));
+        }
+        log.info("Registered {} directly uploaded photos for question ID: {}", keys.size(), expertiseQuestion.getId());
+    }
+
+    /**
+     * Имя файла фотографии в хранилище: expertiseId_questionId_photoId.jpg
+     */
+    private static String photoName(ExpertiseQuestion expertiseQuestion, UUID photoId) {
+        return String.format("%s_%s_%s.jpg", expertiseQuestion.getExpertise().getId(), expertiseQuestion.getId(), photoId);
+    }
+
     /**
      * Асинхронно загружает фотографии в MinIO и сохраняет ссылки на них в базе данных.
      *
@@ -64,14 +158,8 @@ public class AnswerPhotoUploaderImpl implements AnswerPhotoUploader {
     private void uploadPhotos(ExpertiseQuestion expertiseQuestion, List<MultipartFile> photos, UUID expertiseId, UUID questionId) {
         List<ExpertisePhoto> photoRecords = new ArrayList<>();
 
-        // Сохраняем текущий контекст запроса для передачи в асинхронные потоки
-        ServletRequestAttributes requestContext = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-        if (requestContext == null) {
-            throw new IllegalStateException("Request context not found in main thread");
-        }
-
         try {
-            List<CompletableFuture<Void>> uploadTasks = createUploadTasks(expertiseQuestion, photoRecords, photos, expertiseId, questionId, requestContext);
+            List<CompletableFuture<Void>> uploadTasks = createUploadTasks(expertiseQuestion, photoRecords, photos, expertiseId, questionId);
             CompletableFuture.allOf(uploadTasks.toArray(new CompletableFuture[0])).join();
             expertiseQuestion.setPhotos(photoRecords);
         } catch (Exception e) {
@@ -88,17 +176,15 @@ public class AnswerPhotoUploaderImpl implements AnswerPhotoUploader {
      * @param photos            список фотографий для загрузки
      * @param expertiseId       идентификатор экспертизы
      * @param questionId        идентификатор вопроса
-     * @param requestContext    контекст текущего HTTP-запроса
      * @return список асинхронных задач
      */
     private List<CompletableFuture<Void>> createUploadTasks(ExpertiseQuestion expertiseQuestion,
                                                             List<ExpertisePhoto> photoRecords,
                                                             List<MultipartFile> photos,
                                                             UUID expertiseId,
-                                                            UUID questionId,
-                                                            ServletRequestAttributes requestContext) {
+                                                            UUID questionId) {
         return photos.stream()
-                .map(photo -> createUploadTask(expertiseQuestion, photoRecords, photo, expertiseId, questionId, requestContext))
+                .map(photo -> createUploadTask(expertiseQuestion, photoRecords, photo, expertiseId, questionId))
                 .toList();
     }
 
@@ -110,36 +196,26 @@ public class AnswerPhotoUploaderImpl implements AnswerPhotoUploader {
      * @param photo             фотография для загрузки
      * @param expertiseId       идентификатор экспертизы
      * @param questionId        идентификатор вопроса
-     * @param requestContext    контекст текущего HTTP-запроса
      * @return асинхронная задача
      */
     private CompletableFuture<Void> createUploadTask(ExpertiseQuestion expertiseQuestion,
                                                      List<ExpertisePhoto> photoRecords,
                                                      MultipartFile photo,
                                                      UUID expertiseId,
-                                                     UUID questionId,
-                                                     ServletRequestAttributes requestContext) {
+                                                     UUID questionId) {
         UUID photoId = UUID.randomUUID();
         String photoName = String.format("%s_%s_%s.jpg", expertiseId, questionId, photoId);
         ExpertisePhoto photoRecord = new ExpertisePhoto(photoId, photoName, expertiseQuestion);
         photoRecords.add(photoRecord);
 
-        return CompletableFuture.runAsync(() -> {
+        return ioExecutor.run(Downstream.MINIO, () -> {
             try {
-                uploadSemaphore.acquire(); // Ограничиваем параллелизм
-                RequestContextHolder.setRequestAttributes(requestContext);
                 minioIntegration.uploadAnswerPhoto(photoName, photo);
                 log.info("Successfully uploaded photo: {}", photoName);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Upload interrupted for photo: " + photoName, e);
             } catch (Exception e) {
                 throw new RuntimeException("Failed to upload photo: " + photoName, e);
-            } finally {
-                uploadSemaphore.release();
-                RequestContextHolder.resetRequestAttributes();
             }
-        }, taskExecutor).exceptionally(throwable -> {
+        }).exceptionally(throwable -> {
             log.error("Upload failed for photo: {}", photoName, throwable);
             throw new RuntimeException("Failed to upload photo: " + photoName, throwable);
         });
@@ -0,0 +1,152 @@
+package com.example.expertise.services.expertise.impl;
+
+import com.example.expertise.dto.expertise.ConclusionTaskDto;
+import com.example.expertise.enums.ConclusionTaskStatus;
+import com.example.expertise.exceptions.ConclusionTaskNotFoundException;
+import com.example.expertise.exceptions.ExpertiseQuestionNotFoundException;
+import com.example.expertise.model.expertise.AnswerConclusionTask;
+import com.example.expertise.model.expertise.ExpertiseQuestion;
+import com.example.expertise.repository.expertise.AnswerConclusionTaskRepository;
+import com.example.expertise.repository.expertise.ExpertiseQuestionRepository;
+import com.example.expertise.services.expertise.ConclusionGenerator;
+import com.example.expertise.services.expertise.ConclusionTaskService;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Сервис заданий на асинхронную генерацию выводов по ответам.
+ * Ответ сохраняется сразу, вывод формируется воркером и записывается в answer_conclusion по готовности.
+ */
+@Service
+@Validated
+public class ConclusionTaskServiceImpl implements ConclusionTaskService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConclusionTaskServiceImpl.class);
+
+    private final AnswerConclusionTaskRepository taskRepository;
+    private final ExpertiseQuestionRepository expertiseQuestionRepository;
+    private final ConclusionGenerator conclusionGenerator;
+
+    public ConclusionTaskServiceImpl(AnswerConclusionTaskRepository taskRepository,
+                                     ExpertiseQuestionRepository expertiseQuestionRepository,
+                                     ConclusionGenerator conclusionGenerator) {
+        this.taskRepository = taskRepository;
+        this.expertiseQuestionRepository = expertiseQuestionRepository;
+        this.conclusionGenerator = conclusionGenerator;
+    }
+
+    @Transactional
+    @Override
+    public void submit(@NotNull(message = "questionId cannot be null") UUID questionId,
+                       @NotNull(message = "answer cannot be null") String answer,
+                       boolean bypassCache) {
+        taskRepository.supersede(questionId);
+
+        AnswerConclusionTask task = new AnswerConclusionTask();
+        task.setQuestionId(questionId);
+        task.setAnswer(answer);
+        task.setBypassCache(bypassCache);
+        task.setStatus(ConclusionTaskStatus.PENDING);
+        taskRepository.save(task);
+        log.info("Задание на генерацию вывода поставлено в очередь: taskId={}, questionId={}, bypassCache={}",
+                task.getId(), questionId, bypassCache);
+    }
+
+    @Override
+    public void supersede(@NotNull(message = "questionId cannot be null") UUID questionId) {
+        if (taskRepository.supersede(questionId) > 0) {
+            log.info("Незавершенные задания на генерацию вывода по вопросу {} отменены", questionId);
+        }
+    }
+
+    @Override
+    public ConclusionTaskDto getLatestTask(@NotNull(message = "questionId cannot be null") UUID questionId) {
+        AnswerConclusionTask task = taskRepository.findFirstByQuestionIdOrderByCreatedAtDesc(questionId)
+                .orElseThrow(ConclusionTaskNotFoundException::new);
+        String conclusion = task.getStatus() == ConclusionTaskStatus.COMPLETED
+                ? expertiseQuestionRepository.findById(questionId).map(ExpertiseQuestion::getAnswerConclusion).orElse(null)
+                : null;
+        return new ConclusionTaskDto(task, conclusion);
+    }
+
+    /**
+     * Забрать следующее ожидающее задание в работу.
+     * Строка блокируется через FOR UPDATE SKIP LOCKED, поэтому одно задание не попадет на два узла.
+     *
+     * @param workerId идентификатор узла
+     * @return задание или пусто, если очередь пуста
+     */
+    @Transactional
+    @Override
+    public Optional<AnswerConclusionTask> claimNextTask(String workerId) {
+        Optional<AnswerConclusionTask> next = taskRepository.lockNextPending();
+        next.ifPresent(task -> {
+            task.setStatus(ConclusionTaskStatus.RUNNING);
+            task.setWorkerId(workerId);
+            task.setStartedAt(LocalDateTime.now());
+            task.setHeartbeatAt(task.getStartedAt());
+            task.setAttempts(task.getAttempts() + 1);
+            taskRepository.save(task);
+        });
+        return next;
+    }
+
+    /**
+     * Выполнить задание. Обращение к GigaChat идет вне транзакции,
+     * вывод записывается одной командой вместе с завершением задания.
+     *
+     * @param task задание в статусе RUNNING
+     */
+    @Override
+    public void processTask(AnswerConclusionTask task) {
+        UUID taskId = task.getId();
+        long startTime = System.currentTimeMillis();
+        try {
+            String question = expertiseQuestionRepository.findById(task.getQuestionId())
+                    .orElseThrow(ExpertiseQuestionNotFoundException::new)
+                    .getQuestionText();
+
+            String conclusion = conclusionGenerator.generateConclusion(question, task.getAnswer(), task.isBypassCache());
+            if (conclusion == null || conclusion.isEmpty()) {
+                taskRepository.fail(taskId, task.getWorkerId(), task.getAttempts(), "GigaChat не вернул вывод");
+                log.warn("Вывод по заданию {} не сформирован", taskId);
+                return;
+            }
+
+            if (taskRepository.complete(taskId, task.getWorkerId(), task.getAttempts(), conclusion) == 0) {
+                log.info("Задание {} отменено или передано другой попытке до сохранения вывода, вывод не записан", taskId);
+                return;
+            }
+            log.info("Задание на генерацию вывода {} выполнено за {} мс", taskId, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("Ошибка выполнения задания на генерацию вывода {}", taskId, e);
+            taskRepository.fail(taskId, task.getWorkerId(), task.getAttempts(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void releaseTask(AnswerConclusionTask task) {
+        if (taskRepository.release(task.getId(), task.getWorkerId(), task.getAttempts()) > 0) {
+            log.info("Задание на генерацию вывода {} возвращено в очередь", task.getId());
+        }
+    }
+
+    @Override
+    public boolean heartbeat(AnswerConclusionTask task) {
+        return taskRepository.heartbeat(task.getId(), task.getWorkerId(), task.getAttempts(), LocalDateTime.now()) > 0;
+    }
+
+    @Override
+    public int requeueStaleTasks(Duration heartbeatTimeout, int maxAttempts) {
+        return taskRepository.requeueStale(LocalDateTime.now().minus(heartbeatTimeout), maxAttempts);
+    }
+}
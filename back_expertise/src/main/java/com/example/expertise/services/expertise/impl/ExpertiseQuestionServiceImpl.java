@@ -1,6 +1,7 @@
 package com.example.expertise.services.expertise.impl;
 
 import com.example.expertise.dto.expertise.AnswerDto;
+import com.example.expertise.dto.expertise.PhotoUploadSlotDto;
 import com.example.expertise.exceptions.ExpertisePhotoNotFoundException;
 import com.example.expertise.exceptions.ExpertiseQuestionNotFoundException;
 import com.example.expertise.integration.minio.MinioIntegration;
@@ -10,7 +11,7 @@ import com.example.expertise.repository.expertise.ExpertisePhotoRepository;
 import com.example.expertise.repository.expertise.ExpertiseQuestionRepository;
 import com.example.expertise.services.expertise.AnswerPhotoUploader;
 import com.example.expertise.services.expertise.ExpertiseQuestionService;
-import com.example.expertise.services.expertise.ConclusionGenerator;
+import com.example.expertise.services.expertise.ConclusionTaskService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
@@ -20,6 +21,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -35,19 +37,19 @@ public class ExpertiseQuestionServiceImpl implements ExpertiseQuestionService {
     private final ExpertiseQuestionRepository expertiseQuestionRepository;
     private final MinioIntegration minioIntegration;
     private final AnswerPhotoUploader answerPhotoUploader;
-    private final ConclusionGenerator conclusionGenerator;
+    private final ConclusionTaskService conclusionTaskService;
 
     @Autowired
     public ExpertiseQuestionServiceImpl(ExpertisePhotoRepository expertisePhotoRepository,
                                         ExpertiseQuestionRepository expertiseQuestionRepository,
                                         MinioIntegration minioIntegration,
                                         AnswerPhotoUploader answerPhotoUploader,
-                                        ConclusionGenerator conclusionGenerator) {
+                                        ConclusionTaskService conclusionTaskService) {
         this.expertisePhotoRepository = expertisePhotoRepository;
         this.expertiseQuestionRepository = expertiseQuestionRepository;
         this.minioIntegration = minioIntegration;
         this.answerPhotoUploader = answerPhotoUploader;
-        this.conclusionGenerator = conclusionGenerator;
+        this.conclusionTaskService = conclusionTaskService;
     }
 
     /**
@@ -65,6 +67,8 @@ public class ExpertiseQuestionServiceImpl implements ExpertiseQuestionService {
 
     /**
      * Создаёт или обновляет ответ на вопрос экспертизы, включая загрузку связанных фотографий.
+     * Вывод по ответу формируется асинхронно: задание на генерацию фиксируется вместе с ответом,
+     * состояние доступно через {@link ConclusionTaskService#getLatestTask(UUID)}.
      *
      * @param answerDto данные ответа на вопрос экспертизы
      * @return обновлённый объект {@link ExpertiseQuestion}
@@ -75,9 +79,31 @@ public class ExpertiseQuestionServiceImpl implements ExpertiseQuestionService {
     public ExpertiseQuestion createAnswer(@Valid @NotNull(message = "AnswerData cannot be null") AnswerDto answerDto) {
         ExpertiseQuestion expertiseQuestion = getExpertiseQuestionById(answerDto.getQuestionId());
         expertiseQuestion.setAnswer(answerDto.getAnswer());
-        conclusionGenerator.addConclusionIfPresent(expertiseQuestion, answerDto.getAnswer());
         answerPhotoUploader.uploadPhotosIfPresent(expertiseQuestion, answerDto);
-        return expertiseQuestionRepository.save(expertiseQuestion);
+        ExpertiseQuestion saved = expertiseQuestionRepository.save(expertiseQuestion);
+
+        String answer = answerDto.getAnswer();
+        if (answer != null && !answer.isBlank()) {
+            conclusionTaskService.submit(saved.getId(), answer, false);
+        }
+        return saved;
+    }
+
+    /**
+     * Ставит в очередь повторную генерацию вывода по текущему ответу.
+     * Вывод запрашивается у модели без кэша ответов, иначе повторная генерация вернула бы тот же текст.
+     *
+     * @param questionId идентификатор вопроса экспертизы
+     * @throws IllegalArgumentException если у вопроса нет ответа
+     */
+    @Transactional
+    @Override
+    public void regenerateConclusion(@NotNull UUID questionId) {
+        String answer = getExpertiseQuestionById(questionId).getAnswer();
+        if (answer == null || answer.isBlank()) {
+            throw new IllegalArgumentException("У вопроса нет ответа, вывод не может быть сформирован");
+        }
+        conclusionTaskService.submit(questionId, answer, true);
     }
 
     /**
@@ -90,6 +116,7 @@ public class ExpertiseQuestionServiceImpl implements ExpertiseQuestionService {
     @Override
     public ExpertiseQuestion updateAnswerConclusion(@NotNull String conclusion, @NotNull UUID questionId) {
         ExpertiseQuestion expertiseQuestion = getExpertiseQuestionById(questionId);
+        conclusionTaskService.supersede(questionId); // вывод, заданный вручную, не перезаписывается сгенерированным
         expertiseQuestion.setAnswerConclusion(conclusion);
         return expertiseQuestionRepository.save(expertiseQuestion);
     }
@@ -111,4 +138,32 @@ public class ExpertiseQuestionServiceImpl implements ExpertiseQuestionService {
 
         return getExpertiseQuestionById(expertiseQuestionId); // Возвращаем обновлённый вопрос экспертизы
     }
-}
\ No newline at end of file
+
+    /**
+     * Выдает ссылки для загрузки фото ответа клиентом напрямую в хранилище MinIO, минуя сервисы.
+     *
+     * @param questionId идентификатор вопроса экспертизы
+     * @param count      количество фото
+     * @return идентификаторы фото и ссылки для загрузки
+     */
+    @Override
+    public List<PhotoUploadSlotDto> createPhotoUploadSlots(@NotNull(message = "ExpertiseQuestion ID cannot be null") UUID questionId, int count) {
+        return answerPhotoUploader.createUploadSlots(getExpertiseQuestionById(questionId), count);
+    }
+
+    /**
+     * Регистрирует фото ответа, загруженные клиентом напрямую в хранилище MinIO.
+     *
+     * @param questionId идентификатор вопроса экспертизы
+     * @param photoIds   идентификаторы загруженных фото
+     * @return обновлённый объект {@link ExpertiseQuestion}
+     */
+    @Transactional
+    @Override
+    public ExpertiseQuestion completePhotoUploads(@NotNull(message = "ExpertiseQuestion ID cannot be null") UUID questionId,
+                                                  @NotNull(message = "Не указаны идентификаторы фото") List<UUID> photoIds) {
+        ExpertiseQuestion expertiseQuestion = getExpertiseQuestionById(questionId);
+        answerPhotoUploader.registerUploadedPhotos(expertiseQuestion, photoIds);
+        return expertiseQuestionRepository.save(expertiseQuestion);
+    }
+}
@@ -2,21 +2,28 @@ package com.example.expertise.services.expertise.impl;
 
 import com.example.expertise.dto.expertise.CreateExpertiseDto;
 import com.example.expertise.dto.expertise.ExpertiseResponseDto;
+import com.example.expertise.enums.Downstream;
 import com.example.expertise.enums.FileExtension;
 import com.example.expertise.enums.FileType;
 import com.example.expertise.enums.MinioBuckets;
 import com.example.expertise.exceptions.ExpertiseNotFoundException;
+import com.example.expertise.integration.IoExecutor;
 import com.example.expertise.integration.minio.MinioIntegration;
+import com.example.expertise.integration.minio.ObjectKey;
 import com.example.expertise.integration.profile.ProfileIntegration;
 import com.example.expertise.model.checklist.ChecklistInstance;
 import com.example.expertise.model.expertise.Expertise;
+import com.example.expertise.model.expertise.ExpertiseQuestion;
 import com.example.expertise.repository.expertise.ExpertiseRepository;
 import com.example.expertise.services.cache.ChecklistTemplateCache;
+import com.example.expertise.services.cache.ExpertiseTemplateCache;
 import com.example.expertise.services.expertise.checklists.ChecklistsService;
 import com.example.expertise.services.expertise.ExpertiseService;
 import com.example.expertise.services.expertise.document.BookmarkInserter;
 import com.example.expertise.services.expertise.document.DocumentProcessor;
+import com.example.expertise.services.expertise.document.ImageNormalizer;
 import com.example.expertise.services.expertise.document.impl.BookmarkInserterImpl;
+import com.example.expertise.util.docs.TableUtil;
 import com.example.expertise.util.mappers.ChecklistInstanceMapper;
 import com.example.expertise.util.mappers.ExpertiseMapper;
 import com.example.expertise.services.expertise.document.impl.DocumentProcessorImpl;
@@ -26,19 +33,18 @@ import lombok.AllArgsConstructor;
 import org.docx4j.model.fields.merge.DataFieldName;
 import org.docx4j.openpackaging.exceptions.Docx4JException;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.web.context.request.RequestAttributes;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Сервис для работы с сущностью Expertise.
@@ -60,6 +66,10 @@ public class ExpertiseServiceImpl implements ExpertiseService {
     private final ChecklistTemplateCache checklistTemplateCache;
     private final ObjectMapper objectMapper;
     private final ChecklistsService checklistsService;
+    private final ExpertiseTemplateCache expertiseTemplateCache;
+    private final IoExecutor ioExecutor;
+    private final ImageNormalizer imageNormalizer;
+    private final PlatformTransactionManager transactionManager;
 
     /**
      * Получить все текущие экспертизы.
@@ -179,23 +189,27 @@ public class ExpertiseServiceImpl implements ExpertiseService {
     }
 
     /**
-     * Генерирует файл экспертной экспертизы по заданному ID экспертизы
+     * Генерирует документ экспертной экспертизы по заданному ID экспертизы.
+     * Экспертиза загружается в короткой транзакции, сама генерация (MinIO, GigaChat, рендеринг)
+     * выполняется вне транзакции и не удерживает соединение с БД
      *
      * @param expertiseId ID экспертизы
-     * @return файл экспертной экспертизы
+     * @param mapScreen   скриншот карты объекта экспертизы
+     * @return заполненный документ экспертизы
      */
     @Override
-    public byte[] generateExpertiseFile(UUID expertiseId, MultipartFile mapScreen) {
-        Expertise expertise = getExpertiseById(expertiseId);
+    public WordprocessingMLPackage generateExpertiseDocument(UUID expertiseId, byte[] mapScreen) {
+        Expertise expertise = loadExpertiseForGeneration(expertiseId);
 
         Map<DataFieldName, String> mergeData = bookmarkInserter.generateVariables(expertise);
-        Map<String, byte[]> photoMap = preparePhotoMap(expertise);
+        Map<String, byte[]> photoMap = imageNormalizer.normalizeAll(preparePhotoMap(expertise), TableUtil.DEFAULT_IMAGE_WIDTH_TWIPS);
         List<byte[]> photoDocs = preparePhotoDocs(expertise);
+        byte[] normalizedMapScreen = imageNormalizer.normalize(mapScreen, TableUtil.DEFAULT_IMAGE_WIDTH_TWIPS);
 
-        try (InputStream templateStream = minioIntegration.getExpertiseFile(expertise.getTemplateName()).getInputStream()) {
-            WordprocessingMLPackage template = WordprocessingMLPackage.load(templateStream);
-            return documentProcessorImpl.processDocument(template, mergeData, photoMap, photoDocs, expertise.getQuestions(), mapScreen);
-        } catch (IOException | Docx4JException e) {
+        try {
+            WordprocessingMLPackage template = expertiseTemplateCache.getTemplate(expertise.getTemplateName());
+            return documentProcessorImpl.processDocument(template, mergeData, photoMap, photoDocs, expertise.getQuestions(), normalizedMapScreen);
+        } catch (Docx4JException e) {
             log.error("Ошибка при обработке файла DOCX для экспертизы с ID: {}", expertiseId, e);
             throw new RuntimeException("Не удалось сгенерировать файл экспертизы", e);
         } catch (Exception e) {
@@ -204,6 +218,40 @@ public class ExpertiseServiceImpl implements ExpertiseService {
         }
     }
 
+    /**
+     * Загружает экспертизу со всеми коллекциями, которые читает генерация документа:
+     * судьи, вопросы, фото и чек-листы вопросов. После транзакции сущности используются без обращения к БД,
+     * в том числе в фоновых заданиях без открытой сессии
+     *
+     * @param expertiseId ID экспертизы
+     * @return экспертиза с инициализированными коллекциями
+     */
+    private Expertise loadExpertiseForGeneration(UUID expertiseId) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> {
+            Expertise expertise = getExpertiseById(expertiseId);
+            Hibernate.initialize(expertise.getExpertiseJudges());
+            Hibernate.initialize(expertise.getQuestions());
+            for (ExpertiseQuestion question : expertise.getQuestions()) {
+                Hibernate.initialize(question.getPhotos());
+                Hibernate.initialize(question.getChecklistInstances());
+            }
+            return expertise;
+        });
+    }
+
+    /**
+     * Записывает сгенерированный документ экспертизы в поток в формате .docx
+     *
+     * @param document     документ экспертизы
+     * @param outputStream поток для записи, не закрывается
+     */
+    @Override
+    public void writeExpertiseDocument(WordprocessingMLPackage document, OutputStream outputStream) {
+        documentProcessorImpl.writeDocument(document, outputStream);
+    }
+
     /**
      * Создает объект dto экспертизы на основании сущности Expertise.
      *
@@ -239,91 +287,41 @@ public class ExpertiseServiceImpl implements ExpertiseService {
     private List<byte[]> preparePhotoDocs(Expertise expertise) {
         String profileId = expertise.getProfileId().toString();
 
-        // Получаем список ID документов
-        List<String> additionalDiplomasIds = profileIntegration.getFileIdsList(profileId, FileType.ADDITIONAL_DIPLOMA.type());
-        List<String> certificatesIds = profileIntegration.getFileIdsList(profileId, FileType.CERTIFICATE.type());
-        List<String> qualificationsIds = profileIntegration.getFileIdsList(profileId, FileType.QUALIFICATION_CERTIFICATE.type());
-
-        // Преобразуем список ID в имена файлов
-        List<String> additionalDiplomasNames = additionalDiplomasIds.stream().map(diplomaId -> profileId + "_" + diplomaId).toList();
-        List<String> certificatesNames = certificatesIds.stream().map(certificateId -> profileId + "_" + certificateId).toList();
-        List<String> qualificationsNames = qualificationsIds.stream().map(qualificationId -> profileId + "_" + qualificationId).toList();
-
-        // Общий список документов (потокобезопасный)
-        List<byte[]> allDocs = Collections.synchronizedList(new ArrayList<>());
-
-        // Общий пул потоков и контекст запроса
-        Executor executor = Executors.newFixedThreadPool(8); // Максимум 8 потоков
-        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
-
-        // Параллельно загружаем файлы из всех категорий
-        CompletableFuture<Void> diplomaFuture = CompletableFuture.runAsync(() ->
-                putBytesData(profileId, allDocs, MinioBuckets.USER_DIPLOMS.bucket(), requestAttributes), executor);
-
-        CompletableFuture<Void> additionalDiplomasFuture = CompletableFuture.runAsync(() ->
-                putBytesDataParallel(additionalDiplomasNames, allDocs, MinioBuckets.USER_ADDITIONAL_DIPLOMS.bucket(), executor, requestAttributes), executor);
-
-        CompletableFuture<Void> certificatesFuture = CompletableFuture.runAsync(() ->
-                putBytesDataParallel(certificatesNames, allDocs, MinioBuckets.USER_CERTS.bucket(), executor, requestAttributes), executor);
-
-        CompletableFuture<Void> qualificationsFuture = CompletableFuture.runAsync(() ->
-                putBytesDataParallel(qualificationsNames, allDocs, MinioBuckets.USER_QUALIFICATION.bucket(), executor, requestAttributes), executor);
-
-        // Ждем завершения всех задач
-        CompletableFuture.allOf(diplomaFuture, additionalDiplomasFuture, certificatesFuture, qualificationsFuture).join();
-
-        return allDocs.isEmpty() ? Collections.emptyList() : allDocs;
+        // Параллельно получаем списки ID документов
+        CompletableFuture<List<String>> additionalDiplomasIds = ioExecutor.supply(Downstream.PROFILE,
+                () -> profileIntegration.getFileIdsList(profileId, FileType.ADDITIONAL_DIPLOMA.type()));
+        CompletableFuture<List<String>> certificatesIds = ioExecutor.supply(Downstream.PROFILE,
+                () -> profileIntegration.getFileIdsList(profileId, FileType.CERTIFICATE.type()));
+        CompletableFuture<List<String>> qualificationsIds = ioExecutor.supply(Downstream.PROFILE,
+                () -> profileIntegration.getFileIdsList(profileId, FileType.QUALIFICATION_CERTIFICATE.type()));
+
+        // Основной диплом хранится под ID профиля, остальные документы - под ID профиля и ID документа
+        List<ObjectKey> keys = new ArrayList<>();
+        keys.add(new ObjectKey(MinioBuckets.USER_DIPLOMS.bucket(), profileId + FileExtension.PDF.extension()));
+        addDocumentKeys(keys, profileId, additionalDiplomasIds.join(), MinioBuckets.USER_ADDITIONAL_DIPLOMS.bucket());
+        addDocumentKeys(keys, profileId, certificatesIds.join(), MinioBuckets.USER_CERTS.bucket());
+        addDocumentKeys(keys, profileId, qualificationsIds.join(), MinioBuckets.USER_QUALIFICATION.bucket());
+
+        // Файлы всех категорий получаем одним пакетным запросом
+        return minioIntegration.getObjectsBatch(keys).stream()
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     /**
-     * Загружает файлы из MinIO в параллельных потоках и добавляет их в общий список
+     * Добавляет ключи документов в MinIO по списку ID
      *
-     * @param fileNames         список имен файлов
-     * @param allDocs           общий список всех документов
-     * @param bucket            название бакета
-     * @param executor          общий пул потоков
-     * @param requestAttributes контекст запроса
+     * @param keys        список ключей
+     * @param profileId   ID профиля
+     * @param documentIds список ID документов
+     * @param bucket      название бакета
      */
-    private void putBytesDataParallel(List<String> fileNames, List<byte[]> allDocs, String bucket, Executor executor, RequestAttributes requestAttributes) {
-        if (fileNames == null || fileNames.isEmpty()) {
+    private void addDocumentKeys(List<ObjectKey> keys, String profileId, List<String> documentIds, String bucket) {
+        if (documentIds == null) {
             return;
         }
-
-        List<CompletableFuture<byte[]>> futures = fileNames.stream()
-                .map(fileName -> CompletableFuture.supplyAsync(() -> {
-                    RequestContextHolder.setRequestAttributes(requestAttributes);
-                    try {
-                        byte[] byteFile = minioIntegration.getFileByParams(fileName, FileExtension.PDF.extension(), bucket);
-                        if (byteFile != null) {
-                            allDocs.add(byteFile);
-                        }
-                        return byteFile;
-                    } finally {
-                        RequestContextHolder.resetRequestAttributes();
-                    }
-                }, executor))
-                .toList();
-
-        futures.forEach(CompletableFuture::join);
-    }
-
-    /**
-     * Загружает один файл из MinIO и добавляет его в общий список
-     *
-     * @param fileName          имя файла
-     * @param allDocs           общий список всех документов
-     * @param bucket            название бакета
-     * @param requestAttributes контекст запроса
-     */
-    private void putBytesData(String fileName, List<byte[]> allDocs, String bucket, RequestAttributes requestAttributes) {
-        RequestContextHolder.setRequestAttributes(requestAttributes);
-        try {
-            byte[] fileBytes = minioIntegration.getFileByParams(fileName, FileExtension.PDF.extension(), bucket);
-            if (fileBytes != null) {
-                allDocs.add(fileBytes);
-            }
-        } finally {
-            RequestContextHolder.resetRequestAttributes();
+        for (String documentId : documentIds) {
+            keys.add(new ObjectKey(bucket, profileId + "_" + documentId + FileExtension.PDF.extension()));
         }
     }
 
@@ -334,38 +332,28 @@ public class ExpertiseServiceImpl implements ExpertiseService {
      * @return карта фотографий для обработки файла DOCX
      */
     private Map<String, byte[]> preparePhotoMap(Expertise expertise) {
-        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes(); // Сохраняем текущий RequestContext
-
-        int parallelism = 10; // Ограничиваем до 10 параллельных потоков
-        ForkJoinPool customThreadPool = new ForkJoinPool(parallelism);
-        Map<String, byte[]> photoMap = new ConcurrentHashMap<>();
-
+        Map<String, byte[]> photoMap = new HashMap<>();
+
+        List<String> placeholders = new ArrayList<>();
+        List<ObjectKey> keys = new ArrayList<>();
+        expertise.getQuestions().stream()
+                .flatMap(question -> question.getPhotos().stream())
+                .forEach(photo -> {
+                    placeholders.add("[PHOTO_" + photo.getId() + "]");
+                    keys.add(new ObjectKey(MinioBuckets.EXPERTISE_ANSWERS.bucket(), photo.getFilePath()));
+                });
+
+        // Все фото получаем одним пакетным запросом; фото, полученные до ошибки, сохраняются
         try {
-            customThreadPool.submit(() -> {
-                expertise.getQuestions().stream()
-                        .flatMap(question -> question.getPhotos().stream())
-                        .parallel()
-                        .forEach(photo -> {
-                            RequestContextHolder.setRequestAttributes(requestAttributes); // Устанавливаем RequestContext для текущего потока
-                            try {
-                                byte[] imageBytes = minioIntegration.getExpertisePhotoAsBytes(photo.getFilePath());
-                                if (imageBytes != null && imageBytes.length > 0) {
-                                    photoMap.put("[PHOTO_" + photo.getId() + "]", imageBytes);
-                                }
-                            } catch (Exception e) {
-                                log.error("Ошибка при получении фото из MinIO для пути {}: {}", photo.getFilePath(), e.getMessage());
-                            } finally {
-                                RequestContextHolder.resetRequestAttributes(); // Очищаем RequestContext после выполнения задачи
-                            }
-                        });
-            }).get(); // Ожидаем завершения всех задач
-        } catch (InterruptedException | ExecutionException e) {
-            log.error("Ошибка при параллельной обработке фотографий: {}", e.getMessage());
-            Thread.currentThread().interrupt(); // Восстанавливаем прерванный статус
-        } finally {
-            customThreadPool.shutdown();
+            minioIntegration.readObjectsBatch(keys, (index, content) -> {
+                byte[] imageBytes = content.readAllBytes();
+                if (imageBytes.length > 0) {
+                    photoMap.put(placeholders.get(index), imageBytes);
+                }
+            });
+        } catch (Exception e) {
+            log.error("Ошибка при получении фото из MinIO: получено {} из {}: {}", photoMap.size(), keys.size(), e.getMessage());
         }
-
         return photoMap;
     }
 }
\ No newline at end of file
@@ -0,0 +1,258 @@
+package com.example.expertise.services.expertise.impl;
+
+import com.example.expertise.dto.expertise.GenerationJobDto;
+import com.example.expertise.enums.FileExtension;
+import com.example.expertise.enums.GenerationJobStatus;
+import com.example.expertise.enums.MinioBuckets;
+import com.example.expertise.exceptions.GenerationJobNotFoundException;
+import com.example.expertise.integration.ServiceAccountTokenProvider;
+import com.example.expertise.integration.TokenRequestAttributes;
+import com.example.expertise.integration.minio.MinioIntegration;
+import com.example.expertise.model.expertise.ExpertiseGenerationJob;
+import com.example.expertise.repository.expertise.ExpertiseGenerationJobRepository;
+import com.example.expertise.services.expertise.ExpertiseService;
+import com.example.expertise.services.expertise.GenerationJobService;
+import jakarta.validation.constraints.NotNull;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Сервис заданий на асинхронную генерацию итогового файла экспертизы.
+ * Итоговые файлы хранятся в бакете ответов экспертизы с префиксом ID экспертизы,
+ * поэтому удаляются вместе с фотографиями при удалении экспертизы.
+ */
+@Service
+@Validated
+public class GenerationJobServiceImpl implements GenerationJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(GenerationJobServiceImpl.class);
+
+    private static final String RESULT_BUCKET = MinioBuckets.EXPERTISE_ANSWERS.bucket();
+    private static final String RESULT_EXTENSION = FileExtension.DOCX.extension();
+
+    private final ExpertiseGenerationJobRepository jobRepository;
+    private final ExpertiseService expertiseService;
+    private final MinioIntegration minioIntegration;
+    private final ServiceAccountTokenProvider serviceAccountTokenProvider;
+
+    public GenerationJobServiceImpl(ExpertiseGenerationJobRepository jobRepository,
+                                    ExpertiseService expertiseService,
+                                    MinioIntegration minioIntegration,
+                                    ServiceAccountTokenProvider serviceAccountTokenProvider) {
+        this.jobRepository = jobRepository;
+        this.expertiseService = expertiseService;
+        this.minioIntegration = minioIntegration;
+        this.serviceAccountTokenProvider = serviceAccountTokenProvider;
+    }
+
+    /**
+     * Ставит в очередь задание на генерацию файла экспертизы.
+     * Токен автора не сохраняется: воркер обращается к смежным сервисам от имени сервисного аккаунта.
+     *
+     * @param expertiseId ID экспертизы
+     * @param mapScreen   скриншот карты объекта экспертизы
+     * @return созданное задание
+     */
+    @Transactional
+    @Override
+    public GenerationJobDto submitJob(@NotNull(message = "expertiseId cannot be null") UUID expertiseId,
+                                      @NotNull(message = "mapScreen cannot be null") MultipartFile mapScreen) {
+        expertiseService.getExpertiseById(expertiseId); // проверяем, что экспертиза существует
+
+        ExpertiseGenerationJob job = new ExpertiseGenerationJob();
+        job.setExpertiseId(expertiseId);
+        job.setStatus(GenerationJobStatus.PENDING);
+        try {
+            job.setMapScreen(mapScreen.getBytes());
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось прочитать скриншот карты экспертизы", e);
+        }
+
+        jobRepository.save(job);
+        log.info("Задание на генерацию файла экспертизы поставлено в очередь: jobId={}, expertiseId={}", job.getId(), expertiseId);
+        return new GenerationJobDto(job);
+    }
+
+    /**
+     * Получить состояние задания
+     *
+     * @param jobId ID задания
+     * @return состояние задания
+     */
+    @Override
+    public GenerationJobDto getJob(@NotNull(message = "jobId cannot be null") UUID jobId) {
+        return new GenerationJobDto(getJobById(jobId));
+    }
+
+    /**
+     * Получить выполненное задание, итоговый файл которого можно скачать
+     *
+     * @param jobId ID задания
+     * @return выполненное задание
+     */
+    @Override
+    public ExpertiseGenerationJob getCompletedJob(@NotNull(message = "jobId cannot be null") UUID jobId) {
+        ExpertiseGenerationJob job = getJobById(jobId);
+        if (job.getStatus() != GenerationJobStatus.COMPLETED || job.getResultFile() == null) {
+            throw new IllegalStateException("Файл экспертизы еще не сформирован. Статус задания: " + job.getStatus());
+        }
+        return job;
+    }
+
+    /**
+     * Записать итоговый файл выполненного задания в поток.
+     * Файл читается из MinIO потоком и сразу передается клиенту, не загружаясь в память целиком
+     *
+     * @param job          выполненное задание
+     * @param outputStream поток для записи файла экспертизы .docx
+     */
+    @Override
+    public void writeJobResult(@NotNull(message = "job cannot be null") ExpertiseGenerationJob job,
+                               @NotNull(message = "outputStream cannot be null") OutputStream outputStream) {
+        long transferred = minioIntegration.readFileByParams(resultBaseName(job), RESULT_EXTENSION, RESULT_BUCKET,
+                body -> body.transferTo(outputStream));
+        log.debug("Итоговый файл задания {} передан клиенту: {} байт", job.getId(), transferred);
+    }
+
+    /**
+     * Отменить задание
+     *
+     * @param jobId ID задания
+     * @return состояние задания после отмены
+     */
+    @Override
+    public GenerationJobDto cancelJob(@NotNull(message = "jobId cannot be null") UUID jobId) {
+        if (jobRepository.cancel(jobId) == 0) {
+            log.info("Задание {} уже завершено, отмена не требуется", jobId);
+        } else {
+            log.info("Задание {} отменено", jobId);
+        }
+        return getJob(jobId);
+    }
+
+    /**
+     * Забрать следующее ожидающее задание в работу.
+     * Строка блокируется через FOR UPDATE SKIP LOCKED, поэтому одно задание не попадет на два узла.
+     *
+     * @param workerId идентификатор узла
+     * @return задание или пусто, если очередь пуста
+     */
+    @Transactional
+    @Override
+    public Optional<ExpertiseGenerationJob> claimNextJob(String workerId) {
+        Optional<ExpertiseGenerationJob> next = jobRepository.lockNextPending();
+        next.ifPresent(job -> {
+            job.setStatus(GenerationJobStatus.RUNNING);
+            job.setWorkerId(workerId);
+            job.setStartedAt(LocalDateTime.now());
+            job.setHeartbeatAt(job.getStartedAt());
+            job.setAttempts(job.getAttempts() + 1);
+            jobRepository.save(job);
+        });
+        return next;
+    }
+
+    /**
+     * Выполнить задание: сгенерировать файл и сохранить его в MinIO
+     *
+     * @param job задание в статусе RUNNING
+     */
+    @Override
+    public void processJob(ExpertiseGenerationJob job) {
+        UUID jobId = job.getId();
+        long startTime = System.currentTimeMillis();
+        RequestContextHolder.setRequestAttributes(new TokenRequestAttributes(serviceAccountTokenProvider::getToken));
+        Path resultFile = null;
+        try {
+            WordprocessingMLPackage document = expertiseService.generateExpertiseDocument(job.getExpertiseId(), job.getMapScreen());
+
+            if (jobRepository.isCancelled(jobId)) {
+                log.info("Задание {} отменено во время генерации, результат не сохраняется", jobId);
+                return;
+            }
+
+            // Документ сериализуется один раз во временный файл и загружается в MinIO потоком из него
+            resultFile = Files.createTempFile("expertise_" + jobId, RESULT_EXTENSION);
+            try (OutputStream outputStream = Files.newOutputStream(resultFile)) {
+                expertiseService.writeExpertiseDocument(document, outputStream);
+            }
+
+            String baseName = job.getExpertiseId() + "_result_" + jobId;
+            minioIntegration.uploadFileByParams(baseName, RESULT_EXTENSION, RESULT_BUCKET, new FileSystemResource(resultFile));
+
+            if (jobRepository.complete(jobId, job.getWorkerId(), job.getAttempts(), baseName + RESULT_EXTENSION) == 0) {
+                // Задание отменено, передано другой попытке или экспертиза удалена, пока файл загружался
+                minioIntegration.deleteFileByParams(baseName, RESULT_EXTENSION, RESULT_BUCKET);
+                log.info("Задание {} отменено до сохранения результата, файл удален", jobId);
+                return;
+            }
+            log.info("Задание {} выполнено за {} мс", jobId, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("Ошибка выполнения задания на генерацию файла экспертизы {}", jobId, e);
+            jobRepository.fail(jobId, job.getWorkerId(), job.getAttempts(), e.getMessage());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+            deleteTempFile(resultFile);
+        }
+    }
+
+    /**
+     * Подтвердить, что задание еще выполняется
+     *
+     * @param job задание в статусе RUNNING
+     * @return false, если задание отменено или передано другой попытке
+     */
+    @Override
+    public boolean heartbeat(ExpertiseGenerationJob job) {
+        return jobRepository.heartbeat(job.getId(), job.getWorkerId(), job.getAttempts(), LocalDateTime.now()) > 0;
+    }
+
+    /**
+     * Вернуть в очередь зависшие задания
+     *
+     * @param heartbeatTimeout время без heartbeat, после которого задание считается зависшим
+     * @param maxAttempts      максимальное количество попыток
+     * @return количество обработанных заданий
+     */
+    @Override
+    public int requeueStaleJobs(Duration heartbeatTimeout, int maxAttempts) {
+        return jobRepository.requeueStale(LocalDateTime.now().minus(heartbeatTimeout), maxAttempts);
+    }
+
+    private void deleteTempFile(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить временный файл {}: {}", file, e.getMessage());
+        }
+    }
+
+    private ExpertiseGenerationJob getJobById(UUID jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(GenerationJobNotFoundException::new);
+    }
+
+    private String resultBaseName(ExpertiseGenerationJob job) {
+        String resultFile = job.getResultFile();
+        return resultFile.substring(0, resultFile.length() - RESULT_EXTENSION.length());
+    }
+}
@@ -1,24 +0,0 @@
-package com.example.expertise.util;
-
-import javax.net.ssl.*;
-import java.security.cert.X509Certificate;
-
-public class SSLUtils {
-    public static void disableSSLVerification() throws Exception {
-        TrustManager[] trustAllCertificates = new TrustManager[]{
-                new X509TrustManager() {
-                    public void checkClientTrusted(X509Certificate[] certs, String authType) {}
-                    public void checkServerTrusted(X509Certificate[] certs, String authType) {}
-                    public X509Certificate[] getAcceptedIssuers() { return null; }
-                }
-        };
-
-        SSLContext sc = SSLContext.getInstance("TLS");
-        sc.init(null, trustAllCertificates, new java.security.SecureRandom());
-        HttpsURLConnection.setDefaultSSLSocketFactory(sc.getSocketFactory());
-
-        HostnameVerifier allHostsValid = (hostname, session) -> true;
-        HttpsURLConnection.setDefaultHostnameVerifier(allHostsValid);
-    }
-}
-
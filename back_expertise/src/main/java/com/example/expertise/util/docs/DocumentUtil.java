@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Утилитный класс для работы с документами Word (параграфы, текст, форматирование).
@@ -162,17 +163,30 @@ public final class DocumentUtil {
      */
     public static List<Object> getAllElements(Object obj, Class<?> toSearch) {
         List<Object> result = new ArrayList<>();
+        visitElements(obj, toSearch, result::add);
+        return result;
+    }
+
+    /**
+     * Обходит дерево документа и передает в visitor все элементы заданного типа в порядке следования.
+     * В отличие от {@link #getAllElements(Object, Class)} не создает промежуточных списков.
+     *
+     * @param obj      Объект, в котором нужно найти элементы
+     * @param toSearch Тип элементов для поиска
+     * @param visitor  Обработчик найденных элементов
+     * @param <T>      Тип элементов
+     */
+    public static <T> void visitElements(Object obj, Class<T> toSearch, Consumer<? super T> visitor) {
         if (obj instanceof jakarta.xml.bind.JAXBElement) {
             obj = ((jakarta.xml.bind.JAXBElement<?>) obj).getValue();
         }
         if (toSearch.isInstance(obj)) {
-            result.add(obj);
+            visitor.accept(toSearch.cast(obj));
         } else if (obj instanceof ContentAccessor) {
             for (Object child : ((ContentAccessor) obj).getContent()) {
-                result.addAll(getAllElements(child, toSearch));
+                visitElements(child, toSearch, visitor);
             }
         }
-        return result;
     }
 
     public static void addImageLabel(Tc cell, String label) {
@@ -0,0 +1,65 @@
+package com.example.expertise.util.docs;
+
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.PartName;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Реестр частей изображений документа Word по хэшу содержимого.
+ * Одинаковые изображения (общие скриншоты, повторяющиеся схемы, фото в нескольких чек-листах)
+ * добавляются в пакет один раз, последующие вставки ссылаются на ту же часть.
+ */
+public final class ImagePartRegistry {
+
+    // Пакет -> (SHA-256 изображения -> имя части). Храним имя части, а не саму часть:
+    // часть ссылается на пакет и не дала бы слабому ключу освободиться
+    private static final Map<WordprocessingMLPackage, Map<String, PartName>> REGISTRY =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ImagePartRegistry() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Возвращает часть изображения в пакете, создавая её только для ещё не добавленного содержимого.
+     *
+     * @param wordPackage документ Word
+     * @param imageData   байты изображения
+     * @return часть изображения, связанная с основной частью документа
+     */
+    public static BinaryPartAbstractImage getOrCreateImagePart(WordprocessingMLPackage wordPackage, byte[] imageData) throws Exception {
+        Map<String, PartName> parts = REGISTRY.computeIfAbsent(wordPackage, k -> new HashMap<>());
+        String hash = sha256(imageData);
+
+        synchronized (parts) {
+            PartName partName = parts.get(hash);
+            if (partName != null) {
+                Part existing = wordPackage.getParts().get(partName);
+                if (existing instanceof BinaryPartAbstractImage imagePart) {
+                    return imagePart;
+                }
+            }
+
+            BinaryPartAbstractImage imagePart = BinaryPartAbstractImage.createImagePart(wordPackage, imageData);
+            parts.put(hash, imagePart.getPartName());
+            return imagePart;
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Алгоритм SHA-256 недоступен", e);
+        }
+    }
+}
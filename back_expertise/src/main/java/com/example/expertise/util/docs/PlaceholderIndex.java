@@ -0,0 +1,116 @@
+package com.example.expertise.util.docs;
+
+import com.example.expertise.enums.Bookmarks;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.docx4j.wml.P;
+import org.docx4j.wml.Text;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Индекс плейсхолдеров основной части документа.
+ * Строится одним обходом после слияния полей и разбиения параграфов, после чего вставщики
+ * находят свои плейсхолдеры без повторного обхода дерева.
+ * <p>
+ * Индекс хранит ссылки на узлы {@link Text}, а родительский параграф вычисляет при обращении,
+ * поэтому остается корректным, пока вставщики добавляют и удаляют соседние элементы.
+ */
+public final class PlaceholderIndex {
+
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("\\[(?:PHOTO|CHECKLIST)_[^\\[\\]]+]");
+    private static final String PHOTO_PREFIX = "[PHOTO_";
+
+    private final Map<String, List<Entry>> entriesByToken = new HashMap<>();
+    private final List<Entry> photoEntries = new ArrayList<>();
+
+    private PlaceholderIndex() {
+    }
+
+    /**
+     * Найденный плейсхолдер
+     *
+     * @param token    плейсхолдер
+     * @param text     текстовый узел, содержащий плейсхолдер
+     * @param position порядковый номер текстового узла в документе (для определения соседних плейсхолдеров)
+     */
+    public record Entry(String token, Text text, int position) {
+
+        /**
+         * @return родительский параграф текстового узла или null
+         */
+        public P paragraph() {
+            return DocumentUtil.findParentParagraph(text);
+        }
+    }
+
+    /**
+     * Строит индекс плейсхолдеров за один обход документа
+     *
+     * @param mainPart основная часть документа
+     * @return индекс плейсхолдеров
+     */
+    public static PlaceholderIndex build(MainDocumentPart mainPart) {
+        PlaceholderIndex index = new PlaceholderIndex();
+        int[] position = {0};
+        DocumentUtil.visitElements(mainPart, Text.class, text -> index.register(text, position[0]++));
+        return index;
+    }
+
+    /**
+     * Все вхождения плейсхолдера в порядке следования в документе
+     *
+     * @param token плейсхолдер (например, "[CHECKLIST_id]" или название закладки)
+     * @return список вхождений, пустой если плейсхолдер не найден
+     */
+    public List<Entry> findAll(String token) {
+        return entriesByToken.getOrDefault(token, Collections.emptyList());
+    }
+
+    /**
+     * Первое вхождение плейсхолдера
+     *
+     * @param token плейсхолдер
+     * @return первое вхождение или пусто
+     */
+    public Optional<Entry> findFirst(String token) {
+        return findAll(token).stream().findFirst();
+    }
+
+    /**
+     * Плейсхолдеры фотографий ответов ("[PHOTO_id]") в порядке следования в документе
+     *
+     * @return список плейсхолдеров фотографий
+     */
+    public List<Entry> getPhotoEntries() {
+        return Collections.unmodifiableList(photoEntries);
+    }
+
+    private void register(Text text, int position) {
+        String value = text.getValue();
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+
+        if (value.equals(Bookmarks.EXPERTISE_MAP.getName())) {
+            add(new Entry(Bookmarks.EXPERTISE_MAP.getName(), text, position));
+        }
+        if (value.contains(Bookmarks.PHOTO_DOCS.getName())) {
+            add(new Entry(Bookmarks.PHOTO_DOCS.getName(), text, position));
+        }
+
+        Matcher matcher = TOKEN_PATTERN.matcher(value);
+        while (matcher.find()) {
+            Entry entry = new Entry(matcher.group(), text, position);
+            add(entry);
+            if (entry.token().startsWith(PHOTO_PREFIX)) {
+                photoEntries.add(entry);
+            }
+        }
+    }
+
+    private void add(Entry entry) {
+        entriesByToken.computeIfAbsent(entry.token(), key -> new ArrayList<>()).add(entry);
+    }
+}
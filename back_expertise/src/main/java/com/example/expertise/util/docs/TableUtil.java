@@ -128,10 +128,10 @@ public final class TableUtil {
     }
 
     /**
-     * Создает run с изображением.
+     * Создает run с изображением. Одинаковые изображения хранятся в документе одной частью.
      */
     public static R createImageRun(WordprocessingMLPackage wordPackage, byte[] imageData, String altText, boolean defaultImageWidth) throws Exception {
-        BinaryPartAbstractImage imagePart = BinaryPartAbstractImage.createImagePart(wordPackage, imageData);
+        BinaryPartAbstractImage imagePart = ImagePartRegistry.getOrCreateImagePart(wordPackage, imageData);
 
         Inline inline;
         if (defaultImageWidth)
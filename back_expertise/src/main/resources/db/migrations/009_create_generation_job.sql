@@ -0,0 +1,20 @@
+-- Создание таблицы заданий на генерацию итогового файла экспертизы
+CREATE TABLE expertise_generation_job
+(
+    id            UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    expertise_id  UUID        NOT NULL,
+    status        VARCHAR(20) NOT NULL,
+    map_screen    BYTEA,
+    result_file   VARCHAR(255),
+    error_message TEXT,
+    attempts      INT         NOT NULL DEFAULT 0,
+    worker_id     VARCHAR(255),
+    created_at    TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at    TIMESTAMP,
+    heartbeat_at  TIMESTAMP,
+    finished_at   TIMESTAMP,
+    FOREIGN KEY (expertise_id) REFERENCES expertise (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_generation_job_expertise_id ON expertise_generation_job (expertise_id);
+CREATE INDEX idx_generation_job_status_created_at ON expertise_generation_job (status, created_at);
@@ -0,0 +1,13 @@
+-- Создание таблицы кэша ответов языковой модели
+CREATE TABLE llm_response_cache
+(
+    fingerprint VARCHAR(64) PRIMARY KEY,
+    model       VARCHAR(100) NOT NULL,
+    response    TEXT         NOT NULL,
+    hits        INT          NOT NULL DEFAULT 0,
+    created_at  TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_hit_at TIMESTAMP,
+    expires_at  TIMESTAMP    NOT NULL
+);
+
+CREATE INDEX idx_llm_response_cache_expires_at ON llm_response_cache (expires_at);
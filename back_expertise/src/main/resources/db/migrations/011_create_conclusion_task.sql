@@ -0,0 +1,20 @@
+-- Создание таблицы заданий на генерацию вывода по ответу на вопрос экспертизы
+CREATE TABLE answer_conclusion_task
+(
+    id            UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    question_id   UUID        NOT NULL,
+    answer        TEXT        NOT NULL,
+    bypass_cache  BOOLEAN     NOT NULL DEFAULT FALSE,
+    status        VARCHAR(20) NOT NULL,
+    error_message TEXT,
+    attempts      INT         NOT NULL DEFAULT 0,
+    worker_id     VARCHAR(255),
+    created_at    TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at    TIMESTAMP,
+    heartbeat_at  TIMESTAMP,
+    finished_at   TIMESTAMP,
+    FOREIGN KEY (question_id) REFERENCES expertise_question (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_conclusion_task_question_id_created_at ON answer_conclusion_task (question_id, created_at);
+CREATE INDEX idx_conclusion_task_status_created_at ON answer_conclusion_task (status, created_at);
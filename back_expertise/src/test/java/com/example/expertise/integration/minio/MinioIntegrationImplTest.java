@@ -0,0 +1,155 @@
+package com.example.expertise.integration.minio;
+
+import com.example.expertise.config.AppConfig;
+import com.example.expertise.integration.IntegrationHelper;
+import com.example.expertise.integration.ResponseStreamHandler;
+import com.example.expertise.services.cache.MinioObjectCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MinioIntegrationImplTest {
+
+    private IntegrationHelper integrationHelper;
+    private MinioObjectCache objectCache;
+    private MinioIntegrationImpl minioIntegration;
+
+    @BeforeEach
+    void setUp() {
+        AppConfig.ApiPaths paths = new AppConfig.ApiPaths();
+        paths.setMinio(Map.of("get-files-batch", "http://minio/api/files/get-files-batch"));
+        AppConfig appConfig = new AppConfig();
+        appConfig.setPaths(paths);
+
+        integrationHelper = mock(IntegrationHelper.class);
+        when(integrationHelper.createAuthHeaders(any())).thenAnswer(invocation -> new HttpHeaders());
+        objectCache = new MinioObjectCache(1024 * 1024, 8);
+
+        minioIntegration = new MinioIntegrationImpl(appConfig, integrationHelper, objectCache);
+        ReflectionTestUtils.setField(minioIntegration, "batchSize", 200);
+    }
+
+    @Test
+    void readObjectsBatch_readsAllEntryKinds() throws IOException {
+        // given
+        objectCache.put(MinioObjectCache.key("files", "cached.txt"), "e3", "cached".getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(payload);
+        writeEntry(out, "e1", "abc");           // кэшируемый объект
+        out.writeLong(-1);                      // отсутствующий объект
+        out.writeLong(-2);                      // объект не изменился с версии из кэша
+        writeEntry(out, "", "streamed");        // объект без ETag читается потоком
+        respondWith(payload.toByteArray());
+
+        List<ObjectKey> keys = List.of(
+                new ObjectKey("files", "a.txt"),
+                new ObjectKey("files", "missing.txt"),
+                new ObjectKey("files", "cached.txt"),
+                new ObjectKey("files", "stream.txt"));
+
+        // when
+        Map<Integer, String> result = new TreeMap<>();
+        minioIntegration.readObjectsBatch(keys, (index, content) ->
+                result.put(index, new String(content.readAllBytes(), StandardCharsets.UTF_8)));
+
+        // then
+        assertEquals(Map.of(0, "abc", 2, "cached", 3, "streamed"), result);
+        assertEquals("e1", objectCache.get(MinioObjectCache.key("files", "a.txt")).etag());
+        assertNull(objectCache.get(MinioObjectCache.key("files", "stream.txt")));
+    }
+
+    @Test
+    void readObjectsBatch_sendsCachedEtag() throws IOException {
+        // given
+        objectCache.put(MinioObjectCache.key("files", "cached.txt"), "e3", "cached".getBytes(StandardCharsets.UTF_8));
+        respondWith(lengthOnly(-2));
+
+        // when
+        minioIntegration.readObjectsBatch(List.of(new ObjectKey("files", "cached.txt")), (index, content) -> {
+        });
+
+        // then
+        verify(integrationHelper).executeStreamRequest(anyString(), eq(HttpMethod.POST),
+                argThat((HttpEntity<?> entity) -> List.of(new ObjectKey("files", "cached.txt", "e3")).equals(entity.getBody())),
+                any(), anyString());
+    }
+
+    @Test
+    void readObjectsBatch_skipsUnreadPartOfStreamedEntry() throws IOException {
+        // given
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(payload);
+        writeEntry(out, "", "first-entry-content");
+        writeEntry(out, "", "second");
+        respondWith(payload.toByteArray());
+
+        List<ObjectKey> keys = List.of(new ObjectKey("files", "first.txt"), new ObjectKey("files", "second.txt"));
+
+        // when
+        Map<Integer, String> result = new TreeMap<>();
+        minioIntegration.readObjectsBatch(keys, (index, content) ->
+                result.put(index, new String(content.readNBytes(5), StandardCharsets.UTF_8)));
+
+        // then
+        assertEquals(Map.of(0, "first", 1, "secon"), result);
+    }
+
+    @Test
+    void readObjectsBatch_evictsMissingObjectFromCache() throws IOException {
+        // given
+        String key = MinioObjectCache.key("files", "deleted.txt");
+        objectCache.put(key, "e1", "old".getBytes(StandardCharsets.UTF_8));
+        respondWith(lengthOnly(-1));
+
+        // when
+        minioIntegration.readObjectsBatch(List.of(new ObjectKey("files", "deleted.txt")),
+                (index, content) -> fail("Отсутствующий объект не должен передаваться обработчику"));
+
+        // then
+        assertNull(objectCache.get(key));
+    }
+
+    private void respondWith(byte[] payload) {
+        when(integrationHelper.executeStreamRequest(anyString(), eq(HttpMethod.POST), any(), any(), anyString()))
+                .thenAnswer(invocation -> {
+                    ResponseStreamHandler<?> handler = invocation.getArgument(3);
+                    return handler.handle(new ByteArrayInputStream(payload));
+                });
+    }
+
+    /**
+     * Элемент пакетного ответа без содержимого: -1 для отсутствующего объекта, -2 для неизмененного
+     */
+    private static byte[] lengthOnly(long length) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        new DataOutputStream(payload).writeLong(length);
+        return payload.toByteArray();
+    }
+
+    /**
+     * Элемент пакетного ответа в формате сервиса MinIO: длина, ETag (modified UTF-8) и содержимое
+     */
+    private static void writeEntry(DataOutputStream out, String etag, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        out.writeLong(bytes.length);
+        out.writeUTF(etag);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.expertise.repository.expertise;
+
+import com.example.expertise.model.expertise.AnswerConclusionTask;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нативные запросы очереди заданий на генерацию вывода проверяются на PostgreSQL:
+ * завершение задания и запись вывода выполняются одной командой с CTE
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class AnswerConclusionTaskRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private AnswerConclusionTaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID questionId;
+
+    @BeforeEach
+    void setUp() {
+        UUID expertiseId = UUID.randomUUID();
+        questionId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO expertise (id, profile_id) VALUES (?, ?)", expertiseId, UUID.randomUUID());
+        jdbcTemplate.update("INSERT INTO expertise_question (id, question_text, answer, expertise_id) VALUES (?, ?, ?, ?)",
+                questionId, "Вопрос", "Ответ", expertiseId);
+    }
+
+    @Test
+    void lockNextPending_returnsOldestPendingTask() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        insertTask("SUPERSEDED", 0, null, null, now.minusMinutes(30));
+        UUID oldest = insertTask("PENDING", 0, null, null, now.minusMinutes(20));
+        insertTask("PENDING", 0, null, null, now.minusMinutes(10));
+
+        // when
+        Optional<AnswerConclusionTask> task = taskRepository.lockNextPending();
+
+        // then
+        assertTrue(task.isPresent());
+        assertEquals(oldest, task.get().getId());
+    }
+
+    @Test
+    void requeueStale_returnsTaskWithoutHeartbeatToQueue() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        UUID stale = insertTask("RUNNING", 1, "worker-a", now.minusMinutes(10), now.minusMinutes(20));
+        UUID alive = insertTask("RUNNING", 1, "worker-b", now.minusSeconds(10), now.minusMinutes(20));
+
+        // when
+        int requeued = taskRepository.requeueStale(now.minusMinutes(5), 3);
+
+        // then
+        assertEquals(1, requeued);
+        Map<String, Object> staleRow = findTask(stale);
+        assertEquals("PENDING", staleRow.get("status"));
+        assertNull(staleRow.get("worker_id"));
+        assertEquals("RUNNING", findTask(alive).get("status"));
+    }
+
+    @Test
+    void requeueStale_failsTaskThatExhaustedAttempts() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        UUID exhausted = insertTask("RUNNING", 3, "worker-a", now.minusMinutes(10), now.minusMinutes(20));
+
+        // when
+        int requeued = taskRepository.requeueStale(now.minusMinutes(5), 3);
+
+        // then
+        assertEquals(1, requeued);
+        Map<String, Object> row = findTask(exhausted);
+        assertEquals("FAILED", row.get("status"));
+        assertEquals("Превышено время выполнения задания", row.get("error_message"));
+        assertNotNull(row.get("finished_at"));
+    }
+
+    @Test
+    void complete_writesConclusionOfCurrentAttempt() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        UUID taskId = insertTask("RUNNING", 1, "worker-a", now, now.minusMinutes(1));
+
+        // when
+        int updated = taskRepository.complete(taskId, "worker-a", 1, "Вывод");
+
+        // then
+        assertEquals(1, updated);
+        assertEquals("COMPLETED", findTask(taskId).get("status"));
+        assertEquals("Вывод", answerConclusion());
+    }
+
+    @Test
+    void complete_ignoresLateCompletionOfPreviousAttempt() {
+        // given
+        // Первая попытка зависла, задание возвращено в очередь и забрано другим узлом
+        LocalDateTime now = LocalDateTime.now();
+        UUID taskId = insertTask("RUNNING", 2, "worker-b", now, now.minusMinutes(20));
+
+        // when
+        int heartbeat = taskRepository.heartbeat(taskId, "worker-a", 1, now);
+        int completed = taskRepository.complete(taskId, "worker-a", 1, "Устаревший вывод");
+        int failed = taskRepository.fail(taskId, "worker-a", 1, "late error");
+
+        // then
+        assertEquals(0, heartbeat);
+        assertEquals(0, completed);
+        assertEquals(0, failed);
+        assertEquals("RUNNING", findTask(taskId).get("status"));
+        assertNull(answerConclusion());
+    }
+
+    @Test
+    void complete_ignoresSupersededTask() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        UUID taskId = insertTask("RUNNING", 1, "worker-a", now, now.minusMinutes(1));
+        taskRepository.supersede(questionId);
+
+        // when
+        int updated = taskRepository.complete(taskId, "worker-a", 1, "Вывод по старому ответу");
+
+        // then
+        assertEquals(0, updated);
+        assertEquals("SUPERSEDED", findTask(taskId).get("status"));
+        assertNull(answerConclusion());
+    }
+
+    @Test
+    void release_returnsTaskWithoutCountingAttempt() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        UUID taskId = insertTask("RUNNING", 2, "worker-a", now, now.minusMinutes(1));
+
+        // when
+        int foreign = taskRepository.release(taskId, "worker-b", 2);
+        int released = taskRepository.release(taskId, "worker-a", 2);
+
+        // then
+        assertEquals(0, foreign);
+        assertEquals(1, released);
+        Map<String, Object> row = findTask(taskId);
+        assertEquals("PENDING", row.get("status"));
+        assertEquals(1, row.get("attempts"));
+        assertNull(row.get("worker_id"));
+        assertNull(row.get("heartbeat_at"));
+    }
+
+    private UUID insertTask(String status, int attempts, String workerId, LocalDateTime heartbeatAt, LocalDateTime createdAt) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO answer_conclusion_task " +
+                        "(id, question_id, answer, status, attempts, worker_id, created_at, started_at, heartbeat_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                id, questionId, "Ответ", status, attempts, workerId, createdAt,
+                heartbeatAt == null ? null : createdAt, heartbeatAt);
+        return id;
+    }
+
+    private Map<String, Object> findTask(UUID id) {
+        return jdbcTemplate.queryForMap("SELECT * FROM answer_conclusion_task WHERE id = ?", id);
+    }
+
+    private String answerConclusion() {
+        return jdbcTemplate.queryForObject("SELECT answer_conclusion FROM expertise_question WHERE id = ?", String.class, questionId);
+    }
+}
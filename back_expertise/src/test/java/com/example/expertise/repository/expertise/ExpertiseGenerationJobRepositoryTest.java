@@ -0,0 +1,156 @@
+package com.example.expertise.repository.expertise;
+
+import com.example.expertise.enums.GenerationJobStatus;
+import com.example.expertise.model.expertise.ExpertiseGenerationJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нативные запросы очереди заданий на генерацию файла экспертизы проверяются на PostgreSQL:
+ * FOR UPDATE SKIP LOCKED и условия по попытке в H2 не воспроизводятся
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class ExpertiseGenerationJobRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private ExpertiseGenerationJobRepository jobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID expertiseId;
+
+    @BeforeEach
+    void setUp() {
+        expertiseId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO expertise (id, profile_id) VALUES (?, ?)", expertiseId, UUID.randomUUID());
+    }
+
+    @Test
+    void lockNextPending_returnsOldestPendingJob() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        insertJob("RUNNING", 1, "worker-a", now.minusMinutes(1), now.minusMinutes(30));
+        UUID oldest = insertJob("PENDING", 0, null, null, now.minusMinutes(20));
+        insertJob("PENDING", 0, null, null, now.minusMinutes(10));
+
+        // when
+        Optional<ExpertiseGenerationJob> job = jobRepository.lockNextPending();
+
+        // then
+        assertTrue(job.isPresent());
+        assertEquals(oldest, job.get().getId());
+        assertEquals(GenerationJobStatus.PENDING, job.get().getStatus());
+    }
+
+    @Test
+    void requeueStale_returnsJobWithoutHeartbeatToQueue() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        UUID stale = insertJob("RUNNING", 1, "worker-a", now.minusMinutes(10), now.minusMinutes(20));
+        UUID alive = insertJob("RUNNING", 1, "worker-b", now.minusSeconds(10), now.minusMinutes(20));
+
+        // when
+        int requeued = jobRepository.requeueStale(now.minusMinutes(5), 3);
+
+        // then
+        assertEquals(1, requeued);
+        Map<String, Object> staleRow = findJob(stale);
+        assertEquals("PENDING", staleRow.get("status"));
+        assertNull(staleRow.get("worker_id"));
+        assertEquals(1, staleRow.get("attempts"));
+        assertEquals("RUNNING", findJob(alive).get("status"));
+    }
+
+    @Test
+    void requeueStale_failsJobThatExhaustedAttempts() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        UUID exhausted = insertJob("RUNNING", 3, "worker-a", now.minusMinutes(10), now.minusMinutes(20));
+
+        // when
+        int requeued = jobRepository.requeueStale(now.minusMinutes(5), 3);
+
+        // then
+        assertEquals(1, requeued);
+        Map<String, Object> row = findJob(exhausted);
+        assertEquals("FAILED", row.get("status"));
+        assertEquals("Превышено время выполнения задания", row.get("error_message"));
+        assertNotNull(row.get("finished_at"));
+        assertNull(row.get("worker_id"));
+    }
+
+    @Test
+    void complete_ignoresLateCompletionOfPreviousAttempt() {
+        // given
+        // Первая попытка зависла, задание возвращено в очередь и забрано другим узлом
+        LocalDateTime now = LocalDateTime.now();
+        UUID jobId = insertJob("RUNNING", 2, "worker-b", now, now.minusMinutes(20));
+
+        // when
+        int heartbeat = jobRepository.heartbeat(jobId, "worker-a", 1, now);
+        int completed = jobRepository.complete(jobId, "worker-a", 1, "late.docx");
+        int failed = jobRepository.fail(jobId, "worker-a", 1, "late error");
+
+        // then
+        assertEquals(0, heartbeat);
+        assertEquals(0, completed);
+        assertEquals(0, failed);
+        Map<String, Object> row = findJob(jobId);
+        assertEquals("RUNNING", row.get("status"));
+        assertNull(row.get("result_file"));
+        assertNull(row.get("error_message"));
+    }
+
+    @Test
+    void complete_finishesCurrentAttempt() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        UUID jobId = insertJob("RUNNING", 2, "worker-b", now, now.minusMinutes(20));
+
+        // when
+        int completed = jobRepository.complete(jobId, "worker-b", 2, "result.docx");
+
+        // then
+        assertEquals(1, completed);
+        Map<String, Object> row = findJob(jobId);
+        assertEquals("COMPLETED", row.get("status"));
+        assertEquals("result.docx", row.get("result_file"));
+        assertNull(row.get("map_screen"));
+    }
+
+    private UUID insertJob(String status, int attempts, String workerId, LocalDateTime heartbeatAt, LocalDateTime createdAt) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO expertise_generation_job " +
+                        "(id, expertise_id, status, map_screen, attempts, worker_id, created_at, started_at, heartbeat_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                id, expertiseId, status, new byte[]{1, 2, 3}, attempts, workerId, createdAt,
+                heartbeatAt == null ? null : createdAt, heartbeatAt);
+        return id;
+    }
+
+    private Map<String, Object> findJob(UUID id) {
+        return jdbcTemplate.queryForMap("SELECT * FROM expertise_generation_job WHERE id = ?", id);
+    }
+}
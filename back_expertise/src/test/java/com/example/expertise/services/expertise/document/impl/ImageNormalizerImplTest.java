@@ -0,0 +1,115 @@
+package com.example.expertise.services.expertise.document.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageNormalizerImplTest {
+
+    /**
+     * Ширина отображения 20 см в twips: при 150 DPI это около 1181 px, тестовые изображения не уменьшаются
+     */
+    private static final int WIDE_DISPLAY_TWIPS = 11340;
+
+    private ImageNormalizerImpl normalizer;
+
+    @BeforeEach
+    void setUp() {
+        normalizer = new ImageNormalizerImpl(Runnable::run, 150, 0.8f);
+    }
+
+    @Test
+    void readExifOrientation_littleAndBigEndian() throws IOException {
+        // given
+        byte[] jpeg = jpeg(40, 20);
+
+        // when / then
+        assertEquals(6, normalizer.readExifOrientation(withExif(jpeg, ByteOrder.LITTLE_ENDIAN, 6)));
+        assertEquals(8, normalizer.readExifOrientation(withExif(jpeg, ByteOrder.BIG_ENDIAN, 8)));
+    }
+
+    @Test
+    void readExifOrientation_defaultsToOne() throws IOException {
+        byte[] jpeg = jpeg(40, 20);
+
+        assertEquals(1, normalizer.readExifOrientation(jpeg));
+        assertEquals(1, normalizer.readExifOrientation(withExif(jpeg, ByteOrder.LITTLE_ENDIAN, 9)));
+        assertEquals(1, normalizer.readExifOrientation("not an image".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(1, normalizer.readExifOrientation(new byte[0]));
+    }
+
+    @Test
+    void readExifOrientation_ignoresIfdOutsideSegment() throws IOException {
+        // given
+        byte[] data = withExif(jpeg(40, 20), ByteOrder.LITTLE_ENDIAN, 6);
+        // Смещение IFD в заголовке TIFF указывает за пределы сегмента APP1
+        int ifdOffset = 2 + 4 + 6 + 4;
+        ByteBuffer.wrap(data, ifdOffset, 4).order(ByteOrder.LITTLE_ENDIAN).putInt(10_000);
+
+        // when / then
+        assertEquals(1, normalizer.readExifOrientation(data));
+    }
+
+    @Test
+    void normalize_rotatesByExifOrientation() throws IOException {
+        // given
+        byte[] data = withExif(jpeg(40, 20), ByteOrder.BIG_ENDIAN, 6);
+
+        // when
+        BufferedImage result = ImageIO.read(new ByteArrayInputStream(normalizer.normalize(data, WIDE_DISPLAY_TWIPS)));
+
+        // then
+        assertEquals(20, result.getWidth());
+        assertEquals(40, result.getHeight());
+    }
+
+    @Test
+    void normalize_keepsImageWithoutOrientationAndScaling() throws IOException {
+        byte[] data = jpeg(40, 20);
+
+        assertSame(data, normalizer.normalize(data, WIDE_DISPLAY_TWIPS));
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpeg", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Вставляет сразу после маркера SOI сегмент APP1 с EXIF, содержащим единственный тег ориентации
+     */
+    private static byte[] withExif(byte[] jpeg, ByteOrder order, int orientation) {
+        ByteBuffer tiff = ByteBuffer.allocate(8 + 2 + 12 + 4).order(order);
+        tiff.put(order == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        tiff.put(order == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        tiff.putShort((short) 42);
+        tiff.putInt(8);                   // смещение первого IFD
+        tiff.putShort((short) 1);         // количество записей
+        tiff.putShort((short) 0x0112);    // тег Orientation
+        tiff.putShort((short) 3);         // тип SHORT
+        tiff.putInt(1);
+        tiff.putShort((short) orientation);
+        tiff.putShort((short) 0);
+        tiff.putInt(0);                   // следующего IFD нет
+
+        byte[] exifHeader = {'E', 'x', 'i', 'f', 0, 0};
+        int segmentLength = 2 + exifHeader.length + tiff.capacity();
+        ByteBuffer result = ByteBuffer.allocate(jpeg.length + 2 + segmentLength);
+        result.put(jpeg, 0, 2);
+        result.put((byte) 0xFF).put((byte) 0xE1).putShort((short) segmentLength);
+        result.put(exifHeader).put(tiff.array());
+        result.put(jpeg, 2, jpeg.length - 2);
+        return result.array();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.expertise.services.expertise.impl;
+
+import com.example.expertise.enums.ConclusionTaskStatus;
+import com.example.expertise.model.expertise.AnswerConclusionTask;
+import com.example.expertise.model.expertise.ExpertiseQuestion;
+import com.example.expertise.repository.expertise.AnswerConclusionTaskRepository;
+import com.example.expertise.repository.expertise.ExpertiseQuestionRepository;
+import com.example.expertise.services.expertise.ConclusionGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ConclusionTaskServiceImplTest {
+
+    private AnswerConclusionTaskRepository taskRepository;
+    private ExpertiseQuestionRepository expertiseQuestionRepository;
+    private ConclusionGenerator conclusionGenerator;
+    private ConclusionTaskServiceImpl conclusionTaskService;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = mock(AnswerConclusionTaskRepository.class);
+        expertiseQuestionRepository = mock(ExpertiseQuestionRepository.class);
+        conclusionGenerator = mock(ConclusionGenerator.class);
+        conclusionTaskService = new ConclusionTaskServiceImpl(taskRepository, expertiseQuestionRepository, conclusionGenerator);
+    }
+
+    @Test
+    void claimNextTask_startsNextAttempt() {
+        // given
+        AnswerConclusionTask pending = task(ConclusionTaskStatus.PENDING, null, 1);
+        when(taskRepository.lockNextPending()).thenReturn(Optional.of(pending));
+
+        // when
+        Optional<AnswerConclusionTask> claimed = conclusionTaskService.claimNextTask("worker-a");
+
+        // then
+        assertTrue(claimed.isPresent());
+        assertEquals(ConclusionTaskStatus.RUNNING, claimed.get().getStatus());
+        assertEquals("worker-a", claimed.get().getWorkerId());
+        assertEquals(2, claimed.get().getAttempts());
+        assertNotNull(claimed.get().getStartedAt());
+        assertEquals(claimed.get().getStartedAt(), claimed.get().getHeartbeatAt());
+        verify(taskRepository).save(pending);
+    }
+
+    @Test
+    void processTask_completesCurrentAttempt() {
+        // given
+        AnswerConclusionTask task = task(ConclusionTaskStatus.RUNNING, "worker-a", 1);
+        task.setBypassCache(true);
+        givenQuestion(task.getQuestionId());
+        when(conclusionGenerator.generateConclusion("Вопрос", "Ответ", true)).thenReturn("Вывод");
+        when(taskRepository.complete(task.getId(), "worker-a", 1, "Вывод")).thenReturn(1);
+
+        // when
+        conclusionTaskService.processTask(task);
+
+        // then
+        verify(taskRepository).complete(task.getId(), "worker-a", 1, "Вывод");
+        verify(taskRepository, never()).fail(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void processTask_lateCompletionOfSupersededAttemptIsDropped() {
+        // given
+        // Задание вернули в очередь по таймауту heartbeat или отменили новым ответом: complete не обновляет строку
+        AnswerConclusionTask task = task(ConclusionTaskStatus.RUNNING, "worker-a", 1);
+        givenQuestion(task.getQuestionId());
+        when(conclusionGenerator.generateConclusion(any(), any(), anyBoolean())).thenReturn("Вывод");
+        when(taskRepository.complete(task.getId(), "worker-a", 1, "Вывод")).thenReturn(0);
+
+        // when
+        conclusionTaskService.processTask(task);
+
+        // then
+        verify(taskRepository, never()).fail(any(), any(), anyInt(), any());
+        verify(expertiseQuestionRepository, never()).save(any());
+    }
+
+    @Test
+    void processTask_failsCurrentAttemptOnEmptyConclusion() {
+        // given
+        AnswerConclusionTask task = task(ConclusionTaskStatus.RUNNING, "worker-a", 2);
+        givenQuestion(task.getQuestionId());
+        when(conclusionGenerator.generateConclusion(any(), any(), anyBoolean())).thenReturn("");
+
+        // when
+        conclusionTaskService.processTask(task);
+
+        // then
+        verify(taskRepository).fail(task.getId(), "worker-a", 2, "GigaChat не вернул вывод");
+        verify(taskRepository, never()).complete(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void releaseTask_returnsOwnAttemptToQueue() {
+        // given
+        AnswerConclusionTask task = task(ConclusionTaskStatus.RUNNING, "worker-a", 3);
+
+        // when
+        conclusionTaskService.releaseTask(task);
+
+        // then
+        verify(taskRepository).release(task.getId(), "worker-a", 3);
+    }
+
+    @Test
+    void requeueStaleTasks_passesHeartbeatBoundaryAndMaxAttempts() {
+        // given
+        ArgumentCaptor<LocalDateTime> boundary = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(taskRepository.requeueStale(boundary.capture(), eq(3))).thenReturn(1);
+        LocalDateTime before = LocalDateTime.now();
+
+        // when
+        int requeued = conclusionTaskService.requeueStaleTasks(Duration.ofMinutes(2), 3);
+
+        // then
+        assertEquals(1, requeued);
+        assertFalse(boundary.getValue().isBefore(before.minusMinutes(2)));
+        assertFalse(boundary.getValue().isAfter(LocalDateTime.now().minusMinutes(2)));
+    }
+
+    private void givenQuestion(UUID questionId) {
+        ExpertiseQuestion question = new ExpertiseQuestion();
+        question.setId(questionId);
+        question.setQuestionText("Вопрос");
+        when(expertiseQuestionRepository.findById(questionId)).thenReturn(Optional.of(question));
+    }
+
+    private AnswerConclusionTask task(ConclusionTaskStatus status, String workerId, int attempts) {
+        AnswerConclusionTask task = new AnswerConclusionTask();
+        task.setId(UUID.randomUUID());
+        task.setQuestionId(UUID.randomUUID());
+        task.setAnswer("Ответ");
+        task.setStatus(status);
+        task.setWorkerId(workerId);
+        task.setAttempts(attempts);
+        return task;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.expertise.services.expertise.impl;
+
+import com.example.expertise.enums.GenerationJobStatus;
+import com.example.expertise.integration.ServiceAccountTokenProvider;
+import com.example.expertise.integration.minio.MinioIntegration;
+import com.example.expertise.model.expertise.ExpertiseGenerationJob;
+import com.example.expertise.repository.expertise.ExpertiseGenerationJobRepository;
+import com.example.expertise.services.expertise.ExpertiseService;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.Resource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GenerationJobServiceImplTest {
+
+    private ExpertiseGenerationJobRepository jobRepository;
+    private ExpertiseService expertiseService;
+    private MinioIntegration minioIntegration;
+    private GenerationJobServiceImpl generationJobService;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository = mock(ExpertiseGenerationJobRepository.class);
+        expertiseService = mock(ExpertiseService.class);
+        minioIntegration = mock(MinioIntegration.class);
+        generationJobService = new GenerationJobServiceImpl(jobRepository, expertiseService, minioIntegration,
+                mock(ServiceAccountTokenProvider.class));
+    }
+
+    @Test
+    void claimNextJob_startsNextAttempt() {
+        // given
+        ExpertiseGenerationJob pending = job(GenerationJobStatus.PENDING, null, 1);
+        when(jobRepository.lockNextPending()).thenReturn(Optional.of(pending));
+
+        // when
+        Optional<ExpertiseGenerationJob> claimed = generationJobService.claimNextJob("worker-a");
+
+        // then
+        assertTrue(claimed.isPresent());
+        assertEquals(GenerationJobStatus.RUNNING, claimed.get().getStatus());
+        assertEquals("worker-a", claimed.get().getWorkerId());
+        assertEquals(2, claimed.get().getAttempts());
+        assertNotNull(claimed.get().getStartedAt());
+        assertEquals(claimed.get().getStartedAt(), claimed.get().getHeartbeatAt());
+        verify(jobRepository).save(pending);
+    }
+
+    @Test
+    void claimNextJob_emptyQueue() {
+        // given
+        when(jobRepository.lockNextPending()).thenReturn(Optional.empty());
+
+        // when
+        Optional<ExpertiseGenerationJob> claimed = generationJobService.claimNextJob("worker-a");
+
+        // then
+        assertTrue(claimed.isEmpty());
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    void processJob_deletesResultOfSupersededAttempt() {
+        // given
+        // Пока файл загружался, задание вернули в очередь и забрал другой узел: complete не обновляет строку
+        ExpertiseGenerationJob job = job(GenerationJobStatus.RUNNING, "worker-a", 1);
+        when(expertiseService.generateExpertiseDocument(job.getExpertiseId(), job.getMapScreen()))
+                .thenReturn(mock(WordprocessingMLPackage.class));
+        when(jobRepository.complete(eq(job.getId()), eq("worker-a"), eq(1), anyString())).thenReturn(0);
+
+        // when
+        generationJobService.processJob(job);
+
+        // then
+        String baseName = job.getExpertiseId() + "_result_" + job.getId();
+        verify(minioIntegration).uploadFileByParams(eq(baseName), eq(".docx"), anyString(), any(Resource.class));
+        verify(minioIntegration).deleteFileByParams(eq(baseName), eq(".docx"), anyString());
+        verify(jobRepository, never()).fail(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void processJob_failsCurrentAttemptOnError() {
+        // given
+        ExpertiseGenerationJob job = job(GenerationJobStatus.RUNNING, "worker-a", 2);
+        when(expertiseService.generateExpertiseDocument(any(), any())).thenThrow(new IllegalStateException("boom"));
+
+        // when
+        generationJobService.processJob(job);
+
+        // then
+        verify(jobRepository).fail(job.getId(), "worker-a", 2, "boom");
+        verify(jobRepository, never()).complete(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void requeueStaleJobs_passesHeartbeatBoundaryAndMaxAttempts() {
+        // given
+        ArgumentCaptor<LocalDateTime> boundary = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(jobRepository.requeueStale(boundary.capture(), eq(3))).thenReturn(2);
+        LocalDateTime before = LocalDateTime.now();
+
+        // when
+        int requeued = generationJobService.requeueStaleJobs(Duration.ofMinutes(5), 3);
+
+        // then
+        assertEquals(2, requeued);
+        assertFalse(boundary.getValue().isBefore(before.minusMinutes(5)));
+        assertFalse(boundary.getValue().isAfter(LocalDateTime.now().minusMinutes(5)));
+    }
+
+    @Test
+    void heartbeat_reportsLostJob() {
+        // given
+        ExpertiseGenerationJob job = job(GenerationJobStatus.RUNNING, "worker-a", 1);
+        when(jobRepository.heartbeat(eq(job.getId()), eq("worker-a"), eq(1), any())).thenReturn(0);
+
+        // when / then
+        assertFalse(generationJobService.heartbeat(job));
+    }
+
+    private ExpertiseGenerationJob job(GenerationJobStatus status, String workerId, int attempts) {
+        ExpertiseGenerationJob job = new ExpertiseGenerationJob();
+        job.setId(UUID.randomUUID());
+        job.setExpertiseId(UUID.randomUUID());
+        job.setStatus(status);
+        job.setWorkerId(workerId);
+        job.setAttempts(attempts);
+        job.setMapScreen(new byte[]{1, 2, 3});
+        return job;
+    }
+}
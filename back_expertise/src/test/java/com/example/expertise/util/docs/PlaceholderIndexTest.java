@@ -0,0 +1,120 @@
+package com.example.expertise.util.docs;
+
+import com.example.expertise.enums.Bookmarks;
+import org.docx4j.jaxb.Context;
+import org.docx4j.openpackaging.exceptions.InvalidFormatException;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.docx4j.wml.ObjectFactory;
+import org.docx4j.wml.P;
+import org.docx4j.wml.R;
+import org.docx4j.wml.Text;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaceholderIndexTest {
+
+    private final ObjectFactory factory = Context.getWmlObjectFactory();
+
+    private MainDocumentPart mainPart;
+
+    @BeforeEach
+    void setUp() throws InvalidFormatException {
+        mainPart = WordprocessingMLPackage.createPackage().getMainDocumentPart();
+    }
+
+    @Test
+    void build_indexesChecklistAndPhotoTokens() {
+        // given
+        P checklist = paragraph("Перед таблицей [CHECKLIST_q1] после таблицы");
+        paragraph("[PHOTO_a1][PHOTO_a2]");
+        paragraph("[PHOTO_a3] и повторно [CHECKLIST_q1]");
+
+        // when
+        PlaceholderIndex index = PlaceholderIndex.build(mainPart);
+
+        // then
+        List<PlaceholderIndex.Entry> checklistEntries = index.findAll("[CHECKLIST_q1]");
+        assertEquals(2, checklistEntries.size());
+        assertEquals(0, checklistEntries.get(0).position());
+        assertEquals(2, checklistEntries.get(1).position());
+        assertSame(checklist, checklistEntries.get(0).paragraph());
+
+        assertEquals(List.of("[PHOTO_a1]", "[PHOTO_a2]", "[PHOTO_a3]"),
+                index.getPhotoEntries().stream().map(PlaceholderIndex.Entry::token).toList());
+        assertSame(index.getPhotoEntries().get(0).text(), index.getPhotoEntries().get(1).text());
+    }
+
+    @Test
+    void build_tokensOfSameTextNodeSharePosition() {
+        // given
+        P shared = paragraph("[PHOTO_a1] [PHOTO_a2]");
+        paragraph("[PHOTO_a3]");
+
+        // when
+        List<PlaceholderIndex.Entry> photos = PlaceholderIndex.build(mainPart).getPhotoEntries();
+
+        // then
+        // Вставка фото объединяет в группу плейсхолдеры с позицией не больше предыдущей + 1
+        assertEquals(List.of(0, 0, 1), photos.stream().map(PlaceholderIndex.Entry::position).toList());
+        assertSame(shared, photos.get(0).paragraph());
+        assertSame(shared, photos.get(1).paragraph());
+        for (int i = 1; i < photos.size(); i++) {
+            assertTrue(photos.get(i).position() <= photos.get(i - 1).position() + 1);
+        }
+    }
+
+    @Test
+    void build_matchesBookmarks() {
+        // given
+        paragraph("Раздел: " + Bookmarks.PHOTO_DOCS.getName());
+        paragraph("Подпись " + Bookmarks.EXPERTISE_MAP.getName());
+        paragraph(Bookmarks.EXPERTISE_MAP.getName());
+
+        // when
+        PlaceholderIndex index = PlaceholderIndex.build(mainPart);
+
+        // then
+        // Закладка фото документов ищется по вхождению, закладка карты - только по точному совпадению текста
+        assertEquals(0, index.findFirst(Bookmarks.PHOTO_DOCS.getName()).orElseThrow().position());
+        List<PlaceholderIndex.Entry> mapEntries = index.findAll(Bookmarks.EXPERTISE_MAP.getName());
+        assertEquals(1, mapEntries.size());
+        assertEquals(2, mapEntries.get(0).position());
+    }
+
+    @Test
+    void build_ignoresUnknownAndMalformedTokens() {
+        // given
+        paragraph("[OTHER_x] [PHOTO_] [CHECKLIST_[q]]");
+        paragraph("");
+
+        // when
+        PlaceholderIndex index = PlaceholderIndex.build(mainPart);
+
+        // then
+        assertTrue(index.findAll("[OTHER_x]").isEmpty());
+        assertTrue(index.findFirst("[PHOTO_]").isEmpty());
+        assertTrue(index.getPhotoEntries().isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> index.getPhotoEntries().clear());
+    }
+
+    /**
+     * Добавляет в документ параграф из одного фрагмента текста со ссылками на родителей, как после чтения docx
+     */
+    private P paragraph(String value) {
+        P p = factory.createP();
+        R r = factory.createR();
+        Text text = factory.createText();
+        text.setValue(value);
+        text.setParent(r);
+        r.setParent(p);
+        r.getContent().add(factory.createRT(text));
+        p.getContent().add(r);
+        mainPart.getContent().add(p);
+        return p;
+    }
+}
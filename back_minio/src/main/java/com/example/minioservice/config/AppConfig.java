@@ -8,6 +8,7 @@ import io.swagger.v3.oas.models.security.SecurityScheme;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
@@ -38,6 +39,17 @@ public class AppConfig {
         return new RestTemplate();
     }
 
+    /**
+     * Пул виртуальных потоков для параллельного открытия объектов MinIO в пакетных запросах
+     */
+    @Bean("batchExecutor")
+    public SimpleAsyncTaskExecutor batchExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Batch-");
+        executor.setVirtualThreads(true);
+        executor.setTaskTerminationTimeout(10_000);
+        return executor;
+    }
+
     @Bean
     public OpenAPI customOpenAPI() {
         return new OpenAPI()
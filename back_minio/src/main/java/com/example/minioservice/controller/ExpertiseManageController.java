@@ -1,13 +1,20 @@
 package com.example.minioservice.controller;
 
+import com.example.minioservice.dto.DeleteResult;
+import com.example.minioservice.dto.ObjectContent;
+import com.example.minioservice.dto.ObjectInfo;
 import com.example.minioservice.service.ExpertiseManageService;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -36,23 +43,26 @@ public class ExpertiseManageController {
 
     /**
      * API для получения фото ответа экспертизы.
+     * Фото передается потоком из MinIO, без чтения в память целиком. Поддерживаются условные запросы
+     * (If-None-Match, If-Modified-Since) и запросы диапазона (Range). Имя фото уникально и не переиспользуется,
+     * поэтому фото кэшируется клиентом без ограничения срока.
      *
-     * @param photoName название фото
-     * @return фото ответа экспертизы
+     * @param photoName      название фото
+     * @param requestHeaders заголовки запроса
+     * @return фото ответа экспертизы, его часть или 304 без тела
      */
     @GetMapping("/get-expertise-answer-photo-file/{photoName}")
-    public ResponseEntity<byte[]> getExpertiseAnswerPhotoFile(@PathVariable String photoName) {
+    public ResponseEntity<StreamingResponseBody> getExpertiseAnswerPhotoFile(@PathVariable String photoName,
+                                                                             @RequestHeader HttpHeaders requestHeaders) {
         try {
-            byte[] fileData = expertiseManageService.getAnswerPhotoFileAsBytes(photoName);
+            ObjectInfo info = expertiseManageService.getAnswerPhotoInfo(photoName);
 
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=expertise-" + photoName);
-            headers.add(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate");
+            headers.add(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .contentType(MediaType.IMAGE_JPEG)
-                    .body(fileData);
+            return objectResponse(requestHeaders, info, headers, MediaType.IMAGE_JPEG,
+                    (offset, length) -> expertiseManageService.getAnswerPhotoContent(photoName, offset, length));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(null);
         }
@@ -60,23 +70,26 @@ public class ExpertiseManageController {
 
 
     /**
-     * API для получения файла экспертизы пользователя (шаблон для дальнейшего заполнения)
+     * API для получения файла экспертизы пользователя (шаблон для дальнейшего заполнения).
+     * Возвращает ETag шаблона. Если переданный If-None-Match совпадает с текущей версией, возвращает 304 без тела.
+     * Поддерживаются запросы диапазона (Range).
      *
-     * @param templateName название шаблона
-     * @return файл экспертизы
+     * @param templateName   название шаблона
+     * @param requestHeaders заголовки запроса
+     * @return файл экспертизы, его часть или 304 без тела
      */
     @GetMapping("/get-expertise-file/{templateName}")
-    public ResponseEntity<InputStreamResource> getExpertiseFile(@PathVariable String templateName) {
+    public ResponseEntity<StreamingResponseBody> getExpertiseFile(@PathVariable String templateName,
+                                                                  @RequestHeader HttpHeaders requestHeaders) {
         try {
-            InputStreamResource resource = expertiseManageService.getExpertise(templateName);
+            ObjectInfo info = expertiseManageService.getExpertiseInfo(templateName);
+
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=expertise-" + templateName + ".docx");
-            headers.add(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate");
+            headers.add(HttpHeaders.CACHE_CONTROL, "no-cache");
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .body(resource);
+            return objectResponse(requestHeaders, info, headers, MediaType.APPLICATION_OCTET_STREAM,
+                    (offset, length) -> expertiseManageService.getExpertiseContent(templateName, offset, length));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(null);
         }
@@ -108,6 +121,18 @@ public class ExpertiseManageController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * API для пакетного удаления фото ответов по списку названий файлов.
+     * Ошибка удаления отдельного фото не прерывает удаление остальных и возвращается в ответе.
+     *
+     * @param photoNames названия файлов
+     * @return количество удаленных фото и ошибки удаления
+     */
+    @PostMapping("/delete-expertise-answer-photos")
+    public ResponseEntity<DeleteResult> deleteExpertiseAnswerPhotosByNames(@RequestBody List<String> photoNames) {
+        return ResponseEntity.ok(expertiseManageService.deleteAnswerPhotos(photoNames));
+    }
+
     /**
      * API для удаления фото ответа в экспертизе.
      *
@@ -120,4 +145,121 @@ public class ExpertiseManageController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Формирует ответ с объектом MinIO с учетом условных запросов и запроса диапазона.
+     * Поддерживается один диапазон; при нескольких диапазонах или устаревшем If-Range объект отдается целиком.
+     * Тело передается через StreamingResponseBody, чтобы Spring не пытался повторно применять Range к потоку.
+     *
+     * @param requestHeaders заголовки запроса
+     * @param info           сведения об объекте
+     * @param headers        заголовки ответа
+     * @param contentType    тип содержимого
+     * @param opener         открывает объект или его диапазон
+     * @return ответ 200, 206, 304 или 416
+     */
+    private ResponseEntity<StreamingResponseBody> objectResponse(HttpHeaders requestHeaders,
+                                                                 ObjectInfo info,
+                                                                 HttpHeaders headers,
+                                                                 MediaType contentType,
+                                                                 RangeOpener opener) {
+        String etag = "\"" + info.etag() + "\"";
+        headers.setETag(etag);
+        headers.setLastModified(info.lastModified());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (isNotModified(requestHeaders, etag, info)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            ranges = List.of();
+        }
+
+        if (ranges.size() == 1 && isRangeApplicable(requestHeaders.getFirst(HttpHeaders.IF_RANGE), etag, info)) {
+            HttpRange range = ranges.get(0);
+            long start;
+            long end;
+            try {
+                start = range.getRangeStart(info.size());
+                end = range.getRangeEnd(info.size());
+            } catch (IllegalArgumentException e) {
+                start = -1;
+                end = -1;
+            }
+            if (start < 0 || start >= info.size() || end < start) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + info.size());
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+            }
+
+            long length = end - start + 1;
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + info.size());
+            headers.setContentLength(length);
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .headers(headers)
+                    .contentType(contentType)
+                    .body(stream(opener.open(start, length)));
+        }
+
+        headers.setContentLength(info.size());
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(contentType)
+                .body(stream(opener.open(0, -1)));
+    }
+
+    /**
+     * Проверяет, есть ли у клиента актуальная версия объекта.
+     * If-Modified-Since учитывается, только если не передан If-None-Match.
+     */
+    private static boolean isNotModified(HttpHeaders requestHeaders, String etag, ObjectInfo info) {
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            return ifNoneMatch.stream()
+                    .anyMatch(candidate -> "*".equals(candidate) || etag.equals(candidate.startsWith("W/") ? candidate.substring(2) : candidate));
+        }
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        return ifModifiedSince >= 0 && info.lastModified().toEpochMilli() / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * Проверяет условие If-Range: диапазон применяется, только если у клиента та же версия объекта
+     */
+    private static boolean isRangeApplicable(String ifRange, String etag, ObjectInfo info) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        HttpHeaders dateHeader = new HttpHeaders();
+        dateHeader.set(HttpHeaders.IF_RANGE, ifRange);
+        try {
+            return dateHeader.getFirstDate(HttpHeaders.IF_RANGE) / 1000 == info.lastModified().toEpochMilli() / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Передает содержимое объекта в ответ и закрывает поток MinIO
+     */
+    private static StreamingResponseBody stream(ObjectContent content) {
+        return outputStream -> {
+            try (InputStream inputStream = content.stream()) {
+                inputStream.transferTo(outputStream);
+            }
+        };
+    }
+
+    /**
+     * Открывает объект или диапазон байт объекта
+     */
+    @FunctionalInterface
+    private interface RangeOpener {
+        ObjectContent open(long offset, long length);
+    }
+
 }
@@ -17,6 +17,14 @@ public class GeneralExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unexpected error: " + e.getMessage());
     }
 
+    /**
+     * Обрабатывает некорректные параметры запроса.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Некорректный запрос: " + e.getMessage());
+    }
+
     /**
      * Обрабатывает ошибки взаимодействия с Minio.
      */
@@ -1,12 +1,24 @@
 package com.example.minioservice.controller;
 
 
+import com.example.minioservice.dto.ObjectContent;
+import com.example.minioservice.dto.ObjectKey;
+import com.example.minioservice.service.ArchiveService;
+import com.example.minioservice.service.BatchFetchService;
 import com.example.minioservice.service.ProfileManageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 /**
  * Контроллер работы с файлами пользователя через minIO
@@ -17,9 +29,15 @@ import org.springframework.web.multipart.MultipartFile;
 public class ManageController {
 
     private final ProfileManageService profileManageService;
+    private final BatchFetchService batchFetchService;
+    private final ArchiveService archiveService;
 
-    public ManageController(ProfileManageService profileManageService) {
+    public ManageController(ProfileManageService profileManageService,
+                            BatchFetchService batchFetchService,
+                            ArchiveService archiveService) {
         this.profileManageService = profileManageService;
+        this.batchFetchService = batchFetchService;
+        this.archiveService = archiveService;
     }
 
     /**
@@ -46,8 +64,8 @@ public class ManageController {
      * @param fileName      название файла
      * @param fileExtension расширение файла (.docx, .pdf)
      * @param fileBucket    бакет, в котором находится файл (папка)
-     * @param isLink        флаг, указывающий на то, нужно ли вернуть ссылку на файл или сам файл в byte[]
-     * @return ссылка на файл
+     * @param isLink        флаг, указывающий на то, нужно ли вернуть ссылку на файл или сам файл
+     * @return ссылка на файл или содержимое файла, передаваемое потоком из MinIO
      */
     @Operation(summary = "Получение файла по параметрам. Например: диплом, сертификат, шаблон, и т.д")
     @GetMapping("/get-file-by-params")
@@ -56,7 +74,54 @@ public class ManageController {
                                                  @RequestParam("fileBucket") String fileBucket,
                                                  @RequestParam("link") boolean isLink) {
         if (isLink) return ResponseEntity.ok(profileManageService.getFileLinkByParams(fileName, fileExtension, fileBucket));
-        return ResponseEntity.ok(profileManageService.getFileByteByParams(fileName, fileExtension, fileBucket));
+
+        ObjectContent content = profileManageService.getFileContentByParams(fileName, fileExtension, fileBucket);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_OCTET_STREAM);
+        if (content.size() >= 0) {
+            response.contentLength(content.size());
+        }
+        return response.body(new InputStreamResource(content.stream()));
+    }
+
+    /**
+     * API для пакетного получения файлов одним ответом.
+     * Для каждого ключа в порядке запроса передается длина (8 байт, big-endian), ETag и содержимое файла;
+     * для отсутствующего файла передается длина -1, для файла, не изменившегося с переданного в ключе ETag, — длина -2,
+     * в обоих случаях без содержимого.
+     *
+     * @param keys ключи файлов (бакет, имя объекта с расширением и, при наличии, ETag закэшированной версии)
+     * @return поток с файлами
+     */
+    @Operation(summary = "Пакетное получение файлов одним ответом")
+    @PostMapping("/get-files-batch")
+    public ResponseEntity<StreamingResponseBody> getFilesBatch(@RequestBody List<ObjectKey> keys) {
+        batchFetchService.validate(keys);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(outputStream -> batchFetchService.writeObjects(keys, outputStream));
+    }
+
+    /**
+     * API для выгрузки всех файлов бакета с заданным префиксом одним ZIP-архивом.
+     * Архив формируется потоком по мере чтения файлов из MinIO. Префикс обязателен: выгрузка бакета целиком отклоняется с 400.
+     *
+     * @param fileBucket бакет, в котором находятся файлы (папка)
+     * @param prefix     префикс имен файлов (например, profileId), не пустой
+     * @return поток с ZIP-архивом
+     */
+    @Operation(summary = "Выгрузка файлов по префиксу ZIP-архивом")
+    @GetMapping("/get-files-archive")
+    public ResponseEntity<StreamingResponseBody> getFilesArchive(@RequestParam("fileBucket") String fileBucket,
+                                                                 @RequestParam("prefix") String prefix) {
+        archiveService.validate(fileBucket, prefix);
+        String fileName = prefix + ".zip";
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(fileName, StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .body(outputStream -> archiveService.writeArchive(fileBucket, prefix, outputStream));
     }
 
     /**
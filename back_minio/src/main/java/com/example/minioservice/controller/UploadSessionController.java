@@ -0,0 +1,55 @@
+package com.example.minioservice.controller;
+
+import com.example.minioservice.dto.ObjectKey;
+import com.example.minioservice.dto.UploadTarget;
+import com.example.minioservice.dto.UploadedObject;
+import com.example.minioservice.service.UploadSessionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Контроллер прямой загрузки файлов в MinIO по presigned-ссылкам
+ */
+@Tag(name = "Прямая загрузка файлов", description = "Загрузка файлов клиентом напрямую в MinIO")
+@RestController
+@RequestMapping("/api/files")
+public class UploadSessionController {
+
+    private final UploadSessionService uploadSessionService;
+
+    public UploadSessionController(UploadSessionService uploadSessionService) {
+        this.uploadSessionService = uploadSessionService;
+    }
+
+    /**
+     * API для получения ссылок на прямую загрузку файлов в MinIO методом PUT.
+     * Разрешены только бакеты из minio.upload.allowed-buckets и имена вида id_параметр_uuid.расширение, иначе 400.
+     *
+     * @param keys ключи загружаемых файлов (бакет и имя объекта с расширением)
+     * @return ссылки для загрузки в порядке ключей
+     */
+    @Operation(summary = "Получение ссылок для прямой загрузки файлов")
+    @PostMapping("/upload-sessions")
+    public ResponseEntity<List<UploadTarget>> createUploadSession(@RequestBody List<ObjectKey> keys) {
+        return ResponseEntity.ok(uploadSessionService.createUploadTargets(keys));
+    }
+
+    /**
+     * API для подтверждения прямой загрузки файлов.
+     *
+     * @param keys ключи загруженных файлов
+     * @return сведения о загруженных файлах и ссылки для скачивания, null для незагруженных файлов
+     */
+    @Operation(summary = "Подтверждение прямой загрузки файлов")
+    @PostMapping("/upload-sessions/complete")
+    public ResponseEntity<List<UploadedObject>> completeUploadSession(@RequestBody List<ObjectKey> keys) {
+        return ResponseEntity.ok(uploadSessionService.completeUploads(keys));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.minioservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Результат пакетного удаления объектов MinIO
+ *
+ * @param deleted количество удаленных объектов
+ * @param errors  ошибки удаления отдельных объектов
+ */
+public record DeleteResult(long deleted, List<ObjectDeleteError> errors) {
+
+    public static DeleteResult empty() {
+        return new DeleteResult(0, List.of());
+    }
+
+    /**
+     * Объединяет результаты удаления двух пакетов
+     *
+     * @param other результат другого пакета
+     * @return общий результат
+     */
+    public DeleteResult merge(DeleteResult other) {
+        List<ObjectDeleteError> merged = new ArrayList<>(errors.size() + other.errors().size());
+        merged.addAll(errors);
+        merged.addAll(other.errors());
+        return new DeleteResult(deleted + other.deleted(), merged);
+    }
+}
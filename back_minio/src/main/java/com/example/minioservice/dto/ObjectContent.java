@@ -0,0 +1,15 @@
+package com.example.minioservice.dto;
+
+import java.io.InputStream;
+
+/**
+ * Содержимое объекта MinIO для потоковой передачи клиенту.
+ * Поток должен быть закрыт после передачи.
+ *
+ * @param stream      поток данных объекта
+ * @param size        размер переданных данных в байтах или -1, если неизвестен
+ * @param contentType тип содержимого, сохраненный при загрузке, или null
+ * @param etag        ETag объекта без кавычек или null
+ */
+public record ObjectContent(InputStream stream, long size, String contentType, String etag) {
+}
@@ -0,0 +1,11 @@
+package com.example.minioservice.dto;
+
+/**
+ * Ошибка удаления одного объекта MinIO
+ *
+ * @param objectName имя объекта
+ * @param code       код ошибки MinIO
+ * @param message    описание ошибки
+ */
+public record ObjectDeleteError(String objectName, String code, String message) {
+}
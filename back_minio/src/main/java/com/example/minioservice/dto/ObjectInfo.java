@@ -0,0 +1,14 @@
+package com.example.minioservice.dto;
+
+import java.time.Instant;
+
+/**
+ * Сведения об объекте MinIO для условных запросов и запросов диапазона
+ *
+ * @param etag         ETag объекта без кавычек
+ * @param lastModified дата последнего изменения
+ * @param size         размер объекта в байтах
+ * @param contentType  тип содержимого, сохраненный при загрузке, или null
+ */
+public record ObjectInfo(String etag, Instant lastModified, long size, String contentType) {
+}
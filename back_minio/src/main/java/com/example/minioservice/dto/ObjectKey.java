@@ -0,0 +1,15 @@
+package com.example.minioservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Ключ объекта MinIO в пакетном запросе
+ *
+ * @param bucket     название бакета
+ * @param objectName имя объекта (с расширением)
+ * @param etag       ETag закэшированной у клиента версии объекта или null
+ */
+public record ObjectKey(@NotBlank(message = "bucket null") String bucket,
+                        @NotBlank(message = "objectName null") String objectName,
+                        String etag) {
+}
@@ -0,0 +1,13 @@
+package com.example.minioservice.dto;
+
+/**
+ * Объект, загруженный в MinIO напрямую по presigned-ссылке
+ *
+ * @param bucket     название бакета
+ * @param objectName имя объекта (с расширением)
+ * @param etag       ETag объекта без кавычек
+ * @param size       размер объекта в байтах
+ * @param url        ссылка для скачивания объекта
+ */
+public record UploadedObject(String bucket, String objectName, String etag, long size, String url) {
+}
@@ -0,0 +1,32 @@
+package com.example.minioservice.service;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Сервис выгрузки файлов MinIO ZIP-архивом.
+ */
+public interface ArchiveService {
+
+    /**
+     * Проверяет запрос архива до начала передачи ответа: выгрузка бакета целиком не допускается.
+     *
+     * @param bucket название бакета
+     * @param prefix префикс имен файлов
+     */
+    void validate(String bucket, String prefix);
+
+    /**
+     * Записывает в поток ZIP-архив всех файлов бакета с заданным префиксом.
+     *
+     * @param bucket       название бакета
+     * @param prefix       префикс имен файлов
+     * @param outputStream поток ответа
+     * @throws IOException ошибка записи в поток ответа
+     */
+    void writeArchive(@NotNull(message = "bucket null") String bucket,
+                      @NotNull(message = "prefix null") String prefix,
+                      OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,33 @@
+package com.example.minioservice.service;
+
+import com.example.minioservice.dto.ObjectKey;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Сервис пакетного получения объектов из MinIO одним ответом.
+ */
+public interface BatchFetchService {
+
+    /**
+     * Проверяет пакетный запрос до начала передачи ответа.
+     *
+     * @param keys ключи объектов
+     */
+    void validate(@NotEmpty(message = "keys empty") List<@Valid ObjectKey> keys);
+
+    /**
+     * Записывает объекты в поток в порядке ключей.
+     * Для каждого объекта пишется длина (8 байт, big-endian), ETag (modified UTF-8, пустой, если неизвестен) и содержимое.
+     * Для отсутствующего объекта пишется только длина -1, для объекта, ETag которого совпал с переданным в ключе, — только длина -2.
+     *
+     * @param keys         ключи объектов
+     * @param outputStream поток ответа
+     * @throws IOException ошибка записи в поток ответа
+     */
+    void writeObjects(List<ObjectKey> keys, OutputStream outputStream) throws IOException;
+}
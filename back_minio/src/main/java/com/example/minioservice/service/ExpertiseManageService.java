@@ -1,9 +1,14 @@
 package com.example.minioservice.service;
 
+import com.example.minioservice.dto.DeleteResult;
+import com.example.minioservice.dto.ObjectContent;
+import com.example.minioservice.dto.ObjectInfo;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -20,19 +25,40 @@ public interface ExpertiseManageService {
     String getAnswerPhotoByName(@NotNull(message = "Не указано название файла") String pathFile);
 
     /**
-     * Получить фото по его названию
+     * Получить сведения о фото (ETag, дата изменения, размер)
+     *
      * @param pathFile название файла
-     * @return ссылка на фото
+     * @return сведения о фото
      */
-    byte[] getAnswerPhotoFileAsBytes(@NotNull(message = "Не указано название файла") String pathFile);
+    ObjectInfo getAnswerPhotoInfo(@NotNull(message = "Не указано название файла") String pathFile);
 
     /**
-     * Получить экспертизу по идентификатору профиля
+     * Получить фото или диапазон байт фото по его названию
+     *
+     * @param pathFile название файла
+     * @param offset   смещение начала диапазона
+     * @param length   длина диапазона или -1 до конца файла
+     * @return содержимое фото для потоковой передачи
+     */
+    ObjectContent getAnswerPhotoContent(@NotNull(message = "Не указано название файла") String pathFile, long offset, long length);
+
+    /**
+     * Получить сведения о шаблоне экспертизы (ETag, дата изменения, размер)
      *
      * @param templateName название файла
-     * @return файл экспертизы
+     * @return сведения о шаблоне
      */
-    InputStreamResource getExpertise(@NotNull(message = "templateName null") String templateName);
+    ObjectInfo getExpertiseInfo(@NotNull(message = "templateName null") String templateName);
+
+    /**
+     * Получить шаблон экспертизы или диапазон байт шаблона
+     *
+     * @param templateName название файла
+     * @param offset       смещение начала диапазона
+     * @param length       длина диапазона или -1 до конца файла
+     * @return содержимое шаблона для потоковой передачи
+     */
+    ObjectContent getExpertiseContent(@NotNull(message = "templateName null") String templateName, long offset, long length);
 
     /**
      * Загружает фото для ответа при создании экспертизы.
@@ -50,6 +76,14 @@ public interface ExpertiseManageService {
      */
     void deleteAnswerPhotos(@NotNull(message = "Не указан идентификатор экспертизы") UUID expertiseId);
 
+    /**
+     * Удаляет фотографии ответов по списку названий файлов
+     *
+     * @param photoNames названия файлов
+     * @return количество удаленных фото и ошибки удаления по каждому фото
+     */
+    DeleteResult deleteAnswerPhotos(@NotEmpty(message = "Не указаны названия файлов") List<@NotBlank String> photoNames);
+
     /**
      * Удаляет фотографию ответа в экспертизе по названию файла.
      *
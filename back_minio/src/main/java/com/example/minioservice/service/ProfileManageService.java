@@ -1,5 +1,6 @@
 package com.example.minioservice.service;
 
+import com.example.minioservice.dto.ObjectContent;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -40,11 +41,11 @@ public interface ProfileManageService {
      * @param fileName      имя файла
      * @param fileExtension расширение файла
      * @param fileBucket    название бакета (папки)
-     * @return файл в виде массива байт
+     * @return содержимое файла для потоковой передачи
      */
-    byte[] getFileByteByParams(@NotNull(message = "fileName null") String fileName,
-                               @NotNull(message = "fileExtension null") String fileExtension,
-                               @NotNull(message = "fileBucket null") String fileBucket);
+    ObjectContent getFileContentByParams(@NotNull(message = "fileName null") String fileName,
+                                         @NotNull(message = "fileExtension null") String fileExtension,
+                                         @NotNull(message = "fileBucket null") String fileBucket);
 
     /**
      * Удаление файла по параметрам.
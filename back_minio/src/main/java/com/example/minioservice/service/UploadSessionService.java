@@ -0,0 +1,38 @@
+package com.example.minioservice.service;
+
+import com.example.minioservice.dto.ObjectKey;
+import com.example.minioservice.dto.UploadTarget;
+import com.example.minioservice.dto.UploadedObject;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Сервис прямой загрузки файлов в MinIO по presigned-ссылкам, минуя сервисы приложения.
+ */
+public interface UploadSessionService {
+
+    /**
+     * Выдает presigned-ссылки для загрузки объектов методом PUT.
+     *
+     * @param keys ключи загружаемых объектов
+     * @return ссылки для загрузки в порядке ключей
+     */
+    List<UploadTarget> createUploadTargets(@NotEmpty(message = "keys empty") List<@Valid ObjectKey> keys);
+
+    /**
+     * Подтверждает загрузку объектов: проверяет их наличие в MinIO и выдает ссылки для скачивания.
+     *
+     * @param keys ключи загруженных объектов
+     * @return сведения о загруженных объектах в порядке ключей, null для незагруженных
+     */
+    List<UploadedObject> completeUploads(@NotEmpty(message = "keys empty") List<@Valid ObjectKey> keys);
+
+    /**
+     * Удаляет объекты незавершенных загрузок: ссылка выдана, но загрузка так и не была подтверждена.
+     *
+     * @return количество удаленных объектов
+     */
+    long cleanupAbandonedUploads();
+}
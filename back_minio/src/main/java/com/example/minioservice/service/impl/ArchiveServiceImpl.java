@@ -0,0 +1,96 @@
+package com.example.minioservice.service.impl;
+
+import com.example.minioservice.dto.ObjectContent;
+import com.example.minioservice.exception.MinioStorageException;
+import com.example.minioservice.service.ArchiveService;
+import com.example.minioservice.util.MinioHelper;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Реализация сервиса выгрузки файлов MinIO ZIP-архивом.
+ * Архив пишется в ответ по мере перебора списка файлов: каждый файл открывается только на время копирования,
+ * поэтому память и число соединений с MinIO не зависят от количества файлов.
+ */
+@Service
+@Validated
+public class ArchiveServiceImpl implements ArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveServiceImpl.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Расширения уже сжатых форматов, которые кладутся в архив без сжатия
+     */
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(
+            "jpg", "jpeg", "png", "gif", "webp", "pdf", "zip", "docx", "xlsx", "pptx", "mp4", "gz");
+
+    private final MinioHelper minioHelper;
+
+    public ArchiveServiceImpl(MinioHelper minioHelper) {
+        this.minioHelper = minioHelper;
+    }
+
+    @Override
+    public void validate(String bucket, String prefix) {
+        if (bucket == null || bucket.isBlank()) {
+            throw new IllegalArgumentException("Не указан бакет архива");
+        }
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("Не указан префикс файлов архива: выгрузка бакета " + bucket + " целиком не допускается");
+        }
+    }
+
+    @Override
+    public void writeArchive(@NotNull(message = "bucket null") String bucket,
+                             @NotNull(message = "prefix null") String prefix,
+                             OutputStream outputStream) throws IOException {
+        long startTime = System.currentTimeMillis();
+        int files = 0;
+        long bytes = 0;
+
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+        for (String objectName : minioHelper.listObjectNames(bucket, prefix)) {
+            ObjectContent content;
+            try {
+                content = minioHelper.openObject(bucket, objectName);
+            } catch (MinioStorageException e) {
+                // Файл удален между получением списка и чтением
+                log.warn("Файл не добавлен в архив: bucket={}, objectName={}", bucket, objectName);
+                continue;
+            }
+
+            try (InputStream inputStream = content.stream()) {
+                // Уровень 0 вместо STORED: для STORED нужен CRC до записи данных, то есть второе чтение файла
+                zip.setLevel(isCompressed(objectName) ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+                zip.putNextEntry(new ZipEntry(objectName));
+                bytes += inputStream.transferTo(zip);
+                zip.closeEntry();
+            }
+            files++;
+        }
+        zip.finish();
+        zip.flush();
+
+        log.info("Архив файлов: bucket={}, prefix={}, файлов {}, {} байт, за {} мс",
+                bucket, prefix, files, bytes, System.currentTimeMillis() - startTime);
+    }
+
+    private static boolean isCompressed(String objectName) {
+        int dotIndex = objectName.lastIndexOf('.');
+        return dotIndex >= 0 && COMPRESSED_EXTENSIONS.contains(objectName.substring(dotIndex + 1).toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.minioservice.service.impl;
+
+import com.example.minioservice.dto.ObjectContent;
+import com.example.minioservice.dto.ObjectKey;
+import com.example.minioservice.service.BatchFetchService;
+import com.example.minioservice.util.MinioHelper;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Реализация сервиса пакетного получения объектов из MinIO.
+ * Объекты открываются параллельно с опережением на несколько позиций, а передаются строго по порядку ключей,
+ * поэтому одновременно удерживается не больше заданного числа соединений с MinIO.
+ * Если клиент передал ETag своей версии объекта и он совпал с текущим, содержимое не передается.
+ */
+@Service
+@Validated
+public class BatchFetchServiceImpl implements BatchFetchService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchFetchServiceImpl.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final long MISSING_LENGTH = -1;
+    private static final long NOT_MODIFIED_LENGTH = -2;
+
+    private final MinioHelper minioHelper;
+    private final Executor batchExecutor;
+
+    @Value("${minio.batch.max-objects:1000}")
+    private int maxObjects;
+
+    @Value("${minio.batch.parallelism:8}")
+    private int parallelism;
+
+    public BatchFetchServiceImpl(MinioHelper minioHelper,
+                                 @Qualifier("batchExecutor") Executor batchExecutor) {
+        this.minioHelper = minioHelper;
+        this.batchExecutor = batchExecutor;
+    }
+
+    @Override
+    public void validate(@NotEmpty(message = "keys empty") List<@Valid ObjectKey> keys) {
+        if (keys.size() > maxObjects) {
+            throw new IllegalArgumentException("Слишком много объектов в пакетном запросе: " + keys.size() + ", допускается " + maxObjects);
+        }
+    }
+
+    @Override
+    public void writeObjects(List<ObjectKey> keys, OutputStream outputStream) throws IOException {
+        long startTime = System.currentTimeMillis();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+        List<CompletableFuture<BatchEntry>> opened = new ArrayList<>(keys.size());
+        int next = 0;
+        try {
+            for (; next < Math.min(parallelism, keys.size()); next++) {
+                opened.add(open(keys.get(next)));
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                BatchEntry entry = opened.get(i).join();
+                opened.set(i, null);
+                if (next < keys.size()) {
+                    opened.add(open(keys.get(next++)));
+                }
+                writeEntry(out, entry);
+            }
+            out.flush();
+            log.info("Пакетная выдача объектов: {} шт. за {} мс", keys.size(), System.currentTimeMillis() - startTime);
+        } finally {
+            // Если передача прервана, закрываем объекты, открытые с опережением
+            for (CompletableFuture<BatchEntry> future : opened) {
+                if (future != null) {
+                    future.thenAccept(this::closeQuietly);
+                }
+            }
+        }
+    }
+
+    /**
+     * Асинхронно открывает объект. Отсутствующий или недоступный объект возвращается как null.
+     * Если ETag клиента совпадает с текущим, объект не открывается.
+     */
+    private CompletableFuture<BatchEntry> open(ObjectKey key) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (key.etag() != null && key.etag().equals(minioHelper.statObject(key.bucket(), key.objectName()).etag())) {
+                    return BatchEntry.NOT_MODIFIED;
+                }
+                return new BatchEntry(minioHelper.openObject(key.bucket(), key.objectName()));
+            } catch (Exception e) {
+                log.warn("Объект не будет передан в пакете: bucket={}, objectName={}", key.bucket(), key.objectName());
+                return null;
+            }
+        }, batchExecutor);
+    }
+
+    /**
+     * Записывает длину, ETag и содержимое объекта. Если размер объекта неизвестен, объект читается в память.
+     */
+    private void writeEntry(DataOutputStream out, BatchEntry entry) throws IOException {
+        if (entry == null) {
+            out.writeLong(MISSING_LENGTH);
+            return;
+        }
+        if (entry.content() == null) {
+            out.writeLong(NOT_MODIFIED_LENGTH);
+            return;
+        }
+
+        ObjectContent content = entry.content();
+        String etag = content.etag() != null ? content.etag() : "";
+        try (InputStream inputStream = content.stream()) {
+            if (content.size() < 0) {
+                byte[] data = inputStream.readAllBytes();
+                out.writeLong(data.length);
+                out.writeUTF(etag);
+                out.write(data);
+                return;
+            }
+
+            out.writeLong(content.size());
+            out.writeUTF(etag);
+            long copied = inputStream.transferTo(out);
+            if (copied != content.size()) {
+                throw new IOException("Размер объекта не совпадает с заявленным: " + copied + " из " + content.size());
+            }
+        }
+    }
+
+    private void closeQuietly(BatchEntry entry) {
+        if (entry == null || entry.content() == null) {
+            return;
+        }
+        try {
+            entry.content().stream().close();
+        } catch (IOException e) {
+            log.debug("Ошибка закрытия объекта MinIO: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Элемент пакета: открытый объект или признак того, что у клиента актуальная версия
+     *
+     * @param content содержимое объекта или null, если объект не изменился
+     */
+    private record BatchEntry(ObjectContent content) {
+        private static final BatchEntry NOT_MODIFIED = new BatchEntry(null);
+    }
+}
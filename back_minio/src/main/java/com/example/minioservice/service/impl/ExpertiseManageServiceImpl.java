@@ -1,16 +1,20 @@
 package com.example.minioservice.service.impl;
 
+import com.example.minioservice.dto.DeleteResult;
+import com.example.minioservice.dto.ObjectContent;
+import com.example.minioservice.dto.ObjectInfo;
+import com.example.minioservice.exception.MinioStorageException;
 import com.example.minioservice.service.ExpertiseManageService;
 import com.example.minioservice.util.FileNameBuilder;
 import com.example.minioservice.util.MinioHelper;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -42,29 +46,51 @@ public class ExpertiseManageServiceImpl implements ExpertiseManageService {
     }
 
     /**
-     * Получить фото по его названию
+     * Получить сведения о фото (ETag, дата изменения, размер)
      *
      * @param pathFile название файла
-     * @return файл фото
+     * @return сведения о фото
      */
     @Override
-    public byte[] getAnswerPhotoFileAsBytes(@NotNull(message = "Не указано название файла") String pathFile) {
-        try (InputStream inputStream = minioHelper.getObject(minioHelper.bucketExpertiseAnswers, pathFile)) {
-            return inputStream.readAllBytes();
-        } catch (IOException e) {
-            throw new RuntimeException("Ошибка при чтении файла из MinIO", e);
-        }
+    public ObjectInfo getAnswerPhotoInfo(@NotNull(message = "Не указано название файла") String pathFile) {
+        return minioHelper.statObject(minioHelper.bucketExpertiseAnswers, pathFile);
+    }
+
+    /**
+     * Получить фото или диапазон байт фото по его названию
+     *
+     * @param pathFile название файла
+     * @param offset   смещение начала диапазона
+     * @param length   длина диапазона или -1 до конца файла
+     * @return содержимое фото для потоковой передачи
+     */
+    @Override
+    public ObjectContent getAnswerPhotoContent(@NotNull(message = "Не указано название файла") String pathFile, long offset, long length) {
+        return minioHelper.openObject(minioHelper.bucketExpertiseAnswers, pathFile, offset, length);
     }
 
     /**
-     * Получить экспертизу по идентификатору профиля
+     * Получить сведения о шаблоне экспертизы (ETag, дата изменения, размер)
      *
      * @param templateName имя файла
-     * @return файл экспертизы
+     * @return сведения о шаблоне
      */
     @Override
-    public InputStreamResource getExpertise(@NotNull(message = "templateName null") String templateName) {
-        return new InputStreamResource(minioHelper.getObject(minioHelper.bucketTemplates, fileNameBuilder.buildTemplateObjectName(templateName)));
+    public ObjectInfo getExpertiseInfo(@NotNull(message = "templateName null") String templateName) {
+        return minioHelper.statObject(minioHelper.bucketTemplates, fileNameBuilder.buildTemplateObjectName(templateName));
+    }
+
+    /**
+     * Получить шаблон экспертизы или диапазон байт шаблона
+     *
+     * @param templateName имя файла
+     * @param offset       смещение начала диапазона
+     * @param length       длина диапазона или -1 до конца файла
+     * @return содержимое шаблона для потоковой передачи
+     */
+    @Override
+    public ObjectContent getExpertiseContent(@NotNull(message = "templateName null") String templateName, long offset, long length) {
+        return minioHelper.openObject(minioHelper.bucketTemplates, fileNameBuilder.buildTemplateObjectName(templateName), offset, length);
     }
 
     /**
@@ -86,7 +112,18 @@ public class ExpertiseManageServiceImpl implements ExpertiseManageService {
      */
     @Override
     public void deleteAnswerPhotos(@NotNull(message = "Не указан идентификатор экспертизы") UUID expertiseId) {
-        minioHelper.deleteByPrefix(minioHelper.bucketExpertiseAnswers, expertiseId.toString());
+        requireDeleted(minioHelper.deleteByPrefix(minioHelper.bucketExpertiseAnswers, expertiseId.toString()));
+    }
+
+    /**
+     * Удаляет фотографии ответов по списку названий файлов
+     *
+     * @param photoNames названия файлов
+     * @return количество удаленных фото и ошибки удаления по каждому фото
+     */
+    @Override
+    public DeleteResult deleteAnswerPhotos(@NotEmpty(message = "Не указаны названия файлов") List<@NotBlank String> photoNames) {
+        return minioHelper.deleteObjects(minioHelper.bucketExpertiseAnswers, photoNames);
     }
 
     /**
@@ -96,7 +133,16 @@ public class ExpertiseManageServiceImpl implements ExpertiseManageService {
      */
     @Override
     public void deleteAnswerPhoto(@NotNull(message = "Не указано название файла") String pathFile) {
-        minioHelper.deleteByPrefix(minioHelper.bucketExpertiseAnswers, pathFile);
+        requireDeleted(minioHelper.deleteByPrefix(minioHelper.bucketExpertiseAnswers, pathFile));
+    }
+
+    /**
+     * Сообщает об ошибке, если часть файлов не удалена
+     */
+    private void requireDeleted(DeleteResult result) {
+        if (!result.errors().isEmpty()) {
+            throw new MinioStorageException("Не удалено файлов: " + result.errors().size() + ", удалено: " + result.deleted());
+        }
     }
 
 }
@@ -1,5 +1,6 @@
 package com.example.minioservice.service.impl;
 
+import com.example.minioservice.dto.ObjectContent;
 import com.example.minioservice.service.ProfileManageService;
 import com.example.minioservice.util.MinioHelper;
 import jakarta.validation.constraints.NotNull;
@@ -9,9 +10,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.io.InputStream;
-
 /**
  * Реализация сервиса для управления файлами профиля.
  */
@@ -43,7 +41,7 @@ public class ManageServiceImpl implements ProfileManageService {
         fileName = fileName + fileExtension; // например: profileId_fileId.docx / profileId.pdf
 
         minioHelper.upload(fileBucket, file, fileName);
-        return minioHelper.getObjectUrl(fileBucket, fileName);
+        return minioHelper.getUploadedObjectUrl(fileBucket, fileName);
     }
 
     /**
@@ -67,17 +65,13 @@ public class ManageServiceImpl implements ProfileManageService {
      * @param fileName      имя файла
      * @param fileExtension расширение файла
      * @param fileBucket    название бакета (папки)
-     * @return массив байт с файлом
+     * @return содержимое файла для потоковой передачи
      */
     @Override
-    public byte[] getFileByteByParams(@NotNull(message = "fileName null") String fileName,
-                                      @NotNull(message = "fileExtension null") String fileExtension,
-                                      @NotNull(message = "fileBucket null") String fileBucket) {
-        try (InputStream inputStream = minioHelper.getObject(fileBucket, fileName + fileExtension)) {
-            return inputStream.readAllBytes();
-        } catch (IOException e) {
-            throw new RuntimeException("Ошибка при чтении файла из MinIO", e);
-        }
+    public ObjectContent getFileContentByParams(@NotNull(message = "fileName null") String fileName,
+                                                @NotNull(message = "fileExtension null") String fileExtension,
+                                                @NotNull(message = "fileBucket null") String fileBucket) {
+        return minioHelper.openObject(fileBucket, fileName + fileExtension);
     }
 
     /**
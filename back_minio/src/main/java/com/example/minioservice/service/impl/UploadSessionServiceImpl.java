@@ -0,0 +1,183 @@
+package com.example.minioservice.service.impl;
+
+import com.example.minioservice.dto.DeleteResult;
+import com.example.minioservice.dto.ObjectInfo;
+import com.example.minioservice.dto.ObjectDeleteError;
+import com.example.minioservice.dto.ObjectKey;
+import com.example.minioservice.dto.UploadTarget;
+import com.example.minioservice.dto.UploadedObject;
+import com.example.minioservice.service.UploadSessionService;
+import com.example.minioservice.util.MinioHelper;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Реализация сервиса прямой загрузки файлов в MinIO.
+ * Подпись ссылок выполняется локально; при подтверждении выполняется только stat объектов.
+ * На каждую выданную ссылку в служебном бакете создается отметка bucket/objectName, которая снимается при подтверждении.
+ * Отметки старше срока незавершенной загрузки периодически удаляются вместе с загруженными по ним объектами.
+ */
+@Service
+@Validated
+public class UploadSessionServiceImpl implements UploadSessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadSessionServiceImpl.class);
+
+    private static final String UUID_PATTERN = "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}";
+
+    /**
+     * Имя объекта прямой загрузки: идентификатор владельца_параметр_UUID файла.расширение
+     */
+    private static final Pattern OBJECT_NAME_PATTERN =
+            Pattern.compile("^" + UUID_PATTERN + "_[^/\\\\]+_" + UUID_PATTERN + "\\.[A-Za-z0-9]{1,10}$");
+
+    private final MinioHelper minioHelper;
+
+    @Value("${minio.upload.url-expiry-minutes:15}")
+    private int urlExpiryMinutes;
+
+    @Value("${minio.upload.max-objects:100}")
+    private int maxObjects;
+
+    @Value("${minio.upload.pending-bucket:upload-pending}")
+    private String pendingBucket;
+
+    @Value("${minio.upload.abandoned-after-minutes:60}")
+    private int abandonedAfterMinutes;
+
+    @Value("${minio.upload.allowed-buckets:${minio.buckets.expertise-answers},premise-photos,defect-photos,defect-schema-pdf,"
+            + "cadastre-images,open-source-images,district-map-images,pzz-screenshots}")
+    private Set<String> allowedBuckets;
+
+    private volatile boolean pendingBucketReady;
+
+    public UploadSessionServiceImpl(MinioHelper minioHelper) {
+        this.minioHelper = minioHelper;
+    }
+
+    @Override
+    public List<UploadTarget> createUploadTargets(@NotEmpty(message = "keys empty") List<@Valid ObjectKey> keys) {
+        checkKeys(keys);
+        ensurePendingBucket();
+        Instant expiresAt = Instant.now().plus(Duration.ofMinutes(urlExpiryMinutes));
+        List<UploadTarget> targets = new ArrayList<>(keys.size());
+        for (ObjectKey key : keys) {
+            minioHelper.putEmpty(pendingBucket, pendingMarker(key));
+            String uploadUrl = minioHelper.getUploadUrl(key.bucket(), key.objectName(), urlExpiryMinutes);
+            targets.add(new UploadTarget(key.bucket(), key.objectName(), uploadUrl, expiresAt));
+        }
+        log.info("Выданы ссылки для прямой загрузки: {} шт., действуют до {}", targets.size(), expiresAt);
+        return targets;
+    }
+
+    @Override
+    public List<UploadedObject> completeUploads(@NotEmpty(message = "keys empty") List<@Valid ObjectKey> keys) {
+        checkKeys(keys);
+        List<UploadedObject> uploaded = new ArrayList<>(keys.size());
+        List<String> completedMarkers = new ArrayList<>(keys.size());
+        for (ObjectKey key : keys) {
+            ObjectInfo info = minioHelper.findObject(key.bucket(), key.objectName());
+            if (info == null) {
+                log.warn("Объект не загружен: bucket={}, objectName={}", key.bucket(), key.objectName());
+                uploaded.add(null);
+                continue;
+            }
+            String url = minioHelper.getUploadedObjectUrl(key.bucket(), key.objectName());
+            uploaded.add(new UploadedObject(key.bucket(), key.objectName(), info.etag(), info.size(), url));
+            completedMarkers.add(pendingMarker(key));
+        }
+        if (!completedMarkers.isEmpty()) {
+            minioHelper.deleteObjects(pendingBucket, completedMarkers);
+        }
+        return uploaded;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${minio.upload.cleanup-delay-ms:600000}",
+            initialDelayString = "${minio.upload.cleanup-initial-delay-ms:60000}")
+    public long cleanupAbandonedUploads() {
+        ensurePendingBucket();
+        // Ссылки действуют urlExpiryMinutes, поэтому после abandonedAfterMinutes загрузка по отметке уже невозможна
+        Instant before = Instant.now().minus(Duration.ofMinutes(Math.max(abandonedAfterMinutes, urlExpiryMinutes)));
+        List<String> markers = minioHelper.listObjectsModifiedBefore(pendingBucket, before);
+        if (markers.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<String>> objectsByBucket = new LinkedHashMap<>();
+        for (String marker : markers) {
+            int separator = marker.indexOf('/');
+            if (separator > 0) {
+                objectsByBucket.computeIfAbsent(marker.substring(0, separator), bucket -> new ArrayList<>())
+                        .add(marker.substring(separator + 1));
+            }
+        }
+
+        long deleted = 0;
+        List<String> cleanedMarkers = new ArrayList<>(markers.size());
+        for (Map.Entry<String, List<String>> entry : objectsByBucket.entrySet()) {
+            // Удаление отсутствующих объектов не считается ошибкой, поэтому отметки без загруженных файлов тоже снимаются
+            DeleteResult result = minioHelper.deleteObjects(entry.getKey(), entry.getValue());
+            deleted += result.deleted();
+            Set<String> failed = result.errors().stream().map(ObjectDeleteError::objectName).collect(Collectors.toSet());
+            for (String objectName : entry.getValue()) {
+                if (!failed.contains(objectName)) {
+                    cleanedMarkers.add(entry.getKey() + "/" + objectName);
+                }
+            }
+        }
+        markers.stream().filter(marker -> marker.indexOf('/') <= 0).forEach(cleanedMarkers::add);
+        minioHelper.deleteObjects(pendingBucket, cleanedMarkers);
+
+        log.info("Очистка незавершенных загрузок: отметок {}, удалено объектов {}", markers.size(), deleted);
+        return deleted;
+    }
+
+    /**
+     * Имя отметки незавершенной загрузки в служебном бакете: bucket/objectName
+     */
+    private static String pendingMarker(ObjectKey key) {
+        return key.bucket() + "/" + key.objectName();
+    }
+
+    private void ensurePendingBucket() {
+        if (!pendingBucketReady) {
+            minioHelper.ensureBucket(pendingBucket);
+            pendingBucketReady = true;
+        }
+    }
+
+    /**
+     * Проверяет размер запроса и ключи: прямая загрузка разрешена только в бакеты файлов ответов и чек-листов
+     * и только для имен, которые формирует сервис экспертиз
+     */
+    private void checkKeys(List<ObjectKey> keys) {
+        if (keys.size() > maxObjects) {
+            throw new IllegalArgumentException("Слишком много объектов в запросе: " + keys.size() + ", допускается " + maxObjects);
+        }
+        for (ObjectKey key : keys) {
+            if (!allowedBuckets.contains(key.bucket())) {
+                throw new IllegalArgumentException("Прямая загрузка в бакет " + key.bucket() + " не разрешена");
+            }
+            if (!OBJECT_NAME_PATTERN.matcher(key.objectName()).matches()) {
+                throw new IllegalArgumentException("Некорректное имя объекта для прямой загрузки: " + key.objectName());
+            }
+        }
+    }
+}
@@ -1,19 +1,32 @@
 package com.example.minioservice.util;
 
+import com.example.minioservice.dto.DeleteResult;
+import com.example.minioservice.dto.ObjectContent;
+import com.example.minioservice.dto.ObjectDeleteError;
+import com.example.minioservice.dto.ObjectInfo;
 import com.example.minioservice.exception.MinioStorageException;
 import io.minio.*;
 import io.minio.errors.ErrorResponseException;
 import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
 import io.minio.messages.Item;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -23,7 +36,26 @@ import java.util.concurrent.TimeUnit;
 public class MinioHelper {
 
     private static final Logger log = LoggerFactory.getLogger(MinioHelper.class);
+
+    /**
+     * Срок действия presigned-ссылки
+     */
+    private static final long PRESIGNED_URL_EXPIRY_DAYS = 3;
+
+    /**
+     * Максимальное количество объектов в одном запросе removeObjects (ограничение S3 API)
+     */
+    private static final int MAX_DELETE_BATCH_SIZE = 1000;
+
     private final MinioClient minioClient;
+    private final PresignedUrlCache presignedUrlCache;
+    private final Executor batchExecutor;
+
+    @Value("${minio.delete.batch-size:1000}")
+    private int deleteBatchSize;
+
+    @Value("${minio.delete.parallelism:4}")
+    private int deleteParallelism;
 
     @Value("${minio.buckets.avatars}")
     public String bucketAvatars;
@@ -46,10 +78,16 @@ public class MinioHelper {
     /**
      * Конструктор класса MinioHelper.
      *
-     * @param minioClient клиент MinIO
+     * @param minioClient       клиент MinIO
+     * @param presignedUrlCache кэш presigned-ссылок
+     * @param batchExecutor     пул для параллельных пакетных операций
      */
-    public MinioHelper(MinioClient minioClient) {
+    public MinioHelper(MinioClient minioClient,
+                       PresignedUrlCache presignedUrlCache,
+                       @Qualifier("batchExecutor") Executor batchExecutor) {
         this.minioClient = minioClient;
+        this.presignedUrlCache = presignedUrlCache;
+        this.batchExecutor = batchExecutor;
     }
 
     /**
@@ -76,6 +114,44 @@ public class MinioHelper {
         }
     }
 
+    /**
+     * Создает пустой объект в MinIO (служебная отметка).
+     *
+     * @param bucket     имя бакета
+     * @param objectName имя объекта в MinIO
+     */
+    public void putEmpty(String bucket, String objectName) {
+        try {
+            minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(bucket)
+                            .object(objectName)
+                            .stream(new ByteArrayInputStream(new byte[0]), 0, -1)
+                            .build()
+            );
+        } catch (Exception e) {
+            log.error("Ошибка создания объекта в MinIO: bucket={}, objectName={}", bucket, objectName, e);
+            throw new MinioStorageException("Ошибка создания объекта в MinIO", e);
+        }
+    }
+
+    /**
+     * Создает бакет, если его еще нет.
+     *
+     * @param bucket имя бакета
+     */
+    public void ensureBucket(String bucket) {
+        try {
+            if (!minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucket).build())) {
+                minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucket).build());
+                log.info("Создан бакет {}", bucket);
+            }
+        } catch (Exception e) {
+            log.error("Ошибка создания бакета в MinIO: bucket={}", bucket, e);
+            throw new MinioStorageException("Ошибка создания бакета в MinIO", e);
+        }
+    }
+
     /**
      * Получает файл из MinIO.
      *
@@ -98,31 +174,138 @@ public class MinioHelper {
     }
 
     /**
-     * Получает ссылку для скачивания файла из MinIO.
+     * Открывает объект MinIO для потоковой передачи: размер, тип содержимого и ETag берутся из заголовков того же ответа.
      *
      * @param bucket     имя бакета
      * @param objectName имя объекта в MinIO
-     * @return ссылка для скачивания файла
+     * @return содержимое объекта
      */
-    public String getObjectUrl(String bucket, String objectName) {
+    public ObjectContent openObject(String bucket, String objectName) {
+        return openObject(bucket, objectName, 0, -1);
+    }
+
+    /**
+     * Открывает диапазон байт объекта MinIO для потоковой передачи.
+     *
+     * @param bucket     имя бакета
+     * @param objectName имя объекта в MinIO
+     * @param offset     смещение начала диапазона
+     * @param length     длина диапазона или -1 до конца объекта
+     * @return содержимое диапазона
+     */
+    public ObjectContent openObject(String bucket, String objectName, long offset, long length) {
         try {
-            // Проверяем, существует ли объект в MinIO
-            minioClient.statObject(
+            GetObjectArgs.Builder args = GetObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(objectName);
+            if (offset > 0) {
+                args.offset(offset);
+            }
+            if (length >= 0) {
+                args.length(length);
+            }
+            GetObjectResponse response = minioClient.getObject(args.build());
+            String contentLength = response.headers().get("Content-Length");
+            return new ObjectContent(response,
+                    contentLength != null ? Long.parseLong(contentLength) : -1,
+                    response.headers().get("Content-Type"),
+                    unquote(response.headers().get("ETag")));
+        } catch (Exception e) {
+            log.error("Ошибка получения файла из MinIO: bucket={}, objectName={}", bucket, objectName, e);
+            throw new MinioStorageException("Ошибка получения файла из MinIO", e);
+        }
+    }
+
+    /**
+     * Получает сведения об объекте MinIO: ETag, дату изменения, размер и тип содержимого.
+     *
+     * @param bucket     имя бакета
+     * @param objectName имя объекта в MinIO
+     * @return сведения об объекте
+     */
+    public ObjectInfo statObject(String bucket, String objectName) {
+        try {
+            StatObjectResponse stat = minioClient.statObject(
                     StatObjectArgs.builder()
                             .bucket(bucket)
                             .object(objectName)
                             .build()
             );
+            return new ObjectInfo(unquote(stat.etag()), stat.lastModified().toInstant(), stat.size(), stat.contentType());
+        } catch (Exception e) {
+            log.error("Ошибка получения сведений о файле из MinIO: bucket={}, objectName={}", bucket, objectName, e);
+            throw new MinioStorageException("Ошибка получения сведений о файле из MinIO", e);
+        }
+    }
 
-            // Если объект есть, генерируем ссылку
+    /**
+     * Получает сведения об объекте MinIO, если он существует.
+     *
+     * @param bucket     имя бакета
+     * @param objectName имя объекта в MinIO
+     * @return сведения об объекте или null, если объекта нет
+     */
+    public ObjectInfo findObject(String bucket, String objectName) {
+        try {
+            return statObject(bucket, objectName);
+        } catch (MinioStorageException e) {
+            if (e.getCause() instanceof ErrorResponseException errorResponse
+                    && "NoSuchKey".equals(errorResponse.errorResponse().code())) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Получает presigned-ссылку для загрузки файла в MinIO методом PUT напрямую от клиента.
+     *
+     * @param bucket        имя бакета
+     * @param objectName    имя объекта в MinIO
+     * @param expiryMinutes срок действия ссылки, минуты
+     * @return ссылка для загрузки файла
+     */
+    public String getUploadUrl(String bucket, String objectName, int expiryMinutes) {
+        try {
             return minioClient.getPresignedObjectUrl(
                     GetPresignedObjectUrlArgs.builder()
-                            .method(Method.GET)
+                            .method(Method.PUT)
                             .bucket(bucket)
                             .object(objectName)
-                            .expiry(3, TimeUnit.DAYS) // Срок действия ссылки 1 час
+                            .expiry(expiryMinutes, TimeUnit.MINUTES)
                             .build()
             );
+        } catch (Exception e) {
+            log.error("Ошибка генерации presigned URL для загрузки: bucket={}, objectName={}", bucket, objectName, e);
+            throw new MinioStorageException("Ошибка генерации presigned URL для загрузки", e);
+        }
+    }
+
+    /**
+     * Получает ссылку для скачивания файла из MinIO.
+     * Ранее выданная ссылка переиспользуется без обращения к MinIO, пока срок ее действия не подходит к концу.
+     *
+     * @param bucket     имя бакета
+     * @param objectName имя объекта в MinIO
+     * @return ссылка для скачивания файла
+     */
+    public String getObjectUrl(String bucket, String objectName) {
+        String cached = presignedUrlCache.get(bucket, objectName);
+        if (cached != null) {
+            return cached;
+        }
+
+        try {
+            // Проверяем, существует ли объект в MinIO
+            minioClient.statObject(
+                    StatObjectArgs.builder()
+                            .bucket(bucket)
+                            .object(objectName)
+                            .build()
+            );
+
+            // Если объект есть, генерируем ссылку
+            return presign(bucket, objectName);
         } catch (ErrorResponseException e) {
             if (e.errorResponse().code().equals("NoSuchKey")) {
                 log.error("Файл не найден в MinIO: bucket={}, objectName={}", bucket, objectName);
@@ -136,6 +319,39 @@ public class MinioHelper {
     }
 
 
+    /**
+     * Получает ссылку для скачивания только что загруженного файла, без проверки его существования в MinIO.
+     *
+     * @param bucket     имя бакета
+     * @param objectName имя объекта в MinIO
+     * @return ссылка для скачивания файла
+     */
+    public String getUploadedObjectUrl(String bucket, String objectName) {
+        try {
+            return presign(bucket, objectName);
+        } catch (Exception e) {
+            log.error("Ошибка генерации presigned URL: bucket={}, objectName={}", bucket, objectName, e);
+            throw new MinioStorageException("Ошибка генерации presigned URL", e);
+        }
+    }
+
+    /**
+     * Генерирует presigned-ссылку и сохраняет ее в кэш
+     */
+    private String presign(String bucket, String objectName) throws Exception {
+        long expiresAt = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(PRESIGNED_URL_EXPIRY_DAYS);
+        String url = minioClient.getPresignedObjectUrl(
+                GetPresignedObjectUrlArgs.builder()
+                        .method(Method.GET)
+                        .bucket(bucket)
+                        .object(objectName)
+                        .expiry((int) PRESIGNED_URL_EXPIRY_DAYS, TimeUnit.DAYS)
+                        .build()
+        );
+        presignedUrlCache.put(bucket, objectName, url, expiresAt);
+        return url;
+    }
+
     /**
      * Удаляет файл из MinIO.
      *
@@ -143,6 +359,7 @@ public class MinioHelper {
      * @param objectName имя объекта в MinIO
      */
     public void delete(String bucket, String objectName) {
+        presignedUrlCache.invalidate(bucket, objectName);
         try {
             minioClient.removeObject(
                     RemoveObjectArgs.builder()
@@ -167,56 +384,73 @@ public class MinioHelper {
      */
     public List<String> listObjects(String bucket, String prefix) {
         List<String> objectNames = new ArrayList<>();
-        try {
-            Iterable<Result<Item>> results = minioClient.listObjects(
-                    ListObjectsArgs.builder()
-                            .bucket(bucket)
-                            .prefix(prefix)
-                            .build()
-            );
-            for (Result<Item> result : results) {
-                objectNames.add(result.get().objectName());
-            }
-        } catch (Exception e) {
-            log.error("Ошибка получения списка файлов из MinIO: bucket={}", bucket, e);
-            throw new MinioStorageException("Ошибка получения списка файлов из MinIO", e);
+        for (String objectName : listObjectNames(bucket, prefix)) {
+            objectNames.add(objectName);
         }
         return objectNames;
     }
 
     /**
-     * Получает файлы из MinIO по заданному префиксу.
+     * Имена файлов с заданным префиксом. Список запрашивается у MinIO постранично по мере перебора.
      *
      * @param bucket имя бакета
      * @param prefix префикс для фильтрации файлов
-     * @return список потоков данных файлов
-     * @throws MinioStorageException если произошла ошибка при получении файлов
+     * @return имена файлов
      */
-    public List<InputStream> getObjectsByPrefix(String bucket, String prefix) {
-        List<InputStream> objectStreams = new ArrayList<>();
+    public Iterable<String> listObjectNames(String bucket, String prefix) {
+        Iterable<Result<Item>> results = minioClient.listObjects(
+                ListObjectsArgs.builder()
+                        .bucket(bucket)
+                        .prefix(prefix)
+                        .build()
+        );
+        return () -> new Iterator<>() {
+            private final Iterator<Result<Item>> iterator = results.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public String next() {
+                try {
+                    return iterator.next().get().objectName();
+                } catch (Exception e) {
+                    log.error("Ошибка получения списка файлов из MinIO: bucket={}", bucket, e);
+                    throw new MinioStorageException("Ошибка получения списка файлов из MinIO", e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Имена файлов бакета, измененных раньше заданного момента.
+     *
+     * @param bucket имя бакета
+     * @param before граница времени изменения
+     * @return имена файлов
+     */
+    public List<String> listObjectsModifiedBefore(String bucket, Instant before) {
+        List<String> objectNames = new ArrayList<>();
+        Iterable<Result<Item>> results = minioClient.listObjects(
+                ListObjectsArgs.builder()
+                        .bucket(bucket)
+                        .recursive(true)
+                        .build()
+        );
         try {
-            Iterable<Result<Item>> results = minioClient.listObjects(
-                    ListObjectsArgs.builder()
-                            .bucket(bucket)
-                            .prefix(prefix)
-                            .build()
-            );
             for (Result<Item> result : results) {
-                String objectName = result.get().objectName();
-                InputStream inputStream = minioClient.getObject(
-                        GetObjectArgs.builder()
-                                .bucket(bucket)
-                                .object(objectName)
-                                .build()
-                );
-                objectStreams.add(inputStream);
-                log.info("Файл добавлен в результат: bucket={}, objectName={}", bucket, objectName);
+                Item item = result.get();
+                if (!item.isDir() && item.lastModified().toInstant().isBefore(before)) {
+                    objectNames.add(item.objectName());
+                }
             }
-            return objectStreams;
         } catch (Exception e) {
-            log.error("Ошибка получения файлов по префиксу из MinIO: bucket={}, prefix={}", bucket, prefix, e);
-            throw new MinioStorageException("Ошибка получения файлов по префиксу из MinIO", e);
+            log.error("Ошибка получения списка файлов из MinIO: bucket={}", bucket, e);
+            throw new MinioStorageException("Ошибка получения списка файлов из MinIO", e);
         }
+        return objectNames;
     }
 
     /**
@@ -224,20 +458,117 @@ public class MinioHelper {
      *
      * @param bucket имя бакета
      * @param prefix префикс, по которому фильтруются файлы для удаления (например, "profileId_")
+     * @return количество удаленных объектов и ошибки удаления
      */
-    public void deleteByPrefix(String bucket, String prefix) {
-        // Получаем список объектов с заданным префиксом
-        List<String> objectsToDelete = listObjects(bucket, prefix);
+    public DeleteResult deleteByPrefix(String bucket, String prefix) {
+        // Объекты удаляются пакетами по мере получения списка, без сбора всего списка в память
+        DeleteResult result = deleteObjects(bucket, listObjectNames(bucket, prefix));
 
-        if (objectsToDelete.isEmpty()) {
+        if (result.deleted() == 0 && result.errors().isEmpty()) {
             log.info("Файлы с префиксом '{}' в бакете '{}' не найдены", prefix, bucket);
-            return;
         }
+        return result;
+    }
+
+    /**
+     * Удаляет файлы из MinIO пакетными запросами removeObjects.
+     * Пакеты до 1000 объектов отправляются параллельно, ошибки собираются по каждому объекту.
+     *
+     * @param bucket      имя бакета
+     * @param objectNames имена объектов в MinIO
+     * @return количество удаленных объектов и ошибки удаления
+     */
+    public DeleteResult deleteObjects(String bucket, Iterable<String> objectNames) {
+        long startTime = System.currentTimeMillis();
+        int batchSize = Math.min(deleteBatchSize, MAX_DELETE_BATCH_SIZE);
+        Semaphore slots = new Semaphore(deleteParallelism);
+        List<CompletableFuture<DeleteResult>> batches = new ArrayList<>();
+
+        List<String> batch = new ArrayList<>(batchSize);
+        for (String objectName : objectNames) {
+            batch.add(objectName);
+            if (batch.size() == batchSize) {
+                batches.add(submitDeleteBatch(bucket, batch, slots));
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(submitDeleteBatch(bucket, batch, slots));
+        }
+
+        DeleteResult result = DeleteResult.empty();
+        for (CompletableFuture<DeleteResult> future : batches) {
+            result = result.merge(future.join());
+        }
+
+        for (ObjectDeleteError error : result.errors()) {
+            log.warn("Файл не удален из MinIO: bucket={}, objectName={}, code={}, message={}",
+                    bucket, error.objectName(), error.code(), error.message());
+        }
+        if (!batches.isEmpty()) {
+            log.info("Пакетное удаление из MinIO: bucket={}, удалено {}, ошибок {}, пакетов {}, за {} мс",
+                    bucket, result.deleted(), result.errors().size(), batches.size(), System.currentTimeMillis() - startTime);
+        }
+        return result;
+    }
 
-        // Удаляем каждый объект из списка
-        for (String objectName : objectsToDelete) {
-            delete(bucket, objectName);
+    /**
+     * Отправляет пакет на удаление, когда освобождается один из параллельных слотов
+     */
+    private CompletableFuture<DeleteResult> submitDeleteBatch(String bucket, List<String> batch, Semaphore slots) {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MinioStorageException("Удаление файлов из MinIO прервано", e);
+        }
+        return CompletableFuture.supplyAsync(() -> removeBatch(bucket, batch), batchExecutor)
+                .whenComplete((result, error) -> slots.release());
+    }
+
+    /**
+     * Удаляет пакет объектов одним запросом. Если запрос не выполнен целиком, ошибка записывается для каждого объекта пакета.
+     */
+    private DeleteResult removeBatch(String bucket, List<String> batch) {
+        List<DeleteObject> objects = new ArrayList<>(batch.size());
+        for (String objectName : batch) {
+            presignedUrlCache.invalidate(bucket, objectName);
+            objects.add(new DeleteObject(objectName));
+        }
+
+        List<ObjectDeleteError> errors = new ArrayList<>();
+        try {
+            // Запрос выполняется при переборе результата, который содержит только ошибки
+            Iterable<Result<DeleteError>> results = minioClient.removeObjects(
+                    RemoveObjectsArgs.builder()
+                            .bucket(bucket)
+                            .objects(objects)
+                            .build()
+            );
+            for (Result<DeleteError> result : results) {
+                DeleteError error = result.get();
+                errors.add(new ObjectDeleteError(error.objectName(), error.code(), error.message()));
+            }
+        } catch (Exception e) {
+            log.error("Ошибка пакетного удаления файлов из MinIO: bucket={}, объектов {}", bucket, batch.size(), e);
+            return new DeleteResult(0, batch.stream()
+                    .map(objectName -> new ObjectDeleteError(objectName, "BatchFailed", e.getMessage()))
+                    .toList());
+        }
+        return new DeleteResult(batch.size() - errors.size(), errors);
+    }
+
+    /**
+     * Убирает кавычки вокруг ETag
+     *
+     * @param etag ETag в кавычках или без
+     * @return ETag без кавычек или null
+     */
+    private static String unquote(String etag) {
+        if (etag != null && etag.length() >= 2 && etag.startsWith("\"") && etag.endsWith("\"")) {
+            return etag.substring(1, etag.length() - 1);
         }
+        return etag;
     }
 
 }
@@ -0,0 +1,106 @@
+package com.example.minioservice.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш presigned-ссылок на объекты MinIO.
+ * <p>
+ * Ссылка переиспользуется, пока до окончания срока ее подписи остается не меньше заданного запаса,
+ * поэтому клиент всегда получает ссылку, действующую достаточно долго. При удалении объекта ссылка удаляется из кэша.
+ * Размер кэша ограничен: при переполнении вытесняется одна давно не запрошенная ссылка (LRU).
+ */
+@Component
+public class PresignedUrlCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PresignedUrlCache.class);
+
+    private final LinkedHashMap<String, CachedUrl> urls = new LinkedHashMap<>(16, 0.75f, true);
+    private final long minRemainingMs;
+    private final int maxEntries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public PresignedUrlCache(@Value("${minio.presigned.min-remaining-ms:86400000}") long minRemainingMs,
+                             @Value("${minio.presigned.cache-max-entries:50000}") int maxEntries) {
+        this.minRemainingMs = minRemainingMs;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Получить закэшированную ссылку
+     *
+     * @param bucket     имя бакета
+     * @param objectName имя объекта в MinIO
+     * @return ссылка или null, если ее нет или она скоро истечет
+     */
+    public String get(String bucket, String objectName) {
+        String key = key(bucket, objectName);
+        int size;
+        synchronized (this) {
+            CachedUrl cached = urls.get(key);
+            if (cached != null && cached.expiresAt() - System.currentTimeMillis() > minRemainingMs) {
+                hits.incrementAndGet();
+                return cached.url();
+            }
+            if (cached != null) {
+                urls.remove(key);
+            }
+            size = urls.size();
+        }
+        misses.incrementAndGet();
+        if (log.isDebugEnabled()) {
+            log.debug("Кэш presigned-ссылок: попаданий {}, промахов {}, вытеснений {}, записей {}",
+                    hits.get(), misses.get(), evictions.get(), size);
+        }
+        return null;
+    }
+
+    /**
+     * Сохранить ссылку
+     *
+     * @param bucket     имя бакета
+     * @param objectName имя объекта в MinIO
+     * @param url        presigned-ссылка
+     * @param expiresAt  время окончания срока подписи, мс
+     */
+    public synchronized void put(String bucket, String objectName, String url, long expiresAt) {
+        urls.put(key(bucket, objectName), new CachedUrl(url, expiresAt));
+        if (urls.size() > maxEntries) {
+            // Порядок доступа: первой идет ссылка, которую дольше всех не запрашивали
+            String eldest = urls.keySet().iterator().next();
+            urls.remove(eldest);
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Удалить ссылку на объект
+     *
+     * @param bucket     имя бакета
+     * @param objectName имя объекта в MinIO
+     */
+    public synchronized void invalidate(String bucket, String objectName) {
+        urls.remove(key(bucket, objectName));
+    }
+
+    private static String key(String bucket, String objectName) {
+        return bucket + "/" + objectName;
+    }
+
+    /**
+     * Закэшированная ссылка
+     *
+     * @param url       presigned-ссылка
+     * @param expiresAt время окончания срока подписи, мс
+     */
+    private record CachedUrl(String url, long expiresAt) {
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.minioservice.controller;
+
+import com.example.minioservice.dto.ObjectContent;
+import com.example.minioservice.dto.ObjectInfo;
+import com.example.minioservice.service.ExpertiseManageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ExpertiseManageControllerTest {
+
+    private static final String TEMPLATE = "template";
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+    private static final Instant LAST_MODIFIED = Instant.parse("2025-03-01T10:15:30Z");
+
+    private ExpertiseManageService expertiseManageService;
+    private ExpertiseManageController controller;
+
+    @BeforeEach
+    void setUp() {
+        expertiseManageService = mock(ExpertiseManageService.class);
+        when(expertiseManageService.getExpertiseInfo(TEMPLATE))
+                .thenReturn(new ObjectInfo("abc", LAST_MODIFIED, CONTENT.length, null));
+        when(expertiseManageService.getExpertiseContent(eq(TEMPLATE), anyLong(), anyLong())).thenAnswer(invocation -> {
+            long offset = invocation.getArgument(1);
+            long length = invocation.getArgument(2);
+            int end = length < 0 ? CONTENT.length : (int) (offset + length);
+            byte[] part = Arrays.copyOfRange(CONTENT, (int) offset, end);
+            return new ObjectContent(new ByteArrayInputStream(part), part.length, null, "abc");
+        });
+        controller = new ExpertiseManageController(expertiseManageService);
+    }
+
+    @Test
+    void fullObject() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = controller.getExpertiseFile(TEMPLATE, new HttpHeaders());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(10, response.getHeaders().getContentLength());
+        assertEquals("0123456789", body(response));
+    }
+
+    @Test
+    void ifNoneMatch_sameEtag_notModified() {
+        // given
+        HttpHeaders request = new HttpHeaders();
+        request.setIfNoneMatch("\"abc\"");
+
+        // when
+        ResponseEntity<StreamingResponseBody> response = controller.getExpertiseFile(TEMPLATE, request);
+
+        // then
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
+        verify(expertiseManageService, never()).getExpertiseContent(eq(TEMPLATE), anyLong(), anyLong());
+    }
+
+    @Test
+    void ifNoneMatch_weakOrWildcard_notModified() {
+        HttpHeaders weak = new HttpHeaders();
+        weak.setIfNoneMatch("W/\"abc\"");
+        HttpHeaders wildcard = new HttpHeaders();
+        wildcard.setIfNoneMatch("*");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.getExpertiseFile(TEMPLATE, weak).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.getExpertiseFile(TEMPLATE, wildcard).getStatusCode());
+    }
+
+    @Test
+    void ifNoneMatch_otherEtag_ignoresIfModifiedSince() {
+        // given
+        HttpHeaders request = new HttpHeaders();
+        request.setIfNoneMatch("\"old\"");
+        request.setIfModifiedSince(LAST_MODIFIED.plusSeconds(60));
+
+        // when
+        ResponseEntity<StreamingResponseBody> response = controller.getExpertiseFile(TEMPLATE, request);
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void ifModifiedSince_notModified() {
+        // given
+        HttpHeaders request = new HttpHeaders();
+        request.setIfModifiedSince(LAST_MODIFIED);
+
+        // when / then
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.getExpertiseFile(TEMPLATE, request).getStatusCode());
+
+        request.setIfModifiedSince(LAST_MODIFIED.minusSeconds(1));
+        assertEquals(HttpStatus.OK, controller.getExpertiseFile(TEMPLATE, request).getStatusCode());
+    }
+
+    @Test
+    void range_partialContent() throws IOException {
+        // given
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=2-4");
+
+        // when
+        ResponseEntity<StreamingResponseBody> response = controller.getExpertiseFile(TEMPLATE, request);
+
+        // then
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes 2-4/10", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(3, response.getHeaders().getContentLength());
+        assertEquals("234", body(response));
+        verify(expertiseManageService).getExpertiseContent(TEMPLATE, 2, 3);
+    }
+
+    @Test
+    void range_suffixAndOpenEnded() throws IOException {
+        HttpHeaders suffix = new HttpHeaders();
+        suffix.set(HttpHeaders.RANGE, "bytes=-3");
+        HttpHeaders openEnded = new HttpHeaders();
+        openEnded.set(HttpHeaders.RANGE, "bytes=8-");
+
+        ResponseEntity<StreamingResponseBody> suffixResponse = controller.getExpertiseFile(TEMPLATE, suffix);
+        ResponseEntity<StreamingResponseBody> openEndedResponse = controller.getExpertiseFile(TEMPLATE, openEnded);
+
+        assertEquals("bytes 7-9/10", suffixResponse.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals("789", body(suffixResponse));
+        assertEquals("bytes 8-9/10", openEndedResponse.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals("89", body(openEndedResponse));
+    }
+
+    @Test
+    void range_notSatisfiable() {
+        // given
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=10-20");
+
+        // when
+        ResponseEntity<StreamingResponseBody> response = controller.getExpertiseFile(TEMPLATE, request);
+
+        // then
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */10", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        verify(expertiseManageService, never()).getExpertiseContent(eq(TEMPLATE), anyLong(), anyLong());
+    }
+
+    @Test
+    void range_multipleOrMalformed_fullObject() {
+        HttpHeaders multiple = new HttpHeaders();
+        multiple.set(HttpHeaders.RANGE, "bytes=0-1,4-5");
+        HttpHeaders malformed = new HttpHeaders();
+        malformed.set(HttpHeaders.RANGE, "items=0-1");
+
+        assertEquals(HttpStatus.OK, controller.getExpertiseFile(TEMPLATE, multiple).getStatusCode());
+        assertEquals(HttpStatus.OK, controller.getExpertiseFile(TEMPLATE, malformed).getStatusCode());
+    }
+
+    @Test
+    void ifRange_matchingEtag_partialContent() {
+        // given
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=0-1");
+        request.set(HttpHeaders.IF_RANGE, "\"abc\"");
+
+        // when / then
+        assertEquals(HttpStatus.PARTIAL_CONTENT, controller.getExpertiseFile(TEMPLATE, request).getStatusCode());
+    }
+
+    @Test
+    void ifRange_staleEtag_fullObject() throws IOException {
+        // given
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=0-1");
+        request.set(HttpHeaders.IF_RANGE, "\"old\"");
+
+        // when
+        ResponseEntity<StreamingResponseBody> response = controller.getExpertiseFile(TEMPLATE, request);
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("0123456789", body(response));
+    }
+
+    @Test
+    void ifRange_date() {
+        HttpHeaders same = new HttpHeaders();
+        same.set(HttpHeaders.RANGE, "bytes=0-1");
+        same.setDate(HttpHeaders.IF_RANGE, LAST_MODIFIED.toEpochMilli());
+        HttpHeaders older = new HttpHeaders();
+        older.set(HttpHeaders.RANGE, "bytes=0-1");
+        older.setDate(HttpHeaders.IF_RANGE, LAST_MODIFIED.minusSeconds(60).toEpochMilli());
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, controller.getExpertiseFile(TEMPLATE, same).getStatusCode());
+        assertEquals(HttpStatus.OK, controller.getExpertiseFile(TEMPLATE, older).getStatusCode());
+    }
+
+    private static String body(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.minioservice.service.impl;
+
+import com.example.minioservice.dto.ObjectContent;
+import com.example.minioservice.dto.ObjectInfo;
+import com.example.minioservice.dto.ObjectKey;
+import com.example.minioservice.exception.MinioStorageException;
+import com.example.minioservice.util.MinioHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BatchFetchServiceImplTest {
+
+    private MinioHelper minioHelper;
+    private BatchFetchServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        minioHelper = mock(MinioHelper.class);
+        service = new BatchFetchServiceImpl(minioHelper, Runnable::run);
+        ReflectionTestUtils.setField(service, "maxObjects", 10);
+        ReflectionTestUtils.setField(service, "parallelism", 2);
+    }
+
+    @Test
+    void writeObjects_writesEntriesInKeyOrder() throws IOException {
+        // given
+        when(minioHelper.openObject("files", "a.txt")).thenReturn(content("abc", 3, "e1"));
+        when(minioHelper.openObject("files", "missing.txt")).thenThrow(new MinioStorageException("NoSuchKey"));
+        when(minioHelper.statObject("files", "cached.txt")).thenReturn(new ObjectInfo("e3", Instant.now(), 5, null));
+        when(minioHelper.openObject("files", "unknown-size.txt")).thenReturn(content("hello", -1, null));
+
+        List<ObjectKey> keys = List.of(
+                new ObjectKey("files", "a.txt", null),
+                new ObjectKey("files", "missing.txt", null),
+                new ObjectKey("files", "cached.txt", "e3"),
+                new ObjectKey("files", "unknown-size.txt", null));
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeObjects(keys, out);
+
+        // then
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(3, in.readLong());
+        assertEquals("e1", in.readUTF());
+        assertEquals("abc", new String(in.readNBytes(3), StandardCharsets.UTF_8));
+
+        assertEquals(-1, in.readLong());
+
+        assertEquals(-2, in.readLong());
+
+        assertEquals(5, in.readLong());
+        assertEquals("", in.readUTF());
+        assertEquals("hello", new String(in.readNBytes(5), StandardCharsets.UTF_8));
+
+        assertEquals(-1, in.read());
+        verify(minioHelper, never()).openObject("files", "cached.txt");
+    }
+
+    @Test
+    void writeObjects_opensObjectWhenEtagChanged() throws IOException {
+        // given
+        when(minioHelper.statObject("files", "a.txt")).thenReturn(new ObjectInfo("new", Instant.now(), 3, null));
+        when(minioHelper.openObject("files", "a.txt")).thenReturn(content("abc", 3, "new"));
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeObjects(List.of(new ObjectKey("files", "a.txt", "old")), out);
+
+        // then
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(3, in.readLong());
+        assertEquals("new", in.readUTF());
+        assertEquals("abc", new String(in.readNBytes(3), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void validate_rejectsTooManyKeys() {
+        List<ObjectKey> keys = Collections.nCopies(11, new ObjectKey("files", "a.txt", null));
+
+        assertThrows(IllegalArgumentException.class, () -> service.validate(keys));
+    }
+
+    private static ObjectContent content(String text, long size, String etag) {
+        return new ObjectContent(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), size, "text/plain", etag);
+    }
+}
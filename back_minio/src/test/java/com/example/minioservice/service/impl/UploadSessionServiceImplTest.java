@@ -0,0 +1,155 @@
+package com.example.minioservice.service.impl;
+
+import com.example.minioservice.dto.ObjectInfo;
+import com.example.minioservice.dto.ObjectKey;
+import com.example.minioservice.dto.UploadTarget;
+import com.example.minioservice.dto.UploadedObject;
+import com.example.minioservice.util.MinioHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UploadSessionServiceImplTest {
+
+    private static final String BUCKET = "expertise-answers";
+    private static final String PENDING_BUCKET = "upload-pending";
+
+    private MinioHelper minioHelper;
+    private UploadSessionServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        minioHelper = mock(MinioHelper.class);
+        service = new UploadSessionServiceImpl(minioHelper);
+        ReflectionTestUtils.setField(service, "urlExpiryMinutes", 15);
+        ReflectionTestUtils.setField(service, "maxObjects", 10);
+        ReflectionTestUtils.setField(service, "pendingBucket", PENDING_BUCKET);
+        ReflectionTestUtils.setField(service, "abandonedAfterMinutes", 60);
+        ReflectionTestUtils.setField(service, "allowedBuckets", Set.of(BUCKET, "premise-photos"));
+    }
+
+    @Test
+    void createUploadTargets_marksPendingUploads() {
+        // given
+        String objectName = objectName();
+        when(minioHelper.getUploadUrl(BUCKET, objectName, 15)).thenReturn("http://minio/upload");
+
+        // when
+        List<UploadTarget> targets = service.createUploadTargets(List.of(new ObjectKey(BUCKET, objectName, null)));
+
+        // then
+        assertEquals(1, targets.size());
+        assertEquals("http://minio/upload", targets.get(0).uploadUrl());
+        verify(minioHelper).ensureBucket(PENDING_BUCKET);
+        verify(minioHelper).putEmpty(PENDING_BUCKET, BUCKET + "/" + objectName);
+    }
+
+    @Test
+    void createUploadTargets_rejectsDisallowedBucket() {
+        // given
+        List<ObjectKey> keys = List.of(
+                new ObjectKey(BUCKET, objectName(), null),
+                new ObjectKey("expertise-templates", objectName(), null));
+
+        // when / then
+        // Ключи проверяются до выдачи ссылок: по запросу не создается ни одной отметки
+        assertThrows(IllegalArgumentException.class, () -> service.createUploadTargets(keys));
+        verifyNoInteractions(minioHelper);
+    }
+
+    @Test
+    void createUploadTargets_rejectsForgedObjectName() {
+        // given
+        UUID owner = UUID.randomUUID();
+        List<String> forged = List.of(
+                "template.docx",
+                "../" + objectName(),
+                owner + "_photo/../x_" + UUID.randomUUID() + ".jpg",
+                owner + "_photo_" + UUID.randomUUID() + ".jpg/extra",
+                owner + "_photo_not-a-uuid.jpg",
+                owner + "_photo_" + UUID.randomUUID());
+
+        // when / then
+        for (String objectName : forged) {
+            List<ObjectKey> keys = List.of(new ObjectKey(BUCKET, objectName, null));
+            assertThrows(IllegalArgumentException.class, () -> service.createUploadTargets(keys), objectName);
+        }
+        verifyNoInteractions(minioHelper);
+    }
+
+    @Test
+    void createUploadTargets_rejectsTooManyObjects() {
+        // given
+        ReflectionTestUtils.setField(service, "maxObjects", 1);
+        List<ObjectKey> keys = List.of(new ObjectKey(BUCKET, objectName(), null), new ObjectKey(BUCKET, objectName(), null));
+
+        // when / then
+        assertThrows(IllegalArgumentException.class, () -> service.createUploadTargets(keys));
+        verifyNoInteractions(minioHelper);
+    }
+
+    @Test
+    void completeUploads_skipsObjectThatWasNotUploaded() {
+        // given
+        String uploadedName = objectName();
+        String missingName = objectName();
+        when(minioHelper.findObject(BUCKET, uploadedName)).thenReturn(new ObjectInfo("e1", Instant.now(), 42, "image/jpeg"));
+        when(minioHelper.findObject(BUCKET, missingName)).thenReturn(null);
+        when(minioHelper.getUploadedObjectUrl(BUCKET, uploadedName)).thenReturn("http://minio/file");
+
+        // when
+        List<UploadedObject> uploaded = service.completeUploads(List.of(
+                new ObjectKey(BUCKET, missingName, null),
+                new ObjectKey(BUCKET, uploadedName, null)));
+
+        // then
+        // Результат сохраняет порядок ключей; отметка незагруженного объекта остается до очистки
+        assertEquals(2, uploaded.size());
+        assertNull(uploaded.get(0));
+        assertEquals("e1", uploaded.get(1).etag());
+        assertEquals(42, uploaded.get(1).size());
+        verify(minioHelper).deleteObjects(PENDING_BUCKET, List.of(BUCKET + "/" + uploadedName));
+        verify(minioHelper, never()).getUploadedObjectUrl(BUCKET, missingName);
+    }
+
+    @Test
+    void completeUploads_keepsMarkersWhenNothingWasUploaded() {
+        // given
+        String missingName = objectName();
+        when(minioHelper.findObject(BUCKET, missingName)).thenReturn(null);
+
+        // when
+        List<UploadedObject> uploaded = service.completeUploads(List.of(new ObjectKey(BUCKET, missingName, null)));
+
+        // then
+        assertEquals(1, uploaded.size());
+        assertNull(uploaded.get(0));
+        verify(minioHelper, never()).deleteObjects(anyString(), any());
+    }
+
+    @Test
+    void completeUploads_rejectsForgedObjectName() {
+        // given
+        List<ObjectKey> keys = List.of(new ObjectKey(BUCKET, "../" + objectName(), null));
+
+        // when / then
+        assertThrows(IllegalArgumentException.class, () -> service.completeUploads(keys));
+        verifyNoInteractions(minioHelper);
+    }
+
+    /**
+     * Имя объекта в формате, который формирует сервис экспертиз
+     */
+    private static String objectName() {
+        return UUID.randomUUID() + "_photo_" + UUID.randomUUID() + ".jpg";
+    }
+}